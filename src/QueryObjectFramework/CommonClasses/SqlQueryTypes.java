@@ -18,7 +18,9 @@ public enum SqlQueryTypes {
 	DROP_TABLE("DROP TABLE"),
 	TRUNCATE_TABLE("TRUNCATE TABLE"),
 	ALTER_TABLE("ALTER TABLE"),
-	CREATE_INDEX("CREATE INDEX");
+	CREATE_INDEX("CREATE INDEX"),
+	CREATE_UNIQUE_INDEX("CREATE UNIQUE INDEX"),
+	DROP_INDEX("DROP INDEX");
 
 	private String fSqlQueryType;
 
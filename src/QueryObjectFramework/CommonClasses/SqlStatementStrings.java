@@ -25,7 +25,7 @@ public final class SqlStatementStrings {
 	public static final String SQL_TABLE_SUM = "SUM";
 	public static final String SQL_TABLE_LIKE = "LIKE";
 	public static final String SQL_TABLE_IN = "IN";
-	public static final String SQL_TABLE_NOT_IN = "NOT_IN";
+	public static final String SQL_TABLE_NOT_IN = "NOT IN";
 	public static final String SQL_TABLE_BETWEEN = "BETWEEN";
 	public static final String SQL_TABLE_INNER_JOIN = "INNER JOIN";
 	public static final String SQL_TABLE_ON = "ON";
@@ -34,7 +34,15 @@ public final class SqlStatementStrings {
 	public static final String SQL_TABLE_FULL_JOIN = "FULL OUTER JOIN";
 	public static final String SQL_TABLE_ANY = "ANY";
 	public static final String SQL_TABLE_ALL = "ALL";
+	public static final String SQL_TABLE_EXISTS = "EXISTS";
 	public static final String SQL_TABLE_DISTINCT = "DISTINCT";
+	public static final String SQL_TABLE_STRAIGHT_JOIN = "STRAIGHT_JOIN";
+	public static final String SQL_TABLE_USE_INDEX = "USE INDEX";
+	public static final String SQL_TABLE_FORCE_INDEX = "FORCE INDEX";
+	public static final String SQL_TABLE_IGNORE_INDEX = "IGNORE INDEX";
+	public static final String SQL_TABLE_OPTIMIZER_HINT_START = "/*+";
+	public static final String SQL_TABLE_OPTIMIZER_HINT_END = "*/";
+	public static final String SQL_TABLE_LIMIT = "LIMIT";
 
 	/*
 	 * Specific database SQL state strings
@@ -57,5 +65,24 @@ public final class SqlStatementStrings {
 	public static final String SQL_DATABASE_DROP_CHECK = "DROP CHECK";
 	public static final String SQL_DATABASE_CHECK = "CHECK";
 	public static final String SQL_DATABASE_MULTIPLE_CHECK_COLUMNS = "CHK_";
+	public static final String SQL_DATABASE_INDEX_COLUMNS = "IDX_";
+	public static final String SQL_DATABASE_RENAME_TABLE = "RENAME TABLE";
+	public static final String SQL_DATABASE_CREATE_TRIGGER = "CREATE TRIGGER";
+	public static final String SQL_DATABASE_DROP_TRIGGER = "DROP TRIGGER IF EXISTS";
+	public static final String SQL_DATABASE_PARTITION_BY = "PARTITION BY";
+	public static final String SQL_DATABASE_PARTITION = "PARTITION";
+	public static final String SQL_DATABASE_PARTITIONS = "PARTITIONS";
+	public static final String SQL_DATABASE_PARTITION_RANGE = "RANGE";
+	public static final String SQL_DATABASE_PARTITION_RANGE_COLUMNS = "RANGE COLUMNS";
+	public static final String SQL_DATABASE_PARTITION_LIST = "LIST";
+	public static final String SQL_DATABASE_PARTITION_LIST_COLUMNS = "LIST COLUMNS";
+	public static final String SQL_DATABASE_PARTITION_HASH = "HASH";
+	public static final String SQL_DATABASE_PARTITION_KEY = "KEY";
+	public static final String SQL_DATABASE_VALUES_LESS_THAN = "VALUES LESS THAN";
+	public static final String SQL_DATABASE_VALUES_IN = "VALUES IN";
+	public static final String SQL_DATABASE_ADD_PARTITION = "ADD PARTITION";
+	public static final String SQL_DATABASE_DROP_PARTITION = "DROP PARTITION";
+	public static final String SQL_DATABASE_REORGANIZE_PARTITION = "REORGANIZE PARTITION";
+	public static final String SQL_DATABASE_INTO = "INTO";
 
 }
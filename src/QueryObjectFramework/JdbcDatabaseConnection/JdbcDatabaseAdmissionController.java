@@ -0,0 +1,377 @@
+package QueryObjectFramework.JdbcDatabaseConnection;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Admission controller class limits the amount of statements executed on a
+ * database at the same time, so the database keeps its peak throughput under
+ * load instead of collapsing.
+ *
+ * <example>
+ *  jdbcDbConn.setAdmissionController(new JdbcDatabaseAdmissionController());
+ *
+ *  JdbcDatabaseAdmissionController.setCurrentPriority(JdbcDatabaseAdmissionPriority.LOW);
+ *  ResultSet report = jdbcDbConn.executeQueryObject(reportSql);
+ *  JdbcDatabaseAdmissionController.setCurrentPriority(JdbcDatabaseAdmissionPriority.NORMAL);
+ * </example>
+ *
+ * The concurrency limit adapts to observed latency by additive increase and
+ * multiplicative decrease (AIMD):
+ * - The no-load latency is the lowest latency seen, slowly drifting towards
+ *   newer latencies, so a changed baseline is learned.
+ * - A statement finishing within latency tolerance times the no-load latency
+ *   while the limit is used raises the limit by 1/limit, about one statement
+ *   per limit worth of statements.
+ * - A slower statement, a query timeout or a transient error lowers the limit
+ *   by the backoff ratio, at most once per latency of the failed statement.
+ *
+ * Statements over the limit wait in a bounded queue in priority order, see
+ * JdbcDatabaseAdmissionPriority. Statements are rejected at once if their
+ * priority is not queued or the queue is full, and after waiting the max queue
+ * wait or the remaining time of the current JdbcDatabaseDeadline.
+ *
+ * NOTE: The admission priority is a setting of the current thread, statements
+ * of other threads keep their own priority.
+ *
+ * @author Bohui Axelsson
+ */
+public class JdbcDatabaseAdmissionController {
+	private static final Logger LOGGER = Logger.getLogger(JdbcDatabaseAdmissionController.class.getName());
+
+	private static final int DEFAULT_INITIAL_LIMIT = 20;
+	private static final int DEFAULT_MIN_LIMIT = 4;
+	private static final int DEFAULT_MAX_LIMIT = 200;
+	private static final int DEFAULT_MAX_QUEUE_LENGTH = 100;
+	private static final long DEFAULT_MAX_QUEUE_WAIT_MILLIS = 1000;
+	private static final double DEFAULT_LATENCY_TOLERANCE = 2.0;
+	private static final double DEFAULT_BACKOFF_RATIO = 0.9;
+
+	/*
+	 * Weight of a new latency in the drifting no-load latency
+	 */
+	private static final double NO_LOAD_LATENCY_DRIFT = 0.01;
+
+	private static final ThreadLocal<JdbcDatabaseAdmissionPriority> CURRENT_PRIORITY = new ThreadLocal<>();
+
+	private final int fMinLimit;
+	private final int fMaxLimit;
+	private final int fMaxQueueLength;
+	private volatile long fMaxQueueWaitMillis = DEFAULT_MAX_QUEUE_WAIT_MILLIS;
+	private volatile double fLatencyTolerance = DEFAULT_LATENCY_TOLERANCE;
+	private volatile double fBackoffRatio = DEFAULT_BACKOFF_RATIO;
+
+	/*
+	 * Admission state, guarded by this
+	 */
+	private double fLimit;
+	private int fInFlight = 0;
+	private double fNoLoadLatencyNanos = 0;
+	private long fLastDecreaseNanos = 0;
+	private long fWaiterSequence = 0;
+	private long fRejectedAmount = 0;
+	private final List<Waiter> fWaiters = new ArrayList<>();
+
+	/**
+	 * Statement waiting for admission
+	 */
+	private static final class Waiter {
+		private final JdbcDatabaseAdmissionPriority fPriority;
+		private final long fSequence;
+		private boolean fAdmitted = false;
+		private boolean fRejected = false;
+
+		private Waiter(JdbcDatabaseAdmissionPriority priority, long sequence) {
+			fPriority = priority;
+			fSequence = sequence;
+		}
+
+		private boolean isAhead(Waiter otherWaiter) {
+			if (fPriority != otherWaiter.fPriority) {
+				return fPriority.ordinal() < otherWaiter.fPriority.ordinal();
+			}
+			return fSequence < otherWaiter.fSequence;
+		}
+	}
+
+	/**
+	 * Create an admission controller with initial limit 20, limits between 4
+	 * and 200 statements, and a queue of 100 statements.
+	 */
+	public JdbcDatabaseAdmissionController() {
+		this(DEFAULT_INITIAL_LIMIT, DEFAULT_MIN_LIMIT, DEFAULT_MAX_LIMIT, DEFAULT_MAX_QUEUE_LENGTH);
+	}
+
+	/**
+	 * Create an admission controller.
+	 *
+	 * @param initialLimit
+	 * 			Concurrency limit until latencies are observed
+	 * @param minLimit
+	 * 			Lowest concurrency limit
+	 * @param maxLimit
+	 * 			Highest concurrency limit, for example the connection limit of the
+	 * 			database server.
+	 * @param maxQueueLength
+	 * 			Max amount of statements waiting for admission
+	 */
+	public JdbcDatabaseAdmissionController(int initialLimit, int minLimit, int maxLimit, int maxQueueLength) {
+		fMinLimit = Math.max(1, minLimit);
+		fMaxLimit = Math.max(fMinLimit, maxLimit);
+		fMaxQueueLength = Math.max(0, maxQueueLength);
+		fLimit = Math.min(fMaxLimit, Math.max(fMinLimit, initialLimit));
+	}
+
+	/**
+	 * Set admission priority of statements executed by the current thread.
+	 *
+	 * @param priority
+	 * 			Admission priority, NORMAL by default.
+	 */
+	public static void setCurrentPriority(JdbcDatabaseAdmissionPriority priority) {
+		if (priority == null || priority == JdbcDatabaseAdmissionPriority.NORMAL) {
+			CURRENT_PRIORITY.remove();
+		} else {
+			CURRENT_PRIORITY.set(priority);
+		}
+	}
+
+	public static JdbcDatabaseAdmissionPriority getCurrentPriority() {
+		JdbcDatabaseAdmissionPriority priority = CURRENT_PRIORITY.get();
+		return priority == null ? JdbcDatabaseAdmissionPriority.NORMAL : priority;
+	}
+
+	/**
+	 * Set max waiting time of queued statements.
+	 *
+	 * @param maxQueueWaitMillis
+	 * 			Max waiting time in milliseconds
+	 */
+	public void setMaxQueueWaitMillis(long maxQueueWaitMillis) {
+		fMaxQueueWaitMillis = Math.max(0, maxQueueWaitMillis);
+	}
+
+	/**
+	 * Set latency tolerance, statements slower than latency tolerance times the
+	 * no-load latency lower the concurrency limit.
+	 *
+	 * @param latencyTolerance
+	 * 			Latency tolerance, at least 1.0, 2.0 by default.
+	 */
+	public void setLatencyTolerance(double latencyTolerance) {
+		fLatencyTolerance = Math.max(1.0, latencyTolerance);
+	}
+
+	/**
+	 * Set backoff ratio the concurrency limit is multiplied with on overload.
+	 *
+	 * @param backoffRatio
+	 * 			Backoff ratio between 0.5 and 1.0, 0.9 by default.
+	 */
+	public void setBackoffRatio(double backoffRatio) {
+		fBackoffRatio = Math.min(1.0, Math.max(0.5, backoffRatio));
+	}
+
+	public synchronized int getLimit() {
+		return (int) fLimit;
+	}
+
+	public synchronized int getInFlight() {
+		return fInFlight;
+	}
+
+	public synchronized int getQueueLength() {
+		return fWaiters.size();
+	}
+
+	public synchronized long getRejectedAmount() {
+		return fRejectedAmount;
+	}
+
+	/**
+	 * Admit a statement of the current thread priority, waiting in the queue if
+	 * the concurrency limit is reached. Each admitted statement must be released
+	 * once it has finished.
+	 *
+	 * @return True if the statement is admitted, false if it is rejected.
+	 */
+	protected boolean admit() {
+		return admit(getCurrentPriority());
+	}
+
+	/**
+	 * Admit a statement, see admit().
+	 *
+	 * @param priority
+	 * 			Admission priority
+	 * @return True if the statement is admitted, false if it is rejected.
+	 */
+	protected synchronized boolean admit(JdbcDatabaseAdmissionPriority priority) {
+		if (fInFlight < priorityLimit(priority) && !hasWaiterAhead(priority)) {
+			fInFlight++;
+			return true;
+		}
+		if (!priority.queued()) {
+			return reject();
+		}
+		if (fWaiters.size() >= fMaxQueueLength && !evictLastWaiterBehind(priority)) {
+			return reject();
+		}
+
+		Waiter waiter = new Waiter(priority, fWaiterSequence++);
+		fWaiters.add(waiter);
+		long waitNanos = TimeUnit.MILLISECONDS
+				.toNanos(Math.min(fMaxQueueWaitMillis, JdbcDatabaseDeadline.getCurrentRemainingMillis()));
+		long waitEndNanos = System.nanoTime() + waitNanos;
+		try {
+			while (!waiter.fAdmitted && !waiter.fRejected) {
+				long remainingNanos = waitEndNanos - System.nanoTime();
+				if (remainingNanos <= 0) {
+					fWaiters.remove(waiter);
+					return reject();
+				}
+				TimeUnit.NANOSECONDS.timedWait(this, remainingNanos);
+			}
+		} catch (InterruptedException interruptedException) {
+			Thread.currentThread().interrupt();
+			if (waiter.fAdmitted) {
+				/*
+				 * Admitted while being interrupted, hand the admission on.
+				 */
+				fInFlight--;
+				admitWaiters();
+			}
+			fWaiters.remove(waiter);
+			LOGGER.severe("Failed to admit statement, waiting is interrupted.");
+			return reject();
+		}
+		return waiter.fAdmitted ? true : reject();
+	}
+
+	/**
+	 * Release an admitted statement and adapt the concurrency limit to its
+	 * latency.
+	 *
+	 * @param latencyNanos
+	 * 			Execution time of the statement in nanoseconds
+	 * @param overloaded
+	 * 			True if the statement failed by a query timeout or a transient
+	 * 			error.
+	 */
+	protected synchronized void release(long latencyNanos, boolean overloaded) {
+		fInFlight = Math.max(0, fInFlight - 1);
+		if (overloaded) {
+			decreaseLimit(latencyNanos);
+		} else {
+			if (fNoLoadLatencyNanos == 0 || latencyNanos < fNoLoadLatencyNanos) {
+				fNoLoadLatencyNanos = latencyNanos;
+			} else {
+				fNoLoadLatencyNanos += (latencyNanos - fNoLoadLatencyNanos) * NO_LOAD_LATENCY_DRIFT;
+			}
+			if (latencyNanos > fNoLoadLatencyNanos * fLatencyTolerance) {
+				decreaseLimit(latencyNanos);
+			} else if (fInFlight + 1 >= fLimit / 2) {
+				/*
+				 * Only raised while the limit is used, an idle database tells
+				 * nothing about a higher limit.
+				 */
+				fLimit = Math.min(fMaxLimit, fLimit + 1.0 / fLimit);
+			}
+		}
+		admitWaiters();
+	}
+
+	/**
+	 * Release an admitted statement without adapting the concurrency limit, for
+	 * statements whose execution time depends on the caller, such as cursors.
+	 */
+	protected synchronized void release() {
+		fInFlight = Math.max(0, fInFlight - 1);
+		admitWaiters();
+	}
+
+	/**
+	 * Lower the concurrency limit, at most once per latency of the statement,
+	 * so statements started before the last decrease do not lower it again.
+	 *
+	 * @param latencyNanos
+	 * 			Execution time of the statement in nanoseconds
+	 */
+	private void decreaseLimit(long latencyNanos) {
+		long nowNanos = System.nanoTime();
+		if (fLastDecreaseNanos != 0 && nowNanos - fLastDecreaseNanos < latencyNanos) {
+			return;
+		}
+		fLastDecreaseNanos = nowNanos;
+		fLimit = Math.max(fMinLimit, fLimit * fBackoffRatio);
+		LOGGER.fine("Lowered admission limit to " + (int) fLimit + " statements.");
+	}
+
+	/**
+	 * Admit waiting statements in priority order while the concurrency limit
+	 * allows.
+	 */
+	private void admitWaiters() {
+		boolean admitted = false;
+		while (!fWaiters.isEmpty()) {
+			Waiter firstWaiter = fWaiters.get(0);
+			for (Waiter waiter : fWaiters) {
+				if (waiter.isAhead(firstWaiter)) {
+					firstWaiter = waiter;
+				}
+			}
+			if (fInFlight >= priorityLimit(firstWaiter.fPriority)) {
+				break;
+			}
+			fWaiters.remove(firstWaiter);
+			firstWaiter.fAdmitted = true;
+			fInFlight++;
+			admitted = true;
+		}
+		if (admitted) {
+			notifyAll();
+		}
+	}
+
+	/**
+	 * Reject the last waiting statement of a lower priority, so a statement of
+	 * priority can take its place in the full queue.
+	 *
+	 * @return True if a waiting statement has been rejected.
+	 */
+	private boolean evictLastWaiterBehind(JdbcDatabaseAdmissionPriority priority) {
+		Waiter lastWaiter = null;
+		for (Waiter waiter : fWaiters) {
+			if (waiter.fPriority.ordinal() > priority.ordinal() && (lastWaiter == null || lastWaiter.isAhead(waiter))) {
+				lastWaiter = waiter;
+			}
+		}
+		if (lastWaiter == null) {
+			return false;
+		}
+		fWaiters.remove(lastWaiter);
+		lastWaiter.fRejected = true;
+		notifyAll();
+		return true;
+	}
+
+	private boolean hasWaiterAhead(JdbcDatabaseAdmissionPriority priority) {
+		for (Waiter waiter : fWaiters) {
+			if (waiter.fPriority.ordinal() <= priority.ordinal()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private int priorityLimit(JdbcDatabaseAdmissionPriority priority) {
+		return Math.max(1, (int) (fLimit * priority.limitShare()));
+	}
+
+	private boolean reject() {
+		fRejectedAmount++;
+		return false;
+	}
+}
@@ -0,0 +1,36 @@
+package QueryObjectFramework.JdbcDatabaseConnection;
+
+/**
+ * Admission priority enum of statements, see JdbcDatabaseAdmissionController.
+ *
+ * Each priority may use a share of the concurrency limit, the rest is kept
+ * free for higher priorities:
+ * - CRITICAL statements use the whole limit, wait in the queue ahead of all
+ *   other statements and push NORMAL statements out of a full queue.
+ * - NORMAL statements use 90% of the limit and wait in the queue.
+ * - LOW statements use 75% of the limit and are rejected at once instead of
+ *   waiting, for example background reports and exports.
+ *
+ * @author Bohui Axelsson
+ */
+public enum JdbcDatabaseAdmissionPriority {
+	CRITICAL(1.0, true),
+	NORMAL(0.9, true),
+	LOW(0.75, false);
+
+	private final double fLimitShare;
+	private final boolean fQueued;
+
+	private JdbcDatabaseAdmissionPriority(double limitShare, boolean queued) {
+		fLimitShare = limitShare;
+		fQueued = queued;
+	}
+
+	protected double limitShare() {
+		return fLimitShare;
+	}
+
+	protected boolean queued() {
+		return fQueued;
+	}
+}
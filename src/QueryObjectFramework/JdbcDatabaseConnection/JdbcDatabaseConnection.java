@@ -4,11 +4,37 @@ import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.DriverManager;
 import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
 import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Logger;
 
-import QueryObjectFramework.CommonClasses.ExeState;
+import javax.sql.rowset.CachedRowSet;
+import javax.sql.rowset.RowSetFactory;
+import javax.sql.rowset.RowSetMetaDataImpl;
+import javax.sql.rowset.RowSetProvider;
+
+import org.eclipse.jdt.annotation.NonNull;
+
+import QueryObjectFramework.CommonClasses.SqlQueryTypes;
+import QueryObjectFramework.QueryObjectDBTableStatements.QueryObjectDBTableIndexAdvisor;
 
 /**
  * JDBC database connection class.
@@ -18,6 +44,78 @@ import QueryObjectFramework.CommonClasses.ExeState;
 public class JdbcDatabaseConnection {
 	private static final Logger LOGGER = Logger.getLogger(JdbcDatabaseConnection.class.getName());
 
+	/*
+	 * Database URL property enabling multi-statement requests on MYSQL
+	 * Connector/J, compared in lower case.
+	 */
+	private static final String MULTI_STATEMENTS_URL_PROPERTY = "allowmultiqueries=true";
+
+	/*
+	 * Idle connections idle for longer are validated before reuse, the database
+	 * server may have closed them meanwhile.
+	 */
+	private static final long IDLE_CONNECTION_VALIDATION_NANOS = TimeUnit.SECONDS.toNanos(10);
+	private static final int IDLE_CONNECTION_VALIDATION_TIMEOUT_SECONDS = 1;
+
+	/*
+	 * Cancels statements running longer than their query timeout, one daemon
+	 * thread shared by all connections.
+	 */
+	private static final ScheduledThreadPoolExecutor QUERY_TIMEOUT_EXECUTOR = new ScheduledThreadPoolExecutor(1,
+			new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable runnable) {
+					Thread thread = new Thread(runnable, "JdbcDatabaseConnection-timeout");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+	static {
+		QUERY_TIMEOUT_EXECUTOR.setRemoveOnCancelPolicy(true);
+	}
+
+	/*
+	 * Runs asynchronous executions of all connections
+	 */
+	private static final ExecutorService ASYNC_EXECUTOR = Executors.newCachedThreadPool(new ThreadFactory() {
+		private final AtomicInteger fThreadNumber = new AtomicInteger();
+
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, "JdbcDatabaseConnection-async-" + fThreadNumber.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	});
+
+	/*
+	 * True if the last batch of the thread failed after its commit was sent, see
+	 * isLastBatchOutcomeUnknown().
+	 */
+	private static final ThreadLocal<Boolean> LAST_BATCH_OUTCOME_UNKNOWN = new ThreadLocal<>();
+
+	/*
+	 * Copies SQL execution results into a CachedRowSet, so results stay readable
+	 * after the database connection is closed.
+	 */
+	private static final JdbcDatabaseResultSetHandler<ResultSet> CACHED_RESULT_SET_HANDLER =
+			new JdbcDatabaseResultSetHandler<ResultSet>() {
+				private volatile RowSetFactory fRowSetFactory = null;
+
+				@Override
+				public ResultSet handleResultSet(ResultSet results) throws SQLException {
+					if (results == null) {
+						return null;
+					}
+					if (fRowSetFactory == null) {
+						fRowSetFactory = RowSetProvider.newFactory();
+					}
+					CachedRowSet cachedResults = fRowSetFactory.createCachedRowSet();
+					cachedResults.populate(results);
+					return cachedResults;
+				}
+			};
+
 	/*
 	 * JDBC driver name and database URL
 	 */
@@ -31,10 +129,61 @@ public class JdbcDatabaseConnection {
 	private String fPass = null;
 
 	/*
-	 * Database connection
+	 * JDBC driver name registered by Class.forName(), null until the first
+	 * connection is opened.
+	 */
+	private volatile String fRegisteredJdbcDriver = null;
+
+	/*
+	 * Idle connection pool, most recently used connection first. Disabled with
+	 * max idle connections 0, every execution then opens a new connection.
+	 */
+	private final @NonNull ConcurrentLinkedDeque<IdleConnection> fIdleConnections = new ConcurrentLinkedDeque<>();
+	private volatile int fMaxIdleConnections = 0;
+
+	/*
+	 * Retry policy of statements failed by transient errors
+	 */
+	private @NonNull JdbcDatabaseRetryPolicy fRetryPolicy = new JdbcDatabaseRetryPolicy();
+
+	/*
+	 * Query timeout of each statement in milliseconds, 0 if statements have no
+	 * time limit.
+	 */
+	private volatile long fQueryTimeoutMillis = 0;
+
+	/*
+	 * Index advisor that records column usages of query objects, null if
+	 * disabled.
 	 */
-	private Connection fConn = null;
-	private Statement fStatement = null;
+	private QueryObjectDBTableIndexAdvisor fIndexAdvisor = null;
+
+	/*
+	 * Schema metadata cache for client side validation, null if disabled.
+	 */
+	private JdbcDatabaseSchemaCache fSchemaCache = null;
+
+	/*
+	 * Table statistics for sizing operations, null if disabled.
+	 */
+	private JdbcDatabaseTableStatistics fTableStatistics = null;
+
+	/*
+	 * Admission controller limiting concurrent statements, null if disabled.
+	 */
+	private volatile JdbcDatabaseAdmissionController fAdmissionController = null;
+
+	/**
+	 * Connection kept in the idle connection pool
+	 */
+	private static final class IdleConnection {
+		private final @NonNull Connection fConn;
+		private final long fIdleSinceNanos = System.nanoTime();
+
+		private IdleConnection(@NonNull Connection conn) {
+			fConn = conn;
+		}
+	}
 
 	/**
 	 * Constructor of JDBC database connection class,
@@ -73,6 +222,7 @@ public class JdbcDatabaseConnection {
 		fDbUrl = dbUrl;
 		fUser = user;
 		fPass = pass;
+		closeIdleConnections();
 	}
 
 	/**
@@ -88,6 +238,7 @@ public class JdbcDatabaseConnection {
 		fDbUrl = dbUrl;
 		fUser = null;
 		fPass = null;
+		closeIdleConnections();
 	}
 
 	/**
@@ -100,146 +251,1131 @@ public class JdbcDatabaseConnection {
 	}
 
 	/**
-	 * Execute SQL statement.
+	 * Set index advisor for query objects using this JDBC connection, setting
+	 * null to disable index advising.
+	 *
+	 * @param indexAdvisor
+	 * 			Index advisor
+	 */
+	public void setIndexAdvisor(QueryObjectDBTableIndexAdvisor indexAdvisor) {
+		fIndexAdvisor = indexAdvisor;
+	}
+
+	/**
+	 * Get index advisor of this JDBC connection.
+	 *
+	 * @return Index advisor or NULL if index advising is disabled.
+	 */
+	public QueryObjectDBTableIndexAdvisor getIndexAdvisor() {
+		return fIndexAdvisor;
+	}
+
+	/**
+	 * Set schema metadata cache for query objects using this JDBC connection,
+	 * setting null to disable client side validation.
+	 *
+	 * @param schemaCache
+	 * 			Schema metadata cache
+	 */
+	public void setSchemaCache(JdbcDatabaseSchemaCache schemaCache) {
+		fSchemaCache = schemaCache;
+	}
+
+	/**
+	 * Get schema metadata cache of this JDBC connection.
+	 *
+	 * @return Schema metadata cache or NULL if disabled.
+	 */
+	public JdbcDatabaseSchemaCache getSchemaCache() {
+		return fSchemaCache;
+	}
+
+	/**
+	 * Set table statistics for operations sizing their work by table sizes,
+	 * setting null to disable.
+	 *
+	 * @param tableStatistics
+	 * 			Table statistics
+	 */
+	public void setTableStatistics(JdbcDatabaseTableStatistics tableStatistics) {
+		fTableStatistics = tableStatistics;
+	}
+
+	/**
+	 * Get table statistics of this JDBC connection.
+	 *
+	 * @return Table statistics or NULL if disabled.
+	 */
+	public JdbcDatabaseTableStatistics getTableStatistics() {
+		return fTableStatistics;
+	}
+
+	/**
+	 * Set admission controller limiting the amount of statements executed on
+	 * the database of this JDBC connection at the same time, setting null to
+	 * disable.
+	 *
+	 * Each execution attempt is admitted separately, waiting for a retry does
+	 * not hold an admission. A rejected statement fails like a statement
+	 * failed by a permanent error.
+	 *
+	 * NOTE: A cursor is admitted when it is opened and holds its admission
+	 * until it is closed, the time a cursor is open does not adapt the
+	 * concurrency limit.
+	 *
+	 * TIP: Open cursors of background reports and exports with LOW priority, so
+	 * slow readers can not hold the whole concurrency limit.
+	 *
+	 * @param admissionController
+	 * 			Admission controller
+	 */
+	public void setAdmissionController(JdbcDatabaseAdmissionController admissionController) {
+		fAdmissionController = admissionController;
+	}
+
+	/**
+	 * Get admission controller of this JDBC connection.
+	 *
+	 * @return Admission controller or NULL if disabled.
+	 */
+	public JdbcDatabaseAdmissionController getAdmissionController() {
+		return fAdmissionController;
+	}
+
+	/**
+	 * Invalidate cached schema metadata and table statistics of a table after a
+	 * DDL statement has been issued on it.
+	 *
+	 * @param tableName
+	 * 			Table name
+	 */
+	public void invalidateSchemaCache(@NonNull String tableName) {
+		if (fSchemaCache != null) {
+			fSchemaCache.invalidate(tableName);
+		}
+		if (fTableStatistics != null) {
+			fTableStatistics.invalidate();
+		}
+	}
+
+	/**
+	 * Set retry policy for statements failed by transient errors, see
+	 * JdbcDatabaseErrorClassifier.
+	 *
+	 * @param retryPolicy
+	 * 			Retry policy, JdbcDatabaseRetryPolicy.noRetry() to disable retry.
+	 */
+	public void setRetryPolicy(@NonNull JdbcDatabaseRetryPolicy retryPolicy) {
+		fRetryPolicy = retryPolicy;
+	}
+
+	public @NonNull JdbcDatabaseRetryPolicy getRetryPolicy() {
+		return fRetryPolicy;
+	}
+
+	/**
+	 * Set query timeout of each statement executed on this connection, a
+	 * statement running longer is cancelled on the database server.
+	 *
+	 * Statements executed within a JdbcDatabaseDeadline get the remaining time
+	 * of the deadline if it is shorter.
+	 *
+	 * NOTE: The query timeout limits each execution attempt, retries of
+	 * transient errors start with a new query timeout.
+	 *
+	 * @param queryTimeoutMillis
+	 * 			Query timeout in milliseconds, 0 for no time limit
+	 */
+	public void setQueryTimeoutMillis(long queryTimeoutMillis) {
+		fQueryTimeoutMillis = Math.max(0, queryTimeoutMillis);
+	}
+
+	public long getQueryTimeoutMillis() {
+		return fQueryTimeoutMillis;
+	}
+
+	/**
+	 * Set max amount of idle connections kept open for reuse, instead of
+	 * opening a new connection per execution. Connections are only reused after
+	 * successful executions, connections idle for more than 10 seconds are
+	 * validated before reuse.
+	 *
+	 * <example>
+	 *  jdbcDbConn.setMaxIdleConnections(8);
+	 *  new JdbcDatabaseWarmup(jdbcDbConn).warmUp();
+	 * </example>
+	 *
+	 * NOTE: Set the max idle connections below the wait_timeout connection limit
+	 * of the database server, and close idle connections on shutdown.
+	 *
+	 * @param maxIdleConnections
+	 * 			Max idle connections, 0 to open a new connection per execution.
+	 */
+	public void setMaxIdleConnections(int maxIdleConnections) {
+		fMaxIdleConnections = Math.max(0, maxIdleConnections);
+		while (fIdleConnections.size() > fMaxIdleConnections) {
+			IdleConnection idleConnection = fIdleConnections.pollLast();
+			if (idleConnection == null) {
+				break;
+			}
+			closeDatabaseResources(idleConnection.fConn, null, null);
+		}
+	}
+
+	public int getMaxIdleConnections() {
+		return fMaxIdleConnections;
+	}
+
+	public int getIdleConnectionAmount() {
+		return fIdleConnections.size();
+	}
+
+	/**
+	 * Close all idle connections, connections in use are closed when their
+	 * execution has finished.
+	 */
+	public void closeIdleConnections() {
+		IdleConnection idleConnection;
+		while ((idleConnection = fIdleConnections.pollFirst()) != null) {
+			closeDatabaseResources(idleConnection.fConn, null, null);
+		}
+	}
+
+	/**
+	 * Check whether a SQL statement is idempotent by its statement type, only
+	 * SELECT statements are idempotent.
+	 *
+	 * @param exeSql
+	 * 			SQL string
+	 * @return True if executing the statement twice has the same effect as
+	 *         executing it once.
+	 */
+	public static boolean isIdempotentStatement(String exeSql) {
+		if (exeSql == null) {
+			return false;
+		}
+		String sqlQueryType = SqlQueryTypes.SELECT.sqlQueryType();
+		String statement = exeSql.trim();
+		return statement.regionMatches(true, 0, sqlQueryType, 0, sqlQueryType.length())
+				&& (statement.length() == sqlQueryType.length()
+						|| !Character.isLetterOrDigit(statement.charAt(sqlQueryType.length())));
+	}
+
+	/**
+	 * Build a disconnected ResultSet from rows collected on the client, for
+	 * example rows merged from several ResultSets.
+	 *
+	 * @param metaData
+	 * 			Result column metadata
+	 * @param rows
+	 * 			Rows, one value per result column
+	 * @return ResultSet containing rows
+	 * @throws SQLException
+	 * 			Failed on building the ResultSet
+	 */
+	public static ResultSet buildCachedRowSet(ResultSetMetaData metaData, List<Object[]> rows) throws SQLException {
+		return buildCachedRowSet(metaData, rows, false);
+	}
+
+	/**
+	 * Build a disconnected ResultSet from rows collected on the client.
+	 *
+	 * NOTE: Typed getters such as getDate() only convert values of columns
+	 * with matching SQL type, keep column types if all values of a column are
+	 * of the Java type mapped to the SQL type of the column.
+	 *
+	 * @param metaData
+	 * 			Result column metadata
+	 * @param rows
+	 * 			Rows, one value per result column
+	 * @param keepColumnTypes
+	 * 			True to keep the SQL column types of metaData, false to declare
+	 * 			all columns as JAVA_OBJECT.
+	 * @return ResultSet containing rows
+	 * @throws SQLException
+	 * 			Failed on building the ResultSet
+	 */
+	public static ResultSet buildCachedRowSet(ResultSetMetaData metaData, List<Object[]> rows, boolean keepColumnTypes)
+			throws SQLException {
+		int columnAmount = metaData.getColumnCount();
+		RowSetMetaDataImpl rowSetMetaData = new RowSetMetaDataImpl();
+		rowSetMetaData.setColumnCount(columnAmount);
+		for (int column = 1; column <= columnAmount; column++) {
+			rowSetMetaData.setColumnName(column, metaData.getColumnName(column));
+			rowSetMetaData.setColumnLabel(column, metaData.getColumnLabel(column));
+			rowSetMetaData.setColumnType(column, keepColumnTypes ? metaData.getColumnType(column) : Types.JAVA_OBJECT);
+			rowSetMetaData.setNullable(column, ResultSetMetaData.columnNullable);
+		}
+
+		CachedRowSet mergedResults = RowSetProvider.newFactory().createCachedRowSet();
+		mergedResults.setMetaData(rowSetMetaData);
+		for (Object[] row : rows) {
+			mergedResults.moveToInsertRow();
+			for (int column = 0; column < columnAmount; column++) {
+				mergedResults.updateObject(column + 1, row[column]);
+			}
+			mergedResults.insertRow();
+			mergedResults.moveToCurrentRow();
+			/*
+			 * Rows are inserted at the cursor, keep the cursor on the last row so rows
+			 * keep their order.
+			 */
+			mergedResults.last();
+		}
+		mergedResults.beforeFirst();
+		return mergedResults;
+	}
+
+	/**
+	 * Execute SQL statement, SELECT statements are retried on transient
+	 * errors.
 	 *
 	 * @param exeSql
 	 * 			SQL string
 	 * @return ResultSet
-	 * 			SQL execution results
+	 * 			SQL execution results, disconnected from the database, or NULL if
+	 * 			execution failed or the statement returns no results.
 	 */
 	public ResultSet executeQueryObject(String exeSql) {
-		getDatabaseStatement();
+		return executeQueryObject(exeSql, isIdempotentStatement(exeSql));
+	}
 
-		ResultSet results = null;
-		try {
-			results = fStatement.executeQuery(exeSql);
-		} catch (SQLException executeQueryObjectException) {
-			LOGGER.severe("Failed to execute sql. Datails: " + executeQueryObjectException.getMessage());
-		} finally {
-			if (results != null) {
-				try {
-					results.close();
-				} catch (SQLException closeResultSetException) {
-					LOGGER.severe("Failed to close resultSets. Datails: " + closeResultSetException.getMessage());
+	/**
+	 * Execute SQL statement, idempotent statements are retried on transient
+	 * errors.
+	 *
+	 * @param exeSql
+	 * 			SQL string
+	 * @param idempotent
+	 * 			True if executing the statement twice has the same effect as
+	 * 			executing it once.
+	 * @return ResultSet
+	 * 			SQL execution results, disconnected from the database, or NULL if
+	 * 			execution failed or the statement returns no results.
+	 */
+	public ResultSet executeQueryObject(String exeSql, boolean idempotent) {
+		return executeQueryObject(exeSql, idempotent, CACHED_RESULT_SET_HANDLER);
+	}
+
+	/**
+	 * Execute SQL statement on a new database connection, and consume the live
+	 * ResultSet with a result set handler before the connection is closed.
+	 * SELECT statements are retried on transient errors.
+	 *
+	 * @param exeSql
+	 * 			SQL string
+	 * @param resultSetHandler
+	 * 			Handler consuming SQL execution results
+	 * @return Value produced by resultSetHandler, or NULL if execution failed.
+	 */
+	public <T> T executeQueryObject(String exeSql, @NonNull JdbcDatabaseResultSetHandler<T> resultSetHandler) {
+		return executeQueryObject(exeSql, isIdempotentStatement(exeSql), resultSetHandler);
+	}
+
+	/**
+	 * Execute SQL statement on a new database connection, and consume the live
+	 * ResultSet with a result set handler before the connection is closed.
+	 *
+	 * Executions failed by transient errors are retried with jittered
+	 * exponential backoff of the retry policy:
+	 * - Idempotent statements are retried on any transient error.
+	 * - Other statements are only retried if they failed before being sent to
+	 *   the database server, for example on opening the connection, because a
+	 *   lost reply does not tell whether a write has been applied.
+	 *
+	 * NOTE: The ResultSet passed to resultSetHandler is NULL if the statement
+	 * returns no results, for example INSERT, UPDATE and DDL statements.
+	 *
+	 * @param exeSql
+	 * 			SQL string
+	 * @param idempotent
+	 * 			True if executing the statement twice has the same effect as
+	 * 			executing it once.
+	 * @param resultSetHandler
+	 * 			Handler consuming SQL execution results
+	 * @return Value produced by resultSetHandler, or NULL if execution failed.
+	 */
+	public <T> T executeQueryObject(String exeSql, boolean idempotent,
+			@NonNull JdbcDatabaseResultSetHandler<T> resultSetHandler) {
+		if (fJdbcDriver == null || fDbUrl == null) {
+			LOGGER.warning("JDBC driver or database url configuration is missing.");
+			return null;
+		}
+
+		JdbcDatabaseRetryPolicy retryPolicy = fRetryPolicy;
+		JdbcDatabaseAdmissionController admissionController = fAdmissionController;
+		for (int attempt = 1;; attempt++) {
+			if (admissionController != null && !admissionController.admit()) {
+				LOGGER.severe("Failed to execute sql, rejected by admission control.");
+				return null;
+			}
+			long admittedNanos = System.nanoTime();
+			boolean overloaded = false;
+			boolean statementSent = false;
+			boolean connectionReusable = false;
+			Connection conn = null;
+			Statement statement = null;
+			ScheduledFuture<?> queryTimeout = null;
+			ResultSet results = null;
+			try {
+				conn = createDatabaseConnection();
+				statement = conn.createStatement();
+				queryTimeout = armQueryTimeout(statement);
+				statementSent = true;
+				if (statement.execute(exeSql)) {
+					results = statement.getResultSet();
 				}
+				T handledResults = resultSetHandler.handleResultSet(results);
+				connectionReusable = true;
+				return handledResults;
+			} catch (ClassNotFoundException classNotFoundExeception) {
+				LOGGER.severe("Unable to load driver class.");
+				return null;
+			} catch (SQLException executeQueryObjectException) {
+				boolean transientError = JdbcDatabaseErrorClassifier.isTransientError(executeQueryObjectException);
+				overloaded = transientError || isQueryTimeoutError(executeQueryObjectException, queryTimeout);
+				if (!transientError || (statementSent && !idempotent) || !retryPolicy.canRetry(attempt)) {
+					LOGGER.severe("Failed to execute sql on attempt " + attempt + ", "
+							+ (transientError ? "transient" : "permanent") + " error. Details: "
+							+ executeQueryObjectException.getMessage());
+					return null;
+				}
+				LOGGER.warning("Transient failure on executing sql, attempt " + attempt + " of "
+						+ retryPolicy.getMaxAttempts() + ". Details: " + executeQueryObjectException.getMessage());
+			} finally {
+				boolean timeoutDisarmed = disarmQueryTimeout(statement, queryTimeout);
+				closeDatabaseResources(conn, statement, results, connectionReusable && timeoutDisarmed);
+				if (admissionController != null) {
+					admissionController.release(System.nanoTime() - admittedNanos, overloaded);
+				}
+			}
+
+			long backoffDelayMillis = retryPolicy.getBackoffDelayMillis(attempt);
+			if (backoffDelayMillis >= JdbcDatabaseDeadline.getCurrentRemainingMillis()) {
+				LOGGER.severe("Failed to execute sql, deadline expires before retry.");
+				return null;
+			}
+			try {
+				Thread.sleep(backoffDelayMillis);
+			} catch (InterruptedException interruptedException) {
+				Thread.currentThread().interrupt();
+				LOGGER.severe("Failed to execute sql, retry is interrupted.");
+				return null;
 			}
-			closeDatabaseConnection();
 		}
+	}
 
-		return results;
+	/**
+	 * Execute SQL statements as one JDBC batch in one transaction on a new
+	 * database connection, so the batch costs one round trip and one commit.
+	 *
+	 * Batches failed by transient errors before commit are rolled back and
+	 * retried with the retry policy, a failed commit is only retried if the
+	 * batch is idempotent.
+	 *
+	 * @param exeSqls
+	 * 			SQL strings of statements returning no results, for example
+	 * 			INSERT INTO, UPDATE and DELETE statements.
+	 * @param idempotent
+	 * 			True if executing the batch twice has the same effect as executing
+	 * 			it once.
+	 * NOTE: If the commit fails after it has been sent, the batch may have been
+	 * applied. isLastBatchOutcomeUnknown() tells this apart from a rolled back
+	 * batch, for example before executing a non idempotent batch again.
+	 *
+	 * @return Update counts of the statements, or NULL if execution failed.
+	 */
+	public int[] executeBatchQueryObjects(@NonNull List<String> exeSqls, boolean idempotent) {
+		setLastBatchOutcomeUnknown(false);
+		if (fJdbcDriver == null || fDbUrl == null) {
+			LOGGER.warning("JDBC driver or database url configuration is missing.");
+			return null;
+		}
+		if (exeSqls.isEmpty()) {
+			return new int[0];
+		}
+
+		JdbcDatabaseRetryPolicy retryPolicy = fRetryPolicy;
+		JdbcDatabaseAdmissionController admissionController = fAdmissionController;
+		for (int attempt = 1;; attempt++) {
+			if (admissionController != null && !admissionController.admit()) {
+				LOGGER.severe("Failed to execute batch, rejected by admission control.");
+				return null;
+			}
+			long admittedNanos = System.nanoTime();
+			boolean overloaded = false;
+			boolean commitSent = false;
+			boolean connectionReusable = false;
+			boolean timeoutDisarmed = true;
+			Connection conn = null;
+			Statement statement = null;
+			ScheduledFuture<?> queryTimeout = null;
+			try {
+				conn = createDatabaseConnection();
+				conn.setAutoCommit(false);
+				statement = conn.createStatement();
+				for (String exeSql : exeSqls) {
+					statement.addBatch(exeSql);
+				}
+				queryTimeout = armQueryTimeout(statement);
+				int[] updateCounts = statement.executeBatch();
+				/*
+				 * Disarmed before commit, a commit is never cancelled halfway.
+				 */
+				timeoutDisarmed = disarmQueryTimeout(statement, queryTimeout);
+				queryTimeout = null;
+				commitSent = true;
+				conn.commit();
+				connectionReusable = true;
+				return updateCounts;
+			} catch (ClassNotFoundException classNotFoundExeception) {
+				LOGGER.severe("Unable to load driver class.");
+				return null;
+			} catch (SQLException executeBatchException) {
+				rollbackDatabaseConnection(conn);
+				boolean transientError = JdbcDatabaseErrorClassifier.isTransientError(executeBatchException);
+				overloaded = transientError || isQueryTimeoutError(executeBatchException, queryTimeout);
+				if (!transientError || (commitSent && !idempotent) || !retryPolicy.canRetry(attempt)) {
+					LOGGER.severe("Failed to execute batch of " + exeSqls.size() + " statements on attempt " + attempt
+							+ ", " + (transientError ? "transient" : "permanent") + " error. Details: "
+							+ executeBatchException.getMessage());
+					setLastBatchOutcomeUnknown(commitSent);
+					return null;
+				}
+				LOGGER.warning("Transient failure on executing batch, attempt " + attempt + " of "
+						+ retryPolicy.getMaxAttempts() + ". Details: " + executeBatchException.getMessage());
+			} finally {
+				timeoutDisarmed = disarmQueryTimeout(statement, queryTimeout) && timeoutDisarmed;
+				closeDatabaseResources(conn, statement, null, connectionReusable && timeoutDisarmed);
+				if (admissionController != null) {
+					admissionController.release(System.nanoTime() - admittedNanos, overloaded);
+				}
+			}
+
+			long backoffDelayMillis = retryPolicy.getBackoffDelayMillis(attempt);
+			if (backoffDelayMillis >= JdbcDatabaseDeadline.getCurrentRemainingMillis()) {
+				LOGGER.severe("Failed to execute batch, deadline expires before retry.");
+				return null;
+			}
+			try {
+				Thread.sleep(backoffDelayMillis);
+			} catch (InterruptedException interruptedException) {
+				Thread.currentThread().interrupt();
+				LOGGER.severe("Failed to execute batch, retry is interrupted.");
+				return null;
+			}
+		}
 	}
 
 	/**
-	 * Get SQL statement of DB connection.
+	 * Check whether the last executeBatchQueryObjects() of the calling thread
+	 * failed after its commit had been sent. The batch may then have been
+	 * applied, and executing a non idempotent batch again may apply it twice.
+	 *
+	 * @return True if the outcome of the last failed batch is unknown, false if
+	 *         it has been rolled back or has succeeded.
 	 */
-	private void getDatabaseStatement() {
-		getDatabaseConnection();
-		try {
-			fStatement = fConn.createStatement();
-		} catch (SQLException createStatementException) {
-			LOGGER.severe("Failed to create statement. Datails: " + createStatementException.getMessage());
-		} finally {
-			closeDatabaseConnection();
+	public static boolean isLastBatchOutcomeUnknown() {
+		return Boolean.TRUE.equals(LAST_BATCH_OUTCOME_UNKNOWN.get());
+	}
+
+	protected static void setLastBatchOutcomeUnknown(boolean outcomeUnknown) {
+		if (outcomeUnknown) {
+			LAST_BATCH_OUTCOME_UNKNOWN.set(Boolean.TRUE);
+		} else {
+			LAST_BATCH_OUTCOME_UNKNOWN.remove();
 		}
 	}
 
 	/**
-	 * Get database connection.
+	 * Execute SQL statements as one pipeline on one database connection, and
+	 * return the results of each statement.
+	 *
+	 * If the database URL enables multi-statement requests, for example
+	 * allowMultiQueries=true on MYSQL Connector/J, all statements are sent as
+	 * one request and cost one round trip:
+	 *
+	 * <example>
+	 *  SELECT * FROM Customers WHERE CustomerID=1;SELECT * FROM Orders WHERE CustomerID=1;
+	 * </example>
+	 *
+	 * Otherwise the statements are executed one after another on the same
+	 * connection, which saves opening a connection per statement but costs one
+	 * round trip per statement.
+	 *
+	 * A pipeline failed by a transient error is retried as a whole if it is
+	 * idempotent, or if it failed before being sent to the database server.
+	 *
+	 * NOTE: The query timeout limits the whole pipeline, not each statement.
+	 *
+	 * @param exeSqls
+	 * 			SQL strings, one statement each
+	 * @param idempotent
+	 * 			True if executing all statements twice has the same effect as
+	 * 			executing them once.
+	 * @return Results in statement order, disconnected from the database, with
+	 *         NULL entries for statements returning no results. NULL if any
+	 *         statement failed.
 	 */
-	private void getDatabaseConnection() {
-		if (fConn == null) {
+	public List<ResultSet> executePipelinedQueryObjects(@NonNull List<String> exeSqls, boolean idempotent) {
+		if (fJdbcDriver == null || fDbUrl == null) {
+			LOGGER.warning("JDBC driver or database url configuration is missing.");
+			return null;
+		}
+		if (exeSqls.isEmpty()) {
+			return new ArrayList<>();
+		}
+
+		boolean multiStatements = fDbUrl.toLowerCase(Locale.ROOT).contains(MULTI_STATEMENTS_URL_PROPERTY);
+		JdbcDatabaseRetryPolicy retryPolicy = fRetryPolicy;
+		JdbcDatabaseAdmissionController admissionController = fAdmissionController;
+		for (int attempt = 1;; attempt++) {
+			if (admissionController != null && !admissionController.admit()) {
+				LOGGER.severe("Failed to execute pipeline, rejected by admission control.");
+				return null;
+			}
+			long admittedNanos = System.nanoTime();
+			boolean overloaded = false;
+			boolean statementSent = false;
+			boolean connectionReusable = false;
+			Connection conn = null;
+			Statement statement = null;
+			ScheduledFuture<?> queryTimeout = null;
 			try {
-				ExeState exeState = openDatabaseConn();
-				if (exeState != ExeState.SUCESSFUL) {
-					return;
+				conn = createDatabaseConnection();
+				statement = conn.createStatement();
+				queryTimeout = armQueryTimeout(statement);
+				statementSent = true;
+				List<ResultSet> pipelineResults = new ArrayList<>();
+				if (multiStatements) {
+					StringBuilder pipelineSql = new StringBuilder();
+					for (String exeSql : exeSqls) {
+						String trimmedSql = exeSql.trim();
+						pipelineSql.append(trimmedSql).append(trimmedSql.endsWith(";") ? "" : ";");
+					}
+					collectStatementResults(statement, statement.execute(pipelineSql.toString()), pipelineResults);
+				} else {
+					for (String exeSql : exeSqls) {
+						collectStatementResults(statement, statement.execute(exeSql), pipelineResults);
+					}
+				}
+				if (pipelineResults.size() != exeSqls.size()) {
+					LOGGER.severe("Failed to execute pipeline of " + exeSqls.size() + " statements, "
+							+ pipelineResults.size() + " results are returned.");
+					return null;
 				}
+				connectionReusable = true;
+				return pipelineResults;
 			} catch (ClassNotFoundException classNotFoundExeception) {
 				LOGGER.severe("Unable to load driver class.");
-			} catch (SQLException dbConnectionException) {
-				LOGGER.severe("Failed to access database. Datails: " + dbConnectionException.getMessage());
+				return null;
+			} catch (SQLException executePipelineException) {
+				boolean transientError = JdbcDatabaseErrorClassifier.isTransientError(executePipelineException);
+				overloaded = transientError || isQueryTimeoutError(executePipelineException, queryTimeout);
+				if (!transientError || (statementSent && !idempotent) || !retryPolicy.canRetry(attempt)) {
+					LOGGER.severe("Failed to execute pipeline of " + exeSqls.size() + " statements on attempt " + attempt
+							+ ", " + (transientError ? "transient" : "permanent") + " error. Details: "
+							+ executePipelineException.getMessage());
+					return null;
+				}
+				LOGGER.warning("Transient failure on executing pipeline, attempt " + attempt + " of "
+						+ retryPolicy.getMaxAttempts() + ". Details: " + executePipelineException.getMessage());
 			} finally {
-				closeDatabaseConnection();
+				boolean timeoutDisarmed = disarmQueryTimeout(statement, queryTimeout);
+				closeDatabaseResources(conn, statement, null, connectionReusable && timeoutDisarmed);
+				if (admissionController != null) {
+					admissionController.release(System.nanoTime() - admittedNanos, overloaded);
+				}
+			}
+
+			long backoffDelayMillis = retryPolicy.getBackoffDelayMillis(attempt);
+			if (backoffDelayMillis >= JdbcDatabaseDeadline.getCurrentRemainingMillis()) {
+				LOGGER.severe("Failed to execute pipeline, deadline expires before retry.");
+				return null;
+			}
+			try {
+				Thread.sleep(backoffDelayMillis);
+			} catch (InterruptedException interruptedException) {
+				Thread.currentThread().interrupt();
+				LOGGER.severe("Failed to execute pipeline, retry is interrupted.");
+				return null;
+			}
+		}
+	}
+
+	/**
+	 * Collect all results of an executed statement, a multi-statement request
+	 * returns one result per statement.
+	 *
+	 * @param statement
+	 * 			Executed statement
+	 * @param hasResults
+	 * 			Return value of Statement.execute()
+	 * @param pipelineResults
+	 * 			Disconnected results, NULL for update counts
+	 * @throws SQLException
+	 * 			Failed on reading results, or a statement of a multi-statement
+	 * 			request failed.
+	 */
+	private static void collectStatementResults(Statement statement, boolean hasResults, List<ResultSet> pipelineResults)
+			throws SQLException {
+		while (true) {
+			if (hasResults) {
+				try (ResultSet results = statement.getResultSet()) {
+					pipelineResults.add(CACHED_RESULT_SET_HANDLER.handleResultSet(results));
+				}
+			} else if (statement.getUpdateCount() == -1) {
+				return;
+			} else {
+				pipelineResults.add(null);
+			}
+			hasResults = statement.getMoreResults();
+		}
+	}
+
+	/**
+	 * Roll back the open transaction of a database connection, NULL connection
+	 * is skipped.
+	 *
+	 * @param conn
+	 * 			Database connection
+	 */
+	private void rollbackDatabaseConnection(Connection conn) {
+		if (conn == null) {
+			return;
+		}
+		try {
+			if (!conn.getAutoCommit()) {
+				conn.rollback();
+			}
+		} catch (SQLException rollbackException) {
+			LOGGER.severe("Failed to roll back transaction. Details: " + rollbackException.getMessage());
+		}
+	}
+
+	/**
+	 * Open a cursor streaming SELECT results from a new database connection.
+	 *
+	 * Rows are fetched in batches of fetchSize rows while the cursor is moved
+	 * forward. Setting fetchSize to Integer.MIN_VALUE streams rows one by one
+	 * on MYSQL Connector/J, other fetch sizes require useCursorFetch=true in the
+	 * MYSQL database URL.
+	 *
+	 * NOTE: Cursors are not retried on transient errors, rows may already have
+	 * been consumed.
+	 *
+	 * NOTE: The query timeout limits the cursor until it is closed, including
+	 * reading the streamed rows. The cursor holds an admission of the admission
+	 * controller until it is closed, see setAdmissionController().
+	 *
+	 * @param exeSql
+	 * 			SELECT SQL string
+	 * @param fetchSize
+	 * 			Amount of rows fetched from the database server at once
+	 * @return Open cursor, or NULL if the statement failed.
+	 */
+	public JdbcDatabaseCursor openCursor(String exeSql, int fetchSize) {
+		if (fJdbcDriver == null || fDbUrl == null) {
+			LOGGER.warning("JDBC driver or database url configuration is missing.");
+			return null;
+		}
+
+		JdbcDatabaseAdmissionController admissionController = fAdmissionController;
+		if (admissionController != null && !admissionController.admit()) {
+			LOGGER.severe("Failed to open cursor, rejected by admission control.");
+			return null;
+		}
+		Connection conn = null;
+		Statement statement = null;
+		ScheduledFuture<?> queryTimeout = null;
+		ResultSet results = null;
+		try {
+			conn = createDatabaseConnection();
+			statement = conn.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+			statement.setFetchSize(fetchSize);
+			queryTimeout = armQueryTimeout(statement);
+			results = statement.executeQuery(exeSql);
+			return new JdbcDatabaseCursor(conn, statement, results, JdbcDatabaseDeadline.current(), queryTimeout,
+					admissionController);
+		} catch (ClassNotFoundException classNotFoundExeception) {
+			LOGGER.severe("Unable to load driver class.");
+		} catch (SQLException openCursorException) {
+			LOGGER.severe("Failed to open cursor. Details: " + openCursorException.getMessage());
+		}
+		disarmQueryTimeout(statement, queryTimeout);
+		closeDatabaseResources(conn, statement, results);
+		if (admissionController != null) {
+			admissionController.release();
+		}
+		return null;
+	}
+
+	/**
+	 * Execute SQL statement asynchronously, the returned query handle waits for
+	 * the results or cancels the execution.
+	 *
+	 * The execution inherits the current JdbcDatabaseDeadline of the calling
+	 * thread.
+	 *
+	 * @param exeSql
+	 * 			SQL string
+	 * @param idempotent
+	 * 			True if executing the statement twice has the same effect as
+	 * 			executing it once.
+	 * @return Query handle of ResultSet SQL execution results, disconnected from
+	 *         the database.
+	 */
+	public JdbcDatabaseQueryHandle<ResultSet> executeQueryObjectAsync(String exeSql, boolean idempotent) {
+		return executeQueryObjectAsync(exeSql, idempotent, CACHED_RESULT_SET_HANDLER);
+	}
+
+	/**
+	 * Execute SQL statement asynchronously, and consume the live ResultSet with a
+	 * result set handler, see executeQueryObject(String, boolean,
+	 * JdbcDatabaseResultSetHandler).
+	 *
+	 * @param exeSql
+	 * 			SQL string
+	 * @param idempotent
+	 * 			True if executing the statement twice has the same effect as
+	 * 			executing it once.
+	 * @param resultSetHandler
+	 * 			Handler consuming SQL execution results
+	 * @return Query handle of the value produced by resultSetHandler.
+	 */
+	public <T> JdbcDatabaseQueryHandle<T> executeQueryObjectAsync(final String exeSql, final boolean idempotent,
+			final @NonNull JdbcDatabaseResultSetHandler<T> resultSetHandler) {
+		final JdbcDatabaseDeadline asyncDeadline = new JdbcDatabaseDeadline(JdbcDatabaseDeadline.current());
+		Future<T> execution = ASYNC_EXECUTOR.submit(new Callable<T>() {
+			@Override
+			public T call() {
+				JdbcDatabaseDeadline deadline = JdbcDatabaseDeadline.inherit(asyncDeadline);
+				try {
+					return executeQueryObject(exeSql, idempotent, resultSetHandler);
+				} finally {
+					deadline.close();
+				}
 			}
+		});
+		return new JdbcDatabaseQueryHandle<>(execution, asyncDeadline);
+	}
+
+	/**
+	 * Apply the query timeout of this connection, shortened to the current
+	 * JdbcDatabaseDeadline, to a statement about to be executed.
+	 *
+	 * The statement is cancelled on the database server when the query timeout
+	 * expires, for example by KILL QUERY on MYSQL Connector/J. The timeout in
+	 * whole seconds is also passed to the JDBC driver, in case the statement
+	 * cannot be cancelled in time.
+	 *
+	 * @param statement
+	 * 			SQL statement
+	 * @return Scheduled cancel, or NULL if the statement has no time limit.
+	 * @throws SQLTimeoutException
+	 * 			The current deadline has already expired or has been cancelled.
+	 * @throws SQLException
+	 * 			Failed on setting the query timeout
+	 */
+	private ScheduledFuture<?> armQueryTimeout(final @NonNull Statement statement) throws SQLException {
+		JdbcDatabaseDeadline deadline = JdbcDatabaseDeadline.current();
+		if (deadline != null && !deadline.registerStatement(statement)) {
+			throw new SQLTimeoutException("Deadline expired before executing sql.");
+		}
+		long timeoutMillis = Math.min(fQueryTimeoutMillis > 0 ? fQueryTimeoutMillis : Long.MAX_VALUE,
+				JdbcDatabaseDeadline.getCurrentRemainingMillis());
+		if (timeoutMillis == Long.MAX_VALUE) {
+			return null;
 		}
+		statement.setQueryTimeout((int) Math.min(Integer.MAX_VALUE, (timeoutMillis + 999) / 1000));
+		final long cancelAfterMillis = timeoutMillis;
+		return QUERY_TIMEOUT_EXECUTOR.schedule(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					statement.cancel();
+					LOGGER.warning("Cancelled sql statement after query timeout of " + cancelAfterMillis + " ms.");
+				} catch (SQLException cancelException) {
+					LOGGER.severe("Failed to cancel sql statement after query timeout. Details: "
+							+ cancelException.getMessage());
+				}
+			}
+		}, timeoutMillis, TimeUnit.MILLISECONDS);
 	}
 
 	/**
-	 * Close database connection.
+	 * Check whether a statement failed by exceeding its query timeout.
+	 *
+	 * @param sqlException
+	 * 			SQL exception of the statement
+	 * @param queryTimeout
+	 * 			Scheduled cancel of the statement, or NULL
+	 * @return True if the JDBC driver reported a timeout, or the scheduled cancel
+	 *         has run.
 	 */
-	private void closeDatabaseConnection() {
+	private static boolean isQueryTimeoutError(SQLException sqlException, ScheduledFuture<?> queryTimeout) {
+		return sqlException instanceof SQLTimeoutException
+				|| (queryTimeout != null && queryTimeout.isDone() && !queryTimeout.isCancelled());
+	}
+
+	/**
+	 * Remove the query timeout armed by armQueryTimeout() after the statement has
+	 * finished, NULL statement is skipped.
+	 *
+	 * NOTE: A scheduled cancel which has already started is not waited for, it
+	 * may still cancel a later statement on the same connection. The connection
+	 * must then be closed instead of being kept in the idle connection pool, the
+	 * same holds for a statement within a cancelled JdbcDatabaseDeadline.
+	 *
+	 * @param statement
+	 * 			SQL statement
+	 * @param queryTimeout
+	 * 			Scheduled cancel, or NULL
+	 * @return False if the scheduled cancel has started or the deadline of the
+	 *         statement has been cancelled, the connection of the statement must
+	 *         not be reused.
+	 */
+	private boolean disarmQueryTimeout(Statement statement, ScheduledFuture<?> queryTimeout) {
+		boolean cancelStopped = queryTimeout == null || queryTimeout.cancel(false) || queryTimeout.isCancelled();
+		JdbcDatabaseDeadline deadline = JdbcDatabaseDeadline.current();
+		if (statement != null && deadline != null) {
+			cancelStopped = deadline.unregisterStatement(statement) && cancelStopped;
+		}
+		return cancelStopped;
+	}
+
+	/**
+	 * Close database resources of one execution, NULL resources are skipped.
+	 *
+	 * @param conn
+	 * 			Database connection
+	 * @param statement
+	 * 			SQL statement
+	 * @param results
+	 * 			SQL execution results
+	 */
+	private void closeDatabaseResources(Connection conn, Statement statement, ResultSet results) {
+		closeDatabaseResources(conn, statement, results, false);
+	}
+
+	/**
+	 * Close database resources of one execution, NULL resources are skipped.
+	 * The connection is kept in the idle connection pool if it is reusable and
+	 * the pool is not full.
+	 *
+	 * @param conn
+	 * 			Database connection
+	 * @param statement
+	 * 			SQL statement
+	 * @param results
+	 * 			SQL execution results
+	 * @param connectionReusable
+	 * 			True if the execution succeeded and left no open transaction.
+	 */
+	private void closeDatabaseResources(Connection conn, Statement statement, ResultSet results,
+			boolean connectionReusable) {
 		try {
-			if (fConn != null) {
-				fConn.close();
+			if (results != null) {
+				results.close();
+			}
+			if (statement != null) {
+				statement.close();
 			}
-			if (fStatement != null) {
-				fStatement.close();
+			if (conn != null && !(connectionReusable && recycleDatabaseConnection(conn))) {
+				conn.close();
+			}
+		} catch (SQLException closeException) {
+			LOGGER.severe("Failed to close database. Details: " + closeException.getMessage());
+		}
+	}
+
+	/**
+	 * Keep a connection in the idle connection pool.
+	 *
+	 * @param conn
+	 * 			Database connection
+	 * @return False if the pool is full or the connection can not be reset to
+	 *         auto commit, the caller closes the connection.
+	 */
+	protected boolean recycleDatabaseConnection(@NonNull Connection conn) {
+		if (fIdleConnections.size() >= fMaxIdleConnections) {
+			return false;
+		}
+		try {
+			if (!conn.getAutoCommit()) {
+				conn.setAutoCommit(true);
 			}
-		} catch (SQLException dbCloseException) {
-			LOGGER.severe("Failed to close database. Datails: " + dbCloseException.getMessage());
+		} catch (SQLException autoCommitException) {
+			LOGGER.fine("Failed to reset idle connection. Details: " + autoCommitException.getMessage());
+			return false;
 		}
+		fIdleConnections.offerFirst(new IdleConnection(conn));
+		return true;
 	}
 
 	/**
-	 * Open a database connection.
+	 * Take a connection from the idle connection pool, or create a new database
+	 * connection if no usable idle connection is left. The caller owns and
+	 * closes the connection.
 	 *
-	 * @return ExeState
-	 * 			State connection
+	 * @return Connection
+	 * 			Database connection
 	 * @throws ClassNotFoundException
 	 * 			Unable to load driver class
 	 * @throws SQLException
 	 * 			Failed on accessing database
 	 */
-	private ExeState openDatabaseConn() throws ClassNotFoundException, SQLException {
-		if (fJdbcDriver == null) {
-			LOGGER.warning("JDBC driver of database configuration is missing.");
-			return ExeState.ERROR;
-		} else if (fDbUrl == null) {
-			LOGGER.warning("JDBC database url configuration is missing.");
-			return ExeState.ERROR;
+	private Connection createDatabaseConnection() throws ClassNotFoundException, SQLException {
+		IdleConnection idleConnection;
+		while ((idleConnection = fIdleConnections.pollFirst()) != null) {
+			if (isUsableIdleConnection(idleConnection)) {
+				return idleConnection.fConn;
+			}
+			closeDatabaseResources(idleConnection.fConn, null, null);
 		}
+		return openDatabaseConnection();
+	}
 
-		/*
-		 * Register JDBC driver
-		 */
-		Class.forName(fJdbcDriver);
+	/**
+	 * Check whether an idle connection is still open, connections idle for a
+	 * long time are validated by the database server.
+	 *
+	 * @param idleConnection
+	 * 			Idle connection
+	 * @return True if the connection can be reused.
+	 */
+	private static boolean isUsableIdleConnection(@NonNull IdleConnection idleConnection) {
+		try {
+			if (idleConnection.fConn.isClosed()) {
+				return false;
+			}
+			return System.nanoTime() - idleConnection.fIdleSinceNanos < IDLE_CONNECTION_VALIDATION_NANOS
+					|| idleConnection.fConn.isValid(IDLE_CONNECTION_VALIDATION_TIMEOUT_SECONDS);
+		} catch (SQLException validateException) {
+			return false;
+		}
+	}
+
+	/**
+	 * Create a new database connection, bypassing the idle connection pool.
+	 *
+	 * @return Connection
+	 * 			New database connection
+	 * @throws ClassNotFoundException
+	 * 			Unable to load driver class
+	 * @throws SQLException
+	 * 			Failed on accessing database
+	 */
+	protected Connection openDatabaseConnection() throws ClassNotFoundException, SQLException {
+		registerJdbcDriver();
 
 		/*
 		 * Open a connection
 		 */
 		if (fUser == null && fPass == null) {
-			fConn = DriverManager.getConnection(fDbUrl);
-		} else {
-			fConn = DriverManager.getConnection(fDbUrl, fUser, fPass);
+			return DriverManager.getConnection(fDbUrl);
 		}
+		return DriverManager.getConnection(fDbUrl, fUser, fPass);
+	}
 
-		return ExeState.SUCESSFUL;
+	/**
+	 * Register the JDBC driver once, later connections skip loading the driver
+	 * class.
+	 *
+	 * @throws ClassNotFoundException
+	 * 			Unable to load driver class
+	 */
+	protected void registerJdbcDriver() throws ClassNotFoundException {
+		String jdbcDriver = fJdbcDriver;
+		if (jdbcDriver != null && jdbcDriver.equals(fRegisteredJdbcDriver)) {
+			return;
+		}
+		Class.forName(jdbcDriver);
+		fRegisteredJdbcDriver = jdbcDriver;
 	}
 
 	/**
 	 * Show all databases list in the JDBC connection.
 	 */
 	public void showAllDatabases() {
-		getDatabaseStatement();
+		if (fJdbcDriver == null || fDbUrl == null) {
+			LOGGER.warning("JDBC driver or database url configuration is missing.");
+			return;
+		}
 
+		Connection conn = null;
 		ResultSet results = null;
 		try {
+			conn = createDatabaseConnection();
 			LOGGER.info("Showing all databses:");
-			DatabaseMetaData meta = fConn.getMetaData();
+			DatabaseMetaData meta = conn.getMetaData();
 			results = meta.getCatalogs();
 			while (results.next()) {
 				LOGGER.info(results.getString("TABLE_CAT"));
 			}
+		} catch (ClassNotFoundException classNotFoundExeception) {
+			LOGGER.severe("Unable to load driver class.");
 		} catch (SQLException executeQueryObjectException) {
 			LOGGER.severe("Failed to execute sql. Datails: " + executeQueryObjectException.getMessage());
 		} finally {
-			if (results != null) {
-				try {
-					results.close();
-				} catch (SQLException closeResultSetException) {
-					LOGGER.severe("Failed to close resultSets. Datails: " + closeResultSetException.getMessage());
+			closeDatabaseResources(conn, null, results);
+		}
+	}
+
+	/**
+	 * Get all indexes of a table in the connected database via
+	 * DatabaseMetaData.getIndexInfo, or via the schema metadata cache if it
+	 * is enabled.
+	 *
+	 * <example>
+	 *  PRIMARY -> [ID]
+	 *  IDX_Persons -> [LastName, FirstName]
+	 * </example>
+	 *
+	 * @param tableName
+	 * 			Table name
+	 * @return Index names mapping to ordered index column names, empty if the
+	 *         table has no index or indexes can not be read.
+	 */
+	public @NonNull Map<String, List<String>> getTableIndexes(@NonNull String tableName) {
+		if (fSchemaCache != null) {
+			return fSchemaCache.getTableIndexes(tableName);
+		}
+
+		Map<String, List<String>> tableIndexes = new LinkedHashMap<>();
+		if (fJdbcDriver == null || fDbUrl == null) {
+			LOGGER.warning("JDBC driver or database url configuration is missing.");
+			return tableIndexes;
+		}
+
+		Connection conn = null;
+		ResultSet results = null;
+		try {
+			conn = createDatabaseConnection();
+			DatabaseMetaData meta = conn.getMetaData();
+			results = meta.getIndexInfo(conn.getCatalog(), null, tableName, false, true);
+			while (results.next()) {
+				String indexName = results.getString("INDEX_NAME");
+				String columnName = results.getString("COLUMN_NAME");
+				if (results.getShort("TYPE") == DatabaseMetaData.tableIndexStatistic || indexName == null
+						|| columnName == null) {
+					continue;
+				}
+				List<String> indexColumns = tableIndexes.get(indexName);
+				if (indexColumns == null) {
+					indexColumns = new ArrayList<>();
+					tableIndexes.put(indexName, indexColumns);
 				}
+				indexColumns.add(columnName);
 			}
-			closeDatabaseConnection();
+		} catch (ClassNotFoundException classNotFoundExeception) {
+			LOGGER.severe("Unable to load driver class.");
+		} catch (SQLException getIndexInfoException) {
+			LOGGER.severe("Failed to read indexes of table " + tableName + ". Details: "
+					+ getIndexInfoException.getMessage());
+		} finally {
+			closeDatabaseResources(conn, null, results);
 		}
+		return tableIndexes;
 	}
 }
@@ -0,0 +1,167 @@
+package QueryObjectFramework.JdbcDatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ScheduledFuture;
+import java.util.logging.Logger;
+
+import org.eclipse.jdt.annotation.NonNull;
+
+/**
+ * Cursor class over streamed SELECT results. The cursor owns its database
+ * connection, rows are fetched from the database server while the cursor is
+ * moved forward, instead of loading all results into memory.
+ *
+ * <example>
+ *  try (JdbcDatabaseCursor cursor = jdbcDbConn.openCursor(sql, 500)) {
+ *      while (cursor != null && cursor.next()) {
+ *          ResultSet row = cursor.getResultSet();
+ *      }
+ *  }
+ * </example>
+ *
+ * A cursor can be cancelled from another thread, for example when the reader
+ * gives up waiting for rows:
+ *
+ * <example>
+ *  cursor.cancel();
+ * </example>
+ *
+ * NOTE: The database connection and the admission of the admission
+ * controller are kept until the cursor is closed, always close cursors.
+ *
+ * @author Bohui Axelsson
+ */
+public class JdbcDatabaseCursor implements AutoCloseable {
+	private static final Logger LOGGER = Logger.getLogger(JdbcDatabaseCursor.class.getName());
+
+	private final @NonNull Connection fConn;
+	private final @NonNull Statement fStatement;
+	private final @NonNull ResultSet fResults;
+	private final JdbcDatabaseDeadline fDeadline;
+	private final ScheduledFuture<?> fQueryTimeout;
+	private final JdbcDatabaseAdmissionController fAdmissionController;
+	private volatile boolean fClosed = false;
+	private volatile boolean fExhausted = false;
+
+	/**
+	 * Create a cursor limited by a deadline or a query timeout.
+	 *
+	 * @param deadline
+	 * 			Deadline the statement is registered to, or NULL
+	 * @param queryTimeout
+	 * 			Scheduled cancel of the statement, or NULL
+	 * @param admissionController
+	 * 			Admission controller which admitted the cursor and is released on
+	 * 			close, or NULL
+	 */
+	protected JdbcDatabaseCursor(@NonNull Connection conn, @NonNull Statement statement, @NonNull ResultSet results,
+			JdbcDatabaseDeadline deadline, ScheduledFuture<?> queryTimeout,
+			JdbcDatabaseAdmissionController admissionController) {
+		fConn = conn;
+		fStatement = statement;
+		fResults = results;
+		fDeadline = deadline;
+		fQueryTimeout = queryTimeout;
+		fAdmissionController = admissionController;
+	}
+
+	/**
+	 * Move the cursor to the next row.
+	 *
+	 * @return True if the cursor is on a row, false if all rows have been read.
+	 * @throws SQLException
+	 * 			Failed on fetching rows
+	 */
+	public boolean next() throws SQLException {
+		if (fClosed || fExhausted) {
+			return false;
+		}
+		if (!fResults.next()) {
+			fExhausted = true;
+		}
+		return !fExhausted;
+	}
+
+	/**
+	 * Get the streamed results positioned on the current row.
+	 *
+	 * @return ResultSet of the cursor
+	 */
+	public @NonNull ResultSet getResultSet() {
+		return fResults;
+	}
+
+	public boolean isClosed() {
+		return fClosed;
+	}
+
+	/**
+	 * Cancel the running statement on the database server, the next read of the
+	 * cursor fails. The cursor must still be closed.
+	 */
+	public void cancel() {
+		if (fClosed || fExhausted) {
+			return;
+		}
+		try {
+			fStatement.cancel();
+		} catch (SQLException cancelException) {
+			LOGGER.severe("Failed to cancel cursor statement. Details: " + cancelException.getMessage());
+		}
+	}
+
+	/**
+	 * Cancel the running statement and release the database connection of the
+	 * cursor. Closing a closed cursor has no effect.
+	 */
+	@Override
+	public synchronized void close() {
+		if (fClosed) {
+			return;
+		}
+		fClosed = true;
+		if (fQueryTimeout != null) {
+			fQueryTimeout.cancel(false);
+		}
+		if (fDeadline != null) {
+			fDeadline.unregisterStatement(fStatement);
+		}
+		if (!fExhausted) {
+			try {
+				/*
+				 * Streamed results are drained on close by some drivers, cancel the
+				 * statement first so an unread tail is not transferred.
+				 */
+				fStatement.cancel();
+			} catch (SQLException cancelException) {
+				LOGGER.fine("Failed to cancel cursor statement. Details: " + cancelException.getMessage());
+			}
+		}
+		/*
+		 * Each resource is closed on its own, closing cancelled streamed results
+		 * often fails and must not leak the statement and connection.
+		 */
+		try {
+			fResults.close();
+		} catch (SQLException closeException) {
+			LOGGER.severe("Failed to close cursor results. Details: " + closeException.getMessage());
+		}
+		try {
+			fStatement.close();
+		} catch (SQLException closeException) {
+			LOGGER.severe("Failed to close cursor statement. Details: " + closeException.getMessage());
+		}
+		try {
+			fConn.close();
+		} catch (SQLException closeException) {
+			LOGGER.severe("Failed to close cursor connection. Details: " + closeException.getMessage());
+		} finally {
+			if (fAdmissionController != null) {
+				fAdmissionController.release();
+			}
+		}
+	}
+}
@@ -0,0 +1,276 @@
+package QueryObjectFramework.JdbcDatabaseConnection;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Deadline class carries the time budget of a request down to all statements
+ * executed by the current thread.
+ *
+ * <example>
+ *  try (JdbcDatabaseDeadline deadline = JdbcDatabaseDeadline.start(200)) {
+ *      ResultSet customer = jdbcDbConn.executeQueryObject(customerSql);
+ *      ResultSet orders = jdbcDbConn.executeQueryObject(ordersSql);
+ *  }
+ * </example>
+ *
+ * Statements executed within the deadline get the remaining time as query
+ * timeout, and are cancelled on the database server when the deadline
+ * expires. A statement is not started after the deadline has expired, and
+ * retries stop if the backoff delay would pass the deadline.
+ *
+ * A deadline started within another deadline never ends later than the
+ * outer deadline, and is cancelled together with the outer deadline.
+ *
+ * Worker threads inherit the deadline of the thread submitting the work:
+ *
+ * <example>
+ *  final JdbcDatabaseDeadline requestDeadline = JdbcDatabaseDeadline.current();
+ *  executor.submit(new Runnable() {
+ *      public void run() {
+ *          try (JdbcDatabaseDeadline deadline = JdbcDatabaseDeadline.inherit(requestDeadline)) {
+ *              jdbcDbConn.executeQueryObject(sql);
+ *          }
+ *      }
+ *  });
+ * </example>
+ *
+ * NOTE: Close deadlines on the thread that started them, closing restores the
+ * deadline the thread had before.
+ *
+ * @author Bohui Axelsson
+ */
+public class JdbcDatabaseDeadline implements AutoCloseable {
+	private static final Logger LOGGER = Logger.getLogger(JdbcDatabaseDeadline.class.getName());
+
+	private static final ThreadLocal<JdbcDatabaseDeadline> CURRENT_DEADLINE = new ThreadLocal<>();
+
+	/*
+	 * Deadline ending at the same time or earlier, null for the outermost
+	 * deadline. An unbounded deadline has no expiry and only ends by cancel().
+	 */
+	private final JdbcDatabaseDeadline fParent;
+	private final boolean fBounded;
+	private final long fExpiryNanos;
+
+	/*
+	 * Statements running within this deadline, cancelled by cancel() while
+	 * holding the lock of the set.
+	 */
+	private final Set<Statement> fRunningStatements = new HashSet<>();
+	private volatile boolean fCancelled = false;
+
+	/*
+	 * Thread binding, set while this deadline is the current deadline of a
+	 * thread.
+	 */
+	private Thread fBoundThread = null;
+	private JdbcDatabaseDeadline fPreviousDeadline = null;
+
+	/**
+	 * Create a deadline ending with its parent, or an unbounded deadline if
+	 * parent is NULL. The deadline is not started on any thread.
+	 *
+	 * @param parent
+	 * 			Outer deadline, or NULL
+	 */
+	protected JdbcDatabaseDeadline(JdbcDatabaseDeadline parent) {
+		fParent = parent;
+		fBounded = parent != null && parent.fBounded;
+		fExpiryNanos = parent != null ? parent.fExpiryNanos : 0;
+	}
+
+	private JdbcDatabaseDeadline(JdbcDatabaseDeadline parent, long budgetMillis) {
+		fParent = parent;
+		fBounded = true;
+		long budgetNanos = Math.min(TimeUnit.MILLISECONDS.toNanos(Math.max(0, budgetMillis)), Long.MAX_VALUE / 4);
+		long expiryNanos = System.nanoTime() + budgetNanos;
+		if (parent != null && parent.fBounded && parent.fExpiryNanos - expiryNanos < 0) {
+			expiryNanos = parent.fExpiryNanos;
+		}
+		fExpiryNanos = expiryNanos;
+	}
+
+	/**
+	 * Start a deadline as the current deadline of this thread.
+	 *
+	 * @param budgetMillis
+	 * 			Time budget in milliseconds, shortened to the remaining time of
+	 * 			the current deadline.
+	 * @return Started deadline, close it when the request is done.
+	 */
+	public static JdbcDatabaseDeadline start(long budgetMillis) {
+		JdbcDatabaseDeadline deadline = new JdbcDatabaseDeadline(current(), budgetMillis);
+		deadline.bind();
+		return deadline;
+	}
+
+	/**
+	 * Start a deadline on this thread ending with a deadline of another thread.
+	 *
+	 * @param parent
+	 * 			Deadline of the submitting thread, NULL if it has no deadline.
+	 * @return Started deadline, or NULL if parent is NULL. Try-with-resources
+	 *         skips NULL resources.
+	 */
+	public static JdbcDatabaseDeadline inherit(JdbcDatabaseDeadline parent) {
+		if (parent == null) {
+			return null;
+		}
+		JdbcDatabaseDeadline deadline = new JdbcDatabaseDeadline(parent);
+		deadline.bind();
+		return deadline;
+	}
+
+	/**
+	 * Get the current deadline of this thread.
+	 *
+	 * @return Deadline, or NULL if no deadline is started.
+	 */
+	public static JdbcDatabaseDeadline current() {
+		return CURRENT_DEADLINE.get();
+	}
+
+	/**
+	 * Get remaining time of the deadline.
+	 *
+	 * @return Remaining milliseconds, 0 if the deadline is expired or cancelled,
+	 *         Long.MAX_VALUE if the deadline is unbounded.
+	 */
+	public long getRemainingMillis() {
+		if (isExpired()) {
+			return 0;
+		}
+		if (!fBounded) {
+			return Long.MAX_VALUE;
+		}
+		return Math.max(1, TimeUnit.NANOSECONDS.toMillis(fExpiryNanos - System.nanoTime()));
+	}
+
+	/**
+	 * Check whether the deadline has passed or has been cancelled.
+	 *
+	 * @return True if statements must not be started within this deadline.
+	 */
+	public boolean isExpired() {
+		for (JdbcDatabaseDeadline deadline = this; deadline != null; deadline = deadline.fParent) {
+			if (deadline.fCancelled) {
+				return true;
+			}
+		}
+		return fBounded && fExpiryNanos - System.nanoTime() <= 0;
+	}
+
+	/**
+	 * Cancel the deadline, statements running within this deadline or deadlines
+	 * started within it are cancelled on the database server.
+	 */
+	public void cancel() {
+		fCancelled = true;
+		/*
+		 * Cancelled under the lock, unregisterStatement() of a finishing
+		 * statement waits until the cancel has been sent.
+		 */
+		synchronized (fRunningStatements) {
+			for (Statement statement : fRunningStatements) {
+				try {
+					statement.cancel();
+				} catch (SQLException cancelException) {
+					LOGGER.fine("Failed to cancel statement. Details: " + cancelException.getMessage());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Register a statement about to run within this deadline and all outer
+	 * deadlines, so cancel() can reach it.
+	 *
+	 * @param statement
+	 * 			SQL statement
+	 * @return False if the deadline is already expired, the statement is not
+	 *         registered and must not be executed.
+	 */
+	protected boolean registerStatement(Statement statement) {
+		for (JdbcDatabaseDeadline deadline = this; deadline != null; deadline = deadline.fParent) {
+			synchronized (deadline.fRunningStatements) {
+				deadline.fRunningStatements.add(statement);
+			}
+		}
+		/*
+		 * Checked after registering, a concurrent cancel() either sees the
+		 * statement or is seen here.
+		 */
+		if (isExpired()) {
+			unregisterStatement(statement);
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Unregister a statement registered by registerStatement() after it has
+	 * finished.
+	 *
+	 * NOTE: A cancel sent to a finished statement may kill the next statement on
+	 * the same connection, for example KILL QUERY on MYSQL Connector/J.
+	 *
+	 * @param statement
+	 * 			SQL statement
+	 * @return False if this deadline or an outer deadline has been cancelled,
+	 *         the cancel may have reached the connection of the statement and
+	 *         the connection must not be reused.
+	 */
+	protected boolean unregisterStatement(Statement statement) {
+		boolean cancelMissed = true;
+		for (JdbcDatabaseDeadline deadline = this; deadline != null; deadline = deadline.fParent) {
+			synchronized (deadline.fRunningStatements) {
+				deadline.fRunningStatements.remove(statement);
+				cancelMissed &= !deadline.fCancelled;
+			}
+		}
+		return cancelMissed;
+	}
+
+	/**
+	 * Get remaining time of the current deadline of this thread.
+	 *
+	 * @return Remaining milliseconds, or Long.MAX_VALUE if no deadline is
+	 *         started.
+	 */
+	protected static long getCurrentRemainingMillis() {
+		JdbcDatabaseDeadline deadline = current();
+		return deadline == null ? Long.MAX_VALUE : deadline.getRemainingMillis();
+	}
+
+	/**
+	 * Make this deadline the current deadline of this thread.
+	 */
+	protected void bind() {
+		fBoundThread = Thread.currentThread();
+		fPreviousDeadline = CURRENT_DEADLINE.get();
+		CURRENT_DEADLINE.set(this);
+	}
+
+	/**
+	 * Restore the deadline this thread had before this deadline was started.
+	 * Running statements are not cancelled.
+	 */
+	@Override
+	public void close() {
+		if (fBoundThread != Thread.currentThread()) {
+			return;
+		}
+		if (fPreviousDeadline == null) {
+			CURRENT_DEADLINE.remove();
+		} else {
+			CURRENT_DEADLINE.set(fPreviousDeadline);
+		}
+		fBoundThread = null;
+		fPreviousDeadline = null;
+	}
+}
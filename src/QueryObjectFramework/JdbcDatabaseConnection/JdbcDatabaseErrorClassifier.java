@@ -0,0 +1,107 @@
+package QueryObjectFramework.JdbcDatabaseConnection;
+
+import java.sql.SQLException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTimeoutException;
+import java.sql.SQLTransientException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Error classifier class separates transient SQL errors, which are worth to
+ * retry, from permanent SQL errors, which will fail again on every retry.
+ *
+ * Transient errors:
+ * - SQLState class 40, transaction rollback, for example 40001 deadlock or
+ *   serialization failure.
+ * - SQLState class 08, connection exception, for example 08S01 communication
+ *   link failure after a connection reset.
+ * - MYSQL vendor codes of deadlock (1213), lock wait timeout (1205), too many
+ *   connections (1040), server shutdown (1053), server gone away (2006) and
+ *   lost connection (2013).
+ * - SQLTransientException and SQLRecoverableException raised by the JDBC
+ *   driver, except statement timeouts.
+ *
+ * <example>
+ *  if (JdbcDatabaseErrorClassifier.isTransientError(sqlException)) {
+ *      // retry
+ *  }
+ * </example>
+ *
+ * NOTE: Statement timeouts are classified as permanent, retrying a statement
+ * that exceeded its time limit only repeats the same slow execution.
+ *
+ * NOTE: At the moment, MYSQL server vendor codes are supported.
+ *
+ * @author Bohui Axelsson
+ */
+public final class JdbcDatabaseErrorClassifier {
+	private static final String SQL_STATE_CLASS_TRANSACTION_ROLLBACK = "40";
+	private static final String SQL_STATE_CLASS_CONNECTION_EXCEPTION = "08";
+
+	/*
+	 * MYSQL vendor error codes of transient errors
+	 */
+	private static final Set<Integer> MYSQL_TRANSIENT_ERROR_CODES = new HashSet<>(Arrays.asList(
+			1040, // ER_CON_COUNT_ERROR, too many connections
+			1053, // ER_SERVER_SHUTDOWN
+			1205, // ER_LOCK_WAIT_TIMEOUT
+			1213, // ER_LOCK_DEADLOCK
+			2002, // CR_CONNECTION_ERROR
+			2003, // CR_CONN_HOST_ERROR
+			2006, // CR_SERVER_GONE_ERROR
+			2013 // CR_SERVER_LOST
+	));
+
+	private JdbcDatabaseErrorClassifier() {
+	}
+
+	/**
+	 * Check whether a SQL exception, or any exception chained to it, is a
+	 * transient error.
+	 *
+	 * @param sqlException
+	 * 			SQL exception
+	 * @return True if retrying the failed statement may succeed.
+	 */
+	public static boolean isTransientError(SQLException sqlException) {
+		Set<Throwable> visitedExceptions = new HashSet<>();
+		Throwable exception = sqlException;
+		while (exception != null && visitedExceptions.add(exception)) {
+			if (exception instanceof SQLException && isTransientSqlException((SQLException) exception)) {
+				return true;
+			}
+			if (exception instanceof SQLException && ((SQLException) exception).getNextException() != null) {
+				exception = ((SQLException) exception).getNextException();
+			} else {
+				exception = exception.getCause();
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Check whether a single SQL exception is a transient error, chained
+	 * exceptions are not checked.
+	 *
+	 * @param sqlException
+	 * 			SQL exception
+	 * @return True if the SQL exception is a transient error.
+	 */
+	private static boolean isTransientSqlException(SQLException sqlException) {
+		if (MYSQL_TRANSIENT_ERROR_CODES.contains(sqlException.getErrorCode())) {
+			return true;
+		}
+		if (sqlException instanceof SQLTimeoutException) {
+			return false;
+		}
+		if (sqlException instanceof SQLTransientException || sqlException instanceof SQLRecoverableException) {
+			return true;
+		}
+
+		String sqlState = sqlException.getSQLState();
+		return sqlState != null && (sqlState.startsWith(SQL_STATE_CLASS_TRANSACTION_ROLLBACK)
+				|| sqlState.startsWith(SQL_STATE_CLASS_CONNECTION_EXCEPTION));
+	}
+}
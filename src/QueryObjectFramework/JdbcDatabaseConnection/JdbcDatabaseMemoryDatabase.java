@@ -0,0 +1,304 @@
+package QueryObjectFramework.JdbcDatabaseConnection;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+
+import org.eclipse.jdt.annotation.NonNull;
+
+/**
+ * In-memory database class of JdbcDatabaseMemoryDriver. The database does not
+ * store any data, it records executed SQL statements and answers them with
+ * configured results after a simulated latency.
+ *
+ * <example>
+ *  JdbcDatabaseMemoryDatabase database = JdbcDatabaseMemoryDriver.getDatabase("shop");
+ *  database.setLatencyMillis(2);
+ *  database.addResults("SELECT .* FROM Customers.*", Arrays.asList("CustomerID", "CustomerName"),
+ *      Arrays.asList(new Object[] { 1, "Alfreds" }, new Object[] { 2, "Ana Trujillo" }));
+ *  database.addResults("SELECT .* FROM Orders.*", Arrays.asList("OrderID", "CustomerID"), 1000);
+ *  database.addError("INSERT INTO Orders.*", "40001", 1213, 1);
+ *
+ *  List<String> executedSqls = database.getRecordedStatements();
+ * </example>
+ *
+ * Statements are matched case insensitively against the SQL patterns in the
+ * order they are added, the first matching results or error is used:
+ * - SELECT statements without matching results return no rows.
+ * - Other statements without matching results return the update count, 1 by
+ *   default.
+ * - Generated results contain the row number in the first column, and column
+ *   name and row number, for example "CustomerName-7", in other columns.
+ *
+ * NOTE: Results do not depend on earlier statements, inserted rows are not
+ * selected later. The database is meant for measuring framework overhead and
+ * for offline tests of generated SQL.
+ *
+ * @author Bohui Axelsson
+ */
+public class JdbcDatabaseMemoryDatabase {
+	private static final Logger LOGGER = Logger.getLogger(JdbcDatabaseMemoryDatabase.class.getName());
+
+	private static final int DEFAULT_MAX_RECORDED_STATEMENTS = 10000;
+
+	/*
+	 * Column of results of SELECT statements without matching results
+	 */
+	private static final String EMPTY_RESULTS_COLUMN = "RESULT";
+
+	/**
+	 * Configured results or error of statements matching a SQL pattern
+	 */
+	private static final class StatementRule {
+		private final @NonNull Pattern fSqlPattern;
+		private final List<String> fColumns;
+		private final List<Object[]> fRows;
+		private final String fSqlState;
+		private final int fVendorCode;
+		private final AtomicInteger fRemainingErrors;
+
+		private StatementRule(@NonNull Pattern sqlPattern, List<String> columns, List<Object[]> rows, String sqlState,
+				int vendorCode, int errorAmount) {
+			fSqlPattern = sqlPattern;
+			fColumns = columns;
+			fRows = rows;
+			fSqlState = sqlState;
+			fVendorCode = vendorCode;
+			fRemainingErrors = new AtomicInteger(errorAmount);
+		}
+
+		private boolean isError() {
+			return fSqlState != null;
+		}
+	}
+
+	private final @NonNull String fDatabaseName;
+	private final @NonNull List<StatementRule> fStatementRules = new CopyOnWriteArrayList<>();
+	private volatile long fLatencyMillis = 0;
+	private volatile long fConnectLatencyMillis = 0;
+	private volatile int fUpdateCount = 1;
+
+	/*
+	 * Recorded statements, at most fMaxRecordedStatements
+	 */
+	private final @NonNull List<String> fRecordedStatements = new ArrayList<>();
+	private volatile int fMaxRecordedStatements = DEFAULT_MAX_RECORDED_STATEMENTS;
+	private final @NonNull AtomicLong fExecutedAmount = new AtomicLong();
+	private final @NonNull AtomicLong fConnectedAmount = new AtomicLong();
+
+	protected JdbcDatabaseMemoryDatabase(@NonNull String databaseName) {
+		fDatabaseName = databaseName;
+	}
+
+	public @NonNull String getDatabaseName() {
+		return fDatabaseName;
+	}
+
+	/**
+	 * Set simulated latency of each statement execution, a batch or a
+	 * multi-statement request costs the latency once.
+	 *
+	 * @param latencyMillis
+	 * 			Latency in milliseconds, 0 by default.
+	 */
+	public void setLatencyMillis(long latencyMillis) {
+		fLatencyMillis = Math.max(0, latencyMillis);
+	}
+
+	public long getLatencyMillis() {
+		return fLatencyMillis;
+	}
+
+	/**
+	 * Set simulated latency of opening a connection.
+	 *
+	 * @param connectLatencyMillis
+	 * 			Latency in milliseconds, 0 by default.
+	 */
+	public void setConnectLatencyMillis(long connectLatencyMillis) {
+		fConnectLatencyMillis = Math.max(0, connectLatencyMillis);
+	}
+
+	public long getConnectLatencyMillis() {
+		return fConnectLatencyMillis;
+	}
+
+	/**
+	 * Set update count of statements without matching results.
+	 *
+	 * @param updateCount
+	 * 			Update count, 1 by default.
+	 */
+	public void setUpdateCount(int updateCount) {
+		fUpdateCount = Math.max(0, updateCount);
+	}
+
+	/**
+	 * Set max amount of recorded statements, later statements are counted but
+	 * not recorded.
+	 *
+	 * @param maxRecordedStatements
+	 * 			Max recorded statements, 10000 by default, 0 to disable recording.
+	 */
+	public void setMaxRecordedStatements(int maxRecordedStatements) {
+		fMaxRecordedStatements = Math.max(0, maxRecordedStatements);
+	}
+
+	/**
+	 * Add results of statements matching a SQL pattern.
+	 *
+	 * @param sqlRegex
+	 * 			Regular expression matching whole SQL strings
+	 * @param columns
+	 * 			Result column names
+	 * @param rows
+	 * 			Rows, one value per column
+	 */
+	public void addResults(@NonNull String sqlRegex, @NonNull List<String> columns, @NonNull List<Object[]> rows) {
+		fStatementRules.add(new StatementRule(compileSqlPattern(sqlRegex), new ArrayList<>(columns),
+				new ArrayList<>(rows), null, 0, 0));
+	}
+
+	/**
+	 * Add generated results of statements matching a SQL pattern.
+	 *
+	 * @param sqlRegex
+	 * 			Regular expression matching whole SQL strings
+	 * @param columns
+	 * 			Result column names
+	 * @param rowAmount
+	 * 			Amount of generated rows
+	 */
+	public void addResults(@NonNull String sqlRegex, @NonNull List<String> columns, int rowAmount) {
+		List<Object[]> rows = new ArrayList<>();
+		for (int row = 1; row <= rowAmount; row++) {
+			Object[] values = new Object[columns.size()];
+			for (int column = 0; column < values.length; column++) {
+				values[column] = column == 0 ? (Object) Integer.valueOf(row) : columns.get(column) + "-" + row;
+			}
+			rows.add(values);
+		}
+		addResults(sqlRegex, columns, rows);
+	}
+
+	/**
+	 * Add an error of statements matching a SQL pattern, for example to test
+	 * retries of transient errors.
+	 *
+	 * @param sqlRegex
+	 * 			Regular expression matching whole SQL strings
+	 * @param sqlState
+	 * 			SQLState of the error
+	 * @param vendorCode
+	 * 			Vendor error code, for example MYSQL error code 1213 of a deadlock.
+	 * @param errorAmount
+	 * 			Amount of failing executions, 0 to fail every execution.
+	 */
+	public void addError(@NonNull String sqlRegex, @NonNull String sqlState, int vendorCode, int errorAmount) {
+		fStatementRules.add(new StatementRule(compileSqlPattern(sqlRegex), null, null, sqlState, vendorCode,
+				errorAmount > 0 ? errorAmount : -1));
+	}
+
+	/**
+	 * Remove all results and errors, recorded statements are kept.
+	 */
+	public void clearRules() {
+		fStatementRules.clear();
+	}
+
+	/**
+	 * Get recorded statements in execution order, batched statements are
+	 * recorded one by one and commits as COMMIT.
+	 *
+	 * @return Copy of recorded SQL strings
+	 */
+	public @NonNull List<String> getRecordedStatements() {
+		synchronized (fRecordedStatements) {
+			return new ArrayList<>(fRecordedStatements);
+		}
+	}
+
+	public void clearRecordedStatements() {
+		synchronized (fRecordedStatements) {
+			fRecordedStatements.clear();
+		}
+	}
+
+	/**
+	 * Get amount of executed statements, including statements not recorded.
+	 *
+	 * @return Executed statement amount
+	 */
+	public long getExecutedAmount() {
+		return fExecutedAmount.get();
+	}
+
+	/**
+	 * Get amount of opened connections.
+	 *
+	 * @return Connected amount
+	 */
+	public long getConnectedAmount() {
+		return fConnectedAmount.get();
+	}
+
+	protected void recordConnect() {
+		fConnectedAmount.incrementAndGet();
+	}
+
+	/**
+	 * Record a statement and find its results.
+	 *
+	 * @param sql
+	 * 			SQL string of one statement
+	 * @return Results of the statement, or NULL if the statement returns an
+	 *         update count.
+	 * @throws SQLException
+	 * 			Configured error of the statement
+	 */
+	protected ResultSet executeStatement(@NonNull String sql) throws SQLException {
+		fExecutedAmount.incrementAndGet();
+		synchronized (fRecordedStatements) {
+			if (fRecordedStatements.size() < fMaxRecordedStatements) {
+				fRecordedStatements.add(sql);
+			}
+		}
+
+		String trimmedSql = sql.trim();
+		for (StatementRule statementRule : fStatementRules) {
+			if (!statementRule.fSqlPattern.matcher(trimmedSql).matches()) {
+				continue;
+			}
+			if (!statementRule.isError()) {
+				return JdbcDatabaseMemoryDriver.buildResultSet(statementRule.fColumns, statementRule.fRows);
+			}
+			int remainingErrors = statementRule.fRemainingErrors.get();
+			if (remainingErrors < 0 || (remainingErrors > 0
+					&& statementRule.fRemainingErrors.compareAndSet(remainingErrors, remainingErrors - 1))) {
+				LOGGER.fine("Failing statement with configured error " + statementRule.fVendorCode + ".");
+				throw new SQLException("Simulated error " + statementRule.fVendorCode + " of in-memory database "
+						+ fDatabaseName + ".", statementRule.fSqlState, statementRule.fVendorCode);
+			}
+		}
+		if (JdbcDatabaseConnection.isIdempotentStatement(trimmedSql)) {
+			List<String> emptyResultsColumns = new ArrayList<>();
+			emptyResultsColumns.add(EMPTY_RESULTS_COLUMN);
+			return JdbcDatabaseMemoryDriver.buildResultSet(emptyResultsColumns, new ArrayList<Object[]>());
+		}
+		return null;
+	}
+
+	protected int getUpdateCount() {
+		return fUpdateCount;
+	}
+
+	private static Pattern compileSqlPattern(String sqlRegex) {
+		return Pattern.compile(sqlRegex, Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+	}
+}
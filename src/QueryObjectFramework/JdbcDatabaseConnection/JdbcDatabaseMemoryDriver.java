@@ -0,0 +1,670 @@
+package QueryObjectFramework.JdbcDatabaseConnection;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.DriverPropertyInfo;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import javax.sql.rowset.RowSetMetaDataImpl;
+
+import org.eclipse.jdt.annotation.NonNull;
+
+/**
+ * In-memory JDBC driver class, runs the framework without a database server,
+ * for example to measure the overhead of the framework itself or to test
+ * generated SQL offline and deterministically.
+ *
+ * The driver is selected by its class name and a database URL starting with
+ * jdbc:querymemory:
+ *
+ * <example>
+ *  JdbcDatabaseConnection jdbcDbConn = new JdbcDatabaseConnection(JdbcDatabaseMemoryDriver.class.getName(),
+ *      "jdbc:querymemory:shop", null, null);
+ *  JdbcDatabaseMemoryDatabase database = JdbcDatabaseMemoryDriver.getDatabase("shop");
+ *  database.addResults("SELECT .* FROM Customers.*", Arrays.asList("CustomerID", "CustomerName"), 100);
+ * </example>
+ *
+ * Each database name has its own JdbcDatabaseMemoryDatabase, which records
+ * executed statements and configures results, errors and simulated latency.
+ * Multi-statement requests are split into statements if the database URL
+ * contains allowMultiQueries=true, like on MYSQL Connector/J.
+ *
+ * Cancelling a statement, or exceeding its query timeout, ends its simulated
+ * latency with the MYSQL error of an interrupted query.
+ *
+ * NOTE: Only the JDBC methods used by the framework are supported, other
+ * methods return NULL, 0 or false.
+ *
+ * @author Bohui Axelsson
+ */
+public class JdbcDatabaseMemoryDriver implements Driver {
+	private static final Logger LOGGER = Logger.getLogger(JdbcDatabaseMemoryDriver.class.getName());
+
+	public static final String URL_PREFIX = "jdbc:querymemory:";
+
+	private static final String MULTI_STATEMENTS_URL_PROPERTY = "allowmultiqueries=true";
+
+	/*
+	 * MYSQL error of a query interrupted by KILL QUERY
+	 */
+	private static final String SQL_STATE_QUERY_INTERRUPTED = "70100";
+	private static final int VENDOR_CODE_QUERY_INTERRUPTED = 1317;
+
+	/*
+	 * Database name -> in-memory database
+	 */
+	private static final Map<String, JdbcDatabaseMemoryDatabase> DATABASES = new ConcurrentHashMap<>();
+
+	static {
+		try {
+			DriverManager.registerDriver(new JdbcDatabaseMemoryDriver());
+		} catch (SQLException registerException) {
+			LOGGER.severe("Failed to register in-memory JDBC driver. Details: " + registerException.getMessage());
+		}
+	}
+
+	/**
+	 * Get the in-memory database of a database name, created on first use.
+	 *
+	 * @param databaseName
+	 * 			Database name of the database URL
+	 * @return In-memory database
+	 */
+	public static @NonNull JdbcDatabaseMemoryDatabase getDatabase(@NonNull String databaseName) {
+		JdbcDatabaseMemoryDatabase database = DATABASES.get(databaseName);
+		if (database == null) {
+			DATABASES.putIfAbsent(databaseName, new JdbcDatabaseMemoryDatabase(databaseName));
+			database = DATABASES.get(databaseName);
+		}
+		return database;
+	}
+
+	/**
+	 * Remove the in-memory database of a database name, the next connection
+	 * gets a new database without results and recorded statements.
+	 *
+	 * @param databaseName
+	 * 			Database name of the database URL
+	 */
+	public static void removeDatabase(@NonNull String databaseName) {
+		DATABASES.remove(databaseName);
+	}
+
+	@Override
+	public Connection connect(String url, Properties info) throws SQLException {
+		if (!acceptsURL(url)) {
+			return null;
+		}
+		String databaseName = url.substring(URL_PREFIX.length());
+		int propertiesStart = databaseName.indexOf('?');
+		if (propertiesStart >= 0) {
+			databaseName = databaseName.substring(0, propertiesStart);
+		}
+		JdbcDatabaseMemoryDatabase database = getDatabase(databaseName);
+		simulateLatency(database.getConnectLatencyMillis(), null, 0);
+		database.recordConnect();
+		boolean multiStatements = url.toLowerCase(Locale.ROOT).contains(MULTI_STATEMENTS_URL_PROPERTY);
+		return (Connection) Proxy.newProxyInstance(JdbcDatabaseMemoryDriver.class.getClassLoader(),
+				new Class<?>[] { Connection.class }, new MemoryConnectionHandler(database, multiStatements));
+	}
+
+	@Override
+	public boolean acceptsURL(String url) {
+		return url != null && url.startsWith(URL_PREFIX);
+	}
+
+	@Override
+	public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) {
+		return new DriverPropertyInfo[0];
+	}
+
+	@Override
+	public int getMajorVersion() {
+		return 1;
+	}
+
+	@Override
+	public int getMinorVersion() {
+		return 0;
+	}
+
+	@Override
+	public boolean jdbcCompliant() {
+		return false;
+	}
+
+	@Override
+	public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+		throw new SQLFeatureNotSupportedException("In-memory JDBC driver uses java.util.logging per class.");
+	}
+
+	/**
+	 * Build a forward only ResultSet over in-memory rows.
+	 *
+	 * @param columns
+	 * 			Column names
+	 * @param rows
+	 * 			Rows, one value per column
+	 * @return ResultSet
+	 * @throws SQLException
+	 * 			Failed on building column metadata
+	 */
+	protected static ResultSet buildResultSet(@NonNull List<String> columns, @NonNull List<Object[]> rows)
+			throws SQLException {
+		RowSetMetaDataImpl metaData = new RowSetMetaDataImpl();
+		metaData.setColumnCount(columns.size());
+		for (int column = 1; column <= columns.size(); column++) {
+			metaData.setColumnName(column, columns.get(column - 1));
+			metaData.setColumnLabel(column, columns.get(column - 1));
+			metaData.setColumnType(column, Types.JAVA_OBJECT);
+			metaData.setNullable(column, ResultSetMetaData.columnNullable);
+		}
+		return (ResultSet) Proxy.newProxyInstance(JdbcDatabaseMemoryDriver.class.getClassLoader(),
+				new Class<?>[] { ResultSet.class }, new MemoryResultSetHandler(columns, rows, metaData));
+	}
+
+	/**
+	 * Wait the simulated latency, ended early by a cancel or a query timeout.
+	 *
+	 * @param latencyMillis
+	 * 			Simulated latency in milliseconds
+	 * @param cancelLatch
+	 * 			Latch counted down by Statement.cancel(), or NULL
+	 * @param queryTimeoutSeconds
+	 * 			Query timeout in seconds, 0 for no time limit
+	 * @throws SQLException
+	 * 			The statement is cancelled, timed out or interrupted.
+	 */
+	private static void simulateLatency(long latencyMillis, CountDownLatch cancelLatch, int queryTimeoutSeconds)
+			throws SQLException {
+		if (latencyMillis <= 0 && (cancelLatch == null || cancelLatch.getCount() > 0)) {
+			return;
+		}
+		long waitMillis = latencyMillis;
+		boolean timedOut = false;
+		if (queryTimeoutSeconds > 0 && TimeUnit.SECONDS.toMillis(queryTimeoutSeconds) < latencyMillis) {
+			waitMillis = TimeUnit.SECONDS.toMillis(queryTimeoutSeconds);
+			timedOut = true;
+		}
+		try {
+			if (cancelLatch == null) {
+				Thread.sleep(waitMillis);
+				return;
+			}
+			if (cancelLatch.await(waitMillis, TimeUnit.MILLISECONDS)) {
+				throw new SQLException("Query execution was interrupted", SQL_STATE_QUERY_INTERRUPTED,
+						VENDOR_CODE_QUERY_INTERRUPTED);
+			}
+		} catch (InterruptedException interruptedException) {
+			Thread.currentThread().interrupt();
+			throw new SQLException("Query execution was interrupted", SQL_STATE_QUERY_INTERRUPTED,
+					VENDOR_CODE_QUERY_INTERRUPTED);
+		}
+		if (timedOut) {
+			throw new SQLTimeoutException("Statement cancelled due to timeout", SQL_STATE_QUERY_INTERRUPTED,
+					VENDOR_CODE_QUERY_INTERRUPTED);
+		}
+	}
+
+	/**
+	 * Split a multi-statement request on semicolons outside of quoted strings.
+	 *
+	 * @param sql
+	 * 			SQL string
+	 * @return Statements, each with its semicolon
+	 */
+	private static List<String> splitStatements(String sql) {
+		List<String> statements = new ArrayList<>();
+		StringBuilder statement = new StringBuilder();
+		char quote = 0;
+		for (int index = 0; index < sql.length(); index++) {
+			char character = sql.charAt(index);
+			statement.append(character);
+			if (quote != 0) {
+				if (character == '\\' && index + 1 < sql.length()) {
+					statement.append(sql.charAt(++index));
+				} else if (character == quote) {
+					quote = 0;
+				}
+			} else if (character == '\'' || character == '"' || character == '`') {
+				quote = character;
+			} else if (character == ';') {
+				statements.add(statement.toString().trim());
+				statement.setLength(0);
+			}
+		}
+		if (statement.toString().trim().length() > 0) {
+			statements.add(statement.toString().trim());
+		}
+		return statements;
+	}
+
+	/**
+	 * Default return value of unsupported JDBC methods.
+	 */
+	private static Object defaultValue(Class<?> returnType) {
+		if (returnType == boolean.class) {
+			return Boolean.FALSE;
+		}
+		if (returnType == int.class) {
+			return 0;
+		}
+		if (returnType == long.class) {
+			return 0L;
+		}
+		if (returnType == short.class) {
+			return (short) 0;
+		}
+		if (returnType == byte.class) {
+			return (byte) 0;
+		}
+		if (returnType == double.class) {
+			return 0.0;
+		}
+		if (returnType == float.class) {
+			return 0.0f;
+		}
+		return null;
+	}
+
+	/**
+	 * Connection of an in-memory database
+	 */
+	private static final class MemoryConnectionHandler implements InvocationHandler {
+		private final @NonNull JdbcDatabaseMemoryDatabase fDatabase;
+		private final boolean fMultiStatements;
+		private volatile boolean fClosed = false;
+		private volatile boolean fAutoCommit = true;
+		private Connection fProxy = null;
+
+		private MemoryConnectionHandler(@NonNull JdbcDatabaseMemoryDatabase database, boolean multiStatements) {
+			fDatabase = database;
+			fMultiStatements = multiStatements;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			fProxy = (Connection) proxy;
+			switch (method.getName()) {
+			case "createStatement":
+				return newStatement(null);
+			case "prepareStatement":
+				return newStatement((String) args[0]);
+			case "setAutoCommit":
+				fAutoCommit = (Boolean) args[0];
+				return null;
+			case "getAutoCommit":
+				return fAutoCommit;
+			case "commit":
+				fDatabase.executeStatement("COMMIT");
+				return null;
+			case "rollback":
+				fDatabase.executeStatement("ROLLBACK");
+				return null;
+			case "getCatalog":
+				return fDatabase.getDatabaseName();
+			case "getMetaData":
+				return Proxy.newProxyInstance(JdbcDatabaseMemoryDriver.class.getClassLoader(),
+						new Class<?>[] { DatabaseMetaData.class }, new MemoryMetaDataHandler(fDatabase, fProxy));
+			case "isValid":
+				return !fClosed;
+			case "isClosed":
+				return fClosed;
+			case "close":
+				fClosed = true;
+				return null;
+			case "hashCode":
+				return System.identityHashCode(proxy);
+			case "equals":
+				return proxy == args[0];
+			case "toString":
+				return "JdbcDatabaseMemoryConnection[" + fDatabase.getDatabaseName() + "]";
+			default:
+				return defaultValue(method.getReturnType());
+			}
+		}
+
+		private Statement newStatement(String preparedSql) throws SQLException {
+			if (fClosed) {
+				throw new SQLException("Connection is closed.", "08003");
+			}
+			return (Statement) Proxy.newProxyInstance(JdbcDatabaseMemoryDriver.class.getClassLoader(),
+					new Class<?>[] { PreparedStatement.class },
+					new MemoryStatementHandler(fDatabase, fProxy, fMultiStatements, preparedSql));
+		}
+	}
+
+	/**
+	 * Statement and prepared statement of an in-memory database
+	 */
+	private static final class MemoryStatementHandler implements InvocationHandler {
+		private final @NonNull JdbcDatabaseMemoryDatabase fDatabase;
+		private final Connection fConnection;
+		private final boolean fMultiStatements;
+		private final String fPreparedSql;
+		private final List<String> fBatchSqls = new ArrayList<>();
+
+		/*
+		 * Results of the last execution, a ResultSet or an Integer update count
+		 * per statement.
+		 */
+		private final List<Object> fPendingResults = new ArrayList<>();
+		private Object fCurrentResult = null;
+		private volatile CountDownLatch fCancelLatch = new CountDownLatch(1);
+		private volatile int fQueryTimeoutSeconds = 0;
+		private volatile boolean fClosed = false;
+
+		private MemoryStatementHandler(@NonNull JdbcDatabaseMemoryDatabase database, Connection connection,
+				boolean multiStatements, String preparedSql) {
+			fDatabase = database;
+			fConnection = connection;
+			fMultiStatements = multiStatements;
+			fPreparedSql = preparedSql;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : fPreparedSql;
+			switch (method.getName()) {
+			case "execute":
+				execute(sql);
+				return fCurrentResult instanceof ResultSet;
+			case "executeQuery":
+				execute(sql);
+				if (!(fCurrentResult instanceof ResultSet)) {
+					throw new SQLException("Statement returns no results.", "S1000");
+				}
+				return fCurrentResult;
+			case "executeUpdate":
+			case "executeLargeUpdate":
+				execute(sql);
+				int updateCount = fCurrentResult instanceof Integer ? (Integer) fCurrentResult : 0;
+				return method.getReturnType() == long.class ? (Object) Long.valueOf(updateCount) : updateCount;
+			case "getResultSet":
+				return fCurrentResult instanceof ResultSet ? fCurrentResult : null;
+			case "getUpdateCount":
+				return fCurrentResult instanceof Integer ? (Integer) fCurrentResult : -1;
+			case "getMoreResults":
+				fCurrentResult = fPendingResults.isEmpty() ? null : fPendingResults.remove(0);
+				return fCurrentResult instanceof ResultSet;
+			case "addBatch":
+				fBatchSqls.add(sql);
+				return null;
+			case "clearBatch":
+				fBatchSqls.clear();
+				return null;
+			case "executeBatch":
+				return executeBatch();
+			case "cancel":
+				fCancelLatch.countDown();
+				return null;
+			case "setQueryTimeout":
+				fQueryTimeoutSeconds = (Integer) args[0];
+				return null;
+			case "getQueryTimeout":
+				return fQueryTimeoutSeconds;
+			case "getConnection":
+				return fConnection;
+			case "isClosed":
+				return fClosed;
+			case "close":
+				fClosed = true;
+				return null;
+			case "hashCode":
+				return System.identityHashCode(proxy);
+			case "equals":
+				return proxy == args[0];
+			default:
+				return defaultValue(method.getReturnType());
+			}
+		}
+
+		private void execute(String sql) throws SQLException {
+			if (fClosed) {
+				throw new SQLException("Statement is closed.", "S1009");
+			}
+			fPendingResults.clear();
+			fCurrentResult = null;
+			CountDownLatch cancelLatch = new CountDownLatch(1);
+			fCancelLatch = cancelLatch;
+			simulateLatency(fDatabase.getLatencyMillis(), cancelLatch, fQueryTimeoutSeconds);
+
+			List<String> statements = new ArrayList<>();
+			if (fMultiStatements) {
+				statements.addAll(splitStatements(sql));
+			}
+			if (statements.isEmpty()) {
+				statements.add(sql);
+			}
+			fCurrentResult = executeStatement(statements.get(0));
+			/*
+			 * Later statements of a multi-statement request fail on reading their
+			 * results, like on MYSQL Connector/J.
+			 */
+			for (int statement = 1; statement < statements.size(); statement++) {
+				try {
+					fPendingResults.add(executeStatement(statements.get(statement)));
+				} catch (SQLException statementException) {
+					break;
+				}
+			}
+		}
+
+		private Object executeStatement(String sql) throws SQLException {
+			ResultSet results = fDatabase.executeStatement(sql);
+			return results != null ? results : (Object) Integer.valueOf(fDatabase.getUpdateCount());
+		}
+
+		private int[] executeBatch() throws SQLException {
+			CountDownLatch cancelLatch = new CountDownLatch(1);
+			fCancelLatch = cancelLatch;
+			try {
+				simulateLatency(fDatabase.getLatencyMillis(), cancelLatch, fQueryTimeoutSeconds);
+				int[] updateCounts = new int[fBatchSqls.size()];
+				for (int statement = 0; statement < updateCounts.length; statement++) {
+					fDatabase.executeStatement(fBatchSqls.get(statement));
+					updateCounts[statement] = fDatabase.getUpdateCount();
+				}
+				return updateCounts;
+			} finally {
+				fBatchSqls.clear();
+			}
+		}
+	}
+
+	/**
+	 * Forward only ResultSet over in-memory rows
+	 */
+	private static final class MemoryResultSetHandler implements InvocationHandler {
+		private final @NonNull List<String> fColumns;
+		private final @NonNull List<Object[]> fRows;
+		private final @NonNull ResultSetMetaData fMetaData;
+		private int fRow = -1;
+		private boolean fWasNull = false;
+		private boolean fClosed = false;
+
+		private MemoryResultSetHandler(@NonNull List<String> columns, @NonNull List<Object[]> rows,
+				@NonNull ResultSetMetaData metaData) {
+			fColumns = columns;
+			fRows = rows;
+			fMetaData = metaData;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			String methodName = method.getName();
+			switch (methodName) {
+			case "next":
+				if (fRow < fRows.size()) {
+					fRow++;
+				}
+				return fRow < fRows.size();
+			case "getMetaData":
+				return fMetaData;
+			case "findColumn":
+				return findColumn((String) args[0]);
+			case "wasNull":
+				return fWasNull;
+			case "getType":
+				return ResultSet.TYPE_FORWARD_ONLY;
+			case "getConcurrency":
+				return ResultSet.CONCUR_READ_ONLY;
+			case "isBeforeFirst":
+				return fRow < 0 && !fRows.isEmpty();
+			case "isAfterLast":
+				return fRow >= fRows.size() && !fRows.isEmpty();
+			case "getRow":
+				return fRow >= 0 && fRow < fRows.size() ? fRow + 1 : 0;
+			case "isClosed":
+				return fClosed;
+			case "close":
+				fClosed = true;
+				return null;
+			case "hashCode":
+				return System.identityHashCode(proxy);
+			case "equals":
+				return proxy == args[0];
+			default:
+				if (methodName.startsWith("get") && args != null && args.length >= 1
+						&& (args[0] instanceof Integer || args[0] instanceof String)) {
+					return getValue(method.getReturnType(), args[0]);
+				}
+				return defaultValue(method.getReturnType());
+			}
+		}
+
+		private int findColumn(String columnLabel) throws SQLException {
+			for (int column = 0; column < fColumns.size(); column++) {
+				if (fColumns.get(column).equalsIgnoreCase(columnLabel)) {
+					return column + 1;
+				}
+			}
+			throw new SQLException("Column '" + columnLabel + "' not found.", "S0022");
+		}
+
+		/**
+		 * Get a column value of the current row converted to the return type of
+		 * the getter.
+		 */
+		private Object getValue(Class<?> returnType, Object columnIndexOrLabel) throws SQLException {
+			if (fRow < 0 || fRow >= fRows.size()) {
+				throw new SQLException("ResultSet is not on a row.", "S1000");
+			}
+			int column = columnIndexOrLabel instanceof Integer ? (Integer) columnIndexOrLabel
+					: findColumn((String) columnIndexOrLabel);
+			if (column < 1 || column > fColumns.size()) {
+				throw new SQLException("Column index " + column + " out of range.", "S1009");
+			}
+			Object value = fRows.get(fRow)[column - 1];
+			fWasNull = value == null;
+			if (value == null) {
+				return defaultValue(returnType);
+			}
+			if (returnType.isInstance(value)) {
+				return value;
+			}
+			if (returnType == String.class) {
+				return String.valueOf(value);
+			}
+			if (returnType == boolean.class) {
+				return value instanceof Number ? ((Number) value).intValue() != 0
+						: Boolean.parseBoolean(String.valueOf(value));
+			}
+			try {
+				BigDecimal number = value instanceof Number ? new BigDecimal(value.toString())
+						: new BigDecimal(String.valueOf(value).trim());
+				if (returnType == int.class) {
+					return number.intValue();
+				}
+				if (returnType == long.class) {
+					return number.longValue();
+				}
+				if (returnType == short.class) {
+					return number.shortValue();
+				}
+				if (returnType == byte.class) {
+					return number.byteValue();
+				}
+				if (returnType == double.class) {
+					return number.doubleValue();
+				}
+				if (returnType == float.class) {
+					return number.floatValue();
+				}
+				if (returnType == BigDecimal.class) {
+					return number;
+				}
+			} catch (NumberFormatException numberFormatException) {
+				throw new SQLException("Value '" + value + "' is not a number.", "22018");
+			}
+			throw new SQLException("Conversion to " + returnType.getSimpleName() + " is not supported.", "S1009");
+		}
+	}
+
+	/**
+	 * Database metadata of an in-memory database, catalogs contain the database
+	 * name, other metadata is empty.
+	 */
+	private static final class MemoryMetaDataHandler implements InvocationHandler {
+		private final @NonNull JdbcDatabaseMemoryDatabase fDatabase;
+		private final Connection fConnection;
+
+		private MemoryMetaDataHandler(@NonNull JdbcDatabaseMemoryDatabase database, Connection connection) {
+			fDatabase = database;
+			fConnection = connection;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			switch (method.getName()) {
+			case "getCatalogs":
+				List<String> catalogColumns = new ArrayList<>();
+				catalogColumns.add("TABLE_CAT");
+				List<Object[]> catalogs = new ArrayList<>();
+				catalogs.add(new Object[] { fDatabase.getDatabaseName() });
+				return buildResultSet(catalogColumns, catalogs);
+			case "getConnection":
+				return fConnection;
+			case "getURL":
+				return URL_PREFIX + fDatabase.getDatabaseName();
+			case "getDatabaseProductName":
+				return "QueryObject in-memory database";
+			case "getDriverName":
+				return JdbcDatabaseMemoryDriver.class.getName();
+			case "hashCode":
+				return System.identityHashCode(proxy);
+			case "equals":
+				return proxy == args[0];
+			default:
+				if (method.getReturnType() == ResultSet.class) {
+					List<String> emptyColumns = new ArrayList<>();
+					emptyColumns.add("TABLE_CAT");
+					return buildResultSet(emptyColumns, new ArrayList<Object[]>());
+				}
+				return defaultValue(method.getReturnType());
+			}
+		}
+	}
+}
@@ -0,0 +1,103 @@
+package QueryObjectFramework.JdbcDatabaseConnection;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Logger;
+
+import org.eclipse.jdt.annotation.NonNull;
+
+/**
+ * Query handle class of an asynchronous SQL execution, used to wait for the
+ * results or to cancel the execution.
+ *
+ * <example>
+ *  JdbcDatabaseQueryHandle<ResultSet> handle = jdbcDbConn.executeQueryObjectAsync(sql, true);
+ *  ResultSet results = handle.get(500);
+ *  if (results == null) {
+ *      handle.cancel();
+ *  }
+ * </example>
+ *
+ * Cancelling kills the running statement on the database server, a cancelled
+ * execution is not retried.
+ *
+ * @author Bohui Axelsson
+ */
+public class JdbcDatabaseQueryHandle<T> {
+	private static final Logger LOGGER = Logger.getLogger(JdbcDatabaseQueryHandle.class.getName());
+
+	private final @NonNull Future<T> fExecution;
+	private final @NonNull JdbcDatabaseDeadline fDeadline;
+
+	protected JdbcDatabaseQueryHandle(@NonNull Future<T> execution, @NonNull JdbcDatabaseDeadline deadline) {
+		fExecution = execution;
+		fDeadline = deadline;
+	}
+
+	/**
+	 * Wait for the execution to finish.
+	 *
+	 * @return Value produced by the execution, or NULL if execution failed, was
+	 *         cancelled or waiting is interrupted.
+	 */
+	public T get() {
+		try {
+			return fExecution.get();
+		} catch (InterruptedException interruptedException) {
+			Thread.currentThread().interrupt();
+			LOGGER.severe("Failed to get query results, waiting is interrupted.");
+		} catch (ExecutionException executionException) {
+			LOGGER.severe("Failed to get query results. Details: " + executionException.getCause());
+		} catch (CancellationException cancellationException) {
+			LOGGER.warning("Failed to get query results, execution is cancelled.");
+		}
+		return null;
+	}
+
+	/**
+	 * Wait at most timeoutMillis for the execution to finish, the execution
+	 * keeps running after a timeout.
+	 *
+	 * @param timeoutMillis
+	 * 			Waiting time in milliseconds
+	 * @return Value produced by the execution, or NULL if execution failed, was
+	 *         cancelled or is not finished in time.
+	 */
+	public T get(long timeoutMillis) {
+		try {
+			return fExecution.get(timeoutMillis, TimeUnit.MILLISECONDS);
+		} catch (TimeoutException timeoutException) {
+			LOGGER.warning("Query results are not ready after " + timeoutMillis + " ms.");
+		} catch (InterruptedException interruptedException) {
+			Thread.currentThread().interrupt();
+			LOGGER.severe("Failed to get query results, waiting is interrupted.");
+		} catch (ExecutionException executionException) {
+			LOGGER.severe("Failed to get query results. Details: " + executionException.getCause());
+		} catch (CancellationException cancellationException) {
+			LOGGER.warning("Failed to get query results, execution is cancelled.");
+		}
+		return null;
+	}
+
+	public boolean isDone() {
+		return fExecution.isDone();
+	}
+
+	/**
+	 * Cancel the execution, a running statement is cancelled on the database
+	 * server and a waiting execution is not started.
+	 *
+	 * @return False if the execution has already finished.
+	 */
+	public boolean cancel() {
+		if (fExecution.isDone()) {
+			return false;
+		}
+		fDeadline.cancel();
+		fExecution.cancel(false);
+		return true;
+	}
+}
@@ -0,0 +1,21 @@
+package QueryObjectFramework.JdbcDatabaseConnection;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Callback interface for consuming a live ResultSet while the JDBC connection
+ * is still open.
+ *
+ * The ResultSet, its statement and its connection are closed by
+ * JdbcDatabaseConnection right after the handler returns, so results must be
+ * fully consumed or copied inside the handler.
+ *
+ * @param <T>
+ *            Type of the value produced from the ResultSet
+ *
+ * @author Bohui Axelsson
+ */
+public interface JdbcDatabaseResultSetHandler<T> {
+	public T handleResultSet(ResultSet results) throws SQLException;
+}
@@ -0,0 +1,102 @@
+package QueryObjectFramework.JdbcDatabaseConnection;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Retry policy class defines how often and how long to wait before a
+ * statement failed by a transient error is executed again.
+ *
+ * Waiting time grows exponentially with the retry attempt, and is fully
+ * jittered, a random time between zero and the exponential limit, so clients
+ * that failed at the same moment do not retry at the same moment.
+ *
+ * <example>
+ *  Base delay 20 ms, max delay 1000 ms:
+ *  retry 1 waits 0..20 ms, retry 2 waits 0..40 ms, retry 3 waits 0..80 ms.
+ * </example>
+ *
+ * <example>
+ *  jdbcDbConn.setRetryPolicy(new JdbcDatabaseRetryPolicy(5, 50, 2000));
+ * </example>
+ *
+ * NOTE: Only idempotent statements are retried after they have been sent to
+ * the database server, see JdbcDatabaseConnection.executeQueryObject().
+ *
+ * @author Bohui Axelsson
+ */
+public class JdbcDatabaseRetryPolicy {
+	private static final int DEFAULT_MAX_ATTEMPTS = 3;
+	private static final long DEFAULT_BASE_DELAY_MILLIS = 20;
+	private static final long DEFAULT_MAX_DELAY_MILLIS = 1000;
+
+	private final int fMaxAttempts;
+	private final long fBaseDelayMillis;
+	private final long fMaxDelayMillis;
+
+	/**
+	 * Create a retry policy with 3 attempts, 20 ms base delay and 1000 ms max
+	 * delay.
+	 */
+	public JdbcDatabaseRetryPolicy() {
+		this(DEFAULT_MAX_ATTEMPTS, DEFAULT_BASE_DELAY_MILLIS, DEFAULT_MAX_DELAY_MILLIS);
+	}
+
+	/**
+	 * Create a retry policy.
+	 *
+	 * @param maxAttempts
+	 * 			Max amount of executions including the first one, setting 1 to
+	 * 			disable retry.
+	 * @param baseDelayMillis
+	 * 			Delay limit of the first retry in milliseconds
+	 * @param maxDelayMillis
+	 * 			Delay limit of any retry in milliseconds
+	 */
+	public JdbcDatabaseRetryPolicy(int maxAttempts, long baseDelayMillis, long maxDelayMillis) {
+		fMaxAttempts = Math.max(1, maxAttempts);
+		fBaseDelayMillis = Math.max(0, baseDelayMillis);
+		fMaxDelayMillis = Math.max(fBaseDelayMillis, maxDelayMillis);
+	}
+
+	/**
+	 * Create a retry policy which never retries.
+	 *
+	 * @return Retry policy with one attempt
+	 */
+	public static JdbcDatabaseRetryPolicy noRetry() {
+		return new JdbcDatabaseRetryPolicy(1, 0, 0);
+	}
+
+	public int getMaxAttempts() {
+		return fMaxAttempts;
+	}
+
+	/**
+	 * Check whether another attempt is allowed after a failed attempt.
+	 *
+	 * @param attempt
+	 * 			Failed attempt, the first execution is attempt 1.
+	 * @return True if the statement can be executed again.
+	 */
+	public boolean canRetry(int attempt) {
+		return attempt < fMaxAttempts;
+	}
+
+	/**
+	 * Get jittered backoff delay before the next attempt.
+	 *
+	 * @param attempt
+	 * 			Failed attempt, the first execution is attempt 1.
+	 * @return Delay in milliseconds, between 0 and min(max delay, base delay *
+	 *         2^(attempt - 1)).
+	 */
+	public long getBackoffDelayMillis(int attempt) {
+		int exponent = Math.min(Math.max(0, attempt - 1), 30);
+		long delayLimit = fBaseDelayMillis > (fMaxDelayMillis >> exponent) ? fMaxDelayMillis
+				: fBaseDelayMillis << exponent;
+		if (delayLimit <= 0) {
+			return 0;
+		}
+		return ThreadLocalRandom.current().nextLong(delayLimit + 1);
+	}
+}
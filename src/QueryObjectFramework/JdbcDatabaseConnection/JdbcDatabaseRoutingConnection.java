@@ -0,0 +1,327 @@
+package QueryObjectFramework.JdbcDatabaseConnection;
+
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import org.eclipse.jdt.annotation.NonNull;
+
+/**
+ * Routing JDBC database connection class, sends reads to replica databases and
+ * writes to the primary database.
+ *
+ * Statements are routed by statement type:
+ * - SELECT statements are sent to replicas, one replica after another in
+ *   round robin order.
+ * - INSERT INTO, UPDATE, DELETE, DDL statements, and SELECT statements locking
+ *   rows (FOR UPDATE, FOR SHARE, LOCK IN SHARE MODE) or taking user locks
+ *   (GET_LOCK(), RELEASE_LOCK()) are sent to the primary.
+ *
+ * All query objects accept a routing connection in place of a JDBC database
+ * connection.
+ *
+ * <example>
+ *  JdbcDatabaseRoutingConnection jdbcDbConn = new JdbcDatabaseRoutingConnection(
+ *      "com.mysql.jdbc.Driver", "jdbc:mysql://primary/shop", user, pass,
+ *      Arrays.asList("jdbc:mysql://replica1/shop", "jdbc:mysql://replica2/shop"));
+ *  QueryObjectSelect select = new QueryObjectSelect(jdbcDbConn, tables, columns);
+ * </example>
+ *
+ * Replicas apply writes of the primary with a delay. Reads that must see
+ * preceding writes can be routed to the primary:
+ * - Per call, by marking reads of the current thread with setReadFromPrimary().
+ * - Per session, by setting a read your writes window, reads of a thread are
+ *   then sent to the primary for a while after the thread issued a write.
+ *
+ * <example>
+ *  jdbcDbConn.setReadFromPrimary(true);
+ *  try {
+ *      select.selectColumns(false);
+ *  } finally {
+ *      jdbcDbConn.setReadFromPrimary(false);
+ *  }
+ * </example>
+ *
+ * NOTE: Metadata requests, for example getTableIndexes(), are sent to the
+ * primary.
+ *
+ * NOTE: Without replica URLs all statements are sent to the primary.
+ *
+ * @author Bohui Axelsson
+ */
+public class JdbcDatabaseRoutingConnection extends JdbcDatabaseConnection {
+	private static final Logger LOGGER = Logger.getLogger(JdbcDatabaseRoutingConnection.class.getName());
+
+	/*
+	 * Locking clauses and user lock functions of SELECT statements which require
+	 * the primary
+	 */
+	private static final String[] SQL_LOCKING_READ_CLAUSES = { "FOR UPDATE", "FOR SHARE", "LOCK IN SHARE MODE",
+			"GET_LOCK(", "RELEASE_LOCK(" };
+
+	private final @NonNull List<JdbcDatabaseConnection> fReplicaConns = new ArrayList<>();
+	private final @NonNull AtomicInteger fNextReplica = new AtomicInteger();
+
+	/*
+	 * Read from primary settings
+	 */
+	private final @NonNull ThreadLocal<Boolean> fReadFromPrimary = new ThreadLocal<>();
+	private final @NonNull ThreadLocal<Long> fLastWriteNanos = new ThreadLocal<>();
+	private volatile long fReadYourWritesWindowNanos = 0;
+
+	/**
+	 * Constructor of routing JDBC database connection class, setting user and
+	 * pass null if not required.
+	 *
+	 * @param jdbcDriver
+	 * 			JDBC driver name
+	 * @param primaryDbUrl
+	 * 			Database URL of the primary database
+	 * @param user
+	 * 			Database user name, shared by primary and replicas.
+	 * @param pass
+	 * 			Database password, shared by primary and replicas.
+	 * @param replicaDbUrls
+	 * 			Database URLs of replica databases
+	 */
+	public JdbcDatabaseRoutingConnection(String jdbcDriver, String primaryDbUrl, String user, String pass,
+			@NonNull List<String> replicaDbUrls) {
+		super(jdbcDriver, primaryDbUrl, user, pass);
+		for (String replicaDbUrl : replicaDbUrls) {
+			fReplicaConns.add(new JdbcDatabaseConnection(jdbcDriver, replicaDbUrl, user, pass));
+		}
+	}
+
+	/**
+	 * Get amount of replica databases.
+	 *
+	 * @return Amount of replicas
+	 */
+	public int getReplicaAmount() {
+		return fReplicaConns.size();
+	}
+
+	/**
+	 * Route reads of the current thread to the primary, until it is reset.
+	 *
+	 * @param readFromPrimary
+	 * 			True to send reads of the current thread to the primary.
+	 */
+	public void setReadFromPrimary(boolean readFromPrimary) {
+		if (readFromPrimary) {
+			fReadFromPrimary.set(Boolean.TRUE);
+		} else {
+			fReadFromPrimary.remove();
+		}
+	}
+
+	/**
+	 * Check whether reads of the current thread are routed to the primary by
+	 * setReadFromPrimary(), the read your writes window is not included.
+	 *
+	 * @return True if reads of the current thread are marked for the primary.
+	 */
+	public boolean isReadFromPrimary() {
+		return fReadFromPrimary.get() != null;
+	}
+
+	/**
+	 * Set read your writes window. After a thread issued a write, its reads are
+	 * sent to the primary until the window has passed.
+	 *
+	 * TIP: Setting the window a bit longer than the usual replication lag.
+	 *
+	 * @param windowMillis
+	 * 			Window in milliseconds, 0 to disable, default is 0.
+	 */
+	public void setReadYourWritesWindowMillis(long windowMillis) {
+		fReadYourWritesWindowNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, windowMillis));
+	}
+
+	/**
+	 * Set retry policy of primary and replica connections.
+	 *
+	 * @param retryPolicy
+	 * 			Retry policy
+	 */
+	@Override
+	public void setRetryPolicy(@NonNull JdbcDatabaseRetryPolicy retryPolicy) {
+		super.setRetryPolicy(retryPolicy);
+		for (JdbcDatabaseConnection replicaConn : fReplicaConns) {
+			replicaConn.setRetryPolicy(retryPolicy);
+		}
+	}
+
+	/**
+	 * Set query timeout of primary and replica connections.
+	 *
+	 * @param queryTimeoutMillis
+	 * 			Query timeout in milliseconds, 0 for no time limit
+	 */
+	@Override
+	public void setQueryTimeoutMillis(long queryTimeoutMillis) {
+		super.setQueryTimeoutMillis(queryTimeoutMillis);
+		for (JdbcDatabaseConnection replicaConn : fReplicaConns) {
+			replicaConn.setQueryTimeoutMillis(queryTimeoutMillis);
+		}
+	}
+
+	/**
+	 * Set admission controller of primary and replica connections.
+	 *
+	 * NOTE: One admission controller limits statements of the primary and the
+	 * replicas together.
+	 *
+	 * @param admissionController
+	 * 			Admission controller, or NULL to disable.
+	 */
+	@Override
+	public void setAdmissionController(JdbcDatabaseAdmissionController admissionController) {
+		super.setAdmissionController(admissionController);
+		for (JdbcDatabaseConnection replicaConn : fReplicaConns) {
+			replicaConn.setAdmissionController(admissionController);
+		}
+	}
+
+	/**
+	 * Set max idle connections of primary and replica connections.
+	 *
+	 * @param maxIdleConnections
+	 * 			Max idle connections of each connection
+	 */
+	@Override
+	public void setMaxIdleConnections(int maxIdleConnections) {
+		super.setMaxIdleConnections(maxIdleConnections);
+		for (JdbcDatabaseConnection replicaConn : fReplicaConns) {
+			replicaConn.setMaxIdleConnections(maxIdleConnections);
+		}
+	}
+
+	/**
+	 * Close idle connections of primary and replica connections.
+	 */
+	@Override
+	public void closeIdleConnections() {
+		super.closeIdleConnections();
+		for (JdbcDatabaseConnection replicaConn : fReplicaConns) {
+			replicaConn.closeIdleConnections();
+		}
+	}
+
+	/**
+	 * Execute SQL statement on a replica if it is a plain read, otherwise on the
+	 * primary.
+	 */
+	@Override
+	public <T> T executeQueryObject(String exeSql, boolean idempotent,
+			@NonNull JdbcDatabaseResultSetHandler<T> resultSetHandler) {
+		if (!isReadStatement(exeSql)) {
+			if (fReadYourWritesWindowNanos > 0) {
+				fLastWriteNanos.set(System.nanoTime());
+			}
+			return super.executeQueryObject(exeSql, idempotent, resultSetHandler);
+		}
+		if (fReplicaConns.isEmpty() || isRoutedToPrimary()) {
+			return super.executeQueryObject(exeSql, idempotent, resultSetHandler);
+		}
+
+		JdbcDatabaseConnection replicaConn = fReplicaConns
+				.get(Math.floorMod(fNextReplica.getAndIncrement(), fReplicaConns.size()));
+		LOGGER.fine("Routing read to replica " + replicaConn.getDbUrl());
+		return replicaConn.executeQueryObject(exeSql, idempotent, resultSetHandler);
+	}
+
+	/**
+	 * Execute a batch of writes on the primary.
+	 */
+	@Override
+	public int[] executeBatchQueryObjects(@NonNull List<String> exeSqls, boolean idempotent) {
+		if (fReadYourWritesWindowNanos > 0) {
+			fLastWriteNanos.set(System.nanoTime());
+		}
+		return super.executeBatchQueryObjects(exeSqls, idempotent);
+	}
+
+	/**
+	 * Execute a pipeline on a replica if all statements are plain reads,
+	 * otherwise on the primary.
+	 */
+	@Override
+	public List<ResultSet> executePipelinedQueryObjects(@NonNull List<String> exeSqls, boolean idempotent) {
+		boolean readPipeline = true;
+		for (String exeSql : exeSqls) {
+			readPipeline &= isReadStatement(exeSql);
+		}
+		if (!readPipeline) {
+			if (fReadYourWritesWindowNanos > 0) {
+				fLastWriteNanos.set(System.nanoTime());
+			}
+			return super.executePipelinedQueryObjects(exeSqls, idempotent);
+		}
+		if (fReplicaConns.isEmpty() || isRoutedToPrimary()) {
+			return super.executePipelinedQueryObjects(exeSqls, idempotent);
+		}
+		return fReplicaConns.get(Math.floorMod(fNextReplica.getAndIncrement(), fReplicaConns.size()))
+				.executePipelinedQueryObjects(exeSqls, idempotent);
+	}
+
+	/**
+	 * Open a cursor on a replica if the statement is a plain read, otherwise on
+	 * the primary.
+	 */
+	@Override
+	public JdbcDatabaseCursor openCursor(String exeSql, int fetchSize) {
+		if (fReplicaConns.isEmpty() || !isReadStatement(exeSql) || isRoutedToPrimary()) {
+			return super.openCursor(exeSql, fetchSize);
+		}
+		return fReplicaConns.get(Math.floorMod(fNextReplica.getAndIncrement(), fReplicaConns.size()))
+				.openCursor(exeSql, fetchSize);
+	}
+
+	/**
+	 * Check whether reads of the current thread must be sent to the primary.
+	 *
+	 * @return True if reads are marked for the primary, or the thread issued a
+	 *         write within the read your writes window.
+	 */
+	private boolean isRoutedToPrimary() {
+		if (fReadFromPrimary.get() != null) {
+			return true;
+		}
+		Long lastWriteNanos = fLastWriteNanos.get();
+		if (lastWriteNanos == null) {
+			return false;
+		}
+		if (System.nanoTime() - lastWriteNanos < fReadYourWritesWindowNanos) {
+			return true;
+		}
+		fLastWriteNanos.remove();
+		return false;
+	}
+
+	/**
+	 * Check whether a SQL statement is a plain read which can be sent to a
+	 * replica.
+	 *
+	 * @param exeSql
+	 * 			SQL string
+	 * @return True if the statement is a SELECT statement without locking
+	 *         clause or user lock function.
+	 */
+	protected boolean isReadStatement(String exeSql) {
+		if (!isIdempotentStatement(exeSql)) {
+			return false;
+		}
+		String statement = exeSql.toUpperCase(Locale.ROOT);
+		for (String lockingReadClause : SQL_LOCKING_READ_CLAUSES) {
+			if (statement.contains(lockingReadClause)) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -0,0 +1,303 @@
+package QueryObjectFramework.JdbcDatabaseConnection;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import org.eclipse.jdt.annotation.NonNull;
+
+import QueryObjectFramework.CommonClasses.SqlDataTypes;
+
+/**
+ * Schema metadata cache class keeps tables, columns, column data types and
+ * indexes of the connected database in memory.
+ *
+ * All metadata is loaded from information_schema in one bulk query, query
+ * objects can then validate table and column names, and pick quoting of
+ * values by column data types locally, without extra round trips.
+ *
+ * <example>
+ *  JdbcDatabaseSchemaCache schemaCache = new JdbcDatabaseSchemaCache(jdbcDbConn);
+ *  jdbcDbConn.setSchemaCache(schemaCache);
+ * </example>
+ *
+ * Metadata is loaded lazily on the first lookup. DDL statements issued through
+ * QueryObjectCreateTable, QueryObjectAlterTable, QueryObjectDropTable,
+ * QueryObjectCreateIndex and QueryObjectDropIndex invalidate the cache, the
+ * next lookup then reloads all metadata. DDL issued outside the framework
+ * requires an explicit refresh().
+ *
+ * NOTE: Names are looked up case insensitively.
+ *
+ * NOTE: At the moment, only MYSQL information_schema is supported.
+ *
+ * @author Bohui Axelsson
+ */
+public class JdbcDatabaseSchemaCache {
+	private static final Logger LOGGER = Logger.getLogger(JdbcDatabaseSchemaCache.class.getName());
+
+	/*
+	 * Columns and index columns of all tables in the current database, in one
+	 * result set ordered by table, index and position.
+	 */
+	private static final String SQL_LOAD_SCHEMA_METADATA =
+			"SELECT 'C' AS ENTRY_TYPE, TABLE_NAME, COLUMN_NAME, DATA_TYPE, '' AS INDEX_NAME, ORDINAL_POSITION AS POSITION"
+			+ " FROM information_schema.COLUMNS WHERE TABLE_SCHEMA = DATABASE()"
+			+ " UNION ALL"
+			+ " SELECT 'I' AS ENTRY_TYPE, TABLE_NAME, COLUMN_NAME, '' AS DATA_TYPE, INDEX_NAME, SEQ_IN_INDEX AS POSITION"
+			+ " FROM information_schema.STATISTICS WHERE TABLE_SCHEMA = DATABASE()"
+			+ " ORDER BY ENTRY_TYPE, TABLE_NAME, INDEX_NAME, POSITION;";
+
+	private final @NonNull JdbcDatabaseConnection fJdbcDbConn;
+
+	/*
+	 * Cached tables, lower case table name -> table metadata.
+	 */
+	private @NonNull Map<String, TableMetadata> fTables = new LinkedHashMap<>();
+	private boolean fStale = true;
+	private boolean fLoaded = false;
+
+	/**
+	 * Cached metadata of one table.
+	 */
+	private static final class TableMetadata {
+		private final @NonNull String fTableName;
+		private final @NonNull Map<String, String> fColumnNames = new LinkedHashMap<>();
+		private final @NonNull Map<String, SqlDataTypes> fColumnDataTypes = new LinkedHashMap<>();
+		private final @NonNull Map<String, List<String>> fIndexes = new LinkedHashMap<>();
+
+		private TableMetadata(@NonNull String tableName) {
+			fTableName = tableName;
+		}
+	}
+
+	/**
+	 * Create a schema metadata cache for the database behind one JDBC connection.
+	 *
+	 * @param jdbcDbConn
+	 * 			JDBC database connection
+	 */
+	public JdbcDatabaseSchemaCache(@NonNull JdbcDatabaseConnection jdbcDbConn) {
+		fJdbcDbConn = jdbcDbConn;
+	}
+
+	/**
+	 * Reload all tables, columns, data types and indexes in one bulk query.
+	 *
+	 * @return True if metadata has been reloaded.
+	 */
+	public synchronized boolean refresh() {
+		Map<String, TableMetadata> tables = fJdbcDbConn.executeQueryObject(SQL_LOAD_SCHEMA_METADATA,
+				new JdbcDatabaseResultSetHandler<Map<String, TableMetadata>>() {
+					@Override
+					public Map<String, TableMetadata> handleResultSet(ResultSet results) throws SQLException {
+						return loadSchemaMetadata(results);
+					}
+				});
+		/*
+		 * A failed reload is not retried on every lookup, it is retried on the next
+		 * invalidation or explicit refresh.
+		 */
+		fStale = false;
+		if (tables == null) {
+			LOGGER.severe("Failed to load schema metadata, cached metadata is kept.");
+			return false;
+		}
+		fTables = tables;
+		fLoaded = true;
+		LOGGER.config("Schema metadata cache is loaded with " + tables.size() + " tables.");
+		return true;
+	}
+
+	/**
+	 * Build table metadata from bulk metadata query results.
+	 *
+	 * @param results
+	 * 			Results of bulk metadata query
+	 * @return Lower case table name mapping to table metadata
+	 * @throws SQLException
+	 * 			Failed on reading results
+	 */
+	private static Map<String, TableMetadata> loadSchemaMetadata(ResultSet results) throws SQLException {
+		Map<String, TableMetadata> tables = new LinkedHashMap<>();
+		while (results.next()) {
+			String tableName = results.getString("TABLE_NAME");
+			String columnName = results.getString("COLUMN_NAME");
+			if (tableName == null || columnName == null) {
+				continue;
+			}
+			String tableKey = tableName.toLowerCase(Locale.ROOT);
+			TableMetadata table = tables.get(tableKey);
+			if (table == null) {
+				table = new TableMetadata(tableName);
+				tables.put(tableKey, table);
+			}
+
+			if (results.getString("ENTRY_TYPE").equals("C")) {
+				String columnKey = columnName.toLowerCase(Locale.ROOT);
+				table.fColumnNames.put(columnKey, columnName);
+				table.fColumnDataTypes.put(columnKey, toSqlDataType(results.getString("DATA_TYPE")));
+			} else {
+				String indexName = results.getString("INDEX_NAME");
+				List<String> indexColumns = table.fIndexes.get(indexName);
+				if (indexColumns == null) {
+					indexColumns = new ArrayList<>();
+					table.fIndexes.put(indexName, indexColumns);
+				}
+				indexColumns.add(columnName);
+			}
+		}
+		return tables;
+	}
+
+	/**
+	 * Map an information_schema DATA_TYPE to SqlDataTypes.
+	 *
+	 * @param dataType
+	 * 			information_schema DATA_TYPE, for example varchar.
+	 * @return Matching SqlDataTypes, EMPTYDATATYPE if the type is not supported.
+	 */
+	private static SqlDataTypes toSqlDataType(String dataType) {
+		if (dataType == null) {
+			return SqlDataTypes.EMPTYDATATYPE;
+		}
+		try {
+			return SqlDataTypes.valueOf(dataType.trim().toUpperCase(Locale.ROOT));
+		} catch (IllegalArgumentException unsupportedDataTypeException) {
+			return SqlDataTypes.EMPTYDATATYPE;
+		}
+	}
+
+	/**
+	 * Invalidate metadata after a DDL statement on a table, all metadata is
+	 * reloaded on the next lookup.
+	 *
+	 * @param tableName
+	 * 			Table name changed by DDL
+	 */
+	public synchronized void invalidate(@NonNull String tableName) {
+		LOGGER.config("Schema metadata of table " + tableName + " is invalidated.");
+		fStale = true;
+	}
+
+	/**
+	 * Get metadata of one table, reloading metadata first if it is stale.
+	 *
+	 * @param tableName
+	 * 			Table name
+	 * @return Table metadata or NULL if the table does not exist.
+	 */
+	private TableMetadata lookupTable(String tableName) {
+		if (fStale) {
+			refresh();
+		}
+		return tableName == null ? null : fTables.get(tableName.trim().toLowerCase(Locale.ROOT));
+	}
+
+	/**
+	 * Check whether schema metadata has been loaded, loading it first if needed.
+	 * Lookups on a cache that has never been loaded can not tell whether names
+	 * exist, so callers should skip validation in that case.
+	 *
+	 * @return True if schema metadata is available.
+	 */
+	public synchronized boolean isLoaded() {
+		lookupTable(null);
+		return fLoaded;
+	}
+
+	/**
+	 * Check whether a table exists.
+	 *
+	 * @param tableName
+	 * 			Table name
+	 * @return True if the table exists.
+	 */
+	public synchronized boolean containsTable(@NonNull String tableName) {
+		return lookupTable(tableName) != null;
+	}
+
+	/**
+	 * Check whether a column exists in a table.
+	 *
+	 * @param tableName
+	 * 			Table name
+	 * @param columnName
+	 * 			Column name
+	 * @return True if the column exists in the table.
+	 */
+	public synchronized boolean containsColumn(@NonNull String tableName, @NonNull String columnName) {
+		TableMetadata table = lookupTable(tableName);
+		return table != null && table.fColumnNames.containsKey(columnName.trim().toLowerCase(Locale.ROOT));
+	}
+
+	/**
+	 * Get names of all cached tables.
+	 *
+	 * @return Table names
+	 */
+	public synchronized @NonNull List<String> getTableNames() {
+		lookupTable(null);
+		List<String> tableNames = new ArrayList<>();
+		for (TableMetadata table : fTables.values()) {
+			tableNames.add(table.fTableName);
+		}
+		return tableNames;
+	}
+
+	/**
+	 * Get column names of a table in column definition order.
+	 *
+	 * @param tableName
+	 * 			Table name
+	 * @return Column names, empty if the table does not exist.
+	 */
+	public synchronized @NonNull List<String> getColumnNames(@NonNull String tableName) {
+		TableMetadata table = lookupTable(tableName);
+		return table == null ? new ArrayList<String>() : new ArrayList<>(table.fColumnNames.values());
+	}
+
+	/**
+	 * Get data type of a column.
+	 *
+	 * @param tableName
+	 * 			Table name
+	 * @param columnName
+	 * 			Column name
+	 * @return Column data type, EMPTYDATATYPE if the column does not exist or the
+	 *         type is not supported by SqlDataTypes.
+	 */
+	public synchronized @NonNull SqlDataTypes getColumnDataType(@NonNull String tableName,
+			@NonNull String columnName) {
+		TableMetadata table = lookupTable(tableName);
+		if (table == null) {
+			return SqlDataTypes.EMPTYDATATYPE;
+		}
+		SqlDataTypes dataType = table.fColumnDataTypes.get(columnName.trim().toLowerCase(Locale.ROOT));
+		return dataType == null ? SqlDataTypes.EMPTYDATATYPE : dataType;
+	}
+
+	/**
+	 * Get all indexes of a table.
+	 *
+	 * @param tableName
+	 * 			Table name
+	 * @return Index names mapping to ordered index column names, empty if the
+	 *         table has no index or does not exist.
+	 */
+	public synchronized @NonNull Map<String, List<String>> getTableIndexes(@NonNull String tableName) {
+		Map<String, List<String>> tableIndexes = new LinkedHashMap<>();
+		TableMetadata table = lookupTable(tableName);
+		if (table != null) {
+			for (Map.Entry<String, List<String>> index : table.fIndexes.entrySet()) {
+				tableIndexes.put(index.getKey(), new ArrayList<>(index.getValue()));
+			}
+		}
+		return tableIndexes;
+	}
+}
@@ -0,0 +1,827 @@
+package QueryObjectFramework.JdbcDatabaseConnection;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import org.eclipse.jdt.annotation.NonNull;
+
+import QueryObjectFramework.CommonClasses.SqlQueryTypes;
+import QueryObjectFramework.CommonClasses.SqlStatementStrings;
+
+/**
+ * Sharded JDBC database connection class, spreads rows of sharded tables over
+ * several databases by a shard key column.
+ *
+ * Shard key values are mapped to shards by consistent hashing, every shard owns
+ * many points on a hash ring, and a value belongs to the shard owning the next
+ * point after the hash of the value. Adding a shard to N shards therefore only
+ * moves about 1/(N+1) of the rows.
+ *
+ * Statements are routed by query objects:
+ * - Statements with one shard key value, in an '=' WHERE criteria condition
+ *   or an inserted column value, are sent directly to the owning shard.
+ * - SELECT statements without shard key value are sent to all shards in
+ *   parallel, and results are merged on the client. COUNT, SUM, MIN and MAX
+ *   columns are combined per group of the other columns, DISTINCT rows are
+ *   deduplicated, ORDER BY columns are sorted again and LIMIT is applied to
+ *   the merged rows.
+ * - UPDATE, DELETE and DDL statements without shard key value are sent to all
+ *   shards.
+ * - INSERT INTO statements without shard key value are rejected.
+ *
+ * <example>
+ *  JdbcDatabaseShardedConnection jdbcDbConn = new JdbcDatabaseShardedConnection(Arrays.asList(
+ *      new JdbcDatabaseConnection(driver, "jdbc:mysql://shard0/shop", user, pass),
+ *      new JdbcDatabaseConnection(driver, "jdbc:mysql://shard1/shop", user, pass)));
+ *  jdbcDbConn.setShardKeyColumn("Orders", "CustomerID");
+ *
+ *  // Sent to one shard
+ *  SELECT * FROM Orders WHERE CustomerID = 7;
+ *  // Sent to all shards, per shard counts are summed up
+ *  SELECT COUNT(OrderID) FROM Orders;
+ * </example>
+ *
+ * NOTE: AVG and aggregates over DISTINCT values can not be combined from
+ * per shard results, such statements fail without shard key value.
+ *
+ * NOTE: Tables without shard key column are treated as replicated on every
+ * shard, reads of query objects on them are sent to one shard. Joined tables
+ * must be sharded by the same key to be joined on each shard.
+ *
+ * TIP: Create the schema metadata cache on one shard connection, all shards
+ * share one schema:
+ * jdbcDbConn.setSchemaCache(new JdbcDatabaseSchemaCache(shardConn0)).
+ *
+ * NOTE: Updating the shard key value of a row does not move the row to another
+ * shard.
+ *
+ * @author Bohui Axelsson
+ */
+public class JdbcDatabaseShardedConnection extends JdbcDatabaseConnection {
+	private static final Logger LOGGER = Logger.getLogger(JdbcDatabaseShardedConnection.class.getName());
+
+	private static final int VIRTUAL_NODES_PER_SHARD = 160;
+
+	/*
+	 * Handler telling a successful write from a failed one, writes without
+	 * results are NULL otherwise in both cases.
+	 */
+	private static final JdbcDatabaseResultSetHandler<Boolean> WRITE_EXECUTED_HANDLER = new JdbcDatabaseResultSetHandler<Boolean>() {
+		@Override
+		public Boolean handleResultSet(ResultSet results) {
+			return Boolean.TRUE;
+		}
+	};
+
+	/*
+	 * Combination of one result column over shards
+	 */
+	private enum ShardColumnMerge {
+		GROUP, SUM, MIN, MAX, UNSUPPORTED
+	}
+
+	/**
+	 * Handled results of one shard, tells a successful execution with NULL
+	 * handled results apart from a failed execution.
+	 */
+	private static final class ShardWriteResult<T> {
+		private final T fHandledResults;
+
+		private ShardWriteResult(T handledResults) {
+			fHandledResults = handledResults;
+		}
+	}
+
+	private final @NonNull List<JdbcDatabaseConnection> fShardConns = new ArrayList<>();
+	private final @NonNull TreeMap<Long, JdbcDatabaseConnection> fHashRing = new TreeMap<>();
+
+	/*
+	 * Lower case table name -> shard key column
+	 */
+	private final @NonNull Map<String, String> fShardKeyColumns = new ConcurrentHashMap<>();
+	private final @NonNull ExecutorService fScatterExecutor;
+	private final @NonNull AtomicInteger fNextReplicatedShard = new AtomicInteger();
+
+	/**
+	 * Constructor of sharded JDBC database connection class.
+	 *
+	 * NOTE: The order of shard connections is part of the hash ring, it must be
+	 * the same for all clients.
+	 *
+	 * @param shardConns
+	 * 			JDBC database connections of all shards
+	 */
+	public JdbcDatabaseShardedConnection(@NonNull List<JdbcDatabaseConnection> shardConns) {
+		super(null, null, null, null);
+		fShardConns.addAll(shardConns);
+		for (int shard = 0; shard < fShardConns.size(); shard++) {
+			for (int virtualNode = 0; virtualNode < VIRTUAL_NODES_PER_SHARD; virtualNode++) {
+				fHashRing.put(hashShardKey("shard-" + shard + "#" + virtualNode), fShardConns.get(shard));
+			}
+		}
+		fScatterExecutor = Executors.newFixedThreadPool(Math.max(1, fShardConns.size()), new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "JdbcDatabaseShardedConnection-scatter");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+
+	/**
+	 * Set shard key column of a sharded table.
+	 *
+	 * @param tableName
+	 * 			Table name
+	 * @param shardKeyColumn
+	 * 			Shard key column name
+	 */
+	public void setShardKeyColumn(@NonNull String tableName, @NonNull String shardKeyColumn) {
+		fShardKeyColumns.put(tableName.trim().toLowerCase(Locale.ROOT), shardKeyColumn.trim());
+	}
+
+	/**
+	 * Get shard key column of a table.
+	 *
+	 * @param tableName
+	 * 			Table name
+	 * @return Shard key column name, or NULL if the table is not sharded.
+	 */
+	public String getShardKeyColumn(@NonNull String tableName) {
+		return fShardKeyColumns.get(tableName.trim().toLowerCase(Locale.ROOT));
+	}
+
+	public int getShardAmount() {
+		return fShardConns.size();
+	}
+
+	/**
+	 * Get the JDBC database connection of the shard owning a shard key value.
+	 *
+	 * NOTE: Values are hashed by their string form, so 7 and "7" belong to the
+	 * same shard.
+	 *
+	 * @param shardKeyValue
+	 * 			Shard key value
+	 * @return JDBC database connection of the owning shard
+	 */
+	public JdbcDatabaseConnection getShardConnection(@NonNull Object shardKeyValue) {
+		if (fHashRing.isEmpty()) {
+			return null;
+		}
+		Map.Entry<Long, JdbcDatabaseConnection> shardPoint = fHashRing
+				.ceilingEntry(hashShardKey(String.valueOf(shardKeyValue).trim()));
+		return shardPoint == null ? fHashRing.firstEntry().getValue() : shardPoint.getValue();
+	}
+
+	/**
+	 * Execute SQL statement on the shard owning a shard key value.
+	 *
+	 * @param shardKeyValue
+	 * 			Shard key value
+	 * @param exeSql
+	 * 			SQL string
+	 * @param idempotent
+	 * 			True if executing the statement twice has the same effect as
+	 * 			executing it once.
+	 * @return ResultSet SQL execution results
+	 */
+	public ResultSet executeQueryObjectOnShard(@NonNull Object shardKeyValue, String exeSql, boolean idempotent) {
+		JdbcDatabaseConnection shardConn = getShardConnection(shardKeyValue);
+		if (shardConn == null) {
+			LOGGER.severe("Failed to execute sql, no shard is configured.");
+			return null;
+		}
+		return shardConn.executeQueryObject(exeSql, idempotent);
+	}
+
+	/**
+	 * Execute SQL statement reading a replicated table on one shard, shards are
+	 * used one after another in round robin order.
+	 *
+	 * @param exeSql
+	 * 			SQL string
+	 * @param idempotent
+	 * 			True if executing the statement twice has the same effect as
+	 * 			executing it once.
+	 * @return ResultSet SQL execution results
+	 */
+	public ResultSet executeReplicatedQueryObject(String exeSql, boolean idempotent) {
+		if (fShardConns.isEmpty()) {
+			LOGGER.severe("Failed to execute sql, no shard is configured.");
+			return null;
+		}
+		return fShardConns.get(Math.floorMod(fNextReplicatedShard.getAndIncrement(), fShardConns.size()))
+				.executeQueryObject(exeSql, idempotent);
+	}
+
+	/**
+	 * Execute SQL statement without shard key value on all shards.
+	 *
+	 * NOTE: A write sent to all shards is not atomic across shards, shards
+	 * apply it independently. If it fails on any shard, NULL is returned
+	 * although other shards may have applied it.
+	 */
+	@Override
+	public <T> T executeQueryObject(String exeSql, boolean idempotent,
+			@NonNull final JdbcDatabaseResultSetHandler<T> resultSetHandler) {
+		if (fShardConns.isEmpty()) {
+			LOGGER.severe("Failed to execute sql, no shard is configured.");
+			return null;
+		}
+		if (exeSql != null && exeSql.trim().toUpperCase(Locale.ROOT).startsWith(SqlQueryTypes.INSERT.sqlQueryType())) {
+			LOGGER.severe("Failed to execute sql, inserted values contain no shard key value.");
+			return null;
+		}
+		if (!isIdempotentStatement(exeSql)) {
+			List<ShardWriteResult<T>> shardResults = scatterQueryObject(exeSql, idempotent,
+					new JdbcDatabaseResultSetHandler<ShardWriteResult<T>>() {
+						@Override
+						public ShardWriteResult<T> handleResultSet(ResultSet results) throws SQLException {
+							return new ShardWriteResult<T>(resultSetHandler.handleResultSet(results));
+						}
+					});
+			if (shardResults == null || shardResults.contains(null)) {
+				LOGGER.severe("Failed to execute sql on all shards, shards which succeeded have applied it.");
+				return null;
+			}
+			return shardResults.get(0).fHandledResults;
+		}
+
+		List<ResultSet> shardResults = scatterQueryObject(exeSql, idempotent, null);
+		if (shardResults == null || shardResults.contains(null)) {
+			LOGGER.severe("Failed to execute sql on all shards, partial results are dropped.");
+			return null;
+		}
+		try {
+			ResultSet mergedResults = mergeShardResults(exeSql, shardResults);
+			return mergedResults == null ? null : resultSetHandler.handleResultSet(mergedResults);
+		} catch (SQLException mergeException) {
+			LOGGER.severe("Failed to merge shard results. Details: " + mergeException.getMessage());
+			return null;
+		}
+	}
+
+	/**
+	 * Execute a batch of statements without shard key value on every shard, one
+	 * transaction per shard.
+	 *
+	 * NOTE: Shards commit independently, a failed shard does not roll back the
+	 * batch on shards which have already committed.
+	 *
+	 * @return Update counts of the first shard, or NULL if the batch failed on
+	 *         any shard. The outcome is unknown, see isLastBatchOutcomeUnknown(),
+	 *         if any shard has committed the batch.
+	 */
+	@Override
+	public int[] executeBatchQueryObjects(@NonNull List<String> exeSqls, boolean idempotent) {
+		setLastBatchOutcomeUnknown(false);
+		if (fShardConns.isEmpty()) {
+			LOGGER.severe("Failed to execute batch, no shard is configured.");
+			return null;
+		}
+		for (String exeSql : exeSqls) {
+			if (exeSql != null
+					&& exeSql.trim().toUpperCase(Locale.ROOT).startsWith(SqlQueryTypes.INSERT.sqlQueryType())) {
+				LOGGER.severe("Failed to execute batch, inserted values contain no shard key value.");
+				return null;
+			}
+		}
+		int[] firstShardUpdateCounts = null;
+		for (JdbcDatabaseConnection shardConn : fShardConns) {
+			int[] updateCounts = shardConn.executeBatchQueryObjects(exeSqls, idempotent);
+			if (updateCounts == null) {
+				/*
+				 * Shards before the failed shard have committed the batch.
+				 */
+				setLastBatchOutcomeUnknown(firstShardUpdateCounts != null || isLastBatchOutcomeUnknown());
+				return null;
+			}
+			if (firstShardUpdateCounts == null) {
+				firstShardUpdateCounts = updateCounts;
+			}
+		}
+		return firstShardUpdateCounts;
+	}
+
+	/**
+	 * Execute statements of a pipeline one by one, each on all shards.
+	 *
+	 * NOTE: Pipelined statements carry no shard key value, statements are not
+	 * routed to a single shard and are not combined into one request.
+	 *
+	 * NOTE: Results of statements other than SELECT are NULL entries, a failed
+	 * statement on any shard stops the statements after it.
+	 */
+	@Override
+	public List<ResultSet> executePipelinedQueryObjects(@NonNull List<String> exeSqls, boolean idempotent) {
+		List<ResultSet> pipelineResults = new ArrayList<>();
+		for (String exeSql : exeSqls) {
+			boolean executed;
+			ResultSet results = null;
+			if (isIdempotentStatement(exeSql)) {
+				results = executeQueryObject(exeSql, idempotent);
+				executed = results != null;
+			} else {
+				executed = executeQueryObject(exeSql, idempotent, WRITE_EXECUTED_HANDLER) != null;
+			}
+			if (!executed) {
+				LOGGER.severe("Failed to execute pipeline on shards, statement " + (pipelineResults.size() + 1)
+						+ " failed.");
+				return null;
+			}
+			pipelineResults.add(results);
+		}
+		return pipelineResults;
+	}
+
+	/**
+	 * Execute SQL statement on all shards in parallel, shard executions inherit
+	 * the current JdbcDatabaseDeadline.
+	 *
+	 * @param exeSql
+	 * 			SQL string
+	 * @param idempotent
+	 * 			True if executing the statement twice has the same effect as
+	 * 			executing it once.
+	 * @param resultSetHandler
+	 * 			Handler consuming SQL execution results of each shard, NULL for
+	 * 			disconnected ResultSets.
+	 * @return Results of shards in shard order, or NULL if waiting for shards is
+	 *         interrupted.
+	 */
+	@SuppressWarnings("unchecked")
+	private <T> List<T> scatterQueryObject(final String exeSql, final boolean idempotent,
+			final JdbcDatabaseResultSetHandler<T> resultSetHandler) {
+		List<Future<T>> shardFutures = new ArrayList<>();
+		final JdbcDatabaseDeadline scatterDeadline = JdbcDatabaseDeadline.current();
+		for (final JdbcDatabaseConnection shardConn : fShardConns) {
+			shardFutures.add(fScatterExecutor.submit(new Callable<T>() {
+				@Override
+				public T call() {
+					JdbcDatabaseDeadline shardDeadline = JdbcDatabaseDeadline.inherit(scatterDeadline);
+					try {
+						if (resultSetHandler == null) {
+							return (T) shardConn.executeQueryObject(exeSql, idempotent);
+						}
+						return shardConn.executeQueryObject(exeSql, idempotent, resultSetHandler);
+					} finally {
+						if (shardDeadline != null) {
+							shardDeadline.close();
+						}
+					}
+				}
+			}));
+		}
+
+		List<T> shardResults = new ArrayList<>();
+		for (Future<T> shardFuture : shardFutures) {
+			try {
+				shardResults.add(shardFuture.get());
+			} catch (InterruptedException interruptedException) {
+				Thread.currentThread().interrupt();
+				LOGGER.severe("Failed to execute sql on all shards, waiting is interrupted.");
+				return null;
+			} catch (ExecutionException executionException) {
+				LOGGER.severe("Failed to execute sql on a shard. Details: " + executionException.getCause());
+				shardResults.add(null);
+			}
+		}
+		return shardResults;
+	}
+
+	/**
+	 * Merge SELECT results of all shards into one ResultSet.
+	 *
+	 * @param exeSql
+	 * 			SELECT SQL string
+	 * @param shardResults
+	 * 			Results of all shards
+	 * @return Merged results, or NULL if aggregates can not be combined.
+	 * @throws SQLException
+	 * 			Failed on reading shard results
+	 */
+	private ResultSet mergeShardResults(String exeSql, List<ResultSet> shardResults) throws SQLException {
+		ResultSetMetaData metaData = shardResults.get(0).getMetaData();
+		int columnAmount = metaData.getColumnCount();
+		ShardColumnMerge[] columnMerges = new ShardColumnMerge[columnAmount];
+		boolean aggregated = false;
+		for (int column = 0; column < columnAmount; column++) {
+			columnMerges[column] = toShardColumnMerge(metaData.getColumnLabel(column + 1));
+			if (columnMerges[column] == ShardColumnMerge.UNSUPPORTED) {
+				LOGGER.severe("Failed to merge shard results, column " + metaData.getColumnLabel(column + 1)
+						+ " can not be combined over shards.");
+				return null;
+			}
+			aggregated |= columnMerges[column] != ShardColumnMerge.GROUP;
+		}
+
+		List<Object[]> rows = new ArrayList<>();
+		for (ResultSet shardResult : shardResults) {
+			shardResult.beforeFirst();
+			while (shardResult.next()) {
+				Object[] row = new Object[columnAmount];
+				for (int column = 0; column < columnAmount; column++) {
+					row[column] = shardResult.getObject(column + 1);
+				}
+				rows.add(row);
+			}
+		}
+
+		String upperSql = exeSql.trim().toUpperCase(Locale.ROOT);
+		/*
+		 * An optimizer hint comment may precede DISTINCT
+		 */
+		String selectModifiers = upperSql.substring(SqlQueryTypes.SELECT.sqlQueryType().length()).trim();
+		if (selectModifiers.startsWith(SqlStatementStrings.SQL_TABLE_OPTIMIZER_HINT_START)) {
+			int hintEnd = selectModifiers.indexOf(SqlStatementStrings.SQL_TABLE_OPTIMIZER_HINT_END);
+			selectModifiers = hintEnd < 0 ? selectModifiers
+					: selectModifiers.substring(hintEnd + SqlStatementStrings.SQL_TABLE_OPTIMIZER_HINT_END.length()).trim();
+		}
+		if (aggregated) {
+			rows = aggregateRows(rows, columnMerges);
+		} else if (selectModifiers.startsWith(SqlStatementStrings.SQL_TABLE_DISTINCT + " ")) {
+			Map<List<Object>, Object[]> distinctRows = new LinkedHashMap<>();
+			for (Object[] row : rows) {
+				distinctRows.put(Arrays.asList(row), row);
+			}
+			rows = new ArrayList<>(distinctRows.values());
+		}
+		sortRows(upperSql, metaData, rows);
+
+		/*
+		 * Every shard returns up to LIMIT rows, keep the first LIMIT merged rows
+		 */
+		int rowLimit = parseRowLimit(upperSql);
+		if (rowLimit >= 0 && rows.size() > rowLimit) {
+			rows = new ArrayList<>(rows.subList(0, rowLimit));
+		}
+		return buildCachedRowSet(metaData, rows);
+	}
+
+	/**
+	 * Get combination of one result column from its column label.
+	 *
+	 * @param columnLabel
+	 * 			Result column label, for example COUNT(OrderID).
+	 * @return Combination of the column over shards
+	 */
+	private static ShardColumnMerge toShardColumnMerge(String columnLabel) {
+		String label = columnLabel == null ? "" : columnLabel.replace(" ", "").toUpperCase(Locale.ROOT);
+		if (label.startsWith(SqlStatementStrings.SQL_TABLE_AVG + "(")
+				|| label.contains("(" + SqlStatementStrings.SQL_TABLE_DISTINCT)) {
+			return ShardColumnMerge.UNSUPPORTED;
+		}
+		if (label.startsWith(SqlStatementStrings.SQL_TABLE_COUNT + "(")
+				|| label.startsWith(SqlStatementStrings.SQL_TABLE_SUM + "(")) {
+			return ShardColumnMerge.SUM;
+		}
+		if (label.startsWith(SqlStatementStrings.SQL_TABLE_MIN + "(")) {
+			return ShardColumnMerge.MIN;
+		}
+		if (label.startsWith(SqlStatementStrings.SQL_TABLE_MAX + "(")) {
+			return ShardColumnMerge.MAX;
+		}
+		return ShardColumnMerge.GROUP;
+	}
+
+	/**
+	 * Combine aggregate columns of rows with equal group columns.
+	 *
+	 * @param rows
+	 * 			Rows of all shards
+	 * @param columnMerges
+	 * 			Combination of each column
+	 * @return One row per group
+	 */
+	private static List<Object[]> aggregateRows(List<Object[]> rows, ShardColumnMerge[] columnMerges) {
+		Map<List<Object>, Object[]> groups = new LinkedHashMap<>();
+		for (Object[] row : rows) {
+			List<Object> groupKey = new ArrayList<>();
+			for (int column = 0; column < row.length; column++) {
+				if (columnMerges[column] == ShardColumnMerge.GROUP) {
+					groupKey.add(row[column]);
+				}
+			}
+			Object[] groupRow = groups.get(groupKey);
+			if (groupRow == null) {
+				groups.put(groupKey, row.clone());
+				continue;
+			}
+			for (int column = 0; column < row.length; column++) {
+				groupRow[column] = mergeColumnValue(columnMerges[column], groupRow[column], row[column]);
+			}
+		}
+		return new ArrayList<>(groups.values());
+	}
+
+	/**
+	 * Combine two values of an aggregate column, NULL values are ignored like SQL
+	 * aggregates do.
+	 *
+	 * @param columnMerge
+	 * 			Combination of the column
+	 * @param mergedValue
+	 * 			Value combined so far
+	 * @param value
+	 * 			Value of the next shard
+	 * @return Combined value
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static Object mergeColumnValue(ShardColumnMerge columnMerge, Object mergedValue, Object value) {
+		if (columnMerge == ShardColumnMerge.GROUP || value == null) {
+			return mergedValue;
+		}
+		if (mergedValue == null) {
+			return value;
+		}
+		if (columnMerge == ShardColumnMerge.SUM) {
+			return addNumbers((Number) mergedValue, (Number) value);
+		}
+		int comparison = ((Comparable) mergedValue).compareTo(value);
+		return (columnMerge == ShardColumnMerge.MIN) == (comparison <= 0) ? mergedValue : value;
+	}
+
+	/**
+	 * Add two numbers keeping the widest number type of both.
+	 *
+	 * @param number0
+	 * 			Number
+	 * @param number1
+	 * 			Number
+	 * @return Sum of both numbers
+	 */
+	private static Number addNumbers(Number number0, Number number1) {
+		if (number0 instanceof BigDecimal || number1 instanceof BigDecimal) {
+			return new BigDecimal(number0.toString()).add(new BigDecimal(number1.toString()));
+		}
+		if (number0 instanceof Double || number0 instanceof Float || number1 instanceof Double
+				|| number1 instanceof Float) {
+			return number0.doubleValue() + number1.doubleValue();
+		}
+		if (number0 instanceof BigInteger || number1 instanceof BigInteger) {
+			return new BigInteger(number0.toString()).add(new BigInteger(number1.toString()));
+		}
+		return number0.longValue() + number1.longValue();
+	}
+
+	/**
+	 * Sort merged rows by the ORDER BY clause of the statement. Rows are kept in
+	 * shard order if an ORDER BY column is not part of the results.
+	 *
+	 * @param upperSql
+	 * 			Upper case SELECT SQL string
+	 * @param metaData
+	 * 			Result column metadata
+	 * @param rows
+	 * 			Merged rows
+	 * @throws SQLException
+	 * 			Failed on reading column metadata
+	 */
+	private static void sortRows(String upperSql, ResultSetMetaData metaData, List<Object[]> rows)
+			throws SQLException {
+		int orderByIndex = upperSql.lastIndexOf(" " + SqlStatementStrings.SQL_TABLE_ORDER_BY + " ");
+		if (orderByIndex < 0 || rows.size() < 2) {
+			return;
+		}
+		String orderByClause = upperSql.substring(orderByIndex + SqlStatementStrings.SQL_TABLE_ORDER_BY.length() + 2);
+		if (orderByClause.endsWith(";")) {
+			orderByClause = orderByClause.substring(0, orderByClause.length() - 1);
+		}
+		int limitIndex = orderByClause.lastIndexOf(" " + SqlStatementStrings.SQL_TABLE_LIMIT + " ");
+		if (limitIndex >= 0) {
+			orderByClause = orderByClause.substring(0, limitIndex);
+		}
+
+		final List<Integer> sortColumns = new ArrayList<>();
+		final List<Boolean> descendings = new ArrayList<>();
+		for (String orderBy : orderByClause.split(",")) {
+			String[] orderByParts = orderBy.trim().split("\\s+");
+			String orderByColumn = orderByParts[0].substring(orderByParts[0].lastIndexOf('.') + 1);
+			int sortColumn = -1;
+			for (int column = 1; column <= metaData.getColumnCount(); column++) {
+				if (metaData.getColumnLabel(column).equalsIgnoreCase(orderByColumn)) {
+					sortColumn = column - 1;
+					break;
+				}
+			}
+			if (sortColumn < 0) {
+				LOGGER.warning("Merged shard results are not sorted, ORDER BY column " + orderByColumn
+						+ " is not selected.");
+				return;
+			}
+			sortColumns.add(sortColumn);
+			descendings.add(orderByParts.length > 1 && orderByParts[1].equals(SqlStatementStrings.SQL_TABLE_DESC));
+		}
+
+		Collections.sort(rows, new Comparator<Object[]>() {
+			@Override
+			@SuppressWarnings({ "unchecked", "rawtypes" })
+			public int compare(Object[] row0, Object[] row1) {
+				for (int i = 0; i < sortColumns.size(); i++) {
+					Object value0 = row0[sortColumns.get(i)];
+					Object value1 = row1[sortColumns.get(i)];
+					int comparison;
+					if (value0 == null || value1 == null) {
+						/*
+						 * NULL values come first in ascending order, like MYSQL does.
+						 */
+						comparison = value0 == value1 ? 0 : value0 == null ? -1 : 1;
+					} else {
+						comparison = ((Comparable) value0).compareTo(value1);
+					}
+					if (comparison != 0) {
+						return descendings.get(i) ? -comparison : comparison;
+					}
+				}
+				return 0;
+			}
+		});
+	}
+
+	/**
+	 * Parse the trailing LIMIT clause of a SELECT statement.
+	 *
+	 * @param upperSql
+	 * 			Upper case SELECT SQL string
+	 * @return Row limit, or -1 if the statement has no LIMIT clause.
+	 */
+	private static int parseRowLimit(String upperSql) {
+		String sql = upperSql.endsWith(";") ? upperSql.substring(0, upperSql.length() - 1).trim() : upperSql;
+		int limitIndex = sql.lastIndexOf(" " + SqlStatementStrings.SQL_TABLE_LIMIT + " ");
+		if (limitIndex < 0) {
+			return -1;
+		}
+		try {
+			return Integer.parseInt(sql.substring(limitIndex + SqlStatementStrings.SQL_TABLE_LIMIT.length() + 2).trim());
+		} catch (NumberFormatException limitException) {
+			return -1;
+		}
+	}
+
+	/**
+	 * Hash a shard key to a point on the hash ring, 64 bit FNV-1a followed by the
+	 * MurmurHash3 finalizer to spread similar keys.
+	 *
+	 * @param shardKey
+	 * 			Shard key string
+	 * @return Hash ring point
+	 */
+	private static long hashShardKey(String shardKey) {
+		long hash = 0xcbf29ce484222325L;
+		for (byte keyByte : shardKey.getBytes(StandardCharsets.UTF_8)) {
+			hash ^= keyByte & 0xff;
+			hash *= 0x100000001b3L;
+		}
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		hash ^= hash >>> 33;
+		hash *= 0xc4ceb3f93463d4cbL;
+		hash ^= hash >>> 33;
+		return hash;
+	}
+
+	/**
+	 * Cursors are not supported on sharded connections, rows of several shards
+	 * can not be streamed through one cursor.
+	 *
+	 * TIP: Open a cursor on one shard connection, see getShardConnection().
+	 *
+	 * @return NULL
+	 */
+	@Override
+	public JdbcDatabaseCursor openCursor(String exeSql, int fetchSize) {
+		LOGGER.severe("Failed to open cursor, cursors are not supported on sharded connections. Open the cursor on"
+				+ " a shard connection instead.");
+		return null;
+	}
+
+	/**
+	 * Set retry policy of all shard connections.
+	 */
+	@Override
+	public void setRetryPolicy(@NonNull JdbcDatabaseRetryPolicy retryPolicy) {
+		super.setRetryPolicy(retryPolicy);
+		for (JdbcDatabaseConnection shardConn : fShardConns) {
+			shardConn.setRetryPolicy(retryPolicy);
+		}
+	}
+
+	/**
+	 * Set query timeout of all shard connections.
+	 *
+	 * @param queryTimeoutMillis
+	 * 			Query timeout in milliseconds, 0 for no time limit
+	 */
+	@Override
+	public void setQueryTimeoutMillis(long queryTimeoutMillis) {
+		super.setQueryTimeoutMillis(queryTimeoutMillis);
+		for (JdbcDatabaseConnection shardConn : fShardConns) {
+			shardConn.setQueryTimeoutMillis(queryTimeoutMillis);
+		}
+	}
+
+	/**
+	 * Set admission controller of all shard connections.
+	 *
+	 * NOTE: One admission controller limits statements of all shards together,
+	 * set an own admission controller on each shard connection to limit each
+	 * shard separately, see getShardConnection().
+	 *
+	 * @param admissionController
+	 * 			Admission controller, or NULL to disable.
+	 */
+	@Override
+	public void setAdmissionController(JdbcDatabaseAdmissionController admissionController) {
+		super.setAdmissionController(admissionController);
+		for (JdbcDatabaseConnection shardConn : fShardConns) {
+			shardConn.setAdmissionController(admissionController);
+		}
+	}
+
+	/**
+	 * Set max idle connections of all shard connections.
+	 *
+	 * @param maxIdleConnections
+	 * 			Max idle connections of each connection
+	 */
+	@Override
+	public void setMaxIdleConnections(int maxIdleConnections) {
+		super.setMaxIdleConnections(maxIdleConnections);
+		for (JdbcDatabaseConnection shardConn : fShardConns) {
+			shardConn.setMaxIdleConnections(maxIdleConnections);
+		}
+	}
+
+	/**
+	 * Close idle connections of all shard connections.
+	 */
+	@Override
+	public void closeIdleConnections() {
+		super.closeIdleConnections();
+		for (JdbcDatabaseConnection shardConn : fShardConns) {
+			shardConn.closeIdleConnections();
+		}
+	}
+
+	/**
+	 * Get database URL of the first shard.
+	 */
+	@Override
+	public String getDbUrl() {
+		return fShardConns.isEmpty() ? null : fShardConns.get(0).getDbUrl();
+	}
+
+	/**
+	 * Get indexes of a table from the first shard, all shards share one schema.
+	 */
+	@Override
+	public @NonNull Map<String, List<String>> getTableIndexes(@NonNull String tableName) {
+		if (getSchemaCache() != null || fShardConns.isEmpty()) {
+			return super.getTableIndexes(tableName);
+		}
+		return fShardConns.get(0).getTableIndexes(tableName);
+	}
+
+	/**
+	 * Show all databases of all shards.
+	 */
+	@Override
+	public void showAllDatabases() {
+		for (JdbcDatabaseConnection shardConn : fShardConns) {
+			shardConn.showAllDatabases();
+		}
+	}
+
+	/**
+	 * Stop threads executing statements on all shards, the connection can not be
+	 * used afterwards.
+	 */
+	public void shutdown() {
+		fScatterExecutor.shutdown();
+	}
+}
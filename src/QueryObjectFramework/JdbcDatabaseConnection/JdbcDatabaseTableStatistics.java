@@ -0,0 +1,329 @@
+package QueryObjectFramework.JdbcDatabaseConnection;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import org.eclipse.jdt.annotation.NonNull;
+
+/**
+ * Table statistics class keeps estimated row amounts, data and index sizes,
+ * and index cardinalities of all tables of the connected database in memory.
+ *
+ * All statistics are loaded from information_schema in one bulk query and
+ * cached for a time to live, lookups after the time to live reload them.
+ * Operations can then size their work by real table sizes instead of fixed
+ * guesses:
+ *
+ * <example>
+ *  JdbcDatabaseTableStatistics tableStatistics = new JdbcDatabaseTableStatistics(jdbcDbConn);
+ *  jdbcDbConn.setTableStatistics(tableStatistics);
+ *
+ *  int batchRows = tableStatistics.suggestBatchRows("Orders", 4 * 1024 * 1024, 100, 10000);
+ *  int workers = tableStatistics.suggestParallelism("Orders", 1000000, 8);
+ *  boolean cacheWholeTable = tableStatistics.getTotalBytes("Countries") < 1024 * 1024;
+ * </example>
+ *
+ * NOTE: InnoDB row amounts are estimates and can be off by 40 to 50 percent,
+ * cardinalities are sampled, and both are only as fresh as the last ANALYZE
+ * TABLE or automatic statistics update of the database server.
+ *
+ * NOTE: At the moment, only MYSQL information_schema is supported.
+ *
+ * @author Bohui Axelsson
+ */
+public class JdbcDatabaseTableStatistics {
+	private static final Logger LOGGER = Logger.getLogger(JdbcDatabaseTableStatistics.class.getName());
+
+	private static final long DEFAULT_TIME_TO_LIVE_MILLIS = 60000;
+
+	/*
+	 * Table sizes and index cardinalities of all tables in the current database,
+	 * in one result set. Index cardinality is the cardinality of the full index,
+	 * which is the highest cardinality of its column prefixes.
+	 */
+	private static final String SQL_LOAD_TABLE_STATISTICS =
+			"SELECT 'T' AS ENTRY_TYPE, TABLE_NAME, '' AS INDEX_NAME, TABLE_ROWS AS ROW_AMOUNT,"
+			+ " DATA_LENGTH AS DATA_BYTES, INDEX_LENGTH AS INDEX_BYTES, AVG_ROW_LENGTH AS AVG_ROW_BYTES"
+			+ " FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE()"
+			+ " UNION ALL"
+			+ " SELECT 'I' AS ENTRY_TYPE, TABLE_NAME, INDEX_NAME, MAX(CARDINALITY) AS ROW_AMOUNT,"
+			+ " 0 AS DATA_BYTES, 0 AS INDEX_BYTES, 0 AS AVG_ROW_BYTES"
+			+ " FROM information_schema.STATISTICS WHERE TABLE_SCHEMA = DATABASE()"
+			+ " GROUP BY TABLE_NAME, INDEX_NAME;";
+
+	private final @NonNull JdbcDatabaseConnection fJdbcDbConn;
+	private long fTimeToLiveMillis = DEFAULT_TIME_TO_LIVE_MILLIS;
+
+	/*
+	 * Cached tables, lower case table name -> table statistics.
+	 */
+	private @NonNull Map<String, TableStatistics> fTables = new LinkedHashMap<>();
+	private long fLoadedAtNanos = 0;
+	private boolean fStale = true;
+
+	/**
+	 * Cached statistics of one table.
+	 */
+	private static final class TableStatistics {
+		private long fRowAmount = -1;
+		private long fDataBytes = -1;
+		private long fIndexBytes = -1;
+		private long fAverageRowBytes = -1;
+		private final @NonNull Map<String, Long> fIndexCardinalities = new LinkedHashMap<>();
+	}
+
+	/**
+	 * Create table statistics for the database behind one JDBC connection,
+	 * cached for 60 seconds.
+	 *
+	 * @param jdbcDbConn
+	 * 			JDBC database connection
+	 */
+	public JdbcDatabaseTableStatistics(@NonNull JdbcDatabaseConnection jdbcDbConn) {
+		fJdbcDbConn = jdbcDbConn;
+	}
+
+	/**
+	 * Set how long loaded statistics are used before they are reloaded.
+	 *
+	 * @param timeToLiveMillis
+	 * 			Time to live in milliseconds, default is 60000.
+	 */
+	public synchronized void setTimeToLiveMillis(long timeToLiveMillis) {
+		fTimeToLiveMillis = Math.max(0, timeToLiveMillis);
+	}
+
+	/**
+	 * Reload statistics of all tables in one bulk query.
+	 *
+	 * @return True if statistics have been reloaded.
+	 */
+	public synchronized boolean refresh() {
+		Map<String, TableStatistics> tables = fJdbcDbConn.executeQueryObject(SQL_LOAD_TABLE_STATISTICS,
+				new JdbcDatabaseResultSetHandler<Map<String, TableStatistics>>() {
+					@Override
+					public Map<String, TableStatistics> handleResultSet(ResultSet results) throws SQLException {
+						return loadTableStatistics(results);
+					}
+				});
+		/*
+		 * A failed reload is retried after the next time to live, not on every
+		 * lookup.
+		 */
+		fStale = false;
+		fLoadedAtNanos = System.nanoTime();
+		if (tables == null) {
+			LOGGER.severe("Failed to load table statistics, cached statistics are kept.");
+			return false;
+		}
+		fTables = tables;
+		LOGGER.config("Table statistics are loaded for " + tables.size() + " tables.");
+		return true;
+	}
+
+	/**
+	 * Build table statistics from bulk statistics query results.
+	 *
+	 * @param results
+	 * 			Results of bulk statistics query
+	 * @return Lower case table name mapping to table statistics
+	 * @throws SQLException
+	 * 			Failed on reading results
+	 */
+	private static Map<String, TableStatistics> loadTableStatistics(ResultSet results) throws SQLException {
+		Map<String, TableStatistics> tables = new LinkedHashMap<>();
+		while (results.next()) {
+			String tableName = results.getString("TABLE_NAME");
+			if (tableName == null) {
+				continue;
+			}
+			String tableKey = tableName.toLowerCase(Locale.ROOT);
+			TableStatistics table = tables.get(tableKey);
+			if (table == null) {
+				table = new TableStatistics();
+				tables.put(tableKey, table);
+			}
+
+			long rowAmount = results.getLong("ROW_AMOUNT");
+			boolean rowAmountKnown = !results.wasNull();
+			if (results.getString("ENTRY_TYPE").equals("T")) {
+				table.fRowAmount = rowAmountKnown ? rowAmount : -1;
+				table.fDataBytes = results.getLong("DATA_BYTES");
+				table.fIndexBytes = results.getLong("INDEX_BYTES");
+				table.fAverageRowBytes = results.getLong("AVG_ROW_BYTES");
+			} else if (results.getString("INDEX_NAME") != null) {
+				table.fIndexCardinalities.put(results.getString("INDEX_NAME"), rowAmountKnown ? rowAmount : -1);
+			}
+		}
+		return tables;
+	}
+
+	/**
+	 * Mark statistics stale, they are reloaded on the next lookup. Called after
+	 * DDL statements, for example dropping a partition.
+	 */
+	public synchronized void invalidate() {
+		fStale = true;
+	}
+
+	/**
+	 * Get statistics of one table, reloading statistics first if they are stale
+	 * or expired.
+	 *
+	 * @param tableName
+	 * 			Table name
+	 * @return Table statistics or NULL if the table does not exist.
+	 */
+	private TableStatistics lookupTable(String tableName) {
+		if (fStale || System.nanoTime() - fLoadedAtNanos > TimeUnit.MILLISECONDS.toNanos(fTimeToLiveMillis)) {
+			refresh();
+		}
+		return fTables.get(tableName.trim().toLowerCase(Locale.ROOT));
+	}
+
+	/**
+	 * Get estimated amount of rows of a table.
+	 *
+	 * @param tableName
+	 * 			Table name
+	 * @return Estimated row amount, or -1 if unknown.
+	 */
+	public synchronized long getRowEstimate(@NonNull String tableName) {
+		TableStatistics table = lookupTable(tableName);
+		return table == null ? -1 : table.fRowAmount;
+	}
+
+	/**
+	 * Get size of the data of a table, including the clustered PRIMARY KEY
+	 * index of InnoDB tables.
+	 *
+	 * @param tableName
+	 * 			Table name
+	 * @return Data size in bytes, or -1 if unknown.
+	 */
+	public synchronized long getDataBytes(@NonNull String tableName) {
+		TableStatistics table = lookupTable(tableName);
+		return table == null ? -1 : table.fDataBytes;
+	}
+
+	/**
+	 * Get size of the secondary indexes of a table.
+	 *
+	 * @param tableName
+	 * 			Table name
+	 * @return Index size in bytes, or -1 if unknown.
+	 */
+	public synchronized long getIndexBytes(@NonNull String tableName) {
+		TableStatistics table = lookupTable(tableName);
+		return table == null ? -1 : table.fIndexBytes;
+	}
+
+	/**
+	 * Get size of data and indexes of a table.
+	 *
+	 * @param tableName
+	 * 			Table name
+	 * @return Total size in bytes, or -1 if unknown.
+	 */
+	public synchronized long getTotalBytes(@NonNull String tableName) {
+		TableStatistics table = lookupTable(tableName);
+		return table == null ? -1 : table.fDataBytes + table.fIndexBytes;
+	}
+
+	/**
+	 * Get average size of one row of a table.
+	 *
+	 * @param tableName
+	 * 			Table name
+	 * @return Average row size in bytes, or -1 if unknown.
+	 */
+	public synchronized long getAverageRowBytes(@NonNull String tableName) {
+		TableStatistics table = lookupTable(tableName);
+		return table == null ? -1 : table.fAverageRowBytes;
+	}
+
+	/**
+	 * Get estimated amount of distinct values of an index.
+	 *
+	 * @param tableName
+	 * 			Table name
+	 * @param indexName
+	 * 			Index name, PRIMARY for the PRIMARY KEY.
+	 * @return Estimated cardinality, or -1 if unknown.
+	 */
+	public synchronized long getIndexCardinality(@NonNull String tableName, @NonNull String indexName) {
+		TableStatistics table = lookupTable(tableName);
+		if (table == null) {
+			return -1;
+		}
+		for (Map.Entry<String, Long> indexCardinality : table.fIndexCardinalities.entrySet()) {
+			if (indexCardinality.getKey().equalsIgnoreCase(indexName.trim())) {
+				return indexCardinality.getValue();
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Get estimated cardinalities of all indexes of a table.
+	 *
+	 * @param tableName
+	 * 			Table name
+	 * @return Index names mapping to estimated cardinalities, empty if the
+	 *         table has no index or does not exist.
+	 */
+	public synchronized @NonNull Map<String, Long> getIndexCardinalities(@NonNull String tableName) {
+		TableStatistics table = lookupTable(tableName);
+		return table == null ? new LinkedHashMap<String, Long>() : new LinkedHashMap<>(table.fIndexCardinalities);
+	}
+
+	/**
+	 * Suggest amount of rows per batch, so one batch holds about
+	 * targetBatchBytes of row data.
+	 *
+	 * @param tableName
+	 * 			Table name
+	 * @param targetBatchBytes
+	 * 			Wanted size of one batch in bytes
+	 * @param minBatchRows
+	 * 			Lower bound, also used if the row size is unknown.
+	 * @param maxBatchRows
+	 * 			Upper bound
+	 * @return Rows per batch between minBatchRows and maxBatchRows
+	 */
+	public synchronized int suggestBatchRows(@NonNull String tableName, long targetBatchBytes, int minBatchRows,
+			int maxBatchRows) {
+		long averageRowBytes = getAverageRowBytes(tableName);
+		if (averageRowBytes <= 0) {
+			return minBatchRows;
+		}
+		return (int) Math.max(minBatchRows, Math.min(maxBatchRows, targetBatchBytes / averageRowBytes));
+	}
+
+	/**
+	 * Suggest amount of parallel workers scanning a table, one worker per
+	 * rowsPerWorker estimated rows.
+	 *
+	 * @param tableName
+	 * 			Table name
+	 * @param rowsPerWorker
+	 * 			Estimated rows worth one worker
+	 * @param maxParallelism
+	 * 			Upper bound
+	 * @return Workers between 1 and maxParallelism, 1 if the row amount is
+	 *         unknown.
+	 */
+	public synchronized int suggestParallelism(@NonNull String tableName, long rowsPerWorker, int maxParallelism) {
+		long rowEstimate = getRowEstimate(tableName);
+		if (rowEstimate <= 0 || rowsPerWorker <= 0) {
+			return 1;
+		}
+		long workers = (rowEstimate + rowsPerWorker - 1) / rowsPerWorker;
+		return (int) Math.max(1, Math.min(maxParallelism, workers));
+	}
+}
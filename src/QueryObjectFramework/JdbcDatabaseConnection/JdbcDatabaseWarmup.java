@@ -0,0 +1,346 @@
+package QueryObjectFramework.JdbcDatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import org.eclipse.jdt.annotation.NonNull;
+
+import QueryObjectFramework.QueryObjectTableStatements.QueryObjectTableAbstract;
+
+/**
+ * Warmup class prepares a JDBC connection before it takes traffic, so the
+ * first requests after a start do not pay for loading the driver, opening
+ * connections and cold caches.
+ *
+ * <example>
+ *  JdbcDatabaseWarmup warmup = new JdbcDatabaseWarmup(jdbcDbConn);
+ *  warmup.setMinConnections(8);
+ *  customerSelect.setRenderOnly(true);
+ *  customerSelect.selectColumnsWhereConditions(false);
+ *  warmup.addHotQueryObject(customerSelect);
+ *
+ *  if (warmup.warmUp()) {
+ *      // shift traffic to this instance
+ *  }
+ * </example>
+ *
+ * Warmup steps:
+ * 1. Register the JDBC driver once.
+ * 2. Open the min connections in parallel, and keep them in the idle
+ *    connection pool of the JDBC connection.
+ * 3. Prepare all hot statements on each opened connection, which checks them
+ *    on the database server and loads the statement handling of the driver.
+ * 4. Execute the hot SELECT statements in rounds, on all connections in
+ *    parallel, until the round time settles within the settle tolerance of
+ *    the previous round.
+ *
+ * NOTE: Statements are executed as SQL strings by the framework, prepared
+ * hot statements are not reused by later executions. Other hot statements
+ * than SELECT are only prepared, executing them would change data.
+ *
+ * NOTE: Warm up each shard and replica connection of sharded and routing
+ * connections separately.
+ *
+ * @author Bohui Axelsson
+ */
+public class JdbcDatabaseWarmup {
+	private static final Logger LOGGER = Logger.getLogger(JdbcDatabaseWarmup.class.getName());
+
+	private static final int DEFAULT_MIN_CONNECTIONS = 4;
+	private static final int DEFAULT_MAX_ROUNDS = 20;
+	private static final double DEFAULT_SETTLE_TOLERANCE = 0.1;
+
+	/*
+	 * Reads all rows of hot SELECT statements, so reading results is warmed up
+	 * as well.
+	 */
+	private static final JdbcDatabaseResultSetHandler<Boolean> DRAIN_RESULT_SET_HANDLER =
+			new JdbcDatabaseResultSetHandler<Boolean>() {
+				@Override
+				public Boolean handleResultSet(ResultSet results) throws SQLException {
+					if (results != null) {
+						while (results.next()) {
+							results.getObject(1);
+						}
+					}
+					return Boolean.TRUE;
+				}
+			};
+
+	private final @NonNull JdbcDatabaseConnection fJdbcDbConn;
+	private final @NonNull List<String> fHotStatements = new ArrayList<>();
+	private int fMinConnections = DEFAULT_MIN_CONNECTIONS;
+	private int fMaxRounds = DEFAULT_MAX_ROUNDS;
+	private double fSettleTolerance = DEFAULT_SETTLE_TOLERANCE;
+
+	/*
+	 * Warmup report
+	 */
+	private volatile boolean fReady = false;
+	private volatile int fOpenedConnections = 0;
+	private volatile int fRounds = 0;
+	private volatile long fLastRoundMillis = -1;
+
+	/**
+	 * Create a warmup of a JDBC connection.
+	 *
+	 * @param jdbcDbConn
+	 * 			JDBC database connection
+	 */
+	public JdbcDatabaseWarmup(@NonNull JdbcDatabaseConnection jdbcDbConn) {
+		fJdbcDbConn = jdbcDbConn;
+	}
+
+	/**
+	 * Set amount of connections opened by the warmup, the max idle connections
+	 * of the JDBC connection are raised to it if lower.
+	 *
+	 * @param minConnections
+	 * 			Min connections, 4 by default.
+	 */
+	public void setMinConnections(int minConnections) {
+		fMinConnections = Math.max(1, minConnections);
+	}
+
+	/**
+	 * Set max amount of rounds executing the hot SELECT statements.
+	 *
+	 * @param maxRounds
+	 * 			Max rounds, 20 by default.
+	 */
+	public void setMaxRounds(int maxRounds) {
+		fMaxRounds = Math.max(1, maxRounds);
+	}
+
+	/**
+	 * Set settle tolerance, round times are settled if a round differs at most
+	 * by settle tolerance times the previous round time.
+	 *
+	 * @param settleTolerance
+	 * 			Settle tolerance, 0.1 by default.
+	 */
+	public void setSettleTolerance(double settleTolerance) {
+		fSettleTolerance = Math.max(0, settleTolerance);
+	}
+
+	/**
+	 * Add a hot SQL statement.
+	 *
+	 * @param sql
+	 * 			SQL string
+	 */
+	public void addHotStatement(@NonNull String sql) {
+		fHotStatements.add(sql);
+	}
+
+	/**
+	 * Add the statement last built by a query object in render only mode as hot
+	 * statement.
+	 *
+	 * @param renderedQueryObject
+	 * 			Query object, see QueryObjectTableAbstract.setRenderOnly().
+	 * @return False if the query object has no built statement.
+	 */
+	public boolean addHotQueryObject(@NonNull QueryObjectTableAbstract renderedQueryObject) {
+		String sql = renderedQueryObject.getRenderedSql();
+		if (sql == null) {
+			LOGGER.severe("Failed to add hot query object, no statement is built. Build the statement in render only"
+					+ " mode first.");
+			return false;
+		}
+		fHotStatements.add(sql);
+		return true;
+	}
+
+	/**
+	 * Run all warmup steps.
+	 *
+	 * @return True if the connection is ready: all min connections are open, all
+	 *         hot statements are prepared and the round time has settled.
+	 */
+	public boolean warmUp() {
+		fReady = false;
+		fRounds = 0;
+		fLastRoundMillis = -1;
+		try {
+			fJdbcDbConn.registerJdbcDriver();
+		} catch (ClassNotFoundException classNotFoundExeception) {
+			LOGGER.severe("Unable to load driver class.");
+			return false;
+		}
+
+		if (fJdbcDbConn.getMaxIdleConnections() < fMinConnections) {
+			fJdbcDbConn.setMaxIdleConnections(fMinConnections);
+		}
+		ExecutorService warmupExecutor = Executors.newFixedThreadPool(fMinConnections, new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "JdbcDatabaseWarmup");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		try {
+			if (!openConnections(warmupExecutor)) {
+				return false;
+			}
+			fReady = executeRounds(warmupExecutor);
+		} finally {
+			warmupExecutor.shutdown();
+		}
+		LOGGER.info("Warmup " + (fReady ? "is ready" : "has not settled") + " after " + fRounds + " rounds, "
+				+ fOpenedConnections + " connections, last round " + fLastRoundMillis + " ms.");
+		return fReady;
+	}
+
+	public boolean isReady() {
+		return fReady;
+	}
+
+	public int getOpenedConnectionAmount() {
+		return fOpenedConnections;
+	}
+
+	public int getRounds() {
+		return fRounds;
+	}
+
+	/**
+	 * Get time of the last round executing the hot SELECT statements.
+	 *
+	 * @return Round time in milliseconds, or -1 if no round has run.
+	 */
+	public long getLastRoundMillis() {
+		return fLastRoundMillis;
+	}
+
+	/**
+	 * Open min connections in parallel, prepare hot statements on each of them
+	 * and keep them in the idle connection pool.
+	 *
+	 * @param warmupExecutor
+	 * 			Executor with one thread per connection
+	 * @return True if all connections are opened and all hot statements are
+	 *         prepared.
+	 */
+	private boolean openConnections(ExecutorService warmupExecutor) {
+		List<Future<Connection>> openings = new ArrayList<>();
+		for (int connection = 0; connection < fMinConnections; connection++) {
+			openings.add(warmupExecutor.submit(new Callable<Connection>() {
+				@Override
+				public Connection call() throws ClassNotFoundException, SQLException {
+					Connection conn = fJdbcDbConn.openDatabaseConnection();
+					try {
+						for (String hotStatement : fHotStatements) {
+							PreparedStatement preparedStatement = conn.prepareStatement(hotStatement);
+							preparedStatement.close();
+						}
+					} catch (SQLException prepareException) {
+						conn.close();
+						throw prepareException;
+					}
+					return conn;
+				}
+			}));
+		}
+
+		boolean allOpened = true;
+		int openedConnections = 0;
+		for (Future<Connection> opening : openings) {
+			try {
+				Connection conn = opening.get();
+				if (!fJdbcDbConn.recycleDatabaseConnection(conn)) {
+					conn.close();
+				}
+				openedConnections++;
+			} catch (InterruptedException interruptedException) {
+				Thread.currentThread().interrupt();
+				LOGGER.severe("Failed to open warmup connections, waiting is interrupted.");
+				return false;
+			} catch (ExecutionException executionException) {
+				LOGGER.severe("Failed to open warmup connection. Details: " + executionException.getCause());
+				allOpened = false;
+			} catch (SQLException closeException) {
+				LOGGER.severe("Failed to close warmup connection. Details: " + closeException.getMessage());
+			}
+		}
+		fOpenedConnections = openedConnections;
+		return allOpened;
+	}
+
+	/**
+	 * Execute hot SELECT statements in rounds until the round time settles.
+	 *
+	 * @param warmupExecutor
+	 * 			Executor with one thread per connection
+	 * @return True if the round time has settled, or there are no hot SELECT
+	 *         statements.
+	 */
+	private boolean executeRounds(ExecutorService warmupExecutor) {
+		final List<String> hotReads = new ArrayList<>();
+		for (String hotStatement : fHotStatements) {
+			if (JdbcDatabaseConnection.isIdempotentStatement(hotStatement)) {
+				hotReads.add(hotStatement);
+			}
+		}
+		if (hotReads.isEmpty()) {
+			return true;
+		}
+
+		Callable<Boolean> roundWorker = new Callable<Boolean>() {
+			@Override
+			public Boolean call() {
+				for (String hotRead : hotReads) {
+					if (fJdbcDbConn.executeQueryObject(hotRead, true, DRAIN_RESULT_SET_HANDLER) == null) {
+						return Boolean.FALSE;
+					}
+				}
+				return Boolean.TRUE;
+			}
+		};
+		long previousRoundNanos = -1;
+		for (int round = 1; round <= fMaxRounds; round++) {
+			long roundStartNanos = System.nanoTime();
+			List<Future<Boolean>> workers = new ArrayList<>();
+			for (int worker = 0; worker < fMinConnections; worker++) {
+				workers.add(warmupExecutor.submit(roundWorker));
+			}
+			for (Future<Boolean> worker : workers) {
+				try {
+					if (!worker.get()) {
+						LOGGER.severe("Failed to execute hot statements in warmup round " + round + ".");
+						return false;
+					}
+				} catch (InterruptedException interruptedException) {
+					Thread.currentThread().interrupt();
+					LOGGER.severe("Failed to execute warmup round, waiting is interrupted.");
+					return false;
+				} catch (ExecutionException executionException) {
+					LOGGER.severe("Failed to execute warmup round. Details: " + executionException.getCause());
+					return false;
+				}
+			}
+			long roundNanos = System.nanoTime() - roundStartNanos;
+			fRounds = round;
+			fLastRoundMillis = TimeUnit.NANOSECONDS.toMillis(roundNanos);
+			if (previousRoundNanos >= 0 && Math.abs(roundNanos - previousRoundNanos) <= previousRoundNanos
+					* fSettleTolerance) {
+				return true;
+			}
+			previousRoundNanos = roundNanos;
+		}
+		return false;
+	}
+}
@@ -0,0 +1,132 @@
+package QueryObjectFramework.QueryObjectDBStatements;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.CRC32;
+
+import org.eclipse.jdt.annotation.NonNull;
+
+/**
+ * Versioned schema migration class, contains DDL statements applied once by
+ * QueryObjectDBMigrator.
+ *
+ * <example>
+ *  new QueryObjectDBMigration("1.2", "Add orders table", Arrays.asList("Orders", "Persons"),
+ *      Arrays.asList("CREATE TABLE Orders (OrderID INT(11) NOT NULL, PersonID INT(11),"
+ *          + " PRIMARY KEY (OrderID), FOREIGN KEY (PersonID) REFERENCES Persons(PersonID));"));
+ * </example>
+ *
+ * Versions are compared by their dot separated numbers, "1.10" is after
+ * "1.9".
+ *
+ * The tables of a migration are all tables the statements create, alter,
+ * drop or reference, for example by FOREIGN KEY constraints. Migrations
+ * sharing a table are applied in version order, other migrations may be
+ * applied concurrently. A migration without tables is applied after all
+ * earlier migrations and before all later migrations.
+ *
+ * NOTE: The checksum covers the statements. Changing the statements of an
+ * applied migration makes the migrator refuse to run, add a new migration
+ * instead.
+ *
+ * @author Bohui Axelsson
+ */
+public class QueryObjectDBMigration implements Comparable<QueryObjectDBMigration> {
+	private final @NonNull String fVersion;
+	private final @NonNull String fDescription;
+	private final @NonNull List<String> fTables = new ArrayList<>();
+	private final @NonNull List<String> fStatements = new ArrayList<>();
+
+	/**
+	 * Create a migration.
+	 *
+	 * @param version
+	 * 			Dot separated version numbers, for example "1.2.10"
+	 * @param description
+	 * 			Description stored in the migration history
+	 * @param tables
+	 * 			Tables the statements create, alter, drop or reference
+	 * @param statements
+	 * 			DDL SQL statements, applied in list order
+	 */
+	public QueryObjectDBMigration(@NonNull String version, @NonNull String description, @NonNull List<String> tables,
+			@NonNull List<String> statements) {
+		fVersion = version.trim();
+		fDescription = description;
+		for (String table : tables) {
+			fTables.add(table.trim().toLowerCase(Locale.ROOT));
+		}
+		fStatements.addAll(statements);
+	}
+
+	protected String getVersion() {
+		return fVersion;
+	}
+
+	protected String getDescription() {
+		return fDescription;
+	}
+
+	/**
+	 * Get table names in lower case.
+	 *
+	 * @return Table names
+	 */
+	protected List<String> getTables() {
+		return fTables;
+	}
+
+	protected List<String> getStatements() {
+		return fStatements;
+	}
+
+	/**
+	 * Get CRC32 checksum of the statements, leading and trailing white spaces
+	 * of statements are ignored.
+	 *
+	 * @return Checksum
+	 */
+	protected long getChecksum() {
+		CRC32 checksum = new CRC32();
+		for (String statement : fStatements) {
+			checksum.update(statement.trim().getBytes(StandardCharsets.UTF_8));
+			checksum.update('\n');
+		}
+		return checksum.getValue();
+	}
+
+	/**
+	 * Validate the version consists of dot separated numbers.
+	 *
+	 * @return True if the version is valid.
+	 */
+	protected boolean validateVersion() {
+		return fVersion.matches("\\d+(\\.\\d+)*");
+	}
+
+	@Override
+	public int compareTo(QueryObjectDBMigration otherMigration) {
+		return compareVersions(fVersion, otherMigration.fVersion);
+	}
+
+	/**
+	 * Compare dot separated versions number by number, missing numbers are 0.
+	 *
+	 * @return Negative, zero or positive if version is before, equal to or after
+	 *         otherVersion.
+	 */
+	protected static int compareVersions(String version, String otherVersion) {
+		String[] numbers = version.split("\\.");
+		String[] otherNumbers = otherVersion.split("\\.");
+		for (int index = 0; index < Math.max(numbers.length, otherNumbers.length); index++) {
+			long number = index < numbers.length ? Long.parseLong(numbers[index]) : 0;
+			long otherNumber = index < otherNumbers.length ? Long.parseLong(otherNumbers[index]) : 0;
+			if (number != otherNumber) {
+				return Long.compare(number, otherNumber);
+			}
+		}
+		return 0;
+	}
+}
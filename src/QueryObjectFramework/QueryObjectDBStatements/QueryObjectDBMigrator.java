@@ -0,0 +1,505 @@
+package QueryObjectFramework.QueryObjectDBStatements;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.logging.Logger;
+
+import org.eclipse.jdt.annotation.NonNull;
+
+import QueryObjectFramework.CommonClasses.SqlQueryTypes;
+import QueryObjectFramework.CommonClasses.SqlStatementStrings;
+import QueryObjectFramework.JdbcDatabaseConnection.JdbcDatabaseConnection;
+import QueryObjectFramework.JdbcDatabaseConnection.JdbcDatabaseCursor;
+import QueryObjectFramework.JdbcDatabaseConnection.JdbcDatabaseResultSetHandler;
+
+/**
+ * Schema migrator class applies versioned migrations which are not applied
+ * yet, and records applied migrations in a history table.
+ *
+ * <example>
+ *  QueryObjectDBMigrator migrator = new QueryObjectDBMigrator(jdbcDbConn);
+ *  migrator.addMigration(new QueryObjectDBMigration("1", "Create persons", Arrays.asList("Persons"), ...));
+ *  migrator.addMigration(new QueryObjectDBMigration("2", "Create orders", Arrays.asList("Orders", "Persons"), ...));
+ *  migrator.addMigration(new QueryObjectDBMigration("3", "Create products", Arrays.asList("Products"), ...));
+ *  migrator.migrate();
+ * </example>
+ *
+ * One migrate() call:
+ * - Takes the MYSQL user lock named like the history table with GET_LOCK(),
+ *   so migrators of other processes wait until this migrate() has finished.
+ * - Reads applied versions and checksums from the history table in one
+ *   query, the history table is created if it does not exist.
+ * - Refuses to run if the statements of an applied migration have changed,
+ *   or if a migration failed in an earlier migrate() call.
+ * - Groups pending migrations into rounds: a migration is applied in the
+ *   round after the last earlier migration sharing one of its tables. In the
+ *   example above, migrations 1 and 3 are applied concurrently, migration 2
+ *   is applied afterwards.
+ * - Inserts the history row of a migration, then executes its statements one
+ *   by one, recording the amount of applied statements after each statement,
+ *   and marks the migration as succeeded after its last statement.
+ *
+ * <example>
+ *  QueryObjectSchemaHistory
+ *  Version | Description | Checksum | InstalledOnMillis | AppliedStatements | Succeeded
+ * </example>
+ *
+ * NOTE: MYSQL commits every DDL statement implicitly, a failed migration is
+ * not rolled back. Migration statements are never executed again after they
+ * have been sent to the database server, not even on a transient error, and
+ * a failed migration is not applied again by later migrate() calls. Complete
+ * or revert the migration manually, starting at statement AppliedStatements +
+ * 1 of its history row, and delete the history row to apply it again.
+ *
+ * NOTE: Rounds stop at the first failed round, migrations applied
+ * concurrently with the failed migration are recorded.
+ *
+ * NOTE: The user lock is held by a cursor connection for the whole
+ * migrate() call, which is not possible on a JdbcDatabaseShardedConnection,
+ * run a migrator on each shard connection instead.
+ *
+ * @author Bohui Axelsson
+ */
+public class QueryObjectDBMigrator {
+	private static final Logger LOGGER = Logger.getLogger(QueryObjectDBMigrator.class.getName());
+
+	private static final String DEFAULT_HISTORY_TABLE = "QueryObjectSchemaHistory";
+	private static final int DEFAULT_PARALLELISM = 4;
+	private static final int DEFAULT_LOCK_TIMEOUT_SECONDS = 60;
+
+	/*
+	 * Handler telling a successful statement from a failed one, statements
+	 * without results are NULL otherwise in both cases.
+	 */
+	private static final JdbcDatabaseResultSetHandler<Boolean> EXECUTED_HANDLER = new JdbcDatabaseResultSetHandler<Boolean>() {
+		@Override
+		public Boolean handleResultSet(ResultSet results) {
+			return Boolean.TRUE;
+		}
+	};
+
+	/**
+	 * History row of an applied or failed migration
+	 */
+	private static final class AppliedMigration {
+		private final long fChecksum;
+		private final int fAppliedStatements;
+		private final boolean fSucceeded;
+
+		private AppliedMigration(long checksum, int appliedStatements, boolean succeeded) {
+			fChecksum = checksum;
+			fAppliedStatements = appliedStatements;
+			fSucceeded = succeeded;
+		}
+	}
+
+	private final @NonNull JdbcDatabaseConnection fJdbcDbConn;
+	private final @NonNull String fHistoryTable;
+	private final @NonNull List<QueryObjectDBMigration> fMigrations = new ArrayList<>();
+	private int fParallelism = DEFAULT_PARALLELISM;
+	private int fLockTimeoutSeconds = DEFAULT_LOCK_TIMEOUT_SECONDS;
+
+	/**
+	 * Create a migrator recording migrations in table QueryObjectSchemaHistory.
+	 *
+	 * @param jdbcDbConn
+	 * 			JDBC database connection
+	 */
+	public QueryObjectDBMigrator(@NonNull JdbcDatabaseConnection jdbcDbConn) {
+		this(jdbcDbConn, DEFAULT_HISTORY_TABLE);
+	}
+
+	/**
+	 * Create a migrator.
+	 *
+	 * @param jdbcDbConn
+	 * 			JDBC database connection
+	 * @param historyTable
+	 * 			Table recording applied migrations
+	 */
+	public QueryObjectDBMigrator(@NonNull JdbcDatabaseConnection jdbcDbConn, @NonNull String historyTable) {
+		fJdbcDbConn = jdbcDbConn;
+		fHistoryTable = historyTable;
+	}
+
+	/**
+	 * Set maximum amount of migrations applied concurrently.
+	 *
+	 * @param parallelism
+	 * 			Maximum amount of concurrent migrations, default is 4. 1 applies
+	 * 			migrations one by one in version order.
+	 */
+	public synchronized void setParallelism(int parallelism) {
+		fParallelism = Math.max(1, parallelism);
+	}
+
+	/**
+	 * Set how long migrate() waits for a migrator of another process holding
+	 * the migration lock.
+	 *
+	 * @param lockTimeoutSeconds
+	 * 			Lock wait timeout in seconds, default is 60.
+	 */
+	public synchronized void setLockTimeoutSeconds(int lockTimeoutSeconds) {
+		fLockTimeoutSeconds = Math.max(0, lockTimeoutSeconds);
+	}
+
+	/**
+	 * Add a migration.
+	 *
+	 * @param migration
+	 * 			Migration
+	 * @return True if the migration is added, false if its version is invalid
+	 * 			or already added.
+	 */
+	public synchronized boolean addMigration(@NonNull QueryObjectDBMigration migration) {
+		if (!migration.validateVersion() || migration.getStatements().isEmpty()) {
+			LOGGER.severe("Failed to add migration " + migration.getVersion()
+					+ ", version must be dot separated numbers and statements must not be empty.");
+			return false;
+		}
+		for (QueryObjectDBMigration addedMigration : fMigrations) {
+			if (addedMigration.compareTo(migration) == 0) {
+				LOGGER.severe("Failed to add migration " + migration.getVersion() + ", version is already added.");
+				return false;
+			}
+		}
+		fMigrations.add(migration);
+		return true;
+	}
+
+	/**
+	 * Get versions of added migrations which are not applied yet.
+	 *
+	 * @return Pending versions in version order, or NULL if the history can not
+	 *         be read, an applied migration has changed or a migration has
+	 *         failed.
+	 */
+	public synchronized List<String> getPendingVersions() {
+		List<QueryObjectDBMigration> pendingMigrations = findPendingMigrations();
+		if (pendingMigrations == null) {
+			return null;
+		}
+		List<String> pendingVersions = new ArrayList<>();
+		for (QueryObjectDBMigration pendingMigration : pendingMigrations) {
+			pendingVersions.add(pendingMigration.getVersion());
+		}
+		return pendingVersions;
+	}
+
+	/**
+	 * Apply all pending migrations, holding the migration lock.
+	 *
+	 * @return Amount of applied migrations, or -1 if a migration failed, the
+	 *         history can not be read or the migration lock can not be taken.
+	 */
+	public synchronized int migrate() {
+		JdbcDatabaseCursor migrationLock = lockMigrations();
+		if (migrationLock == null) {
+			return -1;
+		}
+		try {
+			return migratePending();
+		} finally {
+			/*
+			 * Closing the lock connection releases the user lock.
+			 */
+			migrationLock.close();
+		}
+	}
+
+	/**
+	 * Take the MYSQL user lock named like the history table. The lock belongs
+	 * to the session of the returned cursor, and is released when the cursor
+	 * closes its connection.
+	 *
+	 * @return Cursor holding the lock, or NULL if the lock can not be taken.
+	 */
+	private JdbcDatabaseCursor lockMigrations() {
+		String lockSql = SqlQueryTypes.SELECT.sqlQueryType() + " GET_LOCK('" + fHistoryTable + "',"
+				+ fLockTimeoutSeconds + ");";
+		JdbcDatabaseCursor lockCursor = fJdbcDbConn.openCursor(lockSql, 1);
+		if (lockCursor == null) {
+			LOGGER.severe("Failed to lock migrations of history table " + fHistoryTable + ", lock can not be requested.");
+			return null;
+		}
+		boolean locked = false;
+		try {
+			locked = lockCursor.next() && lockCursor.getResultSet().getInt(1) == 1;
+			while (lockCursor.next()) {
+				/*
+				 * Read to the end, so closing the cursor does not cancel the statement.
+				 */
+			}
+		} catch (SQLException lockException) {
+			LOGGER.severe("Failed to lock migrations of history table " + fHistoryTable + ". Details: "
+					+ lockException.getMessage());
+		}
+		if (!locked) {
+			LOGGER.severe("Failed to lock migrations of history table " + fHistoryTable + ", another migrator holds"
+					+ " the lock for more than " + fLockTimeoutSeconds + " seconds.");
+			lockCursor.close();
+			return null;
+		}
+		return lockCursor;
+	}
+
+	/**
+	 * Apply all pending migrations, the caller holds the migration lock.
+	 *
+	 * @return Amount of applied migrations, or -1 if a migration failed or the
+	 *         history can not be read.
+	 */
+	private int migratePending() {
+		List<QueryObjectDBMigration> pendingMigrations = findPendingMigrations();
+		if (pendingMigrations == null) {
+			return -1;
+		}
+		if (pendingMigrations.isEmpty()) {
+			LOGGER.info("Schema is up to date, no pending migrations.");
+			return 0;
+		}
+
+		List<List<QueryObjectDBMigration>> rounds = buildMigrationRounds(pendingMigrations);
+		LOGGER.info("Applying " + pendingMigrations.size() + " migrations in " + rounds.size() + " rounds.");
+		ExecutorService migrationExecutor = Executors.newFixedThreadPool(
+				Math.min(fParallelism, pendingMigrations.size()), new ThreadFactory() {
+					@Override
+					public Thread newThread(Runnable runnable) {
+						Thread thread = new Thread(runnable, "QueryObjectDBMigrator-migrate");
+						thread.setDaemon(true);
+						return thread;
+					}
+				});
+		int appliedMigrations = 0;
+		try {
+			for (List<QueryObjectDBMigration> round : rounds) {
+				List<Callable<Boolean>> roundTasks = new ArrayList<>();
+				for (final QueryObjectDBMigration migration : round) {
+					roundTasks.add(new Callable<Boolean>() {
+						@Override
+						public Boolean call() {
+							return applyMigration(migration);
+						}
+					});
+				}
+				boolean roundFailed = false;
+				for (Future<Boolean> roundResult : migrationExecutor.invokeAll(roundTasks)) {
+					if (roundResult.get()) {
+						appliedMigrations++;
+					} else {
+						roundFailed = true;
+					}
+				}
+				if (roundFailed) {
+					LOGGER.severe("Failed to migrate schema, " + appliedMigrations + " of " + pendingMigrations.size()
+							+ " migrations are applied.");
+					return -1;
+				}
+			}
+		} catch (InterruptedException interruptedException) {
+			Thread.currentThread().interrupt();
+			LOGGER.severe("Failed to migrate schema, migration is interrupted.");
+			return -1;
+		} catch (ExecutionException executionException) {
+			LOGGER.severe("Failed to migrate schema. Details: " + executionException.getCause());
+			return -1;
+		} finally {
+			migrationExecutor.shutdownNow();
+		}
+		LOGGER.info("Schema is migrated, " + appliedMigrations + " migrations are applied.");
+		return appliedMigrations;
+	}
+
+	/**
+	 * Find added migrations missing in the history table.
+	 *
+	 * @return Pending migrations in version order, or NULL if the history can
+	 *         not be read, an applied migration has changed or a migration has
+	 *         failed.
+	 */
+	private List<QueryObjectDBMigration> findPendingMigrations() {
+		Map<String, AppliedMigration> appliedMigrations = loadAppliedMigrations();
+		if (appliedMigrations == null) {
+			return null;
+		}
+
+		List<QueryObjectDBMigration> pendingMigrations = new ArrayList<>();
+		for (QueryObjectDBMigration migration : fMigrations) {
+			AppliedMigration appliedMigration = appliedMigrations.get(migration.getVersion());
+			if (appliedMigration == null) {
+				pendingMigrations.add(migration);
+			} else if (appliedMigration.fChecksum != migration.getChecksum()) {
+				LOGGER.severe("Failed to validate migration " + migration.getVersion() + ", statements are changed after"
+						+ " the migration has been applied. Applied checksum " + appliedMigration.fChecksum
+						+ ", current checksum " + migration.getChecksum() + ".");
+				return null;
+			} else if (!appliedMigration.fSucceeded) {
+				LOGGER.severe("Failed to validate migration " + migration.getVersion() + ", it failed after "
+						+ appliedMigration.fAppliedStatements + " of " + migration.getStatements().size()
+						+ " statements. Complete or revert it manually and delete its row of history table "
+						+ fHistoryTable + ".");
+				return null;
+			}
+		}
+		Collections.sort(pendingMigrations);
+		return pendingMigrations;
+	}
+
+	/**
+	 * Read history rows with one query, and create the history table if the
+	 * query fails.
+	 *
+	 * @return Applied and failed migrations by version, or NULL if the history
+	 *         can not be read.
+	 */
+	private Map<String, AppliedMigration> loadAppliedMigrations() {
+		JdbcDatabaseResultSetHandler<Map<String, AppliedMigration>> historyHandler = new JdbcDatabaseResultSetHandler<Map<String, AppliedMigration>>() {
+			@Override
+			public Map<String, AppliedMigration> handleResultSet(ResultSet results) throws SQLException {
+				Map<String, AppliedMigration> appliedMigrations = new HashMap<>();
+				while (results != null && results.next()) {
+					appliedMigrations.put(results.getString(1).trim(),
+							new AppliedMigration(results.getLong(2), results.getInt(3), results.getBoolean(4)));
+				}
+				return appliedMigrations;
+			}
+		};
+		String historySql = SqlQueryTypes.SELECT.sqlQueryType() + " Version,Checksum,AppliedStatements,Succeeded "
+				+ SqlStatementStrings.SQL_TABLE_FROM + " " + fHistoryTable + ";";
+		Map<String, AppliedMigration> appliedMigrations = fJdbcDbConn.executeQueryObject(historySql, true,
+				historyHandler);
+		if (appliedMigrations != null) {
+			return appliedMigrations;
+		}
+
+		LOGGER.info("Creating migration history table " + fHistoryTable + ".");
+		String createSql = SqlQueryTypes.CREATE_TABLE.sqlQueryType() + " IF NOT EXISTS " + fHistoryTable
+				+ " (Version VARCHAR(50) " + SqlStatementStrings.SQL_DATABASE_NOT_NULL + ", Description VARCHAR(200),"
+				+ " Checksum BIGINT(20) " + SqlStatementStrings.SQL_DATABASE_NOT_NULL + ", InstalledOnMillis BIGINT(20),"
+				+ " AppliedStatements INT(11) " + SqlStatementStrings.SQL_DATABASE_NOT_NULL + ", Succeeded BOOLEAN "
+				+ SqlStatementStrings.SQL_DATABASE_NOT_NULL + ", " + SqlStatementStrings.SQL_DATABASE_PRIMARY_KEY
+				+ " (Version));";
+		if (fJdbcDbConn.executeBatchQueryObjects(Collections.singletonList(createSql), true) == null) {
+			LOGGER.severe("Failed to create migration history table " + fHistoryTable + ".");
+			return null;
+		}
+		fJdbcDbConn.invalidateSchemaCache(fHistoryTable);
+		return fJdbcDbConn.executeQueryObject(historySql, true, historyHandler);
+	}
+
+	/**
+	 * Group pending migrations into rounds applied one after another. A
+	 * migration is put into the round after the latest round containing an
+	 * earlier migration with a shared table, migrations without tables get a
+	 * round of their own.
+	 *
+	 * @param pendingMigrations
+	 * 			Pending migrations in version order
+	 * @return Rounds of migrations, migrations of one round share no tables.
+	 */
+	private static List<List<QueryObjectDBMigration>> buildMigrationRounds(List<QueryObjectDBMigration> pendingMigrations) {
+		List<List<QueryObjectDBMigration>> rounds = new ArrayList<>();
+		Map<String, Integer> lastTableRounds = new HashMap<>();
+		int barrierRound = -1;
+		for (QueryObjectDBMigration migration : pendingMigrations) {
+			int round;
+			if (migration.getTables().isEmpty()) {
+				round = rounds.size();
+				barrierRound = round;
+			} else {
+				round = barrierRound + 1;
+				for (String table : migration.getTables()) {
+					Integer lastTableRound = lastTableRounds.get(table);
+					if (lastTableRound != null) {
+						round = Math.max(round, lastTableRound + 1);
+					}
+				}
+				for (String table : migration.getTables()) {
+					lastTableRounds.put(table, round);
+				}
+			}
+			while (rounds.size() <= round) {
+				rounds.add(new ArrayList<QueryObjectDBMigration>());
+			}
+			rounds.get(round).add(migration);
+		}
+		return rounds;
+	}
+
+	/**
+	 * Insert the history row of a migration, execute its statements one by one
+	 * and record the progress in the history row. A statement is executed only
+	 * once, it is not retried after it has been sent to the database server.
+	 *
+	 * @param migration
+	 * 			Pending migration
+	 * @return True if the migration is applied and recorded as succeeded.
+	 */
+	private boolean applyMigration(QueryObjectDBMigration migration) {
+		long startMillis = System.currentTimeMillis();
+		String version = migration.getVersion();
+		List<String> statements = migration.getStatements();
+		String insertSql = SqlQueryTypes.INSERT.sqlQueryType() + " " + fHistoryTable
+				+ " (Version,Description,Checksum,InstalledOnMillis,AppliedStatements,Succeeded) "
+				+ SqlStatementStrings.SQL_TABLE_VALUES + " ('" + version + "','"
+				+ migration.getDescription().replace("'", "''") + "'," + migration.getChecksum() + "," + startMillis
+				+ ",0,FALSE);";
+		if (!executeOnce(insertSql)) {
+			LOGGER.severe("Failed to apply migration " + version + " " + migration.getDescription()
+					+ ", history row can not be inserted.");
+			return false;
+		}
+
+		try {
+			for (int statement = 0; statement < statements.size(); statement++) {
+				if (!executeOnce(statements.get(statement))) {
+					LOGGER.severe("Failed to apply migration " + version + " " + migration.getDescription()
+							+ " at statement " + (statement + 1) + " of " + statements.size() + ", statements before it"
+							+ " are applied. The migration is not applied again until its history row is deleted.");
+					return false;
+				}
+				boolean lastStatement = statement == statements.size() - 1;
+				if (!executeOnce(SqlQueryTypes.UPDATE.sqlQueryType() + " " + fHistoryTable + " "
+						+ SqlStatementStrings.SQL_TABLE_SET + " AppliedStatements=" + (statement + 1)
+						+ (lastStatement ? ",Succeeded=TRUE" : "") + " " + SqlStatementStrings.SQL_TABLE_WHERE
+						+ " Version='" + version + "';") && lastStatement) {
+					LOGGER.severe("Failed to record migration " + version + " " + migration.getDescription()
+							+ " as succeeded, all statements are applied. Set Succeeded of its row of history table "
+							+ fHistoryTable + " manually.");
+					return false;
+				}
+			}
+		} finally {
+			for (String table : migration.getTables()) {
+				fJdbcDbConn.invalidateSchemaCache(table);
+			}
+		}
+		LOGGER.info("Applied migration " + version + " " + migration.getDescription() + " in "
+				+ (System.currentTimeMillis() - startMillis) + " ms.");
+		return true;
+	}
+
+	/**
+	 * Execute a statement which must not be executed twice, it is only retried
+	 * if it failed before being sent to the database server.
+	 *
+	 * @param exeSql
+	 * 			SQL string
+	 * @return True if the statement succeeded.
+	 */
+	private boolean executeOnce(String exeSql) {
+		return fJdbcDbConn.executeQueryObject(exeSql, false, EXECUTED_HANDLER) != null;
+	}
+}
@@ -1,7 +1,13 @@
 package QueryObjectFramework.QueryObjectDBTableStatements;
 
 import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Collections;
 import java.util.List;
+import java.util.logging.Logger;
+
+import javax.sql.rowset.RowSetMetaDataImpl;
 
 import org.eclipse.jdt.annotation.NonNull;
 
@@ -104,6 +110,9 @@ import QueryObjectFramework.JdbcDatabaseConnection.JdbcDatabaseConnection;
  * NOTE: At the moment, MYSQL server is fully supported as altering
  * tables.
  *
+ * NOTE: Adding, modifying and dropping columns can run online on large
+ * tables, see setOnlineSchemaChange().
+ *
  * TODO: Add support for customized CHECK id in order to support multiple CHECK ids in
  * one table.
  *
@@ -120,6 +129,11 @@ import QueryObjectFramework.JdbcDatabaseConnection.JdbcDatabaseConnection;
  * @author Bohui Axelsson
  */
 public class QueryObjectAlterTable extends QueryObjectDBTableAbstract {
+	private static final Logger LOGGER = Logger.getLogger(QueryObjectAlterTable.class.getName());
+	private static final String ALTERED_TABLE_COLUMN = "Table";
+
+	private QueryObjectDBTableOnlineSchemaChange fOnlineSchemaChange = null;
+
 	/**
 	 * Create an ALTER TABLE query object with Table names, columns, and column data types.
 	 *
@@ -144,6 +158,89 @@ public class QueryObjectAlterTable extends QueryObjectDBTableAbstract {
 		super(SqlQueryTypes.ALTER_TABLE, jdbcDbConn, tableName, tableColumns);
 	}
 
+	/**
+	 * Create an ALTER TABLE query object with Table name only, for partition
+	 * operations.
+	 *
+	 * @param jdbcDbConn
+	 * 			JDBC database connection
+	 * @param tableName
+	 * 			Table name
+	 */
+	public QueryObjectAlterTable(@NonNull JdbcDatabaseConnection jdbcDbConn, @NonNull String tableName) {
+		super(SqlQueryTypes.ALTER_TABLE, jdbcDbConn, tableName);
+	}
+
+	/**
+	 * Set online mode for adding, modifying and dropping columns. In online
+	 * mode the table is copied into an altered shadow table while writes go
+	 * on, and both tables are swapped afterwards, see
+	 * QueryObjectDBTableOnlineSchemaChange. Altering methods then return a
+	 * ResultSet with one row holding the table name if the table is altered,
+	 * or NULL if the online schema change failed.
+	 *
+	 * @param onlineSchemaChange
+	 * 			Online schema change settings, or NULL to run plain ALTER TABLE
+	 * 			statements.
+	 */
+	public void setOnlineSchemaChange(QueryObjectDBTableOnlineSchemaChange onlineSchemaChange) {
+		fOnlineSchemaChange = onlineSchemaChange;
+	}
+
+	/**
+	 * Execute an ALTER TABLE clause on the table, online if online mode is set.
+	 *
+	 * @param alterClause
+	 * 			ALTER TABLE clause after the table name
+	 * @return ResultSet SQL execution results. In online mode a ResultSet with
+	 * 			one row holding the table name if the table is altered, or NULL
+	 * 			if the online schema change failed.
+	 */
+	private ResultSet executeAlterClause(String alterClause) {
+		if (fOnlineSchemaChange != null) {
+			if (!fOnlineSchemaChange.alterTableOnline(fJdbcDbConn, fTableName, alterClause)) {
+				return null;
+			}
+			return buildAlteredOnlineResults();
+		}
+		return executePlainAlterClause(alterClause);
+	}
+
+	/**
+	 * Build the ResultSet returned by a successful online schema change, there
+	 * are no SQL execution results of the swapped table.
+	 *
+	 * @return ResultSet with one row holding the table name
+	 */
+	private ResultSet buildAlteredOnlineResults() {
+		try {
+			RowSetMetaDataImpl metaData = new RowSetMetaDataImpl();
+			metaData.setColumnCount(1);
+			metaData.setColumnName(1, ALTERED_TABLE_COLUMN);
+			metaData.setColumnLabel(1, ALTERED_TABLE_COLUMN);
+			metaData.setColumnType(1, Types.VARCHAR);
+			return JdbcDatabaseConnection.buildCachedRowSet(metaData,
+					Collections.singletonList(new Object[] { fTableName }), true);
+		} catch (SQLException e) {
+			LOGGER.severe("Failed to build results of online schema change. Details: " + e.getMessage());
+			return null;
+		}
+	}
+
+	/**
+	 * Execute an ALTER TABLE clause on the table as one ALTER TABLE statement.
+	 * Partition operations always run this way, the database server only
+	 * touches the affected partitions.
+	 *
+	 * @param alterClause
+	 * 			ALTER TABLE clause after the table name
+	 * @return ResultSet SQL execution results
+	 */
+	private ResultSet executePlainAlterClause(String alterClause) {
+		String sql = fQueryObjectType.sqlQueryType() + " " + fTableName + " " + alterClause + ";";
+		return executeSchemaChangingQueryObject(sql);
+	}
+
 	/**
 	 * ALTER TABLE - ADD Column
 	 * To add a column in a table.
@@ -170,9 +267,7 @@ public class QueryObjectAlterTable extends QueryObjectDBTableAbstract {
 			return null;
 		}
 
-		String sql = fQueryObjectType.sqlQueryType() + " " + fTableName + " " + SqlStatementStrings.SQL_DATABASE_ADD + " "
-				+ buildFullColumnSettingString() + ";";
-		return fJdbcDbConn.executeQueryObject(sql);
+		return executeAlterClause(SqlStatementStrings.SQL_DATABASE_ADD + " " + buildFullColumnSettingString());
 	}
 
 	/**
@@ -217,7 +312,7 @@ public class QueryObjectAlterTable extends QueryObjectDBTableAbstract {
 
 		String sql = fQueryObjectType.sqlQueryType() + " " + fTableName + " " + SqlStatementStrings.SQL_DATABASE_ADD + " "
 				+ buildAppendingColumnSettingString() + ";";
-		return fJdbcDbConn.executeQueryObject(sql);
+		return executeSchemaChangingQueryObject(sql);
 	}
 
 	/**
@@ -238,9 +333,7 @@ public class QueryObjectAlterTable extends QueryObjectDBTableAbstract {
 			return null;
 		}
 
-		String sql = fQueryObjectType.sqlQueryType() + " " + fTableName + " " + SqlStatementStrings.SQL_DATABASE_DROP_COLUMN + " "
-				+ buildDropColumnsFromTableClaues() + ";";
-		return fJdbcDbConn.executeQueryObject(sql);
+		return executeAlterClause(SqlStatementStrings.SQL_DATABASE_DROP_COLUMN + " " + buildDropColumnsFromTableClaues());
 	}
 
 	/**
@@ -268,7 +361,7 @@ public class QueryObjectAlterTable extends QueryObjectDBTableAbstract {
 	public ResultSet alterTableDropUniqueConstraintsOnExistingTable() {
 		String sql = fQueryObjectType.sqlQueryType() + " " + fTableName + " " + SqlStatementStrings.SQL_DATABASE_DROP_INDEX_UNIQUE
 				+ " " + SqlStatementStrings.SQL_DATABASE_MULTIPLE_UNIQUE_COLUMNS + fTableName + ";";
-		return fJdbcDbConn.executeQueryObject(sql);
+		return executeSchemaChangingQueryObject(sql);
 	}
 
 	/**
@@ -287,7 +380,7 @@ public class QueryObjectAlterTable extends QueryObjectDBTableAbstract {
 	public ResultSet alterTableDropPrimaryKeyConstraintsOnExistingTable() {
 		String sql = fQueryObjectType.sqlQueryType() + " " + fTableName + " "
 				+ SqlStatementStrings.SQL_DATABASE_DROP_PRIMARY_KEY + ";";
-		return fJdbcDbConn.executeQueryObject(sql);
+		return executeSchemaChangingQueryObject(sql);
 	}
 
 	/**
@@ -307,7 +400,7 @@ public class QueryObjectAlterTable extends QueryObjectDBTableAbstract {
 		String sql = fQueryObjectType.sqlQueryType() + " " + fTableName + " "
 				+ SqlStatementStrings.SQL_DATABASE_DROP_PRIMARY_KEY + " " + SqlStatementStrings.SQL_DATABASE_FOREIGN_KEY
 				+ " " + SqlStatementStrings.SQL_DATABASE_MULTIPLE_FOREIGN_KEY_COLUMNS + fTableName + ";";
-		return fJdbcDbConn.executeQueryObject(sql);
+		return executeSchemaChangingQueryObject(sql);
 	}
 
 	/**
@@ -328,7 +421,7 @@ public class QueryObjectAlterTable extends QueryObjectDBTableAbstract {
 		String sql = fQueryObjectType.sqlQueryType() + " " + fTableName + " "
 				+ SqlStatementStrings.SQL_DATABASE_DROP_CHECK + " "
 				+ SqlStatementStrings.SQL_DATABASE_MULTIPLE_CHECK_COLUMNS + fTableName + ";";
-		return fJdbcDbConn.executeQueryObject(sql);
+		return executeSchemaChangingQueryObject(sql);
 	}
 
 	/**
@@ -349,9 +442,140 @@ public class QueryObjectAlterTable extends QueryObjectDBTableAbstract {
 			return null;
 		}
 
-		String sql = fQueryObjectType.sqlQueryType() + " " + fTableName + SqlStatementStrings.SQL_DATABASE_MODIFY_COLUMN + " "
-				+ buildColumnsAndColumnDataTypes() + ";";
-		return fJdbcDbConn.executeQueryObject(sql);
+		return executeAlterClause(SqlStatementStrings.SQL_DATABASE_MODIFY_COLUMN + " " + buildColumnsAndColumnDataTypes());
+	}
+
+	/**
+	 * ALTER TABLE - PARTITION BY
+	 * To partition an existing table, or to change the partitioning of a
+	 * partitioned table. The table is rebuilt.
+	 *
+	 * Scenario:
+	 *
+	 * <example>
+	 *  ALTER TABLE Measurements
+	 *  PARTITION BY RANGE COLUMNS (MeasuredAt) (PARTITION p2023 VALUES LESS THAN ('2024-01-01'));
+	 * </example>
+	 *
+	 * @param partitioning
+	 * 			New table partitioning
+	 * @return ResultSet SQL execution results
+	 */
+	public ResultSet alterTablePartitionBy(@NonNull QueryObjectDBTablePartitioning partitioning) {
+		if (!partitioning.validatePartitioning()) {
+			return null;
+		}
+
+		return executePlainAlterClause(partitioning.buildPartitionByClause());
+	}
+
+	/**
+	 * ALTER TABLE - ADD PARTITION
+	 * To add partitions to a partitioned table. RANGE partitions can only be
+	 * added after the highest partition, HASH and KEY partitions are added by
+	 * amount and rows are redistributed.
+	 *
+	 * Scenario:
+	 *
+	 * <example>
+	 *  ALTER TABLE Measurements
+	 *  ADD PARTITION (PARTITION p2024 VALUES LESS THAN ('2025-01-01'));
+	 * </example>
+	 *
+	 * <example>
+	 *  ALTER TABLE Orders
+	 *  ADD PARTITION PARTITIONS 4;
+	 * </example>
+	 *
+	 * @param partitioning
+	 * 			Partitioning of the table containing only the added partitions,
+	 * 			or the amount of added HASH or KEY partitions.
+	 * @return ResultSet SQL execution results
+	 */
+	public ResultSet alterTableAddPartitions(@NonNull QueryObjectDBTablePartitioning partitioning) {
+		if (!partitioning.validatePartitioning()) {
+			return null;
+		}
+
+		return executePlainAlterClause(SqlStatementStrings.SQL_DATABASE_ADD_PARTITION + " "
+				+ partitioning.buildPartitionDefinitions());
+	}
+
+	/**
+	 * ALTER TABLE - DROP PARTITION
+	 * To drop RANGE or LIST partitions together with their rows. Dropping a
+	 * partition only removes its files, old rows of time series tables are
+	 * purged much faster than by DELETE.
+	 *
+	 * Scenario:
+	 *
+	 * <example>
+	 *  ALTER TABLE Measurements
+	 *  DROP PARTITION p2021,p2022;
+	 * </example>
+	 *
+	 * @param partitionNames
+	 * 			Names of dropped partitions
+	 * @return ResultSet SQL execution results
+	 */
+	public ResultSet alterTableDropPartitions(@NonNull List<String> partitionNames) {
+		if (!validatePartitionNames(partitionNames)) {
+			return null;
+		}
+
+		return executePlainAlterClause(SqlStatementStrings.SQL_DATABASE_DROP_PARTITION + " " + String.join(",", partitionNames));
+	}
+
+	/**
+	 * ALTER TABLE - REORGANIZE PARTITION
+	 * To split or merge RANGE or LIST partitions, rows of the reorganized
+	 * partitions are kept.
+	 *
+	 * Scenario:
+	 *
+	 * <example>
+	 *  ALTER TABLE Measurements
+	 *  REORGANIZE PARTITION pmax INTO (
+	 *  	PARTITION p2024 VALUES LESS THAN ('2025-01-01'),
+	 *  	PARTITION pmax VALUES LESS THAN (MAXVALUE));
+	 * </example>
+	 *
+	 * @param partitionNames
+	 * 			Names of reorganized partitions, adjacent for RANGE partitioning
+	 * @param partitioning
+	 * 			Partitioning of the table containing only the new partitions,
+	 * 			covering the same range as the reorganized partitions.
+	 * @return ResultSet SQL execution results
+	 */
+	public ResultSet alterTableReorganizePartitions(@NonNull List<String> partitionNames,
+			@NonNull QueryObjectDBTablePartitioning partitioning) {
+		if (!validatePartitionNames(partitionNames) || !partitioning.validatePartitioning()) {
+			return null;
+		}
+
+		return executePlainAlterClause(SqlStatementStrings.SQL_DATABASE_REORGANIZE_PARTITION + " "
+				+ String.join(",", partitionNames) + " " + SqlStatementStrings.SQL_DATABASE_INTO + " "
+				+ partitioning.buildPartitionDefinitions());
+	}
+
+	/**
+	 * Validate partition names are not empty.
+	 *
+	 * @return True if at least one partition name is given and no name is
+	 *         empty.
+	 */
+	private boolean validatePartitionNames(List<String> partitionNames) {
+		if (partitionNames.isEmpty()) {
+			LOGGER.severe("Failed to alter partitions of table " + fTableName + ", partition names are missing.");
+			return false;
+		}
+		for (String partitionName : partitionNames) {
+			if (partitionName == null || partitionName.trim().isEmpty()) {
+				LOGGER.severe("Failed to alter partitions of table " + fTableName + ", partition name is empty.");
+				return false;
+			}
+		}
+		return true;
 	}
 
 	/**
@@ -0,0 +1,179 @@
+package QueryObjectFramework.QueryObjectDBTableStatements;
+
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+import org.eclipse.jdt.annotation.NonNull;
+
+import QueryObjectFramework.CommonClasses.SqlQueryTypes;
+import QueryObjectFramework.CommonClasses.SqlStatementStrings;
+import QueryObjectFramework.JdbcDatabaseConnection.JdbcDatabaseConnection;
+
+/**
+ * Query object class for CREATE INDEX statement. The CREATE INDEX statement is
+ * used to create indexes in tables.
+ *
+ * Indexes are used to retrieve data from the database more quickly than
+ * otherwise. The users cannot see the indexes, they are just used to speed up
+ * searches/queries.
+ *
+ * <example>
+ *  CREATE INDEX index_name
+ *  ON table_name (column1, column2, ...);
+ * </example>
+ *
+ * <example>
+ *  CREATE UNIQUE INDEX index_name
+ *  ON table_name (column1, column2, ...);
+ * </example>
+ *
+ * <example>
+ *  CREATE INDEX IDX_Persons
+ *  ON Persons (LastName(10) ASC, Age DESC);
+ * </example>
+ *
+ * NOTE: Updating a table with indexes takes more time than updating a table
+ * without (because the indexes also need an update). So, only create indexes
+ * on columns that will be frequently searched against.
+ *
+ * NOTE: Descending index key parts are only honored by MYSQL 8.0 and later,
+ * older servers parse and ignore DESC.
+ *
+ * @author Bohui Axelsson
+ */
+public class QueryObjectCreateIndex extends QueryObjectDBTableAbstract {
+	private static final Logger LOGGER = Logger.getLogger(QueryObjectCreateIndex.class.getName());
+
+	/*
+	 * CREATE INDEX specific settings
+	 */
+	private @NonNull String fIndexName = "";
+	private final @NonNull List<QueryObjectDBTableIndexColumn> fIndexColumns = new ArrayList<>();
+
+	/**
+	 * Create a CREATE INDEX query object, duplicate values are allowed.
+	 *
+	 * @param jdbcDbConn
+	 * 			JDBC database connection
+	 * @param tableName
+	 * 			Table name
+	 * @param indexName
+	 * 			Index name
+	 * @param indexColumns
+	 * 			Index key parts, the order of key parts is the order of the
+	 * 			composite index.
+	 */
+	public QueryObjectCreateIndex(@NonNull JdbcDatabaseConnection jdbcDbConn, @NonNull String tableName,
+			@NonNull String indexName, @NonNull List<QueryObjectDBTableIndexColumn> indexColumns) {
+		this(jdbcDbConn, tableName, indexName, indexColumns, false);
+	}
+
+	/**
+	 * Create a CREATE INDEX or CREATE UNIQUE INDEX query object.
+	 *
+	 * @param jdbcDbConn
+	 * 			JDBC database connection
+	 * @param tableName
+	 * 			Table name
+	 * @param indexName
+	 * 			Index name
+	 * @param indexColumns
+	 * 			Index key parts, the order of key parts is the order of the
+	 * 			composite index.
+	 * @param uniqueIndex
+	 * 			True if duplicate values are not allowed.
+	 */
+	public QueryObjectCreateIndex(@NonNull JdbcDatabaseConnection jdbcDbConn, @NonNull String tableName,
+			@NonNull String indexName, @NonNull List<QueryObjectDBTableIndexColumn> indexColumns,
+			boolean uniqueIndex) {
+		super(uniqueIndex ? SqlQueryTypes.CREATE_UNIQUE_INDEX : SqlQueryTypes.CREATE_INDEX, jdbcDbConn, tableName);
+		fIndexName = indexName;
+		fIndexColumns.addAll(indexColumns);
+	}
+
+	public String getIndexName() {
+		return fIndexName;
+	}
+
+	/**
+	 * Create an index.
+	 *
+	 * Scenario:
+	 *
+	 * <example>
+	 *  CREATE INDEX IDX_Persons ON Persons (LastName ASC,FirstName ASC);
+	 * </example>
+	 *
+	 * <example>
+	 *  CREATE UNIQUE INDEX IDX_Persons ON Persons (Email(64) ASC);
+	 * </example>
+	 *
+	 * NOTE: Only one index can be associated to one Query Object.
+	 *
+	 * @return ResultSet SQL execution results
+	 */
+	public ResultSet createIndex() {
+		if (!validateIndexNameAndColumns()) {
+			return null;
+		}
+
+		return executeSchemaChangingQueryObject(buildCreateIndexStatement());
+	}
+
+	/**
+	 * Build the full CREATE INDEX statement string.
+	 *
+	 * @return CREATE INDEX SQL string
+	 */
+	protected String buildCreateIndexStatement() {
+		return fQueryObjectType.sqlQueryType() + " " + fIndexName + " " + SqlStatementStrings.SQL_TABLE_ON + " "
+				+ fTableName + " (" + buildIndexColumnsClause() + ");";
+	}
+
+	/**
+	 * Validate index name and table name are not empty, and all index key parts
+	 * are valid.
+	 *
+	 * @return True if index definition is valid.
+	 */
+	private boolean validateIndexNameAndColumns() {
+		if (fTableName.isEmpty() || fIndexName.isEmpty()) {
+			LOGGER.severe("Failed to create index, table name or index name is missing.");
+			return false;
+		}
+		if (fIndexColumns.isEmpty()) {
+			LOGGER.severe("Failed to create index, index columns are missing.");
+			return false;
+		}
+		for (QueryObjectDBTableIndexColumn indexColumn : fIndexColumns) {
+			if (indexColumn == null) {
+				LOGGER.severe("Failed to create index, index column item is null.");
+				return false;
+			}
+			if (!indexColumn.validateIndexColumn()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Build INDEX key parts string.
+	 *
+	 * <example>
+	 * 	column_name0(10) ASC,column_name1 DESC, ...
+	 * </example>
+	 *
+	 * @return INDEX key parts string
+	 */
+	private String buildIndexColumnsClause() {
+		StringBuilder indexColumnsClause = new StringBuilder();
+		for (QueryObjectDBTableIndexColumn indexColumn : fIndexColumns) {
+			indexColumnsClause.append(indexColumn.buildIndexColumnClause() + ",");
+		}
+		indexColumnsClause.deleteCharAt(indexColumnsClause.length() - 1);
+		return indexColumnsClause.toString();
+	}
+}
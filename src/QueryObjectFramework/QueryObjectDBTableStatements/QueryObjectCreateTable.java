@@ -58,9 +58,25 @@ import QueryObjectFramework.JdbcDatabaseConnection.JdbcDatabaseConnection;
  * NOTE: At the moment, CREATE TABLE only support one CHECK id on one TABLE, which CHECK
  * id is automatically set by Query Object, CHECK id format is "CHK_<table_name>".
  *
+ * <example>
+ * 	CREATE TABLE Measurements (
+ * 		SensorID int NOT NULL,
+ * 		MeasuredAt date NOT NULL,
+ * 		PRIMARY KEY (SensorID,MeasuredAt)
+ * 	) PARTITION BY RANGE COLUMNS (MeasuredAt) (
+ * 		PARTITION p2023 VALUES LESS THAN ('2024-01-01'),
+ * 		PARTITION pmax VALUES LESS THAN (MAXVALUE)
+ * 	);
+ * </example>
+ *
+ * Partitions are declared with setPartitioning(), see
+ * QueryObjectDBTablePartitioning.
+ *
  * @author Bohui Axelsson
  */
 public class QueryObjectCreateTable extends QueryObjectDBTableAbstract {
+	private QueryObjectDBTablePartitioning fPartitioning = null;
+
 	/**
 	 * Create an CREATE TABLE query object with Table names.
 	 *
@@ -88,6 +104,16 @@ public class QueryObjectCreateTable extends QueryObjectDBTableAbstract {
 		super(SqlQueryTypes.CREATE_TABLE, jdbcDbConn, tableName, tableColumns);
 	}
 
+	/**
+	 * Set partitioning of the created table.
+	 *
+	 * @param partitioning
+	 * 			Table partitioning, or NULL for a table without partitions.
+	 */
+	public void setPartitioning(QueryObjectDBTablePartitioning partitioning) {
+		fPartitioning = partitioning;
+	}
+
 	/**
 	 * Create a table.
 	 *
@@ -136,11 +162,13 @@ public class QueryObjectCreateTable extends QueryObjectDBTableAbstract {
 	 * @return ResultSet SQL execution results
 	 */
 	public ResultSet createTable() {
-		if (!validateTableColumnsNotNull()) {
+		if (!validateTableColumnsNotNull() || (fPartitioning != null && !fPartitioning.validatePartitioning())) {
 			return null;
 		}
 
-		String sql = fQueryObjectType.sqlQueryType() + " " + fTableName + " (" + buildFullColumnSettingString() + ")" + ";";
-		return fJdbcDbConn.executeQueryObject(sql);
+		String partitionClause = fPartitioning == null ? "" : " " + fPartitioning.buildPartitionByClause();
+		String sql = fQueryObjectType.sqlQueryType() + " " + fTableName + " (" + buildFullColumnSettingString() + ")"
+				+ partitionClause + ";";
+		return executeSchemaChangingQueryObject(sql);
 	}
 }
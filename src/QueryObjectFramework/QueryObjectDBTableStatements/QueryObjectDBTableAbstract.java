@@ -1,5 +1,6 @@
 package QueryObjectFramework.QueryObjectDBTableStatements;
 
+import java.sql.ResultSet;
 import java.util.List;
 
 import org.eclipse.jdt.annotation.NonNull;
@@ -44,6 +45,20 @@ public class QueryObjectDBTableAbstract {
 		fColumnBuilder.buildDBTableColumnIndex(tableColumns);
 	}
 
+	/**
+	 * Execute a DDL statement on the table, and invalidate cached schema metadata
+	 * of the table on the JDBC connection.
+	 *
+	 * @param sql
+	 * 			DDL SQL string
+	 * @return ResultSet SQL execution results
+	 */
+	protected ResultSet executeSchemaChangingQueryObject(String sql) {
+		ResultSet results = fJdbcDbConn.executeQueryObject(sql);
+		fJdbcDbConn.invalidateSchemaCache(fTableName);
+		return results;
+	}
+
 	/**
 	 * Create columns setting string with table name.
 	 *
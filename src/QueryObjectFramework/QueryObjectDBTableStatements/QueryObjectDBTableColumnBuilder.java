@@ -155,7 +155,7 @@ public class QueryObjectDBTableColumnBuilder {
 		 */
 		appendingClause.append(buildCheckAppendingConstraint(tableName));
 
-		if (appendingClause.charAt(appendingClause.length() - 1) == ',') {
+		if (appendingClause.length() > 0 && appendingClause.charAt(appendingClause.length() - 1) == ',') {
 			appendingClause.deleteCharAt(appendingClause.length() - 1);
 		}
 
@@ -102,6 +102,10 @@ public class QueryObjectDBTableColumnDataType {
 		}
 	}
 
+	protected SqlDataTypes getDataType() {
+		return fDataType;
+	}
+
 	/**
 	 * Get SQL column data type as string for creating a column during creating
 	 * table via SQL.
@@ -0,0 +1,261 @@
+package QueryObjectFramework.QueryObjectDBTableStatements;
+
+import java.math.BigDecimal;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+
+/**
+ * Enumeration class contains kinds of column values stored in binary form by
+ * table snapshots and table replicas, selected by the column data type.
+ *
+ * Binary forms, big endian:
+ * - LONG, DATE (epoch day), TIME (nano of day): 8 bytes
+ * - DOUBLE: 8 bytes
+ * - TIMESTAMP: 8 bytes epoch second and 4 bytes nano of second, both of the
+ *   local date time
+ * - DECIMAL, STRING: 4 bytes length and UTF-8 bytes
+ * - BYTES: 4 bytes length and bytes
+ *
+ * NOTE: The ordinal of a kind is stored in snapshot files, new kinds must be
+ * added at the end.
+ *
+ * @author Bohui Axelsson
+ */
+public enum QueryObjectDBTableColumnValueKind {
+	LONG(Types.BIGINT),
+	DOUBLE(Types.DOUBLE),
+	DECIMAL(Types.DECIMAL),
+	STRING(Types.VARCHAR),
+	BYTES(Types.VARBINARY),
+	DATE(Types.DATE),
+	TIME(Types.TIME),
+	TIMESTAMP(Types.TIMESTAMP);
+
+	private int fSqlType;
+
+	QueryObjectDBTableColumnValueKind(int sqlType) {
+		this.fSqlType = sqlType;
+	}
+
+	/**
+	 * Get the SQL type of values of this kind, see java.sql.Types.
+	 *
+	 * @return SQL type
+	 */
+	protected int sqlType() {
+		return fSqlType;
+	}
+
+	/**
+	 * Get the value kind of a column data type.
+	 *
+	 * @param columnDataType
+	 * 			Column data type
+	 * @return Value kind, STRING for text and unknown data types.
+	 */
+	protected static QueryObjectDBTableColumnValueKind of(QueryObjectDBTableColumnDataType columnDataType) {
+		switch (columnDataType.getDataType()) {
+		case TINYINT:
+		case SMALLINT:
+		case MEDIUMINT:
+		case INT:
+		case BIGINT:
+		case YEAR:
+			return LONG;
+		case FLOAT:
+		case DOUBLE:
+			return DOUBLE;
+		case DECIMAL:
+			return DECIMAL;
+		case BLOB:
+		case MEDIUMBLOB:
+		case LONGBLOB:
+			return BYTES;
+		case DATE:
+			return DATE;
+		case TIME:
+			return TIME;
+		case DATETIME:
+		case TIMESTAMP:
+			return TIMESTAMP;
+		default:
+			return STRING;
+		}
+	}
+
+	/**
+	 * Read a column value of the current row with the typed getter of this
+	 * kind.
+	 *
+	 * @param results
+	 * 			Results positioned on a row
+	 * @param column
+	 * 			Column index starting from 1
+	 * @return Long, Double, BigDecimal, String, byte[], java.sql.Date, Time or
+	 * 			Timestamp value, or NULL if the value is NULL.
+	 * @throws SQLException
+	 * 			Failed on reading the value
+	 */
+	protected Object readResultValue(ResultSet results, int column) throws SQLException {
+		switch (this) {
+		case LONG: {
+			long value = results.getLong(column);
+			return results.wasNull() ? null : value;
+		}
+		case DOUBLE: {
+			double value = results.getDouble(column);
+			return results.wasNull() ? null : value;
+		}
+		case DECIMAL:
+			return results.getBigDecimal(column);
+		case BYTES:
+			return results.getBytes(column);
+		case DATE:
+			return results.getDate(column);
+		case TIME:
+			return results.getTime(column);
+		case TIMESTAMP:
+			return results.getTimestamp(column);
+		default:
+			return results.getString(column);
+		}
+	}
+
+	/**
+	 * Convert a value given by users, for example a key value, into the Java
+	 * type of this kind.
+	 *
+	 * @param value
+	 * 			Value, numbers, strings and java.time values are converted.
+	 * @return Converted value, or NULL if the value can not be converted.
+	 */
+	protected Object normalizeValue(Object value) {
+		try {
+			switch (this) {
+			case LONG:
+				return value instanceof Number ? ((Number) value).longValue() : Long.valueOf(value.toString().trim());
+			case DOUBLE:
+				return value instanceof Number ? ((Number) value).doubleValue() : Double.valueOf(value.toString().trim());
+			case DECIMAL:
+				return value instanceof BigDecimal ? value : new BigDecimal(value.toString().trim());
+			case BYTES:
+				return value instanceof byte[] ? value : null;
+			case DATE:
+				if (value instanceof java.sql.Date) {
+					return value;
+				}
+				return java.sql.Date.valueOf(value instanceof LocalDate ? (LocalDate) value : LocalDate.parse(value.toString()));
+			case TIME:
+				if (value instanceof Time) {
+					return value;
+				}
+				return Time.valueOf(value instanceof LocalTime ? (LocalTime) value : LocalTime.parse(value.toString()));
+			case TIMESTAMP:
+				if (value instanceof Timestamp) {
+					return value;
+				}
+				return value instanceof LocalDateTime ? Timestamp.valueOf((LocalDateTime) value)
+						: Timestamp.valueOf(value.toString());
+			default:
+				return value.toString();
+			}
+		} catch (RuntimeException conversionException) {
+			return null;
+		}
+	}
+
+	/**
+	 * Write a non NULL value in binary form at the buffer position, the buffer
+	 * is positioned after the value afterwards.
+	 *
+	 * @param values
+	 * 			Binary output
+	 * @param value
+	 * 			Value of the Java type of this kind, see readResultValue().
+	 * @throws BufferOverflowException
+	 * 			The value does not fit into the buffer, the buffer position is
+	 * 			undefined.
+	 */
+	protected void writeValue(ByteBuffer values, Object value) {
+		switch (this) {
+		case LONG:
+			values.putLong((Long) value);
+			break;
+		case DOUBLE:
+			values.putDouble((Double) value);
+			break;
+		case DECIMAL:
+			writeBytes(values, value.toString().getBytes(StandardCharsets.UTF_8));
+			break;
+		case BYTES:
+			writeBytes(values, (byte[]) value);
+			break;
+		case DATE:
+			values.putLong(((java.sql.Date) value).toLocalDate().toEpochDay());
+			break;
+		case TIME:
+			values.putLong(((Time) value).toLocalTime().toNanoOfDay());
+			break;
+		case TIMESTAMP: {
+			LocalDateTime dateTime = ((Timestamp) value).toLocalDateTime();
+			values.putLong(dateTime.toEpochSecond(ZoneOffset.UTC));
+			values.putInt(dateTime.getNano());
+			break;
+		}
+		default:
+			writeBytes(values, value.toString().getBytes(StandardCharsets.UTF_8));
+		}
+	}
+
+	/**
+	 * Read a non NULL value in binary form at the buffer position, the buffer
+	 * is positioned after the value afterwards.
+	 *
+	 * @param values
+	 * 			Binary input
+	 * @return Value of the Java type of this kind, see readResultValue().
+	 */
+	protected Object readValue(ByteBuffer values) {
+		switch (this) {
+		case LONG:
+			return values.getLong();
+		case DOUBLE:
+			return values.getDouble();
+		case DECIMAL:
+			return new BigDecimal(new String(readBytes(values), StandardCharsets.UTF_8));
+		case BYTES:
+			return readBytes(values);
+		case DATE:
+			return java.sql.Date.valueOf(LocalDate.ofEpochDay(values.getLong()));
+		case TIME:
+			return Time.valueOf(LocalTime.ofNanoOfDay(values.getLong()));
+		case TIMESTAMP: {
+			long epochSecond = values.getLong();
+			return Timestamp.valueOf(LocalDateTime.ofEpochSecond(epochSecond, values.getInt(), ZoneOffset.UTC));
+		}
+		default:
+			return new String(readBytes(values), StandardCharsets.UTF_8);
+		}
+	}
+
+	private static void writeBytes(ByteBuffer values, byte[] value) {
+		values.putInt(value.length);
+		values.put(value);
+	}
+
+	private static byte[] readBytes(ByteBuffer values) {
+		byte[] value = new byte[values.getInt()];
+		values.get(value);
+		return value;
+	}
+}
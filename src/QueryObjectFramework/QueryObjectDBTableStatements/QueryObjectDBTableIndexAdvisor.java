@@ -0,0 +1,283 @@
+package QueryObjectFramework.QueryObjectDBTableStatements;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.logging.Logger;
+
+import org.eclipse.jdt.annotation.NonNull;
+
+import QueryObjectFramework.CommonClasses.SqlStatementStrings;
+import QueryObjectFramework.JdbcDatabaseConnection.JdbcDatabaseConnection;
+
+/**
+ * Index advisor class records column sets that are used by query objects at
+ * runtime, and suggests secondary indexes that are missing on tables.
+ *
+ * A recorded column set is split into two parts:
+ * - Equality columns, columns compared with '=', IN or IS NULL. The order of
+ *   equality columns does not matter for an index.
+ * - Ordered columns, one range column (<, >, BETWEEN, LIKE) or the ORDER BY
+ *   columns that follow equality columns in the index.
+ *
+ * <example>
+ *  SELECT * FROM Orders WHERE CustomerID = 7 AND OrderDate > '2018-01-01';
+ *
+ *  Suggestion: CREATE INDEX IDX_Orders_CustomerID_OrderDate ON Orders
+ *  (CustomerID ASC,OrderDate ASC);
+ * </example>
+ *
+ * A column set is treated as covered when an existing index, read from
+ * DatabaseMetaData.getIndexInfo, starts with the equality columns (in any
+ * order) followed by the ordered columns.
+ *
+ * TIP: Register the advisor on a JDBC connection with
+ * JdbcDatabaseConnection.setIndexAdvisor(), all query objects sharing the
+ * connection will then report their column usage.
+ *
+ * @author Bohui Axelsson
+ */
+public class QueryObjectDBTableIndexAdvisor {
+	private static final Logger LOGGER = Logger.getLogger(QueryObjectDBTableIndexAdvisor.class.getName());
+
+	private final @NonNull JdbcDatabaseConnection fJdbcDbConn;
+
+	/*
+	 * Recorded column sets, table name -> column set -> amount of usages.
+	 */
+	private final @NonNull Map<String, Map<ColumnSet, Integer>> fColumnUsages = new LinkedHashMap<>();
+	private int fMinimumUsages = 1;
+
+	/**
+	 * Recorded column set, sorted equality columns followed by ordered columns.
+	 */
+	private static final class ColumnSet {
+		private final int fEqualityColumnAmount;
+		private final @NonNull List<String> fColumns;
+
+		private ColumnSet(int equalityColumnAmount, @NonNull List<String> columns) {
+			fEqualityColumnAmount = equalityColumnAmount;
+			fColumns = columns;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (!(other instanceof ColumnSet)) {
+				return false;
+			}
+			ColumnSet otherColumnSet = (ColumnSet) other;
+			return fEqualityColumnAmount == otherColumnSet.fEqualityColumnAmount
+					&& fColumns.equals(otherColumnSet.fColumns);
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * fEqualityColumnAmount + fColumns.hashCode();
+		}
+	}
+
+	/**
+	 * Create an index advisor for tables behind one JDBC connection.
+	 *
+	 * @param jdbcDbConn
+	 * 			JDBC database connection used to read existing indexes
+	 */
+	public QueryObjectDBTableIndexAdvisor(@NonNull JdbcDatabaseConnection jdbcDbConn) {
+		fJdbcDbConn = jdbcDbConn;
+	}
+
+	/**
+	 * Set how many times a column set must be used before an index is suggested
+	 * for it.
+	 *
+	 * @param minimumUsages
+	 * 			Minimum amount of usages, default is 1.
+	 */
+	public void setMinimumUsages(int minimumUsages) {
+		fMinimumUsages = Math.max(1, minimumUsages);
+	}
+
+	/**
+	 * Record one column set used by a query on a table.
+	 *
+	 * @param tableName
+	 * 			Table name
+	 * @param equalityColumns
+	 * 			Columns compared by equality
+	 * @param orderedColumns
+	 * 			Range column or ORDER BY columns following equality columns
+	 */
+	public synchronized void recordColumnUsage(@NonNull String tableName, @NonNull List<String> equalityColumns,
+			@NonNull List<String> orderedColumns) {
+		if (tableName.isEmpty() || (equalityColumns.isEmpty() && orderedColumns.isEmpty())) {
+			return;
+		}
+
+		/*
+		 * Equality columns are kept sorted, so the same set of equality columns in
+		 * different criteria orders is recorded as one column set.
+		 */
+		List<String> columns = new ArrayList<>(new TreeSet<>(equalityColumns));
+		int equalityColumnAmount = columns.size();
+		for (String orderedColumn : orderedColumns) {
+			if (!columns.contains(orderedColumn)) {
+				columns.add(orderedColumn);
+			}
+		}
+		ColumnSet columnSet = new ColumnSet(equalityColumnAmount, columns);
+
+		Map<ColumnSet, Integer> tableUsages = fColumnUsages.get(tableName);
+		if (tableUsages == null) {
+			tableUsages = new LinkedHashMap<>();
+			fColumnUsages.put(tableName, tableUsages);
+		}
+		Integer usages = tableUsages.get(columnSet);
+		tableUsages.put(columnSet, usages == null ? 1 : usages + 1);
+	}
+
+	/**
+	 * Clear all recorded column sets.
+	 */
+	public synchronized void clear() {
+		fColumnUsages.clear();
+	}
+
+	/**
+	 * Suggest indexes for recorded column sets that are not covered by any existing
+	 * index.
+	 *
+	 * Column sets that are leading parts of another suggested column set on the same
+	 * table are merged into the longer one, because one composite index serves both.
+	 *
+	 * NOTE: Existing indexes are read from the database on every call, one metadata
+	 * request per recorded table.
+	 *
+	 * @return CREATE INDEX query objects for missing indexes, empty if nothing is
+	 *         missing.
+	 */
+	public synchronized @NonNull List<QueryObjectCreateIndex> suggestMissingIndexes() {
+		List<QueryObjectCreateIndex> suggestions = new ArrayList<>();
+		for (Map.Entry<String, Map<ColumnSet, Integer>> tableUsages : fColumnUsages.entrySet()) {
+			String tableName = tableUsages.getKey();
+			Map<String, List<String>> existingIndexes = fJdbcDbConn.getTableIndexes(tableName);
+
+			List<ColumnSet> missingColumnSets = new ArrayList<>();
+			for (Map.Entry<ColumnSet, Integer> columnUsage : tableUsages.getValue().entrySet()) {
+				if (columnUsage.getValue() < fMinimumUsages
+						|| isColumnSetCovered(columnUsage.getKey(), existingIndexes.values())) {
+					continue;
+				}
+				missingColumnSets.add(columnUsage.getKey());
+			}
+
+			Set<List<String>> suggestedColumns = new HashSet<>();
+			for (ColumnSet missingColumnSet : missingColumnSets) {
+				if (isServedByLongerColumnSet(missingColumnSet, missingColumnSets)
+						|| !suggestedColumns.add(missingColumnSet.fColumns)) {
+					continue;
+				}
+				suggestions.add(buildCreateIndex(tableName, missingColumnSet.fColumns));
+			}
+		}
+		return suggestions;
+	}
+
+	/**
+	 * Show all suggested indexes as CREATE INDEX statements.
+	 */
+	public void showIndexSuggestions() {
+		List<QueryObjectCreateIndex> suggestions = suggestMissingIndexes();
+		LOGGER.info("Showing " + suggestions.size() + " suggested indexes:");
+		for (QueryObjectCreateIndex suggestion : suggestions) {
+			LOGGER.info(suggestion.buildCreateIndexStatement());
+		}
+	}
+
+	/**
+	 * Check whether any existing index starts with equality columns of the column
+	 * set in any order, followed by ordered columns of the column set.
+	 *
+	 * @param columnSet
+	 * 			Recorded column set
+	 * @param existingIndexes
+	 * 			Column lists of existing indexes
+	 * @return True if one existing index covers the column set.
+	 */
+	private boolean isColumnSetCovered(ColumnSet columnSet, Iterable<List<String>> existingIndexes) {
+		int equalityColumnAmount = columnSet.fEqualityColumnAmount;
+		List<String> columns = columnSet.fColumns;
+		Set<String> equalityColumns = new HashSet<>();
+		for (String column : columns.subList(0, equalityColumnAmount)) {
+			equalityColumns.add(column.toLowerCase(Locale.ROOT));
+		}
+
+		for (List<String> existingIndex : existingIndexes) {
+			if (existingIndex.size() < columns.size()) {
+				continue;
+			}
+			Set<String> leadingColumns = new HashSet<>();
+			for (String column : existingIndex.subList(0, equalityColumnAmount)) {
+				leadingColumns.add(column.toLowerCase(Locale.ROOT));
+			}
+			if (!leadingColumns.equals(equalityColumns)) {
+				continue;
+			}
+			boolean orderedColumnsMatch = true;
+			for (int i = equalityColumnAmount; i < columns.size(); i++) {
+				if (!existingIndex.get(i).equalsIgnoreCase(columns.get(i))) {
+					orderedColumnsMatch = false;
+					break;
+				}
+			}
+			if (orderedColumnsMatch) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Check whether a column set is the leading part of another, longer column set.
+	 *
+	 * @param columnSet
+	 * 			Column set to check
+	 * @param columnSets
+	 * 			All missing column sets of the same table
+	 * @return True if a longer column set starts with the column set.
+	 */
+	private boolean isServedByLongerColumnSet(ColumnSet columnSet, List<ColumnSet> columnSets) {
+		List<String> columns = columnSet.fColumns;
+		for (ColumnSet otherColumnSet : columnSets) {
+			List<String> otherColumns = otherColumnSet.fColumns;
+			if (otherColumns.size() > columns.size() && otherColumns.subList(0, columns.size()).equals(columns)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Build a CREATE INDEX query object for a column set, the index name format is
+	 * "IDX_<table_name>_<column_name0>_<column_name1>..".
+	 *
+	 * @param tableName
+	 * 			Table name
+	 * @param columnSet
+	 * 			Index columns
+	 * @return CREATE INDEX query object
+	 */
+	private QueryObjectCreateIndex buildCreateIndex(String tableName, List<String> columnSet) {
+		StringBuilder indexName = new StringBuilder(SqlStatementStrings.SQL_DATABASE_INDEX_COLUMNS + tableName);
+		List<QueryObjectDBTableIndexColumn> indexColumns = new ArrayList<>();
+		for (String column : columnSet) {
+			indexName.append("_" + column);
+			indexColumns.add(new QueryObjectDBTableIndexColumn(column));
+		}
+		return new QueryObjectCreateIndex(fJdbcDbConn, tableName, indexName.toString(), indexColumns);
+	}
+}
@@ -0,0 +1,115 @@
+package QueryObjectFramework.QueryObjectDBTableStatements;
+
+import java.util.logging.Logger;
+
+import org.eclipse.jdt.annotation.NonNull;
+
+import QueryObjectFramework.CommonClasses.SqlStatementStrings;
+
+/**
+ * Data class contains one key part of an INDEX definition.
+ *
+ * INDEX key part relative information:
+ * - Column name
+ * - Prefix length, only the leading characters of a text column are indexed.
+ * - Ordering, can only be ASC or DESC.
+ *
+ * <example>
+ *  CREATE INDEX IDX_Persons ON Persons (LastName(10), Age DESC);
+ * </example>
+ *
+ * @author Bohui Axelsson
+ */
+public class QueryObjectDBTableIndexColumn {
+	private static final Logger LOGGER = Logger.getLogger(QueryObjectDBTableIndexColumn.class.getName());
+
+	private @NonNull String fColumnName = "";
+	private int fPrefixLength = -1;
+	private @NonNull String fOrdering = SqlStatementStrings.SQL_TABLE_ASC;
+
+	/**
+	 * Create an ascending INDEX key part on the whole column.
+	 *
+	 * @param columnName
+	 *            Column name
+	 */
+	public QueryObjectDBTableIndexColumn(@NonNull String columnName) {
+		fColumnName = columnName;
+	}
+
+	/**
+	 * Create an INDEX key part with ordering.
+	 *
+	 * @param columnName
+	 *            Column name
+	 * @param ordering
+	 *            Index ordering, can only be ASC or DESC.
+	 */
+	public QueryObjectDBTableIndexColumn(@NonNull String columnName, String ordering) {
+		fColumnName = columnName;
+		if (ordering != null) {
+			fOrdering = ordering;
+		}
+	}
+
+	/**
+	 * Create an INDEX key part with prefix length and ordering.
+	 *
+	 * NOTE: Prefix length is only valid on CHAR, VARCHAR, TEXT and BLOB
+	 * columns. Setting prefixLength to -1 for indexing the whole column.
+	 *
+	 * @param columnName
+	 *            Column name
+	 * @param prefixLength
+	 *            Amount of leading characters that will be indexed.
+	 * @param ordering
+	 *            Index ordering, can only be ASC or DESC.
+	 */
+	public QueryObjectDBTableIndexColumn(@NonNull String columnName, int prefixLength, String ordering) {
+		fColumnName = columnName;
+		fPrefixLength = prefixLength;
+		if (ordering != null) {
+			fOrdering = ordering;
+		}
+	}
+
+	protected String getColumnName() {
+		return fColumnName;
+	}
+
+	/**
+	 * Build key part string of INDEX definition.
+	 *
+	 * <example>
+	 *  LastName(10) ASC
+	 * </example>
+	 *
+	 * @return Key part string
+	 */
+	protected String buildIndexColumnClause() {
+		if (fPrefixLength > 0) {
+			return fColumnName + "(" + fPrefixLength + ") " + fOrdering;
+		}
+		return fColumnName + " " + fOrdering;
+	}
+
+	/**
+	 * Validate INDEX key part settings.
+	 *
+	 * Column name should not be empty, ordering can only be ASC or DESC.
+	 *
+	 * @return True if key part is valid.
+	 */
+	protected boolean validateIndexColumn() {
+		if (fColumnName.isEmpty()) {
+			LOGGER.severe("Failed to operate index, index column name is missing.");
+			return false;
+		}
+		if (!fOrdering.equalsIgnoreCase(SqlStatementStrings.SQL_TABLE_ASC)
+				&& !fOrdering.equalsIgnoreCase(SqlStatementStrings.SQL_TABLE_DESC)) {
+			LOGGER.severe("Failed to operate index, index orderings must by ASC or DESC.");
+			return false;
+		}
+		return true;
+	}
+}
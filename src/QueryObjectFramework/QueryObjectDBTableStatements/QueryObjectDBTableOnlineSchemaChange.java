@@ -0,0 +1,391 @@
+package QueryObjectFramework.QueryObjectDBTableStatements;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.logging.Logger;
+
+import org.eclipse.jdt.annotation.NonNull;
+
+import QueryObjectFramework.CommonClasses.SqlQueryTypes;
+import QueryObjectFramework.CommonClasses.SqlStatementStrings;
+import QueryObjectFramework.JdbcDatabaseConnection.JdbcDatabaseConnection;
+import QueryObjectFramework.JdbcDatabaseConnection.JdbcDatabaseResultSetHandler;
+import QueryObjectFramework.JdbcDatabaseConnection.JdbcDatabaseRoutingConnection;
+
+/**
+ * Online schema change class alters a table without blocking writes for the
+ * time of a table rebuild, settings are shared by ALTER TABLE query objects,
+ * see QueryObjectAlterTable.setOnlineSchemaChange().
+ *
+ * Steps of one online ALTER TABLE on table Persons:
+ * <example>
+ *  CREATE TABLE _Persons_new LIKE Persons;
+ *  ALTER TABLE _Persons_new ADD Age INT(11);
+ *  CREATE TRIGGER qo_osc_Persons_ins AFTER INSERT ON Persons FOR EACH ROW REPLACE INTO _Persons_new ...;
+ *  CREATE TRIGGER qo_osc_Persons_upd AFTER UPDATE ON Persons FOR EACH ROW BEGIN DELETE IGNORE ...; REPLACE ...; END;
+ *  CREATE TRIGGER qo_osc_Persons_del AFTER DELETE ON Persons FOR EACH ROW DELETE IGNORE FROM _Persons_new ...;
+ *  SELECT ID FROM Persons WHERE ID>1000 ORDER BY ID ASC LIMIT 1 OFFSET 999;
+ *  INSERT IGNORE INTO _Persons_new (ID,Name) SELECT ID,Name FROM Persons WHERE ID>1000 AND ID<=2000 LOCK IN SHARE MODE;
+ *  ...
+ *  RENAME TABLE Persons TO _Persons_old, _Persons_new TO Persons;
+ *  DROP TABLE IF EXISTS _Persons_old;
+ * </example>
+ *
+ * Rows are copied in primary key chunks with a pause between chunks, changes
+ * written during the copy are applied to the shadow table by the triggers,
+ * and the RENAME TABLE swaps both tables atomically.
+ *
+ * NOTE: The table must have a single column PRIMARY KEY, which must not be
+ * changed by the ALTER TABLE. Only columns existing in both tables are
+ * copied, added columns get their default values.
+ *
+ * NOTE: On a JdbcDatabaseRoutingConnection all reads of the online schema
+ * change go to the primary database, see setReadFromPrimary().
+ *
+ * NOTE: Table names must be at most 53 characters long, so the trigger names
+ * stay within the MYSQL identifier length of 64 characters.
+ *
+ * NOTE: The table must not have triggers, MYSQL before 5.7 supports only one
+ * trigger per event and table. Foreign keys referencing the table follow the
+ * renamed old table and must be recreated.
+ *
+ * @author Bohui Axelsson
+ */
+public class QueryObjectDBTableOnlineSchemaChange {
+	private static final Logger LOGGER = Logger.getLogger(QueryObjectDBTableOnlineSchemaChange.class.getName());
+
+	private static final int DEFAULT_CHUNK_SIZE = 1000;
+	private static final long DEFAULT_CHUNK_PAUSE_MILLIS = 50;
+	private static final String PRIMARY_KEY_INDEX = "PRIMARY";
+	private static final String TRIGGER_PREFIX = "qo_osc_";
+	private static final String LONGEST_TRIGGER_SUFFIX = "_ins";
+	private static final int MAX_IDENTIFIER_LENGTH = 64;
+
+	private int fChunkSize = DEFAULT_CHUNK_SIZE;
+	private long fChunkPauseMillis = DEFAULT_CHUNK_PAUSE_MILLIS;
+	private boolean fDropOldTable = true;
+
+	/**
+	 * Create online schema change settings with chunks of 1000 rows and 50 ms
+	 * pause between chunks.
+	 */
+	public QueryObjectDBTableOnlineSchemaChange() {}
+
+	/**
+	 * Set amount of rows copied by one chunk.
+	 *
+	 * @param chunkSize
+	 * 			Rows per chunk, default is 1000.
+	 */
+	public synchronized void setChunkSize(int chunkSize) {
+		fChunkSize = Math.max(1, chunkSize);
+	}
+
+	/**
+	 * Set pause between two chunks, leaving the database server time for
+	 * application writes and replication.
+	 *
+	 * @param chunkPauseMillis
+	 * 			Pause in milliseconds, default is 50.
+	 */
+	public synchronized void setChunkPauseMillis(long chunkPauseMillis) {
+		fChunkPauseMillis = Math.max(0, chunkPauseMillis);
+	}
+
+	/**
+	 * Set whether the old table is dropped after the swap, or kept as
+	 * _<table_name>_old.
+	 *
+	 * @param dropOldTable
+	 * 			True to drop the old table, default is true.
+	 */
+	public synchronized void setDropOldTable(boolean dropOldTable) {
+		fDropOldTable = dropOldTable;
+	}
+
+	/**
+	 * Alter a table online by copying it into an altered shadow table.
+	 *
+	 * @param jdbcDbConn
+	 * 			JDBC database connection
+	 * @param tableName
+	 * 			Table name
+	 * @param alterClause
+	 * 			ALTER TABLE clause after the table name, for example "ADD Age
+	 * 			INT(11)"
+	 * @return True if the table is altered and swapped.
+	 */
+	protected boolean alterTableOnline(@NonNull JdbcDatabaseConnection jdbcDbConn, @NonNull String tableName,
+			@NonNull String alterClause) {
+		/*
+		 * Primary key ranges and column lists must be read from the table being
+		 * altered, a lagging replica would make the copy skip rows.
+		 */
+		JdbcDatabaseRoutingConnection routingConn = jdbcDbConn instanceof JdbcDatabaseRoutingConnection
+				? (JdbcDatabaseRoutingConnection) jdbcDbConn : null;
+		boolean readFromPrimary = routingConn != null && routingConn.isReadFromPrimary();
+		if (routingConn != null) {
+			routingConn.setReadFromPrimary(true);
+		}
+		try {
+			return alterTableThroughShadowTable(jdbcDbConn, tableName, alterClause);
+		} finally {
+			if (routingConn != null) {
+				routingConn.setReadFromPrimary(readFromPrimary);
+			}
+		}
+	}
+
+	private boolean alterTableThroughShadowTable(JdbcDatabaseConnection jdbcDbConn, String tableName,
+			String alterClause) {
+		/*
+		 * Trigger names are the longest names derived from the table name, shadow
+		 * and old table names are shorter.
+		 */
+		int triggerNameLength = (TRIGGER_PREFIX + tableName + LONGEST_TRIGGER_SUFFIX).length();
+		if (triggerNameLength > MAX_IDENTIFIER_LENGTH) {
+			LOGGER.severe("Failed to alter table " + tableName + " online, table name is too long for trigger names of "
+					+ "at most " + MAX_IDENTIFIER_LENGTH + " characters.");
+			return false;
+		}
+
+		int chunkSize;
+		long chunkPauseMillis;
+		boolean dropOldTable;
+		synchronized (this) {
+			chunkSize = fChunkSize;
+			chunkPauseMillis = fChunkPauseMillis;
+			dropOldTable = fDropOldTable;
+		}
+
+		List<String> primaryKeyColumns = jdbcDbConn.getTableIndexes(tableName).get(PRIMARY_KEY_INDEX);
+		if (primaryKeyColumns == null || primaryKeyColumns.size() != 1) {
+			LOGGER.severe("Failed to alter table " + tableName + " online, a single column PRIMARY KEY is required.");
+			return false;
+		}
+		String primaryKey = primaryKeyColumns.get(0);
+		String shadowTable = "_" + tableName + "_new";
+		String oldTable = "_" + tableName + "_old";
+
+		LOGGER.info("Altering table " + tableName + " online through shadow table " + shadowTable + ".");
+		if (!executeStep(jdbcDbConn, SqlQueryTypes.CREATE_TABLE.sqlQueryType() + " " + shadowTable + " "
+				+ SqlStatementStrings.SQL_TABLE_LIKE + " " + tableName + ";")) {
+			LOGGER.severe("Failed to alter table " + tableName + " online, shadow table can not be created.");
+			return false;
+		}
+		boolean swapped = false;
+		try {
+			if (!executeStep(jdbcDbConn, SqlQueryTypes.ALTER_TABLE.sqlQueryType() + " " + shadowTable + " "
+					+ alterClause + ";")) {
+				return false;
+			}
+			List<String> copiedColumns = findCommonColumns(jdbcDbConn, tableName, shadowTable);
+			if (copiedColumns == null || !containsColumn(copiedColumns, primaryKey)) {
+				LOGGER.severe("Failed to alter table " + tableName + " online, PRIMARY KEY " + primaryKey
+						+ " must exist in the altered table.");
+				return false;
+			}
+			if (!createChangeTriggers(jdbcDbConn, tableName, shadowTable, primaryKey, copiedColumns)
+					|| !copyRowsInChunks(jdbcDbConn, tableName, shadowTable, primaryKey, copiedColumns, chunkSize,
+							chunkPauseMillis)) {
+				return false;
+			}
+			swapped = executeStep(jdbcDbConn, SqlStatementStrings.SQL_DATABASE_RENAME_TABLE + " " + tableName + " TO "
+					+ oldTable + ", " + shadowTable + " TO " + tableName + ";");
+			if (!swapped) {
+				LOGGER.severe("Failed to alter table " + tableName + " online, tables can not be swapped.");
+				return false;
+			}
+			LOGGER.info("Table " + tableName + " is altered online.");
+			return true;
+		} finally {
+			/*
+			 * Triggers are renamed with the table they belong to, after the swap they
+			 * belong to the old table.
+			 */
+			dropChangeTriggers(jdbcDbConn, tableName);
+			if (!swapped) {
+				executeStep(jdbcDbConn, SqlQueryTypes.DROP_TABLE.sqlQueryType() + " IF EXISTS " + shadowTable + ";");
+			} else if (dropOldTable) {
+				executeStep(jdbcDbConn, SqlQueryTypes.DROP_TABLE.sqlQueryType() + " IF EXISTS " + oldTable + ";");
+			}
+			jdbcDbConn.invalidateSchemaCache(tableName);
+			jdbcDbConn.invalidateSchemaCache(shadowTable);
+			jdbcDbConn.invalidateSchemaCache(oldTable);
+		}
+	}
+
+	/**
+	 * Create triggers applying inserted, updated and deleted rows of the table
+	 * to the shadow table.
+	 */
+	private static boolean createChangeTriggers(JdbcDatabaseConnection jdbcDbConn, String tableName, String shadowTable,
+			String primaryKey, List<String> copiedColumns) {
+		String columns = String.join(",", copiedColumns);
+		StringBuilder newValues = new StringBuilder();
+		for (String column : copiedColumns) {
+			newValues.append(newValues.length() == 0 ? "" : ",").append("NEW.").append(column);
+		}
+		String replaceNewRow = "REPLACE INTO " + shadowTable + " (" + columns + ") " + SqlStatementStrings.SQL_TABLE_VALUES
+				+ " (" + newValues + ")";
+		String deleteOldRow = "DELETE IGNORE " + SqlStatementStrings.SQL_TABLE_FROM + " " + shadowTable + " "
+				+ SqlStatementStrings.SQL_TABLE_WHERE + " " + primaryKey + "=OLD." + primaryKey;
+		String triggerPrefix = SqlStatementStrings.SQL_DATABASE_CREATE_TRIGGER + " " + TRIGGER_PREFIX + tableName;
+		String triggerTable = " ON " + tableName + " FOR EACH ROW ";
+
+		return executeStep(jdbcDbConn, triggerPrefix + "_ins AFTER INSERT" + triggerTable + replaceNewRow + ";")
+				&& executeStep(jdbcDbConn, triggerPrefix + "_upd AFTER UPDATE" + triggerTable + "BEGIN " + deleteOldRow
+						+ "; " + replaceNewRow + "; END;")
+				&& executeStep(jdbcDbConn, triggerPrefix + "_del AFTER DELETE" + triggerTable + deleteOldRow + ";");
+	}
+
+	/**
+	 * Drop the change triggers with DROP TRIGGER IF EXISTS, triggers which were
+	 * not created because a step failed are skipped.
+	 */
+	private static void dropChangeTriggers(JdbcDatabaseConnection jdbcDbConn, String tableName) {
+		for (String triggerSuffix : new String[] { "_ins", "_upd", "_del" }) {
+			executeStep(jdbcDbConn, SqlStatementStrings.SQL_DATABASE_DROP_TRIGGER + " " + TRIGGER_PREFIX + tableName
+					+ triggerSuffix + ";");
+		}
+	}
+
+	/**
+	 * Copy rows into the shadow table in PRIMARY KEY ranges of chunkSize rows,
+	 * rows already written by the triggers are kept.
+	 */
+	private static boolean copyRowsInChunks(JdbcDatabaseConnection jdbcDbConn, String tableName, String shadowTable,
+			String primaryKey, List<String> copiedColumns, int chunkSize, long chunkPauseMillis) {
+		String columns = String.join(",", copiedColumns);
+		JdbcDatabaseResultSetHandler<Object[]> boundHandler = new JdbcDatabaseResultSetHandler<Object[]>() {
+			@Override
+			public Object[] handleResultSet(ResultSet results) throws SQLException {
+				return new Object[] { results != null && results.next() ? results.getObject(1) : null };
+			}
+		};
+
+		Object lowerBound = null;
+		long copiedChunks = 0;
+		while (true) {
+			String lowerCondition = lowerBound == null ? ""
+					: " " + SqlStatementStrings.SQL_TABLE_WHERE + " " + primaryKey + ">" + toSqlLiteral(lowerBound);
+			Object[] upperBound = jdbcDbConn.executeQueryObject(SqlQueryTypes.SELECT.sqlQueryType() + " " + primaryKey
+					+ " " + SqlStatementStrings.SQL_TABLE_FROM + " " + tableName + lowerCondition + " "
+					+ SqlStatementStrings.SQL_TABLE_ORDER_BY + " " + primaryKey + " " + SqlStatementStrings.SQL_TABLE_ASC
+					+ " " + SqlStatementStrings.SQL_TABLE_LIMIT + " 1 OFFSET " + (chunkSize - 1) + ";", true, boundHandler);
+			if (upperBound == null) {
+				LOGGER.severe("Failed to alter table " + tableName + " online, chunk bound can not be selected.");
+				return false;
+			}
+
+			String chunkCondition = lowerCondition;
+			if (upperBound[0] != null) {
+				chunkCondition += (lowerBound == null ? " " + SqlStatementStrings.SQL_TABLE_WHERE + " "
+						: " " + SqlStatementStrings.SQL_TABLE_AND + " ") + primaryKey + "<=" + toSqlLiteral(upperBound[0]);
+			}
+			if (!executeStep(jdbcDbConn, "INSERT IGNORE INTO " + shadowTable + " (" + columns + ") "
+					+ SqlQueryTypes.SELECT.sqlQueryType() + " " + columns + " " + SqlStatementStrings.SQL_TABLE_FROM + " "
+					+ tableName + chunkCondition + " LOCK IN SHARE MODE;")) {
+				LOGGER.severe("Failed to alter table " + tableName + " online, chunk " + (copiedChunks + 1)
+						+ " can not be copied.");
+				return false;
+			}
+			copiedChunks++;
+
+			/*
+			 * Less than chunkSize rows have been left, rows inserted afterwards are
+			 * copied by the triggers.
+			 */
+			if (upperBound[0] == null) {
+				LOGGER.info("Copied table " + tableName + " in " + copiedChunks + " chunks.");
+				return true;
+			}
+			lowerBound = upperBound[0];
+			if (chunkPauseMillis > 0) {
+				try {
+					Thread.sleep(chunkPauseMillis);
+				} catch (InterruptedException interruptedException) {
+					Thread.currentThread().interrupt();
+					LOGGER.severe("Failed to alter table " + tableName + " online, copying is interrupted.");
+					return false;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Find columns of the altered table which exist in the original table.
+	 *
+	 * @return Column names in altered table order, or NULL if the columns can
+	 *         not be read.
+	 */
+	private static List<String> findCommonColumns(JdbcDatabaseConnection jdbcDbConn, String tableName,
+			String shadowTable) {
+		List<String> tableColumns = selectColumnNames(jdbcDbConn, tableName);
+		List<String> shadowColumns = selectColumnNames(jdbcDbConn, shadowTable);
+		if (tableColumns == null || shadowColumns == null) {
+			return null;
+		}
+		List<String> commonColumns = new ArrayList<>();
+		for (String shadowColumn : shadowColumns) {
+			if (containsColumn(tableColumns, shadowColumn)) {
+				commonColumns.add(shadowColumn);
+			}
+		}
+		return commonColumns;
+	}
+
+	private static List<String> selectColumnNames(JdbcDatabaseConnection jdbcDbConn, String tableName) {
+		return jdbcDbConn.executeQueryObject(SqlQueryTypes.SELECT.sqlQueryType() + " * "
+				+ SqlStatementStrings.SQL_TABLE_FROM + " " + tableName + " " + SqlStatementStrings.SQL_TABLE_LIMIT + " 0;",
+				true, new JdbcDatabaseResultSetHandler<List<String>>() {
+					@Override
+					public List<String> handleResultSet(ResultSet results) throws SQLException {
+						if (results == null) {
+							return null;
+						}
+						ResultSetMetaData metaData = results.getMetaData();
+						List<String> columnNames = new ArrayList<>();
+						for (int column = 1; column <= metaData.getColumnCount(); column++) {
+							columnNames.add(metaData.getColumnName(column));
+						}
+						return columnNames;
+					}
+				});
+	}
+
+	private static boolean containsColumn(List<String> columns, String column) {
+		for (String listedColumn : columns) {
+			if (listedColumn.toLowerCase(Locale.ROOT).equals(column.toLowerCase(Locale.ROOT))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static String toSqlLiteral(Object value) {
+		if (value instanceof Number) {
+			return value.toString();
+		}
+		return "'" + value.toString().replace("'", "''") + "'";
+	}
+
+	/**
+	 * Execute a statement returning no results.
+	 *
+	 * @return True if the statement succeeded.
+	 */
+	private static boolean executeStep(JdbcDatabaseConnection jdbcDbConn, String sql) {
+		Boolean executed = jdbcDbConn.executeQueryObject(sql, false, new JdbcDatabaseResultSetHandler<Boolean>() {
+			@Override
+			public Boolean handleResultSet(ResultSet results) {
+				return Boolean.TRUE;
+			}
+		});
+		return executed != null;
+	}
+}
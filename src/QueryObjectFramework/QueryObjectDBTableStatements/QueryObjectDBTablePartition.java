@@ -0,0 +1,60 @@
+package QueryObjectFramework.QueryObjectDBTableStatements;
+
+import org.eclipse.jdt.annotation.NonNull;
+
+/**
+ * Data class contains one partition definition of a partitioned table.
+ *
+ * Partition relative information:
+ * - Partition name
+ * - Partition values, SQL expression of the upper bound of a RANGE partition
+ *   or the value list of a LIST partition.
+ *
+ * <example>
+ *  PARTITION p2023 VALUES LESS THAN (TO_DAYS('2024-01-01'))
+ *  PARTITION pmax VALUES LESS THAN (MAXVALUE)
+ *  PARTITION pnordic VALUES IN ('NO','SE','DK')
+ * </example>
+ *
+ * NOTE: Partition values are SQL expressions and are not quoted by Query
+ * Object, string and date values must be quoted by the caller.
+ *
+ * @author Bohui Axelsson
+ */
+public class QueryObjectDBTablePartition {
+	private @NonNull String fPartitionName = "";
+	private @NonNull String fPartitionValues = "";
+
+	/**
+	 * Create a named partition without values, for HASH and KEY partitioning.
+	 *
+	 * @param partitionName
+	 * 			Partition name
+	 */
+	public QueryObjectDBTablePartition(@NonNull String partitionName) {
+		fPartitionName = partitionName;
+	}
+
+	/**
+	 * Create a partition with values, for RANGE and LIST partitioning.
+	 *
+	 * @param partitionName
+	 * 			Partition name
+	 * @param partitionValues
+	 * 			Exclusive upper bound of a RANGE partition, for example
+	 * 			"TO_DAYS('2024-01-01')" or "MAXVALUE", or comma separated
+	 * 			values of a LIST partition.
+	 */
+	public QueryObjectDBTablePartition(@NonNull String partitionName, @NonNull String partitionValues) {
+		fPartitionName = partitionName;
+		fPartitionValues = partitionValues;
+	}
+
+	protected String getPartitionName() {
+		return fPartitionName;
+	}
+
+	protected String getPartitionValues() {
+		return fPartitionValues;
+	}
+}
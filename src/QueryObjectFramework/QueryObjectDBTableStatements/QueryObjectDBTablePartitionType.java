@@ -0,0 +1,45 @@
+package QueryObjectFramework.QueryObjectDBTableStatements;
+
+import QueryObjectFramework.CommonClasses.SqlStatementStrings;
+
+/**
+ * Enum class for MYSQL table partitioning types that available in CREATE
+ * TABLE and ALTER TABLE query objects.
+ *
+ * - RANGE, LIST: Partitioning expression must return an integer.
+ * - RANGE_COLUMNS, LIST_COLUMNS: Partitioning by one or more columns of
+ *   integer, string, DATE or DATETIME types.
+ * - HASH: Partitioning expression must return an integer.
+ * - KEY: Partitioning by columns hashed by the server, PRIMARY KEY columns
+ *   if no columns are given.
+ *
+ * @author Bohui Axelsson
+ */
+public enum QueryObjectDBTablePartitionType {
+	RANGE(SqlStatementStrings.SQL_DATABASE_PARTITION_RANGE),
+	RANGE_COLUMNS(SqlStatementStrings.SQL_DATABASE_PARTITION_RANGE_COLUMNS),
+	LIST(SqlStatementStrings.SQL_DATABASE_PARTITION_LIST),
+	LIST_COLUMNS(SqlStatementStrings.SQL_DATABASE_PARTITION_LIST_COLUMNS),
+	HASH(SqlStatementStrings.SQL_DATABASE_PARTITION_HASH),
+	KEY(SqlStatementStrings.SQL_DATABASE_PARTITION_KEY);
+
+	private String fSqlPartitionType;
+
+	QueryObjectDBTablePartitionType(String sqlPartitionType) {
+		this.fSqlPartitionType = sqlPartitionType;
+	}
+
+	protected String sqlPartitionType() {
+		return fSqlPartitionType;
+	}
+
+	/**
+	 * Check whether partitions of this type are defined by value bounds or
+	 * value lists.
+	 *
+	 * @return True for RANGE and LIST types, false for HASH and KEY types.
+	 */
+	protected boolean hasPartitionValues() {
+		return this != HASH && this != KEY;
+	}
+}
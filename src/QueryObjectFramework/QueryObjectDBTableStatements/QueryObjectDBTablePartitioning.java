@@ -0,0 +1,169 @@
+package QueryObjectFramework.QueryObjectDBTableStatements;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+import org.eclipse.jdt.annotation.NonNull;
+
+import QueryObjectFramework.CommonClasses.SqlStatementStrings;
+
+/**
+ * Data class contains partitioning of a table, used by CREATE TABLE and ALTER
+ * TABLE query objects.
+ *
+ * Partitioning relative information:
+ * - Partitioning type, see QueryObjectDBTablePartitionType.
+ * - Partitioning expression, a column, comma separated columns or an
+ *   expression such as TO_DAYS(CreatedAt).
+ * - Partitions, or amount of partitions for HASH and KEY partitioning.
+ *
+ * <example>
+ *  PARTITION BY RANGE (TO_DAYS(CreatedAt)) (
+ *      PARTITION p2023 VALUES LESS THAN (TO_DAYS('2024-01-01')),
+ *      PARTITION pmax VALUES LESS THAN (MAXVALUE)
+ *  )
+ * </example>
+ *
+ * <example>
+ *  PARTITION BY HASH (CustomerID) PARTITIONS 8
+ * </example>
+ *
+ * TIP: Partition time series tables by RANGE on the time column. Queries
+ * filtering on the time column only read matching partitions, and old rows
+ * are purged by dropping their partition instead of a DELETE, see
+ * QueryObjectAlterTable.alterTableDropPartitions().
+ *
+ * NOTE: Every UNIQUE and PRIMARY KEY of a partitioned table must contain all
+ * columns of the partitioning expression.
+ *
+ * @author Bohui Axelsson
+ */
+public class QueryObjectDBTablePartitioning {
+	private static final Logger LOGGER = Logger.getLogger(QueryObjectDBTablePartitioning.class.getName());
+
+	private final @NonNull QueryObjectDBTablePartitionType fPartitionType;
+	private final @NonNull String fPartitionExpression;
+	private final @NonNull List<QueryObjectDBTablePartition> fPartitions = new ArrayList<>();
+	private int fPartitionAmount = 0;
+
+	/**
+	 * Create a partitioning with partition definitions.
+	 *
+	 * @param partitionType
+	 * 			Partitioning type
+	 * @param partitionExpression
+	 * 			Partitioning expression or columns, empty for KEY partitioning
+	 * 			by PRIMARY KEY.
+	 * @param partitions
+	 * 			Partition definitions, in ascending order of upper bounds for
+	 * 			RANGE partitioning.
+	 */
+	public QueryObjectDBTablePartitioning(@NonNull QueryObjectDBTablePartitionType partitionType,
+			@NonNull String partitionExpression, @NonNull List<QueryObjectDBTablePartition> partitions) {
+		fPartitionType = partitionType;
+		fPartitionExpression = partitionExpression;
+		fPartitions.addAll(partitions);
+	}
+
+	/**
+	 * Create a HASH or KEY partitioning with an amount of partitions named by
+	 * the database server.
+	 *
+	 * @param partitionType
+	 * 			Partitioning type, HASH or KEY
+	 * @param partitionExpression
+	 * 			Partitioning expression or columns, empty for KEY partitioning
+	 * 			by PRIMARY KEY.
+	 * @param partitionAmount
+	 * 			Amount of partitions
+	 */
+	public QueryObjectDBTablePartitioning(@NonNull QueryObjectDBTablePartitionType partitionType,
+			@NonNull String partitionExpression, int partitionAmount) {
+		fPartitionType = partitionType;
+		fPartitionExpression = partitionExpression;
+		fPartitionAmount = partitionAmount;
+	}
+
+	/**
+	 * Validate partitioning settings.
+	 *
+	 * - RANGE and LIST partitioning need an expression and partitions with
+	 *   values.
+	 * - HASH partitioning needs an expression.
+	 * - HASH and KEY partitioning need partitions without values or a
+	 *   partition amount.
+	 *
+	 * @return True if the partitioning is valid.
+	 */
+	protected boolean validatePartitioning() {
+		if (fPartitionType != QueryObjectDBTablePartitionType.KEY && fPartitionExpression.trim().isEmpty()) {
+			LOGGER.severe("Failed to build partitioning, partitioning expression is missing.");
+			return false;
+		}
+		if (fPartitions.isEmpty()) {
+			if (fPartitionType.hasPartitionValues() || fPartitionAmount <= 0) {
+				LOGGER.severe("Failed to build partitioning, partitions are missing.");
+				return false;
+			}
+			return true;
+		}
+		for (QueryObjectDBTablePartition partition : fPartitions) {
+			if (partition == null || partition.getPartitionName().trim().isEmpty()) {
+				LOGGER.severe("Failed to build partitioning, partition name is missing.");
+				return false;
+			}
+			if (fPartitionType.hasPartitionValues() == partition.getPartitionValues().trim().isEmpty()) {
+				LOGGER.severe("Failed to build partitioning, partition " + partition.getPartitionName()
+						+ (fPartitionType.hasPartitionValues() ? " has no values." : " must not have values."));
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Build SQL PARTITION BY clause.
+	 *
+	 * <example>
+	 *  PARTITION BY RANGE (TO_DAYS(CreatedAt)) (PARTITION p2023 VALUES LESS THAN (TO_DAYS('2024-01-01')))
+	 * </example>
+	 *
+	 * @return SQL PARTITION BY clause
+	 */
+	protected String buildPartitionByClause() {
+		return SqlStatementStrings.SQL_DATABASE_PARTITION_BY + " " + fPartitionType.sqlPartitionType() + " ("
+				+ fPartitionExpression + ") " + buildPartitionDefinitions();
+	}
+
+	/**
+	 * Build SQL partition definitions, or the partition amount for HASH and
+	 * KEY partitioning without partitions.
+	 *
+	 * <example>
+	 *  (PARTITION p0 VALUES LESS THAN (100), PARTITION p1 VALUES LESS THAN (MAXVALUE))
+	 *  PARTITIONS 8
+	 * </example>
+	 *
+	 * @return SQL partition definitions
+	 */
+	protected String buildPartitionDefinitions() {
+		if (fPartitions.isEmpty()) {
+			return SqlStatementStrings.SQL_DATABASE_PARTITIONS + " " + fPartitionAmount;
+		}
+
+		StringBuilder partitionDefinitions = new StringBuilder("(");
+		for (QueryObjectDBTablePartition partition : fPartitions) {
+			partitionDefinitions.append(SqlStatementStrings.SQL_DATABASE_PARTITION + " " + partition.getPartitionName());
+			if (fPartitionType.hasPartitionValues()) {
+				boolean rangePartitioning = fPartitionType == QueryObjectDBTablePartitionType.RANGE
+						|| fPartitionType == QueryObjectDBTablePartitionType.RANGE_COLUMNS;
+				partitionDefinitions.append(" " + (rangePartitioning ? SqlStatementStrings.SQL_DATABASE_VALUES_LESS_THAN
+						: SqlStatementStrings.SQL_DATABASE_VALUES_IN) + " (" + partition.getPartitionValues() + ")");
+			}
+			partitionDefinitions.append(", ");
+		}
+		partitionDefinitions.setLength(partitionDefinitions.length() - 2);
+		return partitionDefinitions.append(")").toString();
+	}
+}
@@ -0,0 +1,565 @@
+package QueryObjectFramework.QueryObjectDBTableStatements;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Logger;
+
+import org.eclipse.jdt.annotation.NonNull;
+
+import QueryObjectFramework.CommonClasses.SqlStatementStrings;
+import QueryObjectFramework.JdbcDatabaseConnection.JdbcDatabaseConnection;
+import QueryObjectFramework.QueryObjectTableStatements.QueryObjectSelect;
+import QueryObjectFramework.QueryObjectTableStatements.QueryObjectTableCriteriaCondition;
+
+/**
+ * Replica class keeps rows of one table in process and serves primary key
+ * lookups from memory, rows missing in the replica are read through from the
+ * database and added to the replica.
+ *
+ * Rows and the primary key index are stored outside the Java heap in direct
+ * buffers:
+ * - Row slots: a fixed amount of fixed size slots, each containing a slot
+ *   header, the encoded primary key and the encoded row.
+ * - Index: an open addressing hash table with linear probing, every entry
+ *   contains the key hash and the slot of the row.
+ *
+ * When all slots are used, a cold row is evicted by the CLOCK algorithm: rows
+ * are marked as referenced by lookups, the clock hand clears the marks of
+ * referenced rows and evicts the first row without mark.
+ *
+ * The primary key columns are the columns containing a
+ * QueryObjectDBTableConstraintPrimaryKey constraint, lookup key values are
+ * given in column order.
+ *
+ * <example>
+ *  QueryObjectDBTableReplica customers = new QueryObjectDBTableReplica(jdbcDbConn, "Customers", columns, 100000, 256);
+ *  Object[] customer = customers.lookupRow(42);
+ * </example>
+ *
+ * NOTE: Memory is bounded by maxRowAmount * maxRowBytes for rows and 16 to 32
+ * bytes per row for the index. Rows larger than maxRowBytes are read from the
+ * database on every lookup.
+ *
+ * NOTE: The replica is read through only, rows changed in the database are
+ * served from the replica until they are evicted or invalidated. Keys
+ * without row are not cached. A row read through while its key is
+ * invalidated is not kept, so an invalidation is never overwritten by an
+ * older row.
+ *
+ * TIP: Invalidate rows after updating or deleting them, or invalidate all
+ * rows when a change poller reports changes of the table.
+ *
+ * @author Bohui Axelsson
+ */
+public class QueryObjectDBTableReplica {
+	private static final Logger LOGGER = Logger.getLogger(QueryObjectDBTableReplica.class.getName());
+
+	/*
+	 * Slot layout: flags, key hash, key length, row length, key, row
+	 */
+	private static final int SLOT_FLAGS = 0;
+	private static final int SLOT_KEY_HASH = 1;
+	private static final int SLOT_KEY_LENGTH = 5;
+	private static final int SLOT_ROW_LENGTH = 9;
+	private static final int SLOT_HEADER_SIZE = 13;
+	private static final byte SLOT_USED = 1;
+	private static final byte SLOT_REFERENCED = 2;
+
+	/*
+	 * Amount of invalidation generation stripes, a power of two
+	 */
+	private static final int INVALIDATION_STRIPES = 64;
+
+	private final @NonNull JdbcDatabaseConnection fJdbcDbConn;
+	private final @NonNull String fTableName;
+	private final @NonNull List<String> fColumnNames = new ArrayList<>();
+	private final @NonNull QueryObjectDBTableColumnValueKind[] fColumnKinds;
+	private final @NonNull int[] fKeyColumns;
+	private final int fMaxRowAmount;
+	private final int fSlotSize;
+
+	/*
+	 * Off heap row slots and index, index entry is key hash << 32 | slot + 1,
+	 * 0 is an empty entry.
+	 */
+	private final @NonNull ByteBuffer fSlots;
+	private final @NonNull ByteBuffer fIndex;
+	private final int fIndexMask;
+
+	/*
+	 * Slot allocation, guarded by the write lock
+	 */
+	private int fFreshSlot = 0;
+	private int fClockHand = 0;
+	private int fRowAmount = 0;
+	private final @NonNull ReentrantReadWriteLock fLock = new ReentrantReadWriteLock();
+
+	/*
+	 * Invalidation generations per key hash stripe, raised under the write lock
+	 * by every invalidation. A row read through is only stored if the
+	 * generation of its stripe is unchanged since the row was selected.
+	 */
+	private final @NonNull AtomicLongArray fInvalidationGenerations = new AtomicLongArray(INVALIDATION_STRIPES);
+
+	private final @NonNull AtomicLong fHitAmount = new AtomicLong();
+	private final @NonNull AtomicLong fMissAmount = new AtomicLong();
+	private final @NonNull AtomicLong fEvictionAmount = new AtomicLong();
+
+	/*
+	 * Per thread key encoding buffer and slot view, so lookups of cached rows
+	 * only allocate the returned row.
+	 */
+	private final @NonNull ThreadLocal<ByteBuffer> fKeyBuffers = new ThreadLocal<ByteBuffer>() {
+		@Override
+		protected ByteBuffer initialValue() {
+			return ByteBuffer.allocate(fSlotSize - SLOT_HEADER_SIZE);
+		}
+	};
+	private final @NonNull ThreadLocal<ByteBuffer> fSlotViews = new ThreadLocal<ByteBuffer>() {
+		@Override
+		protected ByteBuffer initialValue() {
+			return fSlots.duplicate();
+		}
+	};
+
+	/**
+	 * Create a replica of a table.
+	 *
+	 * @param jdbcDbConn
+	 * 			JDBC database connection
+	 * @param tableName
+	 * 			Table name
+	 * @param columns
+	 * 			Table columns kept in the replica, including the primary key
+	 * 			columns.
+	 * @param maxRowAmount
+	 * 			Maximum amount of rows kept in the replica
+	 * @param maxRowBytes
+	 * 			Maximum size of an encoded row including its key, see
+	 * 			QueryObjectDBTableColumnValueKind for encoded value sizes.
+	 */
+	public QueryObjectDBTableReplica(@NonNull JdbcDatabaseConnection jdbcDbConn, @NonNull String tableName,
+			@NonNull List<QueryObjectDBTableColumn> columns, int maxRowAmount, int maxRowBytes) {
+		fJdbcDbConn = jdbcDbConn;
+		fTableName = tableName;
+		fColumnKinds = new QueryObjectDBTableColumnValueKind[columns.size()];
+		List<Integer> keyColumns = new ArrayList<>();
+		for (int column = 0; column < columns.size(); column++) {
+			fColumnNames.add(columns.get(column).getColumnName());
+			fColumnKinds[column] = QueryObjectDBTableColumnValueKind.of(columns.get(column).getColumnDataType());
+			if (columns.get(column).containPrimaryKeyConstraint()) {
+				keyColumns.add(column);
+			}
+		}
+		fKeyColumns = new int[keyColumns.size()];
+		for (int keyColumn = 0; keyColumn < fKeyColumns.length; keyColumn++) {
+			fKeyColumns[keyColumn] = keyColumns.get(keyColumn);
+		}
+		if (fKeyColumns.length == 0) {
+			LOGGER.severe("Table " + tableName + " has no primary key column, rows are read from the database.");
+		}
+
+		fMaxRowAmount = Math.max(1, maxRowAmount);
+		fSlotSize = SLOT_HEADER_SIZE + Math.max(1, maxRowBytes);
+		fSlots = ByteBuffer.allocateDirect(Math.multiplyExact(fMaxRowAmount, fSlotSize));
+		int indexCapacity = Integer.highestOneBit(Math.max(2, fMaxRowAmount * 2 - 1)) << 1;
+		fIndex = ByteBuffer.allocateDirect(indexCapacity * Long.BYTES);
+		fIndexMask = indexCapacity - 1;
+	}
+
+	/**
+	 * Look up a row by primary key, a missing row is read from the database and
+	 * added to the replica.
+	 *
+	 * @param keyValues
+	 * 			Primary key values in column order
+	 * @return Row values in column order, see
+	 * 			QueryObjectDBTableColumnValueKind.readResultValue() for value
+	 * 			types. NULL if no row has the key or reading the row failed.
+	 */
+	public Object[] lookupRow(@NonNull Object... keyValues) {
+		ByteBuffer key;
+		try {
+			key = encodeKey(keyValues);
+		} catch (BufferOverflowException keyOverflowException) {
+			fMissAmount.incrementAndGet();
+			return selectRow(keyValues);
+		}
+		if (key == null) {
+			return null;
+		}
+		int keyHash = hashKey(key);
+
+		fLock.readLock().lock();
+		try {
+			int slot = findSlot(key, keyHash);
+			if (slot >= 0) {
+				fHitAmount.incrementAndGet();
+				int slotOffset = slot * fSlotSize;
+				if ((fSlots.get(slotOffset + SLOT_FLAGS) & SLOT_REFERENCED) == 0) {
+					fSlots.put(slotOffset + SLOT_FLAGS, (byte) (SLOT_USED | SLOT_REFERENCED));
+				}
+				return decodeRow(slotOffset);
+			}
+		} finally {
+			fLock.readLock().unlock();
+		}
+
+		fMissAmount.incrementAndGet();
+		long invalidationGeneration = fInvalidationGenerations.get(keyHash & (INVALIDATION_STRIPES - 1));
+		Object[] row = selectRow(keyValues);
+		if (row != null) {
+			storeRow(key, keyHash, row, invalidationGeneration);
+		}
+		return row;
+	}
+
+	/**
+	 * Remove a row from the replica, the next lookup reads it from the database.
+	 *
+	 * @param keyValues
+	 * 			Primary key values in column order
+	 * @return True if the row was in the replica.
+	 */
+	public boolean invalidateRow(@NonNull Object... keyValues) {
+		ByteBuffer key;
+		try {
+			key = encodeKey(keyValues);
+		} catch (BufferOverflowException keyOverflowException) {
+			return false;
+		}
+		if (key == null) {
+			return false;
+		}
+		int keyHash = hashKey(key);
+
+		fLock.writeLock().lock();
+		try {
+			/*
+			 * Raised even if the row is not in the replica, a lookup selecting the
+			 * row right now must not store it.
+			 */
+			fInvalidationGenerations.incrementAndGet(keyHash & (INVALIDATION_STRIPES - 1));
+			int slot = findSlot(key, keyHash);
+			if (slot < 0) {
+				return false;
+			}
+			removeSlot(slot);
+			return true;
+		} finally {
+			fLock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Remove all rows from the replica.
+	 */
+	public void invalidateAllRows() {
+		fLock.writeLock().lock();
+		try {
+			for (int stripe = 0; stripe < INVALIDATION_STRIPES; stripe++) {
+				fInvalidationGenerations.incrementAndGet(stripe);
+			}
+			for (int entry = 0; entry <= fIndexMask; entry++) {
+				fIndex.putLong(entry * Long.BYTES, 0);
+			}
+			for (int slot = 0; slot < fFreshSlot; slot++) {
+				fSlots.put(slot * fSlotSize + SLOT_FLAGS, (byte) 0);
+			}
+			fRowAmount = 0;
+		} finally {
+			fLock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Get amount of rows in the replica.
+	 *
+	 * @return Row amount
+	 */
+	public int getRowAmount() {
+		fLock.readLock().lock();
+		try {
+			return fRowAmount;
+		} finally {
+			fLock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Get amount of lookups served from the replica.
+	 *
+	 * @return Hit amount
+	 */
+	public long getHitAmount() {
+		return fHitAmount.get();
+	}
+
+	/**
+	 * Get amount of lookups read from the database.
+	 *
+	 * @return Miss amount
+	 */
+	public long getMissAmount() {
+		return fMissAmount.get();
+	}
+
+	/**
+	 * Get amount of rows evicted to make room for other rows.
+	 *
+	 * @return Eviction amount
+	 */
+	public long getEvictionAmount() {
+		return fEvictionAmount.get();
+	}
+
+	/**
+	 * Encode key values into the key buffer of the current thread.
+	 *
+	 * @return Key buffer positioned after the key, or NULL if the key values do
+	 * 			not match the primary key columns.
+	 * @throws BufferOverflowException
+	 * 			The key exceeds the maximum row size.
+	 */
+	private ByteBuffer encodeKey(Object[] keyValues) {
+		if (fKeyColumns.length == 0 || keyValues.length != fKeyColumns.length) {
+			LOGGER.severe("Failed to look up row of table " + fTableName + ", expected " + fKeyColumns.length
+					+ " primary key values but got " + keyValues.length + ".");
+			return null;
+		}
+		ByteBuffer key = fKeyBuffers.get();
+		key.clear();
+		for (int keyColumn = 0; keyColumn < fKeyColumns.length; keyColumn++) {
+			QueryObjectDBTableColumnValueKind valueKind = fColumnKinds[fKeyColumns[keyColumn]];
+			Object keyValue = keyValues[keyColumn] == null ? null : valueKind.normalizeValue(keyValues[keyColumn]);
+			if (keyValue == null) {
+				LOGGER.severe("Failed to look up row of table " + fTableName + ", invalid value " + keyValues[keyColumn]
+						+ " of primary key column " + fColumnNames.get(fKeyColumns[keyColumn]));
+				return null;
+			}
+			valueKind.writeValue(key, keyValue);
+		}
+		return key;
+	}
+
+	private static int hashKey(ByteBuffer key) {
+		byte[] keyBytes = key.array();
+		int hash = 0x811C9DC5;
+		for (int i = 0; i < key.position(); i++) {
+			hash = (hash ^ keyBytes[i]) * 0x01000193;
+		}
+		return hash ^ (hash >>> 16);
+	}
+
+	/**
+	 * Find the slot of a key, the caller holds the read or write lock.
+	 *
+	 * @return Slot, or -1 if the key is not in the replica.
+	 */
+	private int findSlot(ByteBuffer key, int keyHash) {
+		for (int entry = keyHash & fIndexMask;; entry = (entry + 1) & fIndexMask) {
+			long indexEntry = fIndex.getLong(entry * Long.BYTES);
+			if (indexEntry == 0) {
+				return -1;
+			}
+			if ((int) (indexEntry >>> 32) == keyHash) {
+				int slot = (int) indexEntry - 1;
+				if (equalKey(slot * fSlotSize, key)) {
+					return slot;
+				}
+			}
+		}
+	}
+
+	private boolean equalKey(int slotOffset, ByteBuffer key) {
+		if (fSlots.getInt(slotOffset + SLOT_KEY_LENGTH) != key.position()) {
+			return false;
+		}
+		byte[] keyBytes = key.array();
+		int keyOffset = slotOffset + SLOT_HEADER_SIZE;
+		for (int i = 0; i < key.position(); i++) {
+			if (fSlots.get(keyOffset + i) != keyBytes[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Decode the row of a slot, the caller holds the read or write lock.
+	 */
+	private Object[] decodeRow(int slotOffset) {
+		ByteBuffer slotView = fSlotViews.get();
+		slotView.position(slotOffset + SLOT_HEADER_SIZE + fSlots.getInt(slotOffset + SLOT_KEY_LENGTH));
+		Object[] row = new Object[fColumnKinds.length];
+		int nullBitmapOffset = slotView.position();
+		slotView.position(nullBitmapOffset + (fColumnKinds.length + 7) / 8);
+		for (int column = 0; column < fColumnKinds.length; column++) {
+			if ((fSlots.get(nullBitmapOffset + column / 8) & (1 << (column % 8))) == 0) {
+				row[column] = fColumnKinds[column].readValue(slotView);
+			}
+		}
+		return row;
+	}
+
+	/**
+	 * Encode a row and store it into a free or evicted slot. The row is
+	 * discarded if its key was invalidated since the row was selected.
+	 *
+	 * @param invalidationGeneration
+	 * 			Invalidation generation of the key stripe read before the row was
+	 * 			selected
+	 */
+	private void storeRow(ByteBuffer key, int keyHash, Object[] row, long invalidationGeneration) {
+		ByteBuffer rowBytes = ByteBuffer.allocate(fSlotSize - SLOT_HEADER_SIZE - key.position());
+		try {
+			byte[] nullBitmap = new byte[(fColumnKinds.length + 7) / 8];
+			for (int column = 0; column < fColumnKinds.length; column++) {
+				if (row[column] == null) {
+					nullBitmap[column / 8] |= 1 << (column % 8);
+				}
+			}
+			rowBytes.put(nullBitmap);
+			for (int column = 0; column < fColumnKinds.length; column++) {
+				if (row[column] != null) {
+					fColumnKinds[column].writeValue(rowBytes, row[column]);
+				}
+			}
+		} catch (BufferOverflowException rowOverflowException) {
+			LOGGER.fine("Row of table " + fTableName + " exceeds the maximum row size and is not kept in the replica.");
+			return;
+		}
+		rowBytes.flip();
+
+		fLock.writeLock().lock();
+		try {
+			if (fInvalidationGenerations.get(keyHash & (INVALIDATION_STRIPES - 1)) != invalidationGeneration
+					|| findSlot(key, keyHash) >= 0) {
+				return;
+			}
+			int slot = allocateSlot();
+			int slotOffset = slot * fSlotSize;
+			fSlots.put(slotOffset + SLOT_FLAGS, SLOT_USED);
+			fSlots.putInt(slotOffset + SLOT_KEY_HASH, keyHash);
+			fSlots.putInt(slotOffset + SLOT_KEY_LENGTH, key.position());
+			fSlots.putInt(slotOffset + SLOT_ROW_LENGTH, rowBytes.remaining());
+			ByteBuffer slotView = fSlots.duplicate();
+			slotView.position(slotOffset + SLOT_HEADER_SIZE);
+			slotView.put(key.array(), 0, key.position());
+			slotView.put(rowBytes);
+
+			int entry = keyHash & fIndexMask;
+			while (fIndex.getLong(entry * Long.BYTES) != 0) {
+				entry = (entry + 1) & fIndexMask;
+			}
+			fIndex.putLong(entry * Long.BYTES, ((long) keyHash << 32) | (slot + 1));
+			fRowAmount++;
+		} finally {
+			fLock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Allocate a slot, evicting a cold row if all slots are used. The caller
+	 * holds the write lock.
+	 */
+	private int allocateSlot() {
+		if (fFreshSlot < fMaxRowAmount) {
+			return fFreshSlot++;
+		}
+		while (true) {
+			int slot = fClockHand;
+			fClockHand = (fClockHand + 1) % fMaxRowAmount;
+			int slotOffset = slot * fSlotSize;
+			byte flags = fSlots.get(slotOffset + SLOT_FLAGS);
+			if ((flags & SLOT_USED) == 0) {
+				return slot;
+			}
+			if ((flags & SLOT_REFERENCED) != 0) {
+				fSlots.put(slotOffset + SLOT_FLAGS, SLOT_USED);
+				continue;
+			}
+			removeSlot(slot);
+			fEvictionAmount.incrementAndGet();
+			return slot;
+		}
+	}
+
+	/**
+	 * Remove the row of a slot and its index entry, later entries of the probe
+	 * sequence are shifted back so lookups need no tombstones. The caller holds
+	 * the write lock.
+	 */
+	private void removeSlot(int slot) {
+		int slotOffset = slot * fSlotSize;
+		int keyHash = fSlots.getInt(slotOffset + SLOT_KEY_HASH);
+		long slotEntry = ((long) keyHash << 32) | (slot + 1);
+		int entry = keyHash & fIndexMask;
+		while (fIndex.getLong(entry * Long.BYTES) != slotEntry) {
+			entry = (entry + 1) & fIndexMask;
+		}
+
+		int nextEntry = entry;
+		while (true) {
+			nextEntry = (nextEntry + 1) & fIndexMask;
+			long indexEntry = fIndex.getLong(nextEntry * Long.BYTES);
+			if (indexEntry == 0) {
+				break;
+			}
+			int homeEntry = (int) (indexEntry >>> 32) & fIndexMask;
+			boolean movable = entry <= nextEntry ? homeEntry <= entry || homeEntry > nextEntry
+					: homeEntry <= entry && homeEntry > nextEntry;
+			if (movable) {
+				fIndex.putLong(entry * Long.BYTES, indexEntry);
+				entry = nextEntry;
+			}
+		}
+		fIndex.putLong(entry * Long.BYTES, 0);
+		fSlots.put(slotOffset + SLOT_FLAGS, (byte) 0);
+		fRowAmount--;
+	}
+
+	/**
+	 * Read a row by primary key from the database.
+	 */
+	private Object[] selectRow(Object[] keyValues) {
+		List<QueryObjectTableCriteriaCondition> keyCriteriaConditions = new ArrayList<>();
+		for (int keyColumn = 0; keyColumn < fKeyColumns.length; keyColumn++) {
+			QueryObjectDBTableColumnValueKind valueKind = fColumnKinds[fKeyColumns[keyColumn]];
+			Object keyValue = valueKind.normalizeValue(keyValues[keyColumn]);
+			if (valueKind != QueryObjectDBTableColumnValueKind.LONG && valueKind != QueryObjectDBTableColumnValueKind.DOUBLE
+					&& valueKind != QueryObjectDBTableColumnValueKind.DECIMAL) {
+				keyValue = keyValue.toString();
+			}
+			keyCriteriaConditions.add(new QueryObjectTableCriteriaCondition(fColumnNames.get(fKeyColumns[keyColumn]),
+					keyValue, "=", keyColumn == 0 ? "" : SqlStatementStrings.SQL_TABLE_AND));
+		}
+		List<String> tables = new ArrayList<>();
+		tables.add(fTableName);
+		QueryObjectSelect keySelect = new QueryObjectSelect(fJdbcDbConn, tables, fColumnNames, keyCriteriaConditions);
+		ResultSet results = keySelect.selectColumnsWhereConditions(false);
+		if (results == null) {
+			return null;
+		}
+		try {
+			if (!results.next()) {
+				return null;
+			}
+			Object[] row = new Object[fColumnKinds.length];
+			for (int column = 0; column < fColumnKinds.length; column++) {
+				row[column] = fColumnKinds[column].readResultValue(results, column + 1);
+			}
+			return row;
+		} catch (SQLException readException) {
+			LOGGER.severe("Failed to read row of table " + fTableName + ". Details: " + readException.getMessage());
+			return null;
+		}
+	}
+}
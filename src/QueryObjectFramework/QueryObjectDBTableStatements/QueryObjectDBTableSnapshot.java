@@ -0,0 +1,535 @@
+package QueryObjectFramework.QueryObjectDBTableStatements;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+import javax.sql.rowset.RowSetMetaDataImpl;
+
+import org.eclipse.jdt.annotation.NonNull;
+
+import QueryObjectFramework.CommonClasses.SqlQueryTypes;
+import QueryObjectFramework.CommonClasses.SqlStatementStrings;
+import QueryObjectFramework.JdbcDatabaseConnection.JdbcDatabaseConnection;
+import QueryObjectFramework.JdbcDatabaseConnection.JdbcDatabaseCursor;
+
+/**
+ * Snapshot class writes all rows of a table into a binary columnar file and
+ * reads them back from the file, so reference tables are loaded at startup
+ * without querying the database server.
+ *
+ * File layout, big endian:
+ * - Header: magic, format version, schema fingerprint, column amount, row
+ *   amount, watermark and CRC32 checksum of the header fields before it and
+ *   of the column blocks.
+ * - One block per column: value kind, null bitmap and the values of all
+ *   non NULL rows.
+ *
+ * The schema fingerprint is a hash of the column names and data types, a
+ * snapshot written for other column definitions is never loaded.
+ *
+ * <example>
+ *  QueryObjectDBTableSnapshot snapshot = new QueryObjectDBTableSnapshot(jdbcDbConn, "Currencies", columns);
+ *  snapshot.setWatermarkColumn("UpdatedAt");
+ *  ResultSet currencies = snapshot.loadOrRefreshSnapshot(Paths.get("/var/cache/currencies.snapshot"));
+ * </example>
+ *
+ * NOTE: A snapshot is stale if the table row amount or the maximum value of
+ * the watermark column differ from the values stored in the snapshot. Without
+ * watermark column only the row amount is compared. The check is one
+ * COUNT and MAX query, if it fails the snapshot is used as it is.
+ *
+ * NOTE: Loaded rows are not streamed from the file, all rows are decoded into
+ * a CachedRowSet held in the heap. Snapshots are meant for reference tables
+ * that fit in memory, not for large tables.
+ *
+ * NOTE: Rows are written into file.part first, which replaces file once all
+ * rows have been written, so readers never see a partial snapshot.
+ *
+ * TIP: Use a watermark column that is updated by every change of a row, for
+ * example a TIMESTAMP column with ON UPDATE CURRENT_TIMESTAMP or a version
+ * counter.
+ *
+ * @author Bohui Axelsson
+ */
+public class QueryObjectDBTableSnapshot {
+	private static final Logger LOGGER = Logger.getLogger(QueryObjectDBTableSnapshot.class.getName());
+
+	private static final int SNAPSHOT_MAGIC = 0x4F42534E;
+	private static final int SNAPSHOT_VERSION = 2;
+	private static final int DEFAULT_FETCH_SIZE = 1000;
+	private static final String PART_FILE_SUFFIX = ".part";
+	private static final int COLUMN_BUFFER_SIZE = 1 << 12;
+
+	private final @NonNull JdbcDatabaseConnection fJdbcDbConn;
+	private final @NonNull String fTableName;
+	private final @NonNull List<QueryObjectDBTableColumn> fColumns;
+	private final @NonNull QueryObjectDBTableColumnValueKind[] fColumnKinds;
+	private final long fSchemaFingerprint;
+	private String fWatermarkColumn = null;
+	private int fFetchSize = DEFAULT_FETCH_SIZE;
+
+	/**
+	 * Header of a snapshot file.
+	 */
+	private static class SnapshotHeader {
+		private long fSchemaFingerprint;
+		private int fColumnAmount;
+		private int fRowAmount;
+		private String fWatermark;
+		private int fChecksumOffset;
+		private long fChecksum;
+	}
+
+	/**
+	 * Create a snapshot of a table.
+	 *
+	 * @param jdbcDbConn
+	 * 			JDBC database connection
+	 * @param tableName
+	 * 			Table name
+	 * @param columns
+	 * 			Table columns stored in the snapshot, in snapshot column order.
+	 */
+	public QueryObjectDBTableSnapshot(@NonNull JdbcDatabaseConnection jdbcDbConn, @NonNull String tableName,
+			@NonNull List<QueryObjectDBTableColumn> columns) {
+		fJdbcDbConn = jdbcDbConn;
+		fTableName = tableName;
+		fColumns = new ArrayList<>(columns);
+		fColumnKinds = new QueryObjectDBTableColumnValueKind[columns.size()];
+		for (int column = 0; column < fColumnKinds.length; column++) {
+			fColumnKinds[column] = QueryObjectDBTableColumnValueKind.of(fColumns.get(column).getColumnDataType());
+		}
+		fSchemaFingerprint = buildSchemaFingerprint(fColumns);
+	}
+
+	/**
+	 * Set column used to detect changed rows, setting null to only compare the
+	 * row amount.
+	 *
+	 * @param watermarkColumn
+	 * 			Watermark column name, the column does not need to be stored in
+	 * 			the snapshot.
+	 */
+	public void setWatermarkColumn(String watermarkColumn) {
+		fWatermarkColumn = watermarkColumn;
+	}
+
+	/**
+	 * Set amount of rows fetched from the database server at once while
+	 * writing a snapshot, see JdbcDatabaseConnection.openCursor().
+	 *
+	 * @param fetchSize
+	 * 			Fetch size, default is 1000.
+	 */
+	public void setFetchSize(int fetchSize) {
+		fFetchSize = fetchSize;
+	}
+
+	/**
+	 * Get the schema fingerprint of the snapshot columns.
+	 *
+	 * @return Schema fingerprint
+	 */
+	public long getSchemaFingerprint() {
+		return fSchemaFingerprint;
+	}
+
+	/**
+	 * Load rows from a snapshot file, or write a new snapshot file first if the
+	 * file is missing, damaged, written for other columns or stale.
+	 *
+	 * @param file
+	 * 			Snapshot file
+	 * @return ResultSet
+	 * 			Rows of the table, or NULL if neither the snapshot nor the table
+	 * 			can be read.
+	 */
+	public synchronized ResultSet loadOrRefreshSnapshot(@NonNull Path file) {
+		if (!isSnapshotStale(file)) {
+			ResultSet results = loadSnapshot(file);
+			if (results != null) {
+				return results;
+			}
+		}
+		if (!writeSnapshot(file)) {
+			return null;
+		}
+		return loadSnapshot(file);
+	}
+
+	/**
+	 * Check a snapshot file is stale, compares the row amount and the
+	 * watermark stored in the snapshot with the table.
+	 *
+	 * @param file
+	 * 			Snapshot file
+	 * @return True if the snapshot file is missing, written for other columns
+	 * 			or stale. False if the snapshot is up to date or the table state
+	 * 			can not be read.
+	 */
+	public boolean isSnapshotStale(@NonNull Path file) {
+		SnapshotHeader header;
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			header = readHeader(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+		} catch (NoSuchFileException missingException) {
+			return true;
+		} catch (IOException | RuntimeException readException) {
+			LOGGER.warning("Failed to read snapshot " + file + ". Details: " + readException.getMessage());
+			return true;
+		}
+		if (header == null || header.fSchemaFingerprint != fSchemaFingerprint) {
+			return true;
+		}
+
+		String[] tableState = readTableState();
+		if (tableState == null) {
+			LOGGER.warning("Failed to read state of table " + fTableName + ", snapshot " + file + " is used as it is.");
+			return false;
+		}
+		boolean stale = !String.valueOf(header.fRowAmount).equals(tableState[0])
+				|| (fWatermarkColumn != null && !equalValues(header.fWatermark, tableState[1]));
+		if (stale) {
+			LOGGER.info("Snapshot " + file + " of table " + fTableName + " is stale.");
+		}
+		return stale;
+	}
+
+	/**
+	 * Write all rows of the table into a snapshot file, an existing file is
+	 * replaced.
+	 *
+	 * @param file
+	 * 			Snapshot file
+	 * @return True if the snapshot is written.
+	 */
+	public synchronized boolean writeSnapshot(@NonNull Path file) {
+		/*
+		 * The watermark is read before the rows, rows changed while writing make
+		 * the snapshot stale instead of being missed.
+		 */
+		String[] tableState = readTableState();
+		if (tableState == null) {
+			LOGGER.severe("Failed to write snapshot " + file + ", state of table " + fTableName + " can not be read.");
+			return false;
+		}
+
+		JdbcDatabaseCursor cursor = fJdbcDbConn.openCursor(buildSqlSelectColumns(), fFetchSize);
+		if (cursor == null) {
+			LOGGER.severe("Failed to write snapshot " + file + ", cursor can not be opened.");
+			return false;
+		}
+		ByteBuffer[] columnValues = new ByteBuffer[fColumns.size()];
+		BitSet[] columnNulls = new BitSet[fColumns.size()];
+		for (int column = 0; column < fColumns.size(); column++) {
+			columnValues[column] = ByteBuffer.allocate(COLUMN_BUFFER_SIZE);
+			columnNulls[column] = new BitSet();
+		}
+		int rowAmount = 0;
+		try (JdbcDatabaseCursor rowCursor = cursor) {
+			ResultSet results = rowCursor.getResultSet();
+			while (rowCursor.next()) {
+				for (int column = 0; column < fColumns.size(); column++) {
+					Object value = fColumnKinds[column].readResultValue(results, column + 1);
+					if (value == null) {
+						columnNulls[column].set(rowAmount);
+					} else {
+						columnValues[column] = writeColumnValue(columnValues[column], fColumnKinds[column], value);
+					}
+				}
+				rowAmount++;
+			}
+		} catch (SQLException readException) {
+			LOGGER.severe("Failed to read rows of table " + fTableName + ". Details: " + readException.getMessage());
+			return false;
+		}
+
+		int bitmapSize = (rowAmount + 7) / 8;
+		int bodySize = 0;
+		for (ByteBuffer values : columnValues) {
+			values.flip();
+			bodySize += 1 + 4 + bitmapSize + values.remaining();
+		}
+		ByteBuffer body = ByteBuffer.allocate(bodySize);
+		for (int column = 0; column < fColumns.size(); column++) {
+			byte[] nullBitmap = columnNulls[column].toByteArray();
+			body.put((byte) fColumnKinds[column].ordinal());
+			body.putInt(columnValues[column].remaining());
+			body.put(nullBitmap);
+			body.position(body.position() + bitmapSize - nullBitmap.length);
+			body.put(columnValues[column]);
+		}
+		body.flip();
+
+		byte[] watermark = tableState[1] == null ? null : tableState[1].getBytes(StandardCharsets.UTF_8);
+		ByteBuffer header = ByteBuffer.allocate(4 + 4 + 8 + 4 + 4 + 4 + (watermark == null ? 0 : watermark.length) + 8);
+		header.putInt(SNAPSHOT_MAGIC);
+		header.putInt(SNAPSHOT_VERSION);
+		header.putLong(fSchemaFingerprint);
+		header.putInt(fColumns.size());
+		header.putInt(rowAmount);
+		header.putInt(watermark == null ? -1 : watermark.length);
+		if (watermark != null) {
+			header.put(watermark);
+		}
+		ByteBuffer checkedHeader = header.duplicate();
+		checkedHeader.flip();
+		CRC32 checksum = new CRC32();
+		checksum.update(checkedHeader);
+		checksum.update(body.duplicate());
+		header.putLong(checksum.getValue());
+		header.flip();
+
+		Path partFile = file.resolveSibling(file.getFileName() + PART_FILE_SUFFIX);
+		try {
+			try (FileChannel channel = FileChannel.open(partFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+					StandardOpenOption.TRUNCATE_EXISTING)) {
+				while (header.hasRemaining() || body.hasRemaining()) {
+					channel.write(new ByteBuffer[] { header, body });
+				}
+				channel.force(false);
+			}
+			try {
+				Files.move(partFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException atomicMoveException) {
+				Files.move(partFile, file, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} catch (IOException writeException) {
+			LOGGER.severe("Failed to write snapshot " + file + ". Details: " + writeException.getMessage());
+			try {
+				Files.deleteIfExists(partFile);
+			} catch (IOException deleteException) {
+				LOGGER.warning("Failed to delete " + partFile + ". Details: " + deleteException.getMessage());
+			}
+			return false;
+		}
+		LOGGER.info("Wrote snapshot of " + rowAmount + " rows of table " + fTableName + " into " + file);
+		return true;
+	}
+
+	/**
+	 * Load all rows from a snapshot file into memory, the checksum and schema
+	 * fingerprint of the file are verified first.
+	 *
+	 * NOTE: The file is memory mapped only while it is decoded, so its bytes are
+	 * not copied into the heap, the returned rows are held in the heap.
+	 *
+	 * @param file
+	 * 			Snapshot file
+	 * @return ResultSet
+	 * 			Rows of the snapshot, disconnected from the database, or NULL if
+	 * 			the file is missing, damaged or written for other columns.
+	 */
+	public ResultSet loadSnapshot(@NonNull Path file) {
+		MappedByteBuffer mappedFile;
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			mappedFile = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		} catch (IOException mapException) {
+			LOGGER.warning("Failed to map snapshot " + file + ". Details: " + mapException.getMessage());
+			return null;
+		}
+
+		try {
+			SnapshotHeader header = readHeader(mappedFile);
+			if (header == null) {
+				LOGGER.warning("Failed to load snapshot " + file + ", file is not a snapshot of this format version.");
+				return null;
+			}
+			if (header.fSchemaFingerprint != fSchemaFingerprint || header.fColumnAmount != fColumns.size()) {
+				LOGGER.warning("Failed to load snapshot " + file + ", snapshot is written for other columns.");
+				return null;
+			}
+			ByteBuffer body = mappedFile.slice();
+			ByteBuffer checkedHeader = mappedFile.duplicate();
+			checkedHeader.limit(header.fChecksumOffset);
+			checkedHeader.position(0);
+			CRC32 checksum = new CRC32();
+			checksum.update(checkedHeader);
+			checksum.update(body.duplicate());
+			if (checksum.getValue() != header.fChecksum) {
+				LOGGER.warning("Failed to load snapshot " + file + ", checksum mismatch.");
+				return null;
+			}
+
+			List<Object[]> rows = new ArrayList<>(header.fRowAmount);
+			for (int row = 0; row < header.fRowAmount; row++) {
+				rows.add(new Object[fColumns.size()]);
+			}
+			int bitmapSize = (header.fRowAmount + 7) / 8;
+			for (int column = 0; column < fColumns.size(); column++) {
+				QueryObjectDBTableColumnValueKind columnKind = QueryObjectDBTableColumnValueKind.values()[body.get()];
+				if (columnKind != fColumnKinds[column]) {
+					LOGGER.warning("Failed to load snapshot " + file + ", snapshot is written for other columns.");
+					return null;
+				}
+				int valuesSize = body.getInt();
+				byte[] nullBitmap = new byte[bitmapSize];
+				body.get(nullBitmap);
+				BitSet columnNulls = BitSet.valueOf(nullBitmap);
+				int valuesEnd = body.position() + valuesSize;
+				for (int row = 0; row < header.fRowAmount; row++) {
+					if (!columnNulls.get(row)) {
+						rows.get(row)[column] = columnKind.readValue(body);
+					}
+				}
+				if (body.position() != valuesEnd) {
+					LOGGER.warning("Failed to load snapshot " + file + ", column " + getColumnName(column) + " is damaged.");
+					return null;
+				}
+			}
+			return JdbcDatabaseConnection.buildCachedRowSet(buildMetaData(), rows, true);
+		} catch (SQLException | RuntimeException loadException) {
+			LOGGER.warning("Failed to load snapshot " + file + ". Details: " + loadException.getMessage());
+			return null;
+		}
+	}
+
+	/**
+	 * Read the snapshot header, the buffer is positioned at the first column
+	 * block afterwards.
+	 *
+	 * @return Snapshot header, or NULL if the buffer is no snapshot of this
+	 * 			format version.
+	 */
+	private SnapshotHeader readHeader(ByteBuffer snapshot) {
+		if (snapshot.remaining() < 8 || snapshot.getInt() != SNAPSHOT_MAGIC || snapshot.getInt() != SNAPSHOT_VERSION) {
+			return null;
+		}
+		SnapshotHeader header = new SnapshotHeader();
+		header.fSchemaFingerprint = snapshot.getLong();
+		header.fColumnAmount = snapshot.getInt();
+		header.fRowAmount = snapshot.getInt();
+		int watermarkLength = snapshot.getInt();
+		if (watermarkLength >= 0) {
+			byte[] watermark = new byte[watermarkLength];
+			snapshot.get(watermark);
+			header.fWatermark = new String(watermark, StandardCharsets.UTF_8);
+		}
+		header.fChecksumOffset = snapshot.position();
+		header.fChecksum = snapshot.getLong();
+		return header;
+	}
+
+	/**
+	 * Append a non NULL value to the values of a column block, the buffer is
+	 * replaced by a buffer of double size if the value does not fit.
+	 *
+	 * @return Buffer containing the value
+	 */
+	private static ByteBuffer writeColumnValue(ByteBuffer values, QueryObjectDBTableColumnValueKind columnKind,
+			Object value) {
+		while (true) {
+			int valueStart = values.position();
+			try {
+				columnKind.writeValue(values, value);
+				return values;
+			} catch (BufferOverflowException overflowException) {
+				values.position(valueStart);
+				values.flip();
+				ByteBuffer grownValues = ByteBuffer.allocate(Math.multiplyExact(values.capacity(), 2));
+				grownValues.put(values);
+				values = grownValues;
+			}
+		}
+	}
+
+	/**
+	 * Read row amount and watermark of the table.
+	 *
+	 * @return Row amount and watermark as strings, the watermark is NULL
+	 * 			without watermark column or rows. NULL if the query failed.
+	 */
+	private String[] readTableState() {
+		String sql = SqlQueryTypes.SELECT.sqlQueryType() + " " + SqlStatementStrings.SQL_TABLE_COUNT + "(*)";
+		if (fWatermarkColumn != null) {
+			sql += ", " + SqlStatementStrings.SQL_TABLE_MAX + "(" + fWatermarkColumn + ")";
+		}
+		sql += " " + SqlStatementStrings.SQL_TABLE_FROM + " " + fTableName + ";";
+
+		ResultSet results = fJdbcDbConn.executeQueryObject(sql);
+		if (results == null) {
+			return null;
+		}
+		try {
+			if (!results.next()) {
+				return null;
+			}
+			return new String[] { String.valueOf(results.getLong(1)),
+					fWatermarkColumn == null ? null : results.getString(2) };
+		} catch (SQLException stateException) {
+			LOGGER.severe("Failed to read state of table " + fTableName + ". Details: " + stateException.getMessage());
+			return null;
+		}
+	}
+
+	private String buildSqlSelectColumns() {
+		StringBuilder sql = new StringBuilder(SqlQueryTypes.SELECT.sqlQueryType()).append(" ");
+		for (int column = 0; column < fColumns.size(); column++) {
+			if (column > 0) {
+				sql.append(", ");
+			}
+			sql.append(getColumnName(column));
+		}
+		return sql.append(" ").append(SqlStatementStrings.SQL_TABLE_FROM).append(" ").append(fTableName).append(";")
+				.toString();
+	}
+
+	private RowSetMetaDataImpl buildMetaData() throws SQLException {
+		RowSetMetaDataImpl metaData = new RowSetMetaDataImpl();
+		metaData.setColumnCount(fColumns.size());
+		for (int column = 0; column < fColumns.size(); column++) {
+			metaData.setColumnName(column + 1, getColumnName(column));
+			metaData.setColumnLabel(column + 1, getColumnName(column));
+			metaData.setColumnType(column + 1, fColumnKinds[column].sqlType());
+		}
+		return metaData;
+	}
+
+	private String getColumnName(int column) {
+		return fColumns.get(column).getColumnName();
+	}
+
+	private static boolean equalValues(String value, String otherValue) {
+		return value == null ? otherValue == null : value.equals(otherValue);
+	}
+
+	/**
+	 * Build the schema fingerprint, the first 8 bytes of a SHA-256 hash of the
+	 * column names and SQL data types.
+	 */
+	private static long buildSchemaFingerprint(List<QueryObjectDBTableColumn> columns) {
+		StringBuilder schema = new StringBuilder();
+		for (QueryObjectDBTableColumn column : columns) {
+			schema.append(column.getColumnName().toLowerCase(Locale.ROOT)).append(' ')
+					.append(column.getColumnDataType().getSqlColumnDataType()).append(';');
+		}
+		try {
+			byte[] hash = MessageDigest.getInstance("SHA-256").digest(schema.toString().getBytes(StandardCharsets.UTF_8));
+			return ByteBuffer.wrap(hash).getLong();
+		} catch (NoSuchAlgorithmException hashException) {
+			/*
+			 * Every Java platform supports SHA-256, keep a weaker fingerprint anyway.
+			 */
+			return schema.toString().hashCode();
+		}
+	}
+}
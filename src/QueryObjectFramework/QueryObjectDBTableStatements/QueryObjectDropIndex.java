@@ -0,0 +1,67 @@
+package QueryObjectFramework.QueryObjectDBTableStatements;
+
+import java.util.logging.Logger;
+
+import org.eclipse.jdt.annotation.NonNull;
+
+import QueryObjectFramework.CommonClasses.SqlQueryTypes;
+import QueryObjectFramework.CommonClasses.SqlStatementStrings;
+import QueryObjectFramework.JdbcDatabaseConnection.JdbcDatabaseConnection;
+
+/**
+ * Query object class for DROP INDEX statement. The DROP INDEX statement is used
+ * to delete an index in a table.
+ *
+ * <example>
+ *  DROP INDEX index_name ON table_name;
+ * </example>
+ *
+ * NOTE: At the moment, MYSQL server syntax is supported.
+ *
+ * @author Bohui Axelsson
+ */
+public class QueryObjectDropIndex extends QueryObjectDBTableAbstract {
+	private static final Logger LOGGER = Logger.getLogger(QueryObjectDropIndex.class.getName());
+
+	private @NonNull String fIndexName = "";
+
+	/**
+	 * Create a DROP INDEX query object with table name and index name.
+	 *
+	 * @param jdbcDbConn
+	 * 			JDBC database connection
+	 * @param tableName
+	 * 			Table name
+	 * @param indexName
+	 * 			Index name
+	 */
+	public QueryObjectDropIndex(@NonNull JdbcDatabaseConnection jdbcDbConn, @NonNull String tableName,
+			@NonNull String indexName) {
+		super(SqlQueryTypes.DROP_INDEX, jdbcDbConn, tableName);
+		fIndexName = indexName;
+	}
+
+	/**
+	 * Drop an index.
+	 *
+	 * Scenario:
+	 *
+	 * <example>
+	 *  DROP INDEX IDX_Persons ON Persons;
+	 * </example>
+	 *
+	 * NOTE: Only one index can be associated to one Query Object.
+	 */
+	public void dropIndex() {
+		if (fTableName.isEmpty() || fIndexName.isEmpty()) {
+			LOGGER.severe("Failed to drop index, table name or index name is missing.");
+			return;
+		}
+
+		LOGGER.info("Droping index " + fIndexName + " on table " + fTableName);
+		String sql = fQueryObjectType.sqlQueryType() + " " + fIndexName + " " + SqlStatementStrings.SQL_TABLE_ON + " "
+				+ fTableName + ";";
+		executeSchemaChangingQueryObject(sql);
+		LOGGER.info("Index " + fIndexName + " is deleted.");
+	}
+}
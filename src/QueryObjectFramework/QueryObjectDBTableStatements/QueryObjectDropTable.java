@@ -53,7 +53,7 @@ public class QueryObjectDropTable extends QueryObjectDBTableAbstract {
 	public void dropTable() {
 		LOGGER.info("Droping table " + fTableName);
 		String sql = fQueryObjectType.sqlQueryType() + " " + fTableName + ";";
-		fJdbcDbConn.executeQueryObject(sql);
+		executeSchemaChangingQueryObject(sql);
 		LOGGER.info("Table " + fTableName + "is deleted.");
 	}
 }
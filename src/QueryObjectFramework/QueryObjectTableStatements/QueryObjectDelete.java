@@ -1,6 +1,7 @@
 package QueryObjectFramework.QueryObjectTableStatements;
 
 import java.sql.ResultSet;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.logging.Logger;
 
@@ -88,19 +89,21 @@ public class QueryObjectDelete extends QueryObjectTableAbstract {
 
 		String sql = null;
 		if (deleteAll) {
-			sql = fQueryObjectType.sqlQueryType() + " * " + SqlStatementStrings.SQL_TABLE_FROM
+			sql = fQueryObjectType.sqlQueryType() + " " + SqlStatementStrings.SQL_TABLE_FROM + " "
 					+ fTables.get(0) + ";";
 		} else {
+			recordIndexAdvisorColumnUsage(fCriteriaConditions, new ArrayList<QueryObjectTableOrderBy>());
 			String whereClause = buildSqlWhereClause();
 			if (whereClause.equals("")) {
 				sql = fQueryObjectType.sqlQueryType() + " " + SqlStatementStrings.SQL_TABLE_FROM
-						+ ";";
+						+ " " + fTables.get(0) + ";";
 			} else {
 				sql = fQueryObjectType.sqlQueryType() + " " + SqlStatementStrings.SQL_TABLE_FROM
-						+ " " + SqlStatementStrings.SQL_TABLE_WHERE + buildSqlWhereClause() + ";";
+						+ " " + fTables.get(0) + " " + SqlStatementStrings.SQL_TABLE_WHERE + " " + whereClause + ";";
 			}
 		}
-		return fJdbcDbConn.executeQueryObject(sql);
+		return executeQueryObject(sql, deleteAll ? new ArrayList<QueryObjectTableCriteriaCondition>()
+				: fCriteriaConditions);
 	}
 
 	/**
@@ -120,7 +123,7 @@ public class QueryObjectDelete extends QueryObjectTableAbstract {
 				return false;
 			}
 		}
-		return true;
+		return validateSchemaNames(new ArrayList<String>(), fCriteriaConditions);
 	}
 
 	/**
@@ -131,7 +134,10 @@ public class QueryObjectDelete extends QueryObjectTableAbstract {
 	private String buildSqlWhereClause() {
 		StringBuilder whereClause = new StringBuilder("");
 		for (QueryObjectTableCriteriaCondition sqlCriteria : fCriteriaConditions) {
-			if (sqlCriteria.isStringCriteriaValue()) {
+			if (isListCriteriaValue(sqlCriteria)) {
+				whereClause.append(sqlCriteria.getConditionOperator() + " " + sqlCriteria.getFiled()
+						+ sqlCriteria.getOperator() + buildSqlCriteriaValueList(sqlCriteria) + " ");
+			} else if (isQuotedCriteriaValue(sqlCriteria)) {
 				whereClause.append(sqlCriteria.getConditionOperator() + " " + sqlCriteria.getFiled()
 						+ sqlCriteria.getOperator() + "'" + sqlCriteria.getValue() + "' ");
 			} else {
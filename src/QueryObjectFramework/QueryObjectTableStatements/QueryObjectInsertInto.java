@@ -84,14 +84,16 @@ public class QueryObjectInsertInto extends QueryObjectTableAbstract {
 
 		String sql = fQueryObjectType.sqlQueryType() + " " + fTables.get(0)
 				 + " " + SqlStatementStrings.SQL_TABLE_VALUES + " (" + buildSqlInsertValuesClause() + " );";
-		return fJdbcDbConn.executeQueryObject(sql);
+		return executeQueryObject(sql);
 	}
 
 	/**
 	 * Validate fTables list should only contain one table name, meanwhile,
-	 * fInsertitems list should not be empty.
+	 * fInsertitems list should not be empty. Table and column names are
+	 * validated against schema metadata cache if it is enabled.
 	 *
-	 * @return True if fTables contains one table and fInsertItems is not empty.
+	 * @return True if fTables contains one table, fInsertItems is not empty and
+	 *         all names are valid.
 	 */
 	private boolean validateTableAmountAndValuesNotEmpty() {
 		if (fTables.isEmpty()) {
@@ -106,7 +108,12 @@ public class QueryObjectInsertInto extends QueryObjectTableAbstract {
 			LOGGER.severe("Failed to insert values into table, inserting items are missing.");
 			return false;
 		}
-		return true;
+
+		List<String> columnNames = new ArrayList<>();
+		for (QueryObjectTableColumnAndValue insertItem : fInsertItems) {
+			columnNames.add(insertItem.getUpdateColumnName());
+		}
+		return validateSchemaNames(columnNames, fCriteriaConditions);
 	}
 
 	/**
@@ -117,7 +124,7 @@ public class QueryObjectInsertInto extends QueryObjectTableAbstract {
 	private String buildSqlInsertValuesClause() {
 		StringBuilder insertValuesClause = new StringBuilder();
 		for (QueryObjectTableColumnAndValue insertItem : fInsertItems) {
-			if (insertItem.isStringUpdateValue()) {
+			if (isQuotedUpdateValue(insertItem)) {
 				insertValuesClause.append("'" + insertItem.getUpdateValue() + "'" + ",");
 			} else {
 				insertValuesClause.append(insertItem.getUpdateValue() + ",");
@@ -148,7 +155,7 @@ public class QueryObjectInsertInto extends QueryObjectTableAbstract {
 
 		String sql = fQueryObjectType.sqlQueryType() + " " + fTables.get(0) + " " + "( " + buildSqlInsertColumnsClause()
 				+ " )" + " " + SqlStatementStrings.SQL_TABLE_VALUES + " (" + buildSqlInsertValuesClause() + " );";
-		return fJdbcDbConn.executeQueryObject(sql);
+		return executeQueryObject(sql, new ArrayList<QueryObjectTableCriteriaCondition>(), fInsertItems);
 	}
 
 	/**
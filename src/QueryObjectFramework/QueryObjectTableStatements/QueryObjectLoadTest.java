@@ -0,0 +1,516 @@
+package QueryObjectFramework.QueryObjectTableStatements;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Logger;
+
+import org.eclipse.jdt.annotation.NonNull;
+
+import QueryObjectFramework.CommonClasses.SqlQueryTypes;
+import QueryObjectFramework.JdbcDatabaseConnection.JdbcDatabaseConnection;
+import QueryObjectFramework.JdbcDatabaseConnection.JdbcDatabaseResultSetHandler;
+
+/**
+ * Load test class drives a mix of SELECT, INSERT INTO, UPDATE and DELETE query
+ * objects against one table of a JDBC connection, to reproduce production
+ * load and measure latencies under it.
+ *
+ * <example>
+ *  JdbcDatabaseConnection jdbcDbConn = new JdbcDatabaseConnection(driver, dbUrl, user, pass);
+ *  QueryObjectLoadTest loadTest = new QueryObjectLoadTest(jdbcDbConn, "Customers", "CustomerID",
+ *      Arrays.asList("CustomerName", "Country"));
+ *  loadTest.setOperationWeight(SqlQueryTypes.SELECT, 90);
+ *  loadTest.setOperationWeight(SqlQueryTypes.UPDATE, 10);
+ *  loadTest.setOperationWeight(SqlQueryTypes.INSERT, 0);
+ *  loadTest.setOperationWeight(SqlQueryTypes.DELETE, 0);
+ *  loadTest.setArrivalRate(2000);
+ *  loadTest.setRampUpMillis(10000);
+ *  loadTest.setDurationMillis(60000);
+ *  loadTest.setKeyDistribution(QueryObjectLoadTestKeyDistribution.ZIPFIAN, 100000);
+ *
+ *  QueryObjectLoadTestReport report = loadTest.run();
+ *  LOGGER.info(report.formatReport());
+ * </example>
+ *
+ * Each operation works on one row addressed by its key:
+ * - SELECT selects the key and value columns WHERE key column = key.
+ * - UPDATE sets the value columns WHERE key column = key.
+ * - INSERT INTO inserts a new key above the key range with its value columns.
+ * - DELETE deletes WHERE key column = key.
+ * Keys of SELECT, UPDATE and DELETE are drawn from 1 to the key range by the
+ * key distribution.
+ *
+ * The load is open-loop: operations are started at the arrival rate no matter
+ * how many are still running, like requests of independent users. During
+ * ramp-up the arrival rate rises linearly from 0 to the arrival rate, those
+ * operations warm the database and are not measured. When all workers are
+ * busy, started operations wait for a worker, and the wait counts in their
+ * response time, see QueryObjectLoadTestReport.
+ *
+ * Any JDBC connection can be loaded, including the in-memory database of
+ * JdbcDatabaseMemoryDriver to measure the overhead of the framework itself.
+ *
+ * NOTE: Operations are built in render only mode and executed through the JDBC
+ * connection, so failed INSERT INTO, UPDATE and DELETE statements are counted
+ * as failures. Statements are not routed to shards of a sharded connection.
+ *
+ * NOTE: The key range must be filled with rows before a run, SELECT, UPDATE and
+ * DELETE of missing rows succeed without touching any row.
+ *
+ * @author Bohui Axelsson
+ */
+public class QueryObjectLoadTest {
+	private static final Logger LOGGER = Logger.getLogger(QueryObjectLoadTest.class.getName());
+
+	/*
+	 * Operation types of the mix
+	 */
+	protected static final List<SqlQueryTypes> OPERATION_TYPES = Collections
+			.unmodifiableList(Arrays.asList(SqlQueryTypes.SELECT, SqlQueryTypes.INSERT, SqlQueryTypes.UPDATE,
+					SqlQueryTypes.DELETE));
+
+	private static final int DEFAULT_SELECT_WEIGHT = 70;
+	private static final int DEFAULT_INSERT_WEIGHT = 5;
+	private static final int DEFAULT_UPDATE_WEIGHT = 20;
+	private static final int DEFAULT_DELETE_WEIGHT = 5;
+	private static final double DEFAULT_ARRIVAL_RATE = 100.0;
+	private static final long DEFAULT_DURATION_MILLIS = 60000;
+	private static final long DEFAULT_DRAIN_TIMEOUT_MILLIS = 30000;
+	private static final int DEFAULT_MAX_WORKERS = 64;
+	private static final long DEFAULT_KEY_RANGE = 10000;
+	private static final double DEFAULT_ZIPFIAN_EXPONENT = 0.99;
+
+	/*
+	 * Reads all rows of SELECT results, a NULL return value of
+	 * JdbcDatabaseConnection.executeQueryObject() means a failed operation.
+	 */
+	private static final JdbcDatabaseResultSetHandler<Boolean> DRAIN_RESULT_SET_HANDLER =
+			new JdbcDatabaseResultSetHandler<Boolean>() {
+				@Override
+				public Boolean handleResultSet(ResultSet results) throws SQLException {
+					if (results != null) {
+						while (results.next()) {
+							results.getObject(1);
+						}
+					}
+					return Boolean.TRUE;
+				}
+			};
+
+	/**
+	 * Zipfian key generator by Gray et al., "Quickly Generating Billion-Record
+	 * Synthetic Databases", rank 0 is the most popular.
+	 */
+	private static final class ZipfianKeys {
+		private final long fKeyRange;
+		private final double fExponent;
+		private final double fZetaN;
+		private final double fAlpha;
+		private final double fEta;
+
+		private ZipfianKeys(long keyRange, double exponent) {
+			fKeyRange = keyRange;
+			fExponent = exponent;
+			double zetaN = 0;
+			for (long rank = 1; rank <= keyRange; rank++) {
+				zetaN += 1.0 / Math.pow(rank, exponent);
+			}
+			double zeta2 = 1.0 + 1.0 / Math.pow(2, exponent);
+			fZetaN = zetaN;
+			fAlpha = 1.0 / (1.0 - exponent);
+			fEta = (1.0 - Math.pow(2.0 / keyRange, 1.0 - exponent)) / (1.0 - zeta2 / zetaN);
+		}
+
+		private long nextRank(ThreadLocalRandom random) {
+			double uniform = random.nextDouble();
+			double uniformZeta = uniform * fZetaN;
+			if (uniformZeta < 1.0) {
+				return 0;
+			}
+			if (uniformZeta < 1.0 + Math.pow(0.5, fExponent)) {
+				return Math.min(1, fKeyRange - 1);
+			}
+			long rank = (long) (fKeyRange * Math.pow(fEta * uniform - fEta + 1.0, fAlpha));
+			return Math.min(Math.max(rank, 0), fKeyRange - 1);
+		}
+	}
+
+	private final @NonNull JdbcDatabaseConnection fJdbcDbConn;
+	private final @NonNull String fTableName;
+	private final @NonNull String fKeyColumn;
+	private final @NonNull List<String> fValueColumns = new ArrayList<>();
+	private final @NonNull Map<SqlQueryTypes, Integer> fOperationWeights = new EnumMap<>(SqlQueryTypes.class);
+	private double fArrivalRate = DEFAULT_ARRIVAL_RATE;
+	private long fRampUpMillis = 0;
+	private long fDurationMillis = DEFAULT_DURATION_MILLIS;
+	private long fDrainTimeoutMillis = DEFAULT_DRAIN_TIMEOUT_MILLIS;
+	private int fMaxWorkers = DEFAULT_MAX_WORKERS;
+	private @NonNull QueryObjectLoadTestKeyDistribution fKeyDistribution = QueryObjectLoadTestKeyDistribution.UNIFORM;
+	private long fKeyRange = DEFAULT_KEY_RANGE;
+	private double fZipfianExponent = DEFAULT_ZIPFIAN_EXPONENT;
+
+	/*
+	 * Key of the next INSERT INTO operation, above the key range
+	 */
+	private final @NonNull AtomicLong fNextInsertKey = new AtomicLong();
+	private ZipfianKeys fZipfianKeys = null;
+
+	/**
+	 * Create a load test of one table.
+	 *
+	 * @param jdbcDbConn
+	 * 			JDBC database connection
+	 * @param tableName
+	 * 			Table name
+	 * @param keyColumn
+	 * 			Key column with numeric keys, for example the primary key
+	 * @param valueColumns
+	 * 			Value columns selected, updated and inserted by operations, string
+	 * 			values are written to them.
+	 */
+	public QueryObjectLoadTest(@NonNull JdbcDatabaseConnection jdbcDbConn, @NonNull String tableName,
+			@NonNull String keyColumn, @NonNull List<String> valueColumns) {
+		fJdbcDbConn = jdbcDbConn;
+		fTableName = tableName;
+		fKeyColumn = keyColumn;
+		fValueColumns.addAll(valueColumns);
+		fOperationWeights.put(SqlQueryTypes.SELECT, DEFAULT_SELECT_WEIGHT);
+		fOperationWeights.put(SqlQueryTypes.INSERT, DEFAULT_INSERT_WEIGHT);
+		fOperationWeights.put(SqlQueryTypes.UPDATE, DEFAULT_UPDATE_WEIGHT);
+		fOperationWeights.put(SqlQueryTypes.DELETE, DEFAULT_DELETE_WEIGHT);
+	}
+
+	/**
+	 * Set relative weight of an operation type in the mix, the default mix is 70
+	 * SELECT, 5 INSERT, 20 UPDATE and 5 DELETE.
+	 *
+	 * @param operationType
+	 * 			SELECT, INSERT, UPDATE or DELETE
+	 * @param weight
+	 * 			Relative weight, 0 to leave the operation type out.
+	 * @return False if the operation type is not supported.
+	 */
+	public boolean setOperationWeight(@NonNull SqlQueryTypes operationType, int weight) {
+		if (!OPERATION_TYPES.contains(operationType)) {
+			LOGGER.severe("Failed to set operation weight, " + operationType.name()
+					+ " is not a SELECT, INSERT, UPDATE or DELETE operation.");
+			return false;
+		}
+		fOperationWeights.put(operationType, Math.max(0, weight));
+		return true;
+	}
+
+	/**
+	 * Set arrival rate of operations after ramp-up.
+	 *
+	 * @param operationsPerSecond
+	 * 			Started operations per second, 100 by default.
+	 */
+	public void setArrivalRate(double operationsPerSecond) {
+		fArrivalRate = operationsPerSecond;
+	}
+
+	/**
+	 * Set ramp-up time, the arrival rate rises linearly from 0 during ramp-up.
+	 *
+	 * @param rampUpMillis
+	 * 			Ramp-up time in milliseconds, 0 by default.
+	 */
+	public void setRampUpMillis(long rampUpMillis) {
+		fRampUpMillis = Math.max(0, rampUpMillis);
+	}
+
+	/**
+	 * Set measured time after ramp-up.
+	 *
+	 * @param durationMillis
+	 * 			Duration in milliseconds, 60000 by default.
+	 */
+	public void setDurationMillis(long durationMillis) {
+		fDurationMillis = durationMillis;
+	}
+
+	/**
+	 * Set time to wait for started operations after the last operation is
+	 * started, operations still waiting for a worker then are unfinished.
+	 *
+	 * @param drainTimeoutMillis
+	 * 			Drain timeout in milliseconds, 30000 by default.
+	 */
+	public void setDrainTimeoutMillis(long drainTimeoutMillis) {
+		fDrainTimeoutMillis = Math.max(0, drainTimeoutMillis);
+	}
+
+	/**
+	 * Set max amount of operations running at the same time, each runs on its
+	 * own worker thread.
+	 *
+	 * @param maxWorkers
+	 * 			Max workers, 64 by default.
+	 */
+	public void setMaxWorkers(int maxWorkers) {
+		fMaxWorkers = Math.max(1, maxWorkers);
+	}
+
+	/**
+	 * Set key distribution and key range of SELECT, UPDATE and DELETE
+	 * operations.
+	 *
+	 * @param keyDistribution
+	 * 			Key distribution, UNIFORM by default.
+	 * @param keyRange
+	 * 			Keys are drawn from 1 to keyRange, 10000 by default.
+	 */
+	public void setKeyDistribution(@NonNull QueryObjectLoadTestKeyDistribution keyDistribution, long keyRange) {
+		fKeyDistribution = keyDistribution;
+		fKeyRange = keyRange;
+	}
+
+	/**
+	 * Set exponent of the ZIPFIAN key distribution, higher exponents make the
+	 * most popular keys hotter.
+	 *
+	 * @param zipfianExponent
+	 * 			Exponent above 0 and below 1, 0.99 by default.
+	 */
+	public void setZipfianExponent(double zipfianExponent) {
+		fZipfianExponent = zipfianExponent;
+	}
+
+	/**
+	 * Run the load test, blocks for ramp-up, duration and draining of started
+	 * operations.
+	 *
+	 * @return Report of the run, or NULL if the load test is not configured
+	 *         correctly.
+	 */
+	public QueryObjectLoadTestReport run() {
+		if (!validateLoadTest()) {
+			return null;
+		}
+		final List<SqlQueryTypes> operationTypes = new ArrayList<>();
+		final List<Integer> cumulativeWeights = new ArrayList<>();
+		int totalWeight = 0;
+		for (SqlQueryTypes operationType : OPERATION_TYPES) {
+			int weight = fOperationWeights.get(operationType);
+			if (weight > 0) {
+				totalWeight += weight;
+				operationTypes.add(operationType);
+				cumulativeWeights.add(totalWeight);
+			}
+		}
+		fZipfianKeys = fKeyDistribution == QueryObjectLoadTestKeyDistribution.ZIPFIAN
+				? new ZipfianKeys(fKeyRange, fZipfianExponent) : null;
+		fNextInsertKey.set(fKeyRange + 1);
+
+		final QueryObjectLoadTestReport report = new QueryObjectLoadTestReport(fArrivalRate);
+		ExecutorService workers = Executors.newFixedThreadPool(fMaxWorkers, new ThreadFactory() {
+			private final AtomicInteger fThreadNumber = new AtomicInteger();
+
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "QueryObjectLoadTest-worker-" + fThreadNumber.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+
+		LOGGER.info("Load test of table " + fTableName + " starts at " + fArrivalRate + " ops/s, ramp-up "
+				+ fRampUpMillis + " ms, duration " + fDurationMillis + " ms.");
+		long startNanos = System.nanoTime();
+		final long rampUpEndNanos = startNanos + TimeUnit.MILLISECONDS.toNanos(fRampUpMillis);
+		long endNanos = rampUpEndNanos + TimeUnit.MILLISECONDS.toNanos(fDurationMillis);
+		for (long arrival = 0;; arrival++) {
+			final long intendedStartNanos = startNanos + intendedOffsetNanos(arrival);
+			if (intendedStartNanos >= endNanos) {
+				break;
+			}
+			long waitNanos = intendedStartNanos - System.nanoTime();
+			while (waitNanos > 0) {
+				LockSupport.parkNanos(waitNanos);
+				waitNanos = intendedStartNanos - System.nanoTime();
+			}
+
+			int pickedWeight = ThreadLocalRandom.current().nextInt(totalWeight);
+			int operationIndex = 0;
+			while (cumulativeWeights.get(operationIndex) <= pickedWeight) {
+				operationIndex++;
+			}
+			final SqlQueryTypes operationType = operationTypes.get(operationIndex);
+			final boolean measured = intendedStartNanos >= rampUpEndNanos;
+			if (measured) {
+				report.recordIssued(operationType);
+			} else {
+				report.recordRampUp();
+			}
+			workers.execute(new Runnable() {
+				@Override
+				public void run() {
+					long actualStartNanos = System.nanoTime();
+					boolean succeeded = executeOperation(operationType);
+					long operationEndNanos = System.nanoTime();
+					if (measured) {
+						report.recordEnded(operationType, succeeded, operationEndNanos - intendedStartNanos,
+								operationEndNanos - actualStartNanos);
+					}
+				}
+			});
+		}
+
+		workers.shutdown();
+		try {
+			if (!workers.awaitTermination(fDrainTimeoutMillis, TimeUnit.MILLISECONDS)) {
+				report.recordUnfinished(workers.shutdownNow().size());
+			}
+		} catch (InterruptedException interruptedException) {
+			Thread.currentThread().interrupt();
+			report.recordUnfinished(workers.shutdownNow().size());
+			LOGGER.severe("Failed to drain load test operations, waiting is interrupted.");
+		}
+		report.setMeasuredNanos(System.nanoTime() - rampUpEndNanos);
+		LOGGER.info("Load test of table " + fTableName + " has ended. " + System.lineSeparator()
+				+ report.formatReport());
+		return report;
+	}
+
+	/**
+	 * Get intended start time of an arrival, relative to the start of the run.
+	 * During ramp-up the arrival rate rises linearly, so arrival n starts at
+	 * sqrt(2 * rampUp * n / rate).
+	 *
+	 * @param arrival
+	 * 			Arrival number from 0
+	 * @return Offset in nanoseconds
+	 */
+	private long intendedOffsetNanos(long arrival) {
+		double rampUpSeconds = fRampUpMillis / 1000.0;
+		double rampUpArrivals = fArrivalRate * rampUpSeconds / 2.0;
+		double offsetSeconds;
+		if (arrival < rampUpArrivals) {
+			offsetSeconds = Math.sqrt(2.0 * rampUpSeconds * arrival / fArrivalRate);
+		} else {
+			offsetSeconds = rampUpSeconds + (arrival - rampUpArrivals) / fArrivalRate;
+		}
+		return (long) (offsetSeconds * 1e9);
+	}
+
+	/**
+	 * Build and execute one operation.
+	 *
+	 * @param operationType
+	 * 			SELECT, INSERT, UPDATE or DELETE
+	 * @return True if the operation succeeded.
+	 */
+	private boolean executeOperation(SqlQueryTypes operationType) {
+		List<String> tables = Arrays.asList(fTableName);
+		QueryObjectTableAbstract queryObject;
+		switch (operationType) {
+		case SELECT:
+			List<String> columns = new ArrayList<>();
+			columns.add(fKeyColumn);
+			columns.addAll(fValueColumns);
+			QueryObjectSelect select = new QueryObjectSelect(fJdbcDbConn, tables, columns, keyCriteria(nextKey()));
+			select.setRenderOnly(true);
+			select.selectColumnsWhereConditions(false);
+			queryObject = select;
+			break;
+		case INSERT:
+			long insertKey = fNextInsertKey.getAndIncrement();
+			List<QueryObjectTableColumnAndValue> insertItems = new ArrayList<>();
+			insertItems.add(new QueryObjectTableColumnAndValue(fKeyColumn, insertKey));
+			insertItems.addAll(columnValues(insertKey));
+			QueryObjectInsertInto insertInto = new QueryObjectInsertInto(fJdbcDbConn, tables, insertItems);
+			insertInto.setRenderOnly(true);
+			insertInto.insertIntoTableWithColumnsAndValues();
+			queryObject = insertInto;
+			break;
+		case UPDATE:
+			long updateKey = nextKey();
+			QueryObjectUpdate update = new QueryObjectUpdate(fJdbcDbConn, tables, keyCriteria(updateKey),
+					columnValues(updateKey));
+			update.setRenderOnly(true);
+			update.updateColumnsWithValuesWhereConditions();
+			queryObject = update;
+			break;
+		default:
+			QueryObjectDelete delete = new QueryObjectDelete(fJdbcDbConn, tables, keyCriteria(nextKey()));
+			delete.setRenderOnly(true);
+			delete.deleteColumnsWhereConditions(false);
+			queryObject = delete;
+			break;
+		}
+
+		String sql = queryObject.getRenderedSql();
+		if (sql == null) {
+			LOGGER.severe("Failed to build " + operationType.name() + " load test operation.");
+			return false;
+		}
+		return fJdbcDbConn.executeQueryObject(sql, queryObject.isIdempotent(), DRAIN_RESULT_SET_HANDLER) != null;
+	}
+
+	private long nextKey() {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		if (fZipfianKeys != null) {
+			return fZipfianKeys.nextRank(random) + 1;
+		}
+		return random.nextLong(fKeyRange) + 1;
+	}
+
+	private List<QueryObjectTableCriteriaCondition> keyCriteria(long key) {
+		List<QueryObjectTableCriteriaCondition> criteria = new ArrayList<>();
+		criteria.add(new QueryObjectTableCriteriaCondition(fKeyColumn, key, "=", ""));
+		return criteria;
+	}
+
+	private List<QueryObjectTableColumnAndValue> columnValues(long key) {
+		List<QueryObjectTableColumnAndValue> columnValues = new ArrayList<>();
+		for (String valueColumn : fValueColumns) {
+			columnValues.add(new QueryObjectTableColumnAndValue(valueColumn,
+					valueColumn + "-" + key + "-" + ThreadLocalRandom.current().nextInt(1000000)));
+		}
+		return columnValues;
+	}
+
+	private boolean validateLoadTest() {
+		int totalWeight = 0;
+		for (int weight : fOperationWeights.values()) {
+			totalWeight += weight;
+		}
+		if (totalWeight <= 0) {
+			LOGGER.severe("Failed to run load test, all operation weights are 0.");
+			return false;
+		}
+		if (fValueColumns.isEmpty() && fOperationWeights.get(SqlQueryTypes.UPDATE) > 0) {
+			LOGGER.severe("Failed to run load test, UPDATE operations need value columns.");
+			return false;
+		}
+		if (!(fArrivalRate > 0) || fDurationMillis <= 0) {
+			LOGGER.severe("Failed to run load test, arrival rate and duration must be above 0.");
+			return false;
+		}
+		if (fKeyRange <= 0) {
+			LOGGER.severe("Failed to run load test, key range must be above 0.");
+			return false;
+		}
+		if (fKeyDistribution == QueryObjectLoadTestKeyDistribution.ZIPFIAN
+				&& (!(fZipfianExponent > 0) || fZipfianExponent >= 1)) {
+			LOGGER.severe("Failed to run load test, Zipfian exponent must be above 0 and below 1.");
+			return false;
+		}
+		return true;
+	}
+}
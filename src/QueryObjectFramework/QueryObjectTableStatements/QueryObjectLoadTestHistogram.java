@@ -0,0 +1,187 @@
+package QueryObjectFramework.QueryObjectTableStatements;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.logging.Logger;
+
+import org.eclipse.jdt.annotation.NonNull;
+
+/**
+ * Latency histogram class of QueryObjectLoadTest, records latencies in
+ * microseconds from many threads without locking.
+ *
+ * Latencies below 64 microseconds have exact buckets, larger latencies have 32
+ * buckets per power of two, so a reported latency is at most about 3% above
+ * the recorded latency. Latencies above about 25 days are recorded in the
+ * last bucket.
+ *
+ * <example>
+ *  QueryObjectLoadTestHistogram histogram = report.getResponseTimeHistogram();
+ *  long p99Micros = histogram.getPercentileMicros(99.0);
+ *  LOGGER.info(histogram.formatPercentiles());
+ * </example>
+ *
+ * @author Bohui Axelsson
+ */
+public class QueryObjectLoadTestHistogram {
+	private static final Logger LOGGER = Logger.getLogger(QueryObjectLoadTestHistogram.class.getName());
+
+	private static final int EXACT_BUCKETS = 64;
+	private static final int SUB_BUCKETS = 32;
+	private static final int SUB_BUCKET_BITS = 5;
+	private static final int MAX_SHIFT = 35;
+	private static final int BUCKET_AMOUNT = EXACT_BUCKETS + MAX_SHIFT * SUB_BUCKETS;
+
+	/*
+	 * Percentiles of formatPercentiles()
+	 */
+	private static final double[] REPORTED_PERCENTILES = { 50.0, 90.0, 99.0, 99.9, 99.99 };
+
+	private final @NonNull AtomicLongArray fBuckets = new AtomicLongArray(BUCKET_AMOUNT);
+	private final @NonNull AtomicLong fCount = new AtomicLong();
+	private final @NonNull AtomicLong fTotalMicros = new AtomicLong();
+	private final @NonNull AtomicLong fMinMicros = new AtomicLong(Long.MAX_VALUE);
+	private final @NonNull AtomicLong fMaxMicros = new AtomicLong();
+
+	/**
+	 * Record a latency.
+	 *
+	 * @param latencyMicros
+	 * 			Latency in microseconds, negative latencies are recorded as 0.
+	 */
+	public void recordMicros(long latencyMicros) {
+		long micros = Math.max(0, latencyMicros);
+		fBuckets.incrementAndGet(bucketIndex(micros));
+		fCount.incrementAndGet();
+		fTotalMicros.addAndGet(micros);
+		long minMicros = fMinMicros.get();
+		while (micros < minMicros && !fMinMicros.compareAndSet(minMicros, micros)) {
+			minMicros = fMinMicros.get();
+		}
+		long maxMicros = fMaxMicros.get();
+		while (micros > maxMicros && !fMaxMicros.compareAndSet(maxMicros, micros)) {
+			maxMicros = fMaxMicros.get();
+		}
+	}
+
+	public long getCount() {
+		return fCount.get();
+	}
+
+	/**
+	 * Get lowest recorded latency.
+	 *
+	 * @return Latency in microseconds, or 0 if nothing is recorded.
+	 */
+	public long getMinMicros() {
+		return fCount.get() == 0 ? 0 : fMinMicros.get();
+	}
+
+	public long getMaxMicros() {
+		return fMaxMicros.get();
+	}
+
+	/**
+	 * Get mean of recorded latencies.
+	 *
+	 * @return Mean latency in microseconds, or 0 if nothing is recorded.
+	 */
+	public double getMeanMicros() {
+		long count = fCount.get();
+		return count == 0 ? 0 : (double) fTotalMicros.get() / count;
+	}
+
+	/**
+	 * Get the latency which the given percentage of recorded latencies does not
+	 * exceed.
+	 *
+	 * @param percentile
+	 * 			Percentile from 0 to 100, for example 99.9
+	 * @return Latency in microseconds, or 0 if nothing is recorded.
+	 */
+	public long getPercentileMicros(double percentile) {
+		long count = fCount.get();
+		if (count == 0) {
+			return 0;
+		}
+		double boundedPercentile = Math.min(100.0, Math.max(0.0, percentile));
+		long rank = Math.max(1, (long) Math.ceil(boundedPercentile / 100.0 * count));
+		long seen = 0;
+		for (int bucket = 0; bucket < BUCKET_AMOUNT; bucket++) {
+			seen += fBuckets.get(bucket);
+			if (seen >= rank) {
+				return Math.min(bucketHighestMicros(bucket), fMaxMicros.get());
+			}
+		}
+		return fMaxMicros.get();
+	}
+
+	/**
+	 * Format count, mean, percentiles and max, for example:
+	 *
+	 * <example>
+	 *  count=59880 mean=1.21ms p50=0.98ms p90=1.75ms p99=4.35ms p99.9=12.03ms p99.99=20.48ms max=21.09ms
+	 * </example>
+	 *
+	 * @return Formatted percentiles
+	 */
+	public @NonNull String formatPercentiles() {
+		StringBuilder percentiles = new StringBuilder();
+		percentiles.append("count=").append(getCount());
+		percentiles.append(" mean=").append(formatMillis(getMeanMicros()));
+		for (double percentile : REPORTED_PERCENTILES) {
+			String percentileName = percentile == Math.rint(percentile) ? String.valueOf((long) percentile)
+					: String.valueOf(percentile);
+			percentiles.append(" p").append(percentileName).append("=")
+					.append(formatMillis(getPercentileMicros(percentile)));
+		}
+		percentiles.append(" max=").append(formatMillis(getMaxMicros()));
+		return percentiles.toString();
+	}
+
+	/**
+	 * Format non-empty buckets, one line per bucket with its highest latency,
+	 * count and cumulative percentile.
+	 *
+	 * @return Formatted histogram
+	 */
+	public @NonNull String formatHistogram() {
+		StringBuilder histogram = new StringBuilder();
+		long count = fCount.get();
+		long seen = 0;
+		for (int bucket = 0; bucket < BUCKET_AMOUNT && count > 0; bucket++) {
+			long bucketCount = fBuckets.get(bucket);
+			if (bucketCount == 0) {
+				continue;
+			}
+			seen += bucketCount;
+			histogram.append(String.format("%12s %10d %9.4f%%%n", "<=" + formatMillis(bucketHighestMicros(bucket)),
+					bucketCount, 100.0 * seen / count));
+		}
+		return histogram.toString();
+	}
+
+	private static int bucketIndex(long micros) {
+		if (micros < EXACT_BUCKETS) {
+			return (int) micros;
+		}
+		int shift = 63 - Long.numberOfLeadingZeros(micros) - SUB_BUCKET_BITS;
+		if (shift > MAX_SHIFT) {
+			return BUCKET_AMOUNT - 1;
+		}
+		return EXACT_BUCKETS + (shift - 1) * SUB_BUCKETS + (int) ((micros >> shift) - SUB_BUCKETS);
+	}
+
+	private static long bucketHighestMicros(int bucket) {
+		if (bucket < EXACT_BUCKETS) {
+			return bucket;
+		}
+		int shift = (bucket - EXACT_BUCKETS) / SUB_BUCKETS + 1;
+		long mantissa = (bucket - EXACT_BUCKETS) % SUB_BUCKETS + SUB_BUCKETS;
+		return ((mantissa + 1) << shift) - 1;
+	}
+
+	private static String formatMillis(double micros) {
+		return String.format("%.2fms", micros / 1000.0);
+	}
+}
@@ -0,0 +1,16 @@
+package QueryObjectFramework.QueryObjectTableStatements;
+
+/**
+ * Enum class for key distributions of QueryObjectLoadTest.
+ *
+ * - UNIFORM picks every key of the key range equally often.
+ * - ZIPFIAN picks keys by popularity rank, key 1 is the most popular, key 2
+ *   is picked about half as often, and so on, like hot rows in production
+ *   tables. The skew is set by the Zipfian exponent of the load test.
+ *
+ * @author Bohui Axelsson
+ */
+public enum QueryObjectLoadTestKeyDistribution {
+	UNIFORM,
+	ZIPFIAN;
+}
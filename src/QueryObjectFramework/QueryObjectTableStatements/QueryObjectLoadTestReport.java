@@ -0,0 +1,261 @@
+package QueryObjectFramework.QueryObjectTableStatements;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+import org.eclipse.jdt.annotation.NonNull;
+
+import QueryObjectFramework.CommonClasses.SqlQueryTypes;
+
+/**
+ * Report class of a QueryObjectLoadTest run.
+ *
+ * Two latencies are recorded for each operation issued after ramp-up:
+ * - Response time is measured from the intended start time of the operation,
+ *   given by the arrival rate, until it has completed. Time spent waiting for
+ *   a free worker while the database falls behind is included, so the
+ *   histogram is not flattered by coordinated omission.
+ * - Service time is measured from the actual start of the operation, it shows
+ *   the latency a closed-loop benchmark would report.
+ *
+ * <example>
+ *  QueryObjectLoadTestReport report = loadTest.run();
+ *  LOGGER.info(report.formatReport());
+ *  long p99Micros = report.getResponseTimeHistogram(SqlQueryTypes.SELECT).getPercentileMicros(99.0);
+ * </example>
+ *
+ * NOTE: A large gap between response time and service time percentiles means
+ * the arrival rate is above the capacity of the database or of the workers.
+ *
+ * @author Bohui Axelsson
+ */
+public class QueryObjectLoadTestReport {
+	private static final Logger LOGGER = Logger.getLogger(QueryObjectLoadTestReport.class.getName());
+
+	/**
+	 * Measured counters and histograms of one operation type
+	 */
+	private static final class OperationResults {
+		private final @NonNull AtomicLong fIssued = new AtomicLong();
+		private final @NonNull AtomicLong fCompleted = new AtomicLong();
+		private final @NonNull AtomicLong fFailed = new AtomicLong();
+		private final @NonNull QueryObjectLoadTestHistogram fResponseTimes = new QueryObjectLoadTestHistogram();
+		private final @NonNull QueryObjectLoadTestHistogram fServiceTimes = new QueryObjectLoadTestHistogram();
+	}
+
+	private final @NonNull Map<SqlQueryTypes, OperationResults> fOperationResults = new EnumMap<>(SqlQueryTypes.class);
+	private final @NonNull OperationResults fTotalResults = new OperationResults();
+	private final double fTargetOperationsPerSecond;
+	private final @NonNull AtomicLong fRampUpOperations = new AtomicLong();
+	private final @NonNull AtomicLong fUnfinishedOperations = new AtomicLong();
+	private volatile long fMeasuredNanos = 0;
+
+	protected QueryObjectLoadTestReport(double targetOperationsPerSecond) {
+		fTargetOperationsPerSecond = targetOperationsPerSecond;
+		for (SqlQueryTypes operationType : QueryObjectLoadTest.OPERATION_TYPES) {
+			fOperationResults.put(operationType, new OperationResults());
+		}
+	}
+
+	/**
+	 * Get throughput of completed operations after ramp-up.
+	 *
+	 * @return Completed operations per second
+	 */
+	public double getThroughput() {
+		return fMeasuredNanos <= 0 ? 0 : fTotalResults.fCompleted.get() * 1e9 / fMeasuredNanos;
+	}
+
+	public double getTargetOperationsPerSecond() {
+		return fTargetOperationsPerSecond;
+	}
+
+	/**
+	 * Get time from the end of ramp-up until the last measured operation has
+	 * completed.
+	 *
+	 * @return Measured time in milliseconds
+	 */
+	public long getMeasuredMillis() {
+		return TimeUnit.NANOSECONDS.toMillis(fMeasuredNanos);
+	}
+
+	/**
+	 * Get amount of operations issued after ramp-up.
+	 *
+	 * @return Issued operation amount
+	 */
+	public long getIssuedAmount() {
+		return fTotalResults.fIssued.get();
+	}
+
+	public long getIssuedAmount(@NonNull SqlQueryTypes operationType) {
+		OperationResults operationResults = fOperationResults.get(operationType);
+		return operationResults == null ? 0 : operationResults.fIssued.get();
+	}
+
+	/**
+	 * Get amount of successful operations issued after ramp-up.
+	 *
+	 * @return Completed operation amount
+	 */
+	public long getCompletedAmount() {
+		return fTotalResults.fCompleted.get();
+	}
+
+	public long getCompletedAmount(@NonNull SqlQueryTypes operationType) {
+		OperationResults operationResults = fOperationResults.get(operationType);
+		return operationResults == null ? 0 : operationResults.fCompleted.get();
+	}
+
+	/**
+	 * Get amount of failed operations issued after ramp-up, including
+	 * operations rejected by admission control.
+	 *
+	 * @return Failed operation amount
+	 */
+	public long getFailedAmount() {
+		return fTotalResults.fFailed.get();
+	}
+
+	public long getFailedAmount(@NonNull SqlQueryTypes operationType) {
+		OperationResults operationResults = fOperationResults.get(operationType);
+		return operationResults == null ? 0 : operationResults.fFailed.get();
+	}
+
+	/**
+	 * Get amount of operations issued during ramp-up, they are not measured.
+	 *
+	 * @return Ramp-up operation amount
+	 */
+	public long getRampUpAmount() {
+		return fRampUpOperations.get();
+	}
+
+	/**
+	 * Get amount of operations which were still waiting for a worker when the
+	 * drain timeout ended the run.
+	 *
+	 * @return Unfinished operation amount
+	 */
+	public long getUnfinishedAmount() {
+		return fUnfinishedOperations.get();
+	}
+
+	/**
+	 * Get response times of all successful operations, measured from their
+	 * intended start times.
+	 *
+	 * @return Response time histogram
+	 */
+	public @NonNull QueryObjectLoadTestHistogram getResponseTimeHistogram() {
+		return fTotalResults.fResponseTimes;
+	}
+
+	public QueryObjectLoadTestHistogram getResponseTimeHistogram(@NonNull SqlQueryTypes operationType) {
+		OperationResults operationResults = fOperationResults.get(operationType);
+		return operationResults == null ? null : operationResults.fResponseTimes;
+	}
+
+	/**
+	 * Get service times of all successful operations, measured from their
+	 * actual start times.
+	 *
+	 * @return Service time histogram
+	 */
+	public @NonNull QueryObjectLoadTestHistogram getServiceTimeHistogram() {
+		return fTotalResults.fServiceTimes;
+	}
+
+	public QueryObjectLoadTestHistogram getServiceTimeHistogram(@NonNull SqlQueryTypes operationType) {
+		OperationResults operationResults = fOperationResults.get(operationType);
+		return operationResults == null ? null : operationResults.fServiceTimes;
+	}
+
+	/**
+	 * Format throughput, counters and latency percentiles of each operation
+	 * type, followed by the response time histogram of all operations.
+	 *
+	 * @return Formatted report
+	 */
+	public @NonNull String formatReport() {
+		StringBuilder report = new StringBuilder();
+		report.append(String.format("Throughput %.1f ops/s of target %.1f ops/s over %d ms, %d issued, %d completed,"
+				+ " %d failed, %d unfinished, %d ramp-up.%n", getThroughput(), fTargetOperationsPerSecond,
+				getMeasuredMillis(), getIssuedAmount(), getCompletedAmount(), getFailedAmount(), getUnfinishedAmount(),
+				getRampUpAmount()));
+		for (Map.Entry<SqlQueryTypes, OperationResults> operationResults : fOperationResults.entrySet()) {
+			OperationResults results = operationResults.getValue();
+			if (results.fIssued.get() == 0) {
+				continue;
+			}
+			report.append(String.format("%-6s issued=%d failed=%d%n", operationResults.getKey().name(),
+					results.fIssued.get(), results.fFailed.get()));
+			report.append("  response ").append(results.fResponseTimes.formatPercentiles()).append(System.lineSeparator());
+			report.append("  service  ").append(results.fServiceTimes.formatPercentiles()).append(System.lineSeparator());
+		}
+		report.append("Response time histogram:").append(System.lineSeparator());
+		report.append(fTotalResults.fResponseTimes.formatHistogram());
+		return report.toString();
+	}
+
+	/**
+	 * Record an operation issued after ramp-up.
+	 *
+	 * @param operationType
+	 * 			SELECT, INSERT, UPDATE or DELETE
+	 */
+	protected void recordIssued(@NonNull SqlQueryTypes operationType) {
+		fOperationResults.get(operationType).fIssued.incrementAndGet();
+		fTotalResults.fIssued.incrementAndGet();
+	}
+
+	/**
+	 * Record an operation issued after ramp-up which has ended.
+	 *
+	 * @param operationType
+	 * 			SELECT, INSERT, UPDATE or DELETE
+	 * @param succeeded
+	 * 			False if the operation failed, failed operations are not added to
+	 * 			the histograms.
+	 * @param responseNanos
+	 * 			Time from the intended start until the end of the operation
+	 * @param serviceNanos
+	 * 			Time from the actual start until the end of the operation
+	 */
+	protected void recordEnded(@NonNull SqlQueryTypes operationType, boolean succeeded, long responseNanos,
+			long serviceNanos) {
+		OperationResults operationResults = fOperationResults.get(operationType);
+		if (!succeeded) {
+			operationResults.fFailed.incrementAndGet();
+			fTotalResults.fFailed.incrementAndGet();
+			return;
+		}
+		long responseMicros = TimeUnit.NANOSECONDS.toMicros(responseNanos);
+		long serviceMicros = TimeUnit.NANOSECONDS.toMicros(serviceNanos);
+		operationResults.fCompleted.incrementAndGet();
+		operationResults.fResponseTimes.recordMicros(responseMicros);
+		operationResults.fServiceTimes.recordMicros(serviceMicros);
+		fTotalResults.fCompleted.incrementAndGet();
+		fTotalResults.fResponseTimes.recordMicros(responseMicros);
+		fTotalResults.fServiceTimes.recordMicros(serviceMicros);
+	}
+
+	protected void recordRampUp() {
+		fRampUpOperations.incrementAndGet();
+	}
+
+	protected void recordUnfinished(long unfinishedAmount) {
+		if (unfinishedAmount > 0) {
+			LOGGER.warning(unfinishedAmount + " load test operations are unfinished after the drain timeout.");
+		}
+		fUnfinishedOperations.addAndGet(unfinishedAmount);
+	}
+
+	protected void setMeasuredNanos(long measuredNanos) {
+		fMeasuredNanos = Math.max(0, measuredNanos);
+	}
+}
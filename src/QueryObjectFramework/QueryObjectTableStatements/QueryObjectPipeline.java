@@ -0,0 +1,141 @@
+package QueryObjectFramework.QueryObjectTableStatements;
+
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+import org.eclipse.jdt.annotation.NonNull;
+
+import QueryObjectFramework.JdbcDatabaseConnection.JdbcDatabaseConnection;
+
+/**
+ * Pipeline class executes statements of several query objects in one round
+ * trip, instead of one round trip per query object.
+ *
+ * Query objects are added after building their statement in render only
+ * mode, each add returns the position of its results:
+ *
+ * <example>
+ *  QueryObjectPipeline pipeline = new QueryObjectPipeline(jdbcDbConn);
+ *  customerSelect.setRenderOnly(true);
+ *  customerSelect.selectColumnsWhereConditions(false);
+ *  int customerIndex = pipeline.addQueryObject(customerSelect);
+ *  orderSelect.setRenderOnly(true);
+ *  orderSelect.selectColumnsWhereConditionsOrderByColumns(false);
+ *  int orderIndex = pipeline.addQueryObject(orderSelect);
+ *
+ *  if (pipeline.executePipeline()) {
+ *      ResultSet customer = pipeline.getResults(customerIndex);
+ *      ResultSet orders = pipeline.getResults(orderIndex);
+ *  }
+ * </example>
+ *
+ * The statements are sent as one multi-statement request if the database URL
+ * enables them, for MYSQL Connector/J with allowMultiQueries=true:
+ *
+ * <example>
+ *  jdbc:mysql://localhost:3306/shop?allowMultiQueries=true
+ * </example>
+ *
+ * Without multi-statement requests the statements are executed one after
+ * another on one connection, see
+ * JdbcDatabaseConnection.executePipelinedQueryObjects().
+ *
+ * NOTE: Statements of a pipeline are not executed in one transaction, a
+ * failed statement stops the statements after it.
+ *
+ * NOTE: Multi-statement requests must only contain statements built by the
+ * framework, never SQL strings built from user input.
+ *
+ * @author Bohui Axelsson
+ */
+public class QueryObjectPipeline {
+	private static final Logger LOGGER = Logger.getLogger(QueryObjectPipeline.class.getName());
+
+	private final @NonNull JdbcDatabaseConnection fJdbcDbConn;
+	private final @NonNull List<String> fPipelineSqls = new ArrayList<>();
+	private boolean fIdempotent = true;
+	private List<ResultSet> fPipelineResults = null;
+
+	/**
+	 * Create an empty pipeline.
+	 *
+	 * @param jdbcDbConn
+	 * 			JDBC database connection
+	 */
+	public QueryObjectPipeline(@NonNull JdbcDatabaseConnection jdbcDbConn) {
+		fJdbcDbConn = jdbcDbConn;
+	}
+
+	/**
+	 * Add the statement last built by a query object in render only mode.
+	 *
+	 * @param renderedQueryObject
+	 * 			Query object, see QueryObjectTableAbstract.setRenderOnly().
+	 * @return Results index for getResults(), or -1 if the query object has no
+	 *         built statement.
+	 */
+	public int addQueryObject(@NonNull QueryObjectTableAbstract renderedQueryObject) {
+		String sql = renderedQueryObject.getRenderedSql();
+		if (sql == null) {
+			LOGGER.severe("Failed to add query object to pipeline, no statement is built. Build the statement in render"
+					+ " only mode first.");
+			return -1;
+		}
+		fIdempotent &= renderedQueryObject.isIdempotent();
+		fPipelineSqls.add(sql);
+		fPipelineResults = null;
+		return fPipelineSqls.size() - 1;
+	}
+
+	/**
+	 * Get amount of statements in the pipeline.
+	 *
+	 * @return Statement amount
+	 */
+	public int getStatementAmount() {
+		return fPipelineSqls.size();
+	}
+
+	/**
+	 * Execute all statements of the pipeline.
+	 *
+	 * The pipeline is retried on transient errors if all added query objects
+	 * are idempotent, see QueryObjectTableAbstract.isIdempotent().
+	 *
+	 * @return True if all statements succeeded.
+	 */
+	public boolean executePipeline() {
+		fPipelineResults = fJdbcDbConn.executePipelinedQueryObjects(fPipelineSqls, fIdempotent);
+		if (fPipelineResults == null) {
+			LOGGER.severe("Failed to execute pipeline of " + fPipelineSqls.size() + " statements.");
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Get results of one statement of the executed pipeline.
+	 *
+	 * @param resultsIndex
+	 * 			Results index returned by addQueryObject()
+	 * @return ResultSet SQL execution results, or NULL if the statement returns
+	 *         no results or the pipeline has not been executed successfully.
+	 */
+	public ResultSet getResults(int resultsIndex) {
+		if (fPipelineResults == null || resultsIndex < 0 || resultsIndex >= fPipelineResults.size()) {
+			return null;
+		}
+		return fPipelineResults.get(resultsIndex);
+	}
+
+	/**
+	 * Remove all statements and results, the pipeline can be reused.
+	 */
+	public void clear() {
+		fPipelineSqls.clear();
+		fPipelineResults = null;
+		fIdempotent = true;
+	}
+}
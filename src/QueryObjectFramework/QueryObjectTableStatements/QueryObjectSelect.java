@@ -1,8 +1,22 @@
 package QueryObjectFramework.QueryObjectTableStatements;
 
 import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Logger;
 
 import org.eclipse.jdt.annotation.NonNull;
@@ -10,6 +24,8 @@ import org.eclipse.jdt.annotation.NonNull;
 import QueryObjectFramework.CommonClasses.SqlQueryTypes;
 import QueryObjectFramework.CommonClasses.SqlStatementStrings;
 import QueryObjectFramework.JdbcDatabaseConnection.JdbcDatabaseConnection;
+import QueryObjectFramework.JdbcDatabaseConnection.JdbcDatabaseDeadline;
+import QueryObjectFramework.QueryObjectDBTableStatements.QueryObjectDBTableIndexAdvisor;
 
 /**
  * Query object class for Select statement.
@@ -19,11 +35,55 @@ import QueryObjectFramework.JdbcDatabaseConnection.JdbcDatabaseConnection;
 public class QueryObjectSelect extends QueryObjectTableAbstract {
 	private static final Logger LOGGER = Logger.getLogger(QueryObjectSelect.class.getName());
 
+	private static final int DEFAULT_IN_LIST_CHUNK_SIZE = 1000;
+	private static final int DEFAULT_MULTI_GET_PARALLELISM = 4;
+
+	/*
+	 * Shared executor of IN list chunks, threads are created on demand because
+	 * JDBC executions block.
+	 */
+	private static final ExecutorService MULTI_GET_EXECUTOR = Executors.newCachedThreadPool(new ThreadFactory() {
+		private final AtomicInteger fThreadNumber = new AtomicInteger();
+
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, "QueryObjectSelect-multiget-" + fThreadNumber.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	});
+
 	/*
 	 * Select SQL statement specific operation settings
 	 */
 	private final @NonNull List<QueryObjectTableJoinType> fJoinTypes = new ArrayList<>();
 	private final @NonNull List<QueryObjectTableOrderBy> fOrderByLists = new ArrayList<>();
+
+	/*
+	 * Multi get settings
+	 */
+	private int fInListChunkSize = DEFAULT_IN_LIST_CHUNK_SIZE;
+	private int fMultiGetParallelism = DEFAULT_MULTI_GET_PARALLELISM;
+
+	/*
+	 * Optimizer settings, lower case table name -> index hints of the table
+	 */
+	private final @NonNull Map<String, List<String>> fIndexHints = new HashMap<>();
+	private final @NonNull List<String> fOptimizerHints = new ArrayList<>();
+	private boolean fStraightJoin = false;
+
+	/*
+	 * Maximum amount of selected rows, -1 is no limit
+	 */
+	private int fRowLimit = -1;
+
+	/*
+	 * True if the last criteria condition is the IN list of a key chunk of
+	 * selectColumnsWhereKeysIn(), the criteria conditions before it are then
+	 * rendered in parentheses.
+	 */
+	private boolean fKeyChunkSelect = false;
+
 	/**
 	 * Create a SELECT query object with only JDBC connection.
 	 *
@@ -170,6 +230,222 @@ public class QueryObjectSelect extends QueryObjectTableAbstract {
 
 	}
 
+	/**
+	 * Add an index hint to a table of this query object, hints of a table are
+	 * kept in adding order.
+	 *
+	 * <example>
+	 *  SELECT Orders.OrderID, Customers.CustomerName
+	 *  FROM (Orders FORCE INDEX (IDX_Orders) INNER JOIN Customers ON ...);
+	 * </example>
+	 *
+	 * NOTE: Index names are validated against the schema metadata cache if it is
+	 * enabled, MYSQL rejects statements with unknown index names.
+	 *
+	 * @param tableName
+	 * 			Table name of this query object
+	 * @param indexHintType
+	 * 			USE, FORCE or IGNORE INDEX
+	 * @param indexNames
+	 * 			Index names, PRIMARY for the primary key. Empty USE INDEX tells
+	 * 			the optimizer to use no index.
+	 * @return True if the index hint is added.
+	 */
+	public boolean addIndexHint(@NonNull String tableName, @NonNull QueryObjectTableIndexHintType indexHintType,
+			@NonNull List<String> indexNames) {
+		String hintedTable = null;
+		for (String table : fTables) {
+			if (table.trim().equalsIgnoreCase(tableName.trim())) {
+				hintedTable = table.trim();
+			}
+		}
+		if (hintedTable == null) {
+			LOGGER.severe("Failed to add index hint, table " + tableName + " is not selected.");
+			return false;
+		}
+		if (indexNames.isEmpty() && indexHintType != QueryObjectTableIndexHintType.USE_INDEX) {
+			LOGGER.severe("Failed to add index hint, index names are missing.");
+			return false;
+		}
+		if (fJdbcDbConn.getSchemaCache() != null) {
+			Map<String, List<String>> tableIndexes = fJdbcDbConn.getTableIndexes(hintedTable);
+			for (String indexName : indexNames) {
+				if (!containsIgnoreCase(tableIndexes.keySet(), indexName.trim())) {
+					LOGGER.severe("Failed to add index hint, index " + indexName + " does not exist in table "
+							+ hintedTable + ".");
+					return false;
+				}
+			}
+		}
+
+		StringBuilder indexHint = new StringBuilder(indexHintType.sqlIndexHintType() + " (");
+		for (String indexName : indexNames) {
+			indexHint.append(indexName.trim() + ",");
+		}
+		if (!indexNames.isEmpty()) {
+			indexHint.deleteCharAt(indexHint.length() - 1);
+		}
+		indexHint.append(")");
+
+		String tableKey = hintedTable.toLowerCase(Locale.ROOT);
+		List<String> tableIndexHints = fIndexHints.get(tableKey);
+		if (tableIndexHints == null) {
+			tableIndexHints = new ArrayList<>();
+			fIndexHints.put(tableKey, tableIndexHints);
+		}
+		tableIndexHints.add(indexHint.toString());
+		return true;
+	}
+
+	private static boolean containsIgnoreCase(Collection<String> names, String name) {
+		for (String candidate : names) {
+			if (candidate.equalsIgnoreCase(name)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Join tables in the order of the table list, instead of the order chosen by
+	 * the optimizer.
+	 *
+	 * <example>
+	 *  SELECT STRAIGHT_JOIN column1, column2, .. FROM ((table1 INNER JOIN table2 ON ..) ..);
+	 * </example>
+	 *
+	 * @param straightJoin
+	 * 			True to add STRAIGHT_JOIN to SELECT statements.
+	 */
+	public void setStraightJoin(boolean straightJoin) {
+		fStraightJoin = straightJoin;
+	}
+
+	/**
+	 * Limit amount of rows selected by selectColumns(),
+	 * selectColumnsWhereConditions() and the ORDER BY selections, setting -1
+	 * removes the limit.
+	 *
+	 * <example>
+	 *  SELECT column1, column2, .. FROM table_name ORDER BY column1 ASC LIMIT 500;
+	 * </example>
+	 *
+	 * TIP: Combine a limit with ORDER BY columns and WHERE criteria conditions
+	 * on the last selected ORDER BY values to page through large tables by
+	 * keyset, without OFFSET.
+	 *
+	 * @param rowLimit
+	 * 			Maximum amount of selected rows
+	 */
+	public void setRowLimit(int rowLimit) {
+		fRowLimit = rowLimit < 0 ? -1 : rowLimit;
+	}
+
+	/**
+	 * Add an optimizer hint to SELECT statements of this query object, hints are
+	 * rendered in one hint comment after SELECT.
+	 *
+	 * <example>
+	 *  select.addOptimizerHint("SET_VAR(optimizer_switch = 'mrr_cost_based=off')");
+	 *  select.addOptimizerHint("JOIN_ORDER(Orders, Customers)");
+	 *
+	 *  SELECT /*+ SET_VAR(optimizer_switch = 'mrr_cost_based=off') JOIN_ORDER(Orders, Customers) *&#47; ...
+	 * </example>
+	 *
+	 * NOTE: MYSQL ignores unknown or invalid hints with a warning, instead of
+	 * failing the statement.
+	 *
+	 * @param optimizerHint
+	 * 			Optimizer hint, for example MAX_EXECUTION_TIME(1000).
+	 * @return True if the hint is added.
+	 */
+	public boolean addOptimizerHint(@NonNull String optimizerHint) {
+		String hint = optimizerHint.trim();
+		if (hint.isEmpty() || hint.contains(SqlStatementStrings.SQL_TABLE_OPTIMIZER_HINT_END)) {
+			LOGGER.severe("Failed to add optimizer hint, hint is empty or ends the hint comment: " + optimizerHint);
+			return false;
+		}
+		fOptimizerHints.add(hint);
+		return true;
+	}
+
+	/**
+	 * Limit execution time of SELECT statements of this query object on the
+	 * database server, with the MAX_EXECUTION_TIME optimizer hint.
+	 *
+	 * @param maxExecutionTimeMillis
+	 * 			Max execution time in milliseconds
+	 */
+	public void setMaxExecutionTimeMillis(long maxExecutionTimeMillis) {
+		addOptimizerHint("MAX_EXECUTION_TIME(" + Math.max(1, maxExecutionTimeMillis) + ")");
+	}
+
+	/**
+	 * Build SELECT keyword with optimizer hint comment and select modifiers.
+	 *
+	 * <example>
+	 *  SELECT /*+ hint1 hint2 *&#47; <DISTINCT> <STRAIGHT_JOIN>
+	 * </example>
+	 *
+	 * @param distinctSelection
+	 * 			True if only select distinct lines
+	 * @return SQL SELECT keyword string
+	 */
+	private String buildSqlSelectKeywords(boolean distinctSelection) {
+		StringBuilder selectKeywords = new StringBuilder(fQueryObjectType.sqlQueryType());
+		if (!fOptimizerHints.isEmpty()) {
+			selectKeywords.append(" " + SqlStatementStrings.SQL_TABLE_OPTIMIZER_HINT_START);
+			for (String optimizerHint : fOptimizerHints) {
+				selectKeywords.append(" " + optimizerHint);
+			}
+			selectKeywords.append(" " + SqlStatementStrings.SQL_TABLE_OPTIMIZER_HINT_END);
+		}
+		if (distinctSelection) {
+			selectKeywords.append(" " + SqlStatementStrings.SQL_TABLE_DISTINCT);
+		}
+		if (fStraightJoin) {
+			selectKeywords.append(" " + SqlStatementStrings.SQL_TABLE_STRAIGHT_JOIN);
+		}
+		return selectKeywords.toString();
+	}
+
+	/**
+	 * Build LIMIT clause if a row limit is set.
+	 *
+	 * @return SQL LIMIT string with leading space, or empty string without
+	 * 			row limit.
+	 */
+	private String buildSqlLimitClause() {
+		if (fRowLimit < 0) {
+			return "";
+		}
+		return " " + SqlStatementStrings.SQL_TABLE_LIMIT + " " + fRowLimit;
+	}
+
+	/**
+	 * Build table reference with index hints of the table.
+	 *
+	 * <example>
+	 *  table_name USE INDEX (index1,index2) IGNORE INDEX (index3)
+	 * </example>
+	 *
+	 * @param tableIndex
+	 * 			Index of the table in fTables
+	 * @return SQL table reference string
+	 */
+	private String buildSqlTableReference(int tableIndex) {
+		String table = fTables.get(tableIndex);
+		List<String> tableIndexHints = fIndexHints.get(table.trim().toLowerCase(Locale.ROOT));
+		if (tableIndexHints == null) {
+			return table;
+		}
+		StringBuilder tableReference = new StringBuilder(table);
+		for (String indexHint : tableIndexHints) {
+			tableReference.append(" " + indexHint);
+		}
+		return tableReference.toString();
+	}
+
 	/**
 	 * Select specific columns from the initialized table.
 	 *
@@ -192,20 +468,22 @@ public class QueryObjectSelect extends QueryObjectTableAbstract {
 
 		String sql = null;
 		if (distinctSelection) {
-			sql = fQueryObjectType.sqlQueryType() + " " + SqlStatementStrings.SQL_TABLE_DISTINCT + " "
-					+ buildSqlColumnsString() + " " + SqlStatementStrings.SQL_TABLE_FROM + " " + fTables.get(0) + ";";
+			sql = buildSqlSelectKeywords(true) + " "
+					+ buildSqlColumnsString() + " " + SqlStatementStrings.SQL_TABLE_FROM + " " + buildSqlTableReference(0)
+					+ buildSqlLimitClause() + ";";
 		} else {
-			sql = fQueryObjectType.sqlQueryType() + " " + buildSqlColumnsString() + " "
-					+ SqlStatementStrings.SQL_TABLE_FROM + " " + fTables.get(0) + ";";
+			sql = buildSqlSelectKeywords(false) + " " + buildSqlColumnsString() + " "
+					+ SqlStatementStrings.SQL_TABLE_FROM + " " + buildSqlTableReference(0) + buildSqlLimitClause() + ";";
 		}
-		return fJdbcDbConn.executeQueryObject(sql);
+		return executeQueryObject(sql);
 	}
 
 	/**
 	 * Check fTables is not empty, and update fColumns with '*' if iColumns is
-	 * empty.
+	 * empty. Table, column and criteria names are validated against schema
+	 * metadata cache if it is enabled.
 	 *
-	 * @return True if fTables is not empty.
+	 * @return True if fTables is not empty and all names are valid.
 	 */
 	private boolean validateEmptyTableAndUpdateEmptyColumn() {
 		if (fTables.isEmpty()) {
@@ -219,7 +497,14 @@ public class QueryObjectSelect extends QueryObjectTableAbstract {
 		if (fColumns.isEmpty()) {
 			fColumns.add("*");
 		}
-		return true;
+
+		List<String> columnNames = new ArrayList<>(fColumns);
+		for (QueryObjectTableOrderBy orderBy : fOrderByLists) {
+			if (orderBy != null) {
+				columnNames.add(orderBy.getOrderByColumn());
+			}
+		}
+		return validateSchemaNames(columnNames, fCriteriaConditions);
 	}
 
 	/**
@@ -264,17 +549,19 @@ public class QueryObjectSelect extends QueryObjectTableAbstract {
 			return null;
 		}
 
+		recordIndexAdvisorColumnUsage(fCriteriaConditions, new ArrayList<QueryObjectTableOrderBy>());
+
 		String sql = null;
 		if (distinctSelection) {
-			sql = fQueryObjectType.sqlQueryType() + " " + SqlStatementStrings.SQL_TABLE_DISTINCT + " "
-					+ buildSqlColumnsString() + " " + SqlStatementStrings.SQL_TABLE_FROM + " " + fTables.get(0)
-					+ SqlStatementStrings.SQL_TABLE_WHERE + " " + buildSqlWhereClause() + ";";
+			sql = buildSqlSelectKeywords(true) + " "
+					+ buildSqlColumnsString() + " " + SqlStatementStrings.SQL_TABLE_FROM + " " + buildSqlTableReference(0) + " "
+					+ SqlStatementStrings.SQL_TABLE_WHERE + " " + buildSqlWhereClause() + buildSqlLimitClause() + ";";
 		} else {
-			sql = fQueryObjectType.sqlQueryType() + " " + buildSqlColumnsString() + " "
-					+ SqlStatementStrings.SQL_TABLE_FROM + " " + fTables.get(0) + SqlStatementStrings.SQL_TABLE_WHERE + " "
-					+ buildSqlWhereClause() + ";";
+			sql = buildSqlSelectKeywords(false) + " " + buildSqlColumnsString() + " "
+					+ SqlStatementStrings.SQL_TABLE_FROM + " " + buildSqlTableReference(0) + " " + SqlStatementStrings.SQL_TABLE_WHERE + " "
+					+ buildSqlWhereClause() + buildSqlLimitClause() + ";";
 		}
-		return fJdbcDbConn.executeQueryObject(sql);
+		return executeQueryObject(sql, fCriteriaConditions);
 	}
 
 	/**
@@ -301,8 +588,18 @@ public class QueryObjectSelect extends QueryObjectTableAbstract {
 	 */
 	private String buildSqlWhereClause() {
 		StringBuilder whereClause = new StringBuilder();
+		if (fKeyChunkSelect && fCriteriaConditions.size() > 1) {
+			whereClause.append("(");
+		}
 		for (QueryObjectTableCriteriaCondition sqlCriteria : fCriteriaConditions) {
-			if ((sqlCriteria.isStringCriteriaValue())
+			if (fKeyChunkSelect && fCriteriaConditions.size() > 1
+					&& sqlCriteria == fCriteriaConditions.get(fCriteriaConditions.size() - 1)) {
+				whereClause.append(") ");
+			}
+			if (isListCriteriaValue(sqlCriteria)) {
+				whereClause.append(sqlCriteria.getConditionOperator() + " " + sqlCriteria.getFiled()
+						+ sqlCriteria.getOperator() + buildSqlCriteriaValueList(sqlCriteria) + " ");
+			} else if (isQuotedCriteriaValue(sqlCriteria)
 					&& !sqlCriteria.getValue().equals("")) {
 				whereClause.append(sqlCriteria.getConditionOperator() + " " + sqlCriteria.getFiled()
 						+ sqlCriteria.getOperator() + "'" + sqlCriteria.getValue() + "' ");
@@ -314,6 +611,42 @@ public class QueryObjectSelect extends QueryObjectTableAbstract {
 		return whereClause.toString();
 	}
 
+	/**
+	 * Build this query object as subquery of a criteria condition of another
+	 * query object.
+	 *
+	 * The statement last built by this query object is used, for example by
+	 * selectAndMaxColumns() in render only mode. If no statement has been built,
+	 * selectColumnsWhereConditions() or selectColumns() without WHERE criteria
+	 * conditions is built.
+	 *
+	 * <example>
+	 *  SELECT CustomerID FROM Orders WHERE Amount>100
+	 * </example>
+	 *
+	 * @return SQL string without terminating ';', or NULL if the statement can
+	 *         not be built.
+	 */
+	protected String buildSqlSubquery() {
+		String sql = getRenderedSql();
+		if (sql == null) {
+			boolean renderOnly = isRenderOnly();
+			setRenderOnly(true);
+			if (fCriteriaConditions.isEmpty()) {
+				selectColumns(false);
+			} else {
+				selectColumnsWhereConditions(false);
+			}
+			setRenderOnly(renderOnly);
+			sql = getRenderedSql();
+		}
+		if (sql == null) {
+			return null;
+		}
+		sql = sql.trim();
+		return sql.endsWith(";") ? sql.substring(0, sql.length() - 1).trim() : sql;
+	}
+
 	/**
 	 * Select and COUNT specific column from the initialized table.
 	 *
@@ -332,9 +665,9 @@ public class QueryObjectSelect extends QueryObjectTableAbstract {
 			return null;
 		}
 
-		String sql = fQueryObjectType.sqlQueryType() + " " + SqlStatementStrings.SQL_TABLE_COUNT + "("
-				+ fColumns.get(0) + ") " + SqlStatementStrings.SQL_TABLE_FROM + " " + fTables.get(0) + ";";
-		return fJdbcDbConn.executeQueryObject(sql);
+		String sql = buildSqlSelectKeywords(false) + " " + SqlStatementStrings.SQL_TABLE_COUNT + "("
+				+ fColumns.get(0) + ") " + SqlStatementStrings.SQL_TABLE_FROM + " " + buildSqlTableReference(0) + ";";
+		return executeQueryObject(sql);
 	}
 
 	/**
@@ -366,18 +699,20 @@ public class QueryObjectSelect extends QueryObjectTableAbstract {
 			return null;
 		}
 
+		recordIndexAdvisorColumnUsage(fCriteriaConditions, new ArrayList<QueryObjectTableOrderBy>());
+
 		String sql = null;
 		if (distinctSelection) {
-			sql = fQueryObjectType.sqlQueryType() + " " + SqlStatementStrings.SQL_TABLE_COUNT + "("
+			sql = buildSqlSelectKeywords(false) + " " + SqlStatementStrings.SQL_TABLE_COUNT + "("
 					+ SqlStatementStrings.SQL_TABLE_DISTINCT + " " + fColumns.get(0) + ") "
-					+ SqlStatementStrings.SQL_TABLE_FROM + " " + fTables.get(0) + SqlStatementStrings.SQL_TABLE_WHERE + " "
+					+ SqlStatementStrings.SQL_TABLE_FROM + " " + buildSqlTableReference(0) + " " + SqlStatementStrings.SQL_TABLE_WHERE + " "
 					+ buildSqlWhereClause() + ";";
 		} else {
-			sql = fQueryObjectType.sqlQueryType() + " " + SqlStatementStrings.SQL_TABLE_COUNT + "("
-					+ fColumns.get(0) + ") " + SqlStatementStrings.SQL_TABLE_FROM + " " + fTables.get(0)
+			sql = buildSqlSelectKeywords(false) + " " + SqlStatementStrings.SQL_TABLE_COUNT + "("
+					+ fColumns.get(0) + ") " + SqlStatementStrings.SQL_TABLE_FROM + " " + buildSqlTableReference(0) + " "
 					+ SqlStatementStrings.SQL_TABLE_WHERE + " " + buildSqlWhereClause() + ";";
 		}
-		return fJdbcDbConn.executeQueryObject(sql);
+		return executeQueryObject(sql, fCriteriaConditions);
 	}
 
 	/**
@@ -401,17 +736,19 @@ public class QueryObjectSelect extends QueryObjectTableAbstract {
 			return null;
 		}
 
+		recordIndexAdvisorColumnUsage(new ArrayList<QueryObjectTableCriteriaCondition>(), fOrderByLists);
+
 		String sql = null;
 		if (distinctSelection) {
-			sql = fQueryObjectType.sqlQueryType() + " " + SqlStatementStrings.SQL_TABLE_DISTINCT + " "
-					+ buildSqlColumnsString() + " " + SqlStatementStrings.SQL_TABLE_FROM + " " + fTables.get(0)
-					+ " " + SqlStatementStrings.SQL_TABLE_ORDER_BY + " " + buildSqlOrderByClause() + ";";
+			sql = buildSqlSelectKeywords(true) + " "
+					+ buildSqlColumnsString() + " " + SqlStatementStrings.SQL_TABLE_FROM + " " + buildSqlTableReference(0)
+					+ " " + SqlStatementStrings.SQL_TABLE_ORDER_BY + " " + buildSqlOrderByClause() + buildSqlLimitClause() + ";";
 		} else {
-			sql = fQueryObjectType.sqlQueryType() + " " + buildSqlColumnsString() + " "
-					+ SqlStatementStrings.SQL_TABLE_FROM + " " + fTables.get(0)
-					+ " " +SqlStatementStrings.SQL_TABLE_ORDER_BY + " " + buildSqlOrderByClause() + ";";
+			sql = buildSqlSelectKeywords(false) + " " + buildSqlColumnsString() + " "
+					+ SqlStatementStrings.SQL_TABLE_FROM + " " + buildSqlTableReference(0)
+					+ " " +SqlStatementStrings.SQL_TABLE_ORDER_BY + " " + buildSqlOrderByClause() + buildSqlLimitClause() + ";";
 		}
-		return fJdbcDbConn.executeQueryObject(sql);
+		return executeQueryObject(sql);
 	}
 
 	/**
@@ -482,19 +819,21 @@ public class QueryObjectSelect extends QueryObjectTableAbstract {
 			return null;
 		}
 
+		recordIndexAdvisorColumnUsage(fCriteriaConditions, fOrderByLists);
+
 		String sql = null;
 		if (distinctSelection) {
-			sql = fQueryObjectType.sqlQueryType() + " " + SqlStatementStrings.SQL_TABLE_DISTINCT + " "
-					+ buildSqlColumnsString() + " " + SqlStatementStrings.SQL_TABLE_FROM + " " + fTables.get(0)
+			sql = buildSqlSelectKeywords(true) + " "
+					+ buildSqlColumnsString() + " " + SqlStatementStrings.SQL_TABLE_FROM + " " + buildSqlTableReference(0) + " "
 					+ SqlStatementStrings.SQL_TABLE_WHERE + " " + buildSqlWhereClause()
-					+ " " + SqlStatementStrings.SQL_TABLE_ORDER_BY + " " + buildSqlOrderByClause() + ";";
+					+ " " + SqlStatementStrings.SQL_TABLE_ORDER_BY + " " + buildSqlOrderByClause() + buildSqlLimitClause() + ";";
 		} else {
-			sql = fQueryObjectType.sqlQueryType() + " " + buildSqlColumnsString() + " "
-					+ SqlStatementStrings.SQL_TABLE_FROM + " " + fTables.get(0) + SqlStatementStrings.SQL_TABLE_WHERE + " "
+			sql = buildSqlSelectKeywords(false) + " " + buildSqlColumnsString() + " "
+					+ SqlStatementStrings.SQL_TABLE_FROM + " " + buildSqlTableReference(0) + " " + SqlStatementStrings.SQL_TABLE_WHERE + " "
 					+ buildSqlWhereClause()
-					+ " " + SqlStatementStrings.SQL_TABLE_ORDER_BY + " " + buildSqlOrderByClause() + ";";
+					+ " " + SqlStatementStrings.SQL_TABLE_ORDER_BY + " " + buildSqlOrderByClause() + buildSqlLimitClause() + ";";
 		}
-		return fJdbcDbConn.executeQueryObject(sql);
+		return executeQueryObject(sql, fCriteriaConditions);
 	}
 
 	/**
@@ -513,9 +852,9 @@ public class QueryObjectSelect extends QueryObjectTableAbstract {
 			return null;
 		}
 
-		String sql = fQueryObjectType.sqlQueryType() + " " + SqlStatementStrings.SQL_TABLE_MIN + "("
-				+ fColumns.get(0) + ") " + SqlStatementStrings.SQL_TABLE_FROM + " " + fTables.get(0) + ";";
-		return fJdbcDbConn.executeQueryObject(sql);
+		String sql = buildSqlSelectKeywords(false) + " " + SqlStatementStrings.SQL_TABLE_MIN + "("
+				+ fColumns.get(0) + ") " + SqlStatementStrings.SQL_TABLE_FROM + " " + buildSqlTableReference(0) + ";";
+		return executeQueryObject(sql);
 	}
 
 	/**
@@ -534,9 +873,9 @@ public class QueryObjectSelect extends QueryObjectTableAbstract {
 			return null;
 		}
 
-		String sql = fQueryObjectType.sqlQueryType() + " " + SqlStatementStrings.SQL_TABLE_MAX + "("
-				+ fColumns.get(0) + ") " + SqlStatementStrings.SQL_TABLE_FROM + " " + fTables.get(0) + ";";
-		return fJdbcDbConn.executeQueryObject(sql);
+		String sql = buildSqlSelectKeywords(false) + " " + SqlStatementStrings.SQL_TABLE_MAX + "("
+				+ fColumns.get(0) + ") " + SqlStatementStrings.SQL_TABLE_FROM + " " + buildSqlTableReference(0) + ";";
+		return executeQueryObject(sql);
 	}
 
 	/**
@@ -565,10 +904,12 @@ public class QueryObjectSelect extends QueryObjectTableAbstract {
 			return null;
 		}
 
-		String sql = fQueryObjectType.sqlQueryType() + " " + SqlStatementStrings.SQL_TABLE_MIN + "("
-				+ fColumns.get(0) + ") " + SqlStatementStrings.SQL_TABLE_FROM + " " + fTables.get(0)
+		recordIndexAdvisorColumnUsage(fCriteriaConditions, new ArrayList<QueryObjectTableOrderBy>());
+
+		String sql = buildSqlSelectKeywords(false) + " " + SqlStatementStrings.SQL_TABLE_MIN + "("
+				+ fColumns.get(0) + ") " + SqlStatementStrings.SQL_TABLE_FROM + " " + buildSqlTableReference(0) + " "
 				+ SqlStatementStrings.SQL_TABLE_WHERE + " " + buildSqlWhereClause() + ";";
-		return fJdbcDbConn.executeQueryObject(sql);
+		return executeQueryObject(sql, fCriteriaConditions);
 	}
 
 	/**
@@ -597,10 +938,12 @@ public class QueryObjectSelect extends QueryObjectTableAbstract {
 			return null;
 		}
 
-		String sql = fQueryObjectType.sqlQueryType() + " " + SqlStatementStrings.SQL_TABLE_MAX + "("
-				+ fColumns.get(0) + ") " + SqlStatementStrings.SQL_TABLE_FROM + " " + fTables.get(0)
+		recordIndexAdvisorColumnUsage(fCriteriaConditions, new ArrayList<QueryObjectTableOrderBy>());
+
+		String sql = buildSqlSelectKeywords(false) + " " + SqlStatementStrings.SQL_TABLE_MAX + "("
+				+ fColumns.get(0) + ") " + SqlStatementStrings.SQL_TABLE_FROM + " " + buildSqlTableReference(0) + " "
 				+ SqlStatementStrings.SQL_TABLE_WHERE + " " + buildSqlWhereClause() + ";";
-		return fJdbcDbConn.executeQueryObject(sql);
+		return executeQueryObject(sql, fCriteriaConditions);
 	}
 
 	/**
@@ -621,9 +964,9 @@ public class QueryObjectSelect extends QueryObjectTableAbstract {
 			return null;
 		}
 
-		String sql = fQueryObjectType.sqlQueryType() + " " + SqlStatementStrings.SQL_TABLE_AVG + "("
-				+ fColumns.get(0) + ") " + SqlStatementStrings.SQL_TABLE_FROM + " " + fTables.get(0) + ";";
-		return fJdbcDbConn.executeQueryObject(sql);
+		String sql = buildSqlSelectKeywords(false) + " " + SqlStatementStrings.SQL_TABLE_AVG + "("
+				+ fColumns.get(0) + ") " + SqlStatementStrings.SQL_TABLE_FROM + " " + buildSqlTableReference(0) + ";";
+		return executeQueryObject(sql);
 	}
 
 	/**
@@ -655,18 +998,20 @@ public class QueryObjectSelect extends QueryObjectTableAbstract {
 			return null;
 		}
 
+		recordIndexAdvisorColumnUsage(fCriteriaConditions, new ArrayList<QueryObjectTableOrderBy>());
+
 		String sql = null;
 		if (distinctSelection) {
-			sql = fQueryObjectType.sqlQueryType() + " " + SqlStatementStrings.SQL_TABLE_AVG + "("
+			sql = buildSqlSelectKeywords(false) + " " + SqlStatementStrings.SQL_TABLE_AVG + "("
 					+ SqlStatementStrings.SQL_TABLE_DISTINCT + " " + fColumns.get(0) + ") "
-					+ SqlStatementStrings.SQL_TABLE_FROM + " " + fTables.get(0) + SqlStatementStrings.SQL_TABLE_WHERE + " "
+					+ SqlStatementStrings.SQL_TABLE_FROM + " " + buildSqlTableReference(0) + " " + SqlStatementStrings.SQL_TABLE_WHERE + " "
 					+ buildSqlWhereClause() + ";";
 		} else {
-			sql = fQueryObjectType.sqlQueryType() + " " + SqlStatementStrings.SQL_TABLE_AVG + "("
-					+ fColumns.get(0) + ") " + SqlStatementStrings.SQL_TABLE_FROM + " " + fTables.get(0)
+			sql = buildSqlSelectKeywords(false) + " " + SqlStatementStrings.SQL_TABLE_AVG + "("
+					+ fColumns.get(0) + ") " + SqlStatementStrings.SQL_TABLE_FROM + " " + buildSqlTableReference(0) + " "
 					+ SqlStatementStrings.SQL_TABLE_WHERE + " " + buildSqlWhereClause() + ";";
 		}
-		return fJdbcDbConn.executeQueryObject(sql);
+		return executeQueryObject(sql, fCriteriaConditions);
 	}
 
 	/**
@@ -687,9 +1032,9 @@ public class QueryObjectSelect extends QueryObjectTableAbstract {
 			return null;
 		}
 
-		String sql = fQueryObjectType.sqlQueryType() + " " + SqlStatementStrings.SQL_TABLE_SUM + "("
-				+ fColumns.get(0) + ") " + SqlStatementStrings.SQL_TABLE_FROM + " " + fTables.get(0) + ";";
-		return fJdbcDbConn.executeQueryObject(sql);
+		String sql = buildSqlSelectKeywords(false) + " " + SqlStatementStrings.SQL_TABLE_SUM + "("
+				+ fColumns.get(0) + ") " + SqlStatementStrings.SQL_TABLE_FROM + " " + buildSqlTableReference(0) + ";";
+		return executeQueryObject(sql);
 	}
 
 	/**
@@ -721,18 +1066,20 @@ public class QueryObjectSelect extends QueryObjectTableAbstract {
 			return null;
 		}
 
+		recordIndexAdvisorColumnUsage(fCriteriaConditions, new ArrayList<QueryObjectTableOrderBy>());
+
 		String sql = null;
 		if (distinctSelection) {
-			sql = fQueryObjectType.sqlQueryType() + " " + SqlStatementStrings.SQL_TABLE_SUM + "("
+			sql = buildSqlSelectKeywords(false) + " " + SqlStatementStrings.SQL_TABLE_SUM + "("
 					+ SqlStatementStrings.SQL_TABLE_DISTINCT + " " + fColumns.get(0) + ") "
-					+ SqlStatementStrings.SQL_TABLE_FROM + " " + fTables.get(0) + SqlStatementStrings.SQL_TABLE_WHERE + " "
+					+ SqlStatementStrings.SQL_TABLE_FROM + " " + buildSqlTableReference(0) + " " + SqlStatementStrings.SQL_TABLE_WHERE + " "
 					+ buildSqlWhereClause() + ";";
 		} else {
-			sql = fQueryObjectType.sqlQueryType() + " " + SqlStatementStrings.SQL_TABLE_SUM + "("
-					+ fColumns.get(0) + ") " + SqlStatementStrings.SQL_TABLE_FROM + " " + fTables.get(0)
+			sql = buildSqlSelectKeywords(false) + " " + SqlStatementStrings.SQL_TABLE_SUM + "("
+					+ fColumns.get(0) + ") " + SqlStatementStrings.SQL_TABLE_FROM + " " + buildSqlTableReference(0) + " "
 					+ SqlStatementStrings.SQL_TABLE_WHERE + " " + buildSqlWhereClause() + ";";
 		}
-		return fJdbcDbConn.executeQueryObject(sql);
+		return executeQueryObject(sql, fCriteriaConditions);
 	}
 
 	/**
@@ -767,16 +1114,17 @@ public class QueryObjectSelect extends QueryObjectTableAbstract {
 			return null;
 		}
 
+		recordIndexAdvisorJoinColumnUsage();
+
 		String sql = null;
 		if (distinctSelection) {
-			sql = fQueryObjectType.sqlQueryType() + " "
-					+ SqlStatementStrings.SQL_TABLE_DISTINCT + " " + buildSqlColumnsString() + " "
+			sql = buildSqlSelectKeywords(true) + " " + buildSqlColumnsString() + " "
 					+ SqlStatementStrings.SQL_TABLE_FROM + buildSqlJoinClause() + ";";
 		} else {
-			sql = fQueryObjectType.sqlQueryType() + " " + buildSqlColumnsString() + " "
+			sql = buildSqlSelectKeywords(false) + " " + buildSqlColumnsString() + " "
 					+ SqlStatementStrings.SQL_TABLE_FROM + buildSqlJoinClause() + ";";
 		}
-		return fJdbcDbConn.executeQueryObject(sql);
+		return executeQueryObject(sql);
 	}
 
 	/**
@@ -806,6 +1154,39 @@ public class QueryObjectSelect extends QueryObjectTableAbstract {
 		return true;
 	}
 
+	/**
+	 * Report join columns of JOIN ON conditions to the index advisor of the JDBC
+	 * connection. Both sides of an equality join condition are reported, so the
+	 * optimizer can look up rows of either table by index.
+	 *
+	 * <example>
+	 *  Orders.CustomerID = Customers.CustomerID
+	 *
+	 *  Orders -> (CustomerID), Customers -> (CustomerID)
+	 * </example>
+	 *
+	 * NOTE: Only columns qualified with table names can be mapped to tables.
+	 */
+	private void recordIndexAdvisorJoinColumnUsage() {
+		QueryObjectDBTableIndexAdvisor indexAdvisor = fJdbcDbConn.getIndexAdvisor();
+		if (indexAdvisor == null) {
+			return;
+		}
+		for (QueryObjectTableCriteriaCondition joinCondition : fCriteriaConditions) {
+			if (!upperCaseSqlString(joinCondition.getOperator()).equals("=")) {
+				continue;
+			}
+			for (Object joinColumn : new Object[] { joinCondition.getFiled(), joinCondition.getValue() }) {
+				String qualifiedColumn = joinColumn == null ? "" : joinColumn.toString().trim();
+				int qualifierEnd = qualifiedColumn.lastIndexOf('.');
+				if (qualifierEnd > 0) {
+					indexAdvisor.recordColumnUsage(qualifiedColumn.substring(0, qualifierEnd),
+							Collections.singletonList(stripTableQualifier(qualifiedColumn)), new ArrayList<String>());
+				}
+			}
+		}
+	}
+
 	/**
 	 * Build SQL JOIN clause string from fTable, fCriteriaConditions,
 	 * fJoinTypes lists.
@@ -817,17 +1198,17 @@ public class QueryObjectSelect extends QueryObjectTableAbstract {
 		for (int i = 0; i < fJoinTypes.size(); i ++) {
 			if (i == 0) {
 				joinClause.append("(");
-				joinClause.append(fTables.get(i) + " ");
-				joinClause.append(fJoinTypes.get(i) + " ");
-				joinClause.append(fTables.get(i + 1) + " ");
+				joinClause.append(buildSqlTableReference(i) + " ");
+				joinClause.append(fJoinTypes.get(i).sqlJoinType() + " ");
+				joinClause.append(buildSqlTableReference(i + 1) + " ");
 				joinClause.append(SqlStatementStrings.SQL_TABLE_ON + " ");
 				joinClause.append(fCriteriaConditions.get(i).getConditionOperator()
 						+ " " + fCriteriaConditions.get(i).getFiled() + fCriteriaConditions.get(i).getOperator()
 						+ fCriteriaConditions.get(i).getValue() + ") ");
 			} else {
 				joinClause.insert(0, '(');
-				joinClause.append(fJoinTypes.get(i) + " ");
-				joinClause.append(fTables.get(i + 1) + " ");
+				joinClause.append(fJoinTypes.get(i).sqlJoinType() + " ");
+				joinClause.append(buildSqlTableReference(i + 1) + " ");
 				joinClause.append(SqlStatementStrings.SQL_TABLE_ON + " ");
 				joinClause.append(fCriteriaConditions.get(i).getFiled() + fCriteriaConditions.get(i).getOperator()
 						+ fCriteriaConditions.get(i).getValue() + ") ");
@@ -835,4 +1216,310 @@ public class QueryObjectSelect extends QueryObjectTableAbstract {
 		}
 		return joinClause.toString();
 	}
+
+	/**
+	 * Set max amount of keys in one IN list of selectColumnsWhereKeysIn().
+	 *
+	 * TIP: Keep statements below max_allowed_packet of the MYSQL server, and IN
+	 * lists short enough for the range optimizer, see
+	 * eq_range_index_dive_limit.
+	 *
+	 * @param inListChunkSize
+	 * 			Max amount of keys per statement, default is 1000.
+	 */
+	public void setInListChunkSize(int inListChunkSize) {
+		fInListChunkSize = Math.max(1, inListChunkSize);
+	}
+
+	/**
+	 * Set max amount of IN list statements of selectColumnsWhereKeysIn() running
+	 * at the same time.
+	 *
+	 * @param multiGetParallelism
+	 * 			Max amount of parallel statements, default is 4, 1 executes
+	 * 			statements one after another.
+	 */
+	public void setMultiGetParallelism(int multiGetParallelism) {
+		fMultiGetParallelism = Math.max(1, multiGetParallelism);
+	}
+
+	/**
+	 * Select specific columns of rows by a collection of key values, filtered by
+	 * WHERE criteria conditions if there are any.
+	 *
+	 * Keys are deduplicated and split into IN lists of at most inListChunkSize
+	 * keys, IN list statements are executed in parallel and their rows are merged
+	 * into one ResultSet.
+	 *
+	 * Scenario:
+	 *
+	 * <example>
+	 *  SELECT column1, column2, .. FROM table_name WHERE conditionOperator1
+	 *  field1 operator1 value1 ... AND key_column IN (key1, key2, ...);
+	 * </example>
+	 *
+	 * WHERE criteria conditions are put in parentheses before the IN list, so
+	 * OR criteria conditions do not select rows of other keys:
+	 *
+	 * <example>
+	 *  SELECT * FROM Orders WHERE ( Status='open' OR Status='late' ) AND CustomerID IN (7,9,12);
+	 * </example>
+	 *
+	 * The query timeout limits all statements together, idempotency and render
+	 * only mode apply to each statement. In render only mode the IN list
+	 * statements are built but not executed, and getRenderedSql() returns them
+	 * one after another.
+	 *
+	 * NOTE: Rows of different statements are not read in one snapshot, rows
+	 * changed meanwhile may be read before or after the change.
+	 *
+	 * @param keyColumn
+	 * 			Key column name
+	 * @param keys
+	 * 			Key values
+	 * @param keyOrdering
+	 * 			True to order rows like keys, key column must then be a selected
+	 * 			column. False to keep rows in statement order.
+	 * @return ResultSet SQL execution results of all keys
+	 */
+	public ResultSet selectColumnsWhereKeysIn(@NonNull String keyColumn, @NonNull Collection<?> keys,
+			boolean keyOrdering) {
+		if (!validateEmptyTableAndUpdateEmptyColumn() || !validateWhereConditions()) {
+			return null;
+		}
+		if (keyColumn.trim().isEmpty() || keys.isEmpty()) {
+			LOGGER.severe("Failed to select rows by keys, key column or keys are missing.");
+			return null;
+		}
+
+		List<Object> distinctKeys = new ArrayList<>(new LinkedHashSet<Object>(keys));
+		List<List<Object>> keyChunks = new ArrayList<>();
+		for (int chunkStart = 0; chunkStart < distinctKeys.size(); chunkStart += fInListChunkSize) {
+			keyChunks.add(distinctKeys.subList(chunkStart, Math.min(chunkStart + fInListChunkSize, distinctKeys.size())));
+		}
+		if (isRenderOnly()) {
+			StringBuilder renderedSqls = new StringBuilder();
+			for (List<Object> keyChunk : keyChunks) {
+				QueryObjectSelect chunkSelect = buildKeyChunkSelect(keyColumn, keyChunk);
+				chunkSelect.selectColumnsWhereConditions(false);
+				if (chunkSelect.getRenderedSql() == null) {
+					return null;
+				}
+				renderedSqls.append(chunkSelect.getRenderedSql());
+			}
+			setRenderedSql(renderedSqls.toString());
+			return null;
+		}
+
+		List<ResultSet> chunkResults;
+		if (getQueryTimeoutMillis() > 0) {
+			JdbcDatabaseDeadline multiGetDeadline = JdbcDatabaseDeadline.start(getQueryTimeoutMillis());
+			try {
+				chunkResults = executeKeyChunks(keyColumn, keyChunks);
+			} finally {
+				multiGetDeadline.close();
+			}
+		} else {
+			chunkResults = executeKeyChunks(keyColumn, keyChunks);
+		}
+		if (chunkResults == null) {
+			return null;
+		}
+
+		try {
+			ResultSetMetaData metaData = chunkResults.get(0).getMetaData();
+			int keyColumnIndex = 0;
+			if (keyOrdering) {
+				keyColumnIndex = findColumnIndex(metaData, keyColumn);
+				if (keyColumnIndex == 0) {
+					LOGGER.severe("Failed to order rows by keys, key column " + keyColumn + " is not selected.");
+					return null;
+				}
+			}
+			return mergeKeyChunkResults(metaData, chunkResults, keyColumnIndex, distinctKeys);
+		} catch (SQLException mergeException) {
+			LOGGER.severe("Failed to merge rows selected by keys. Details: " + mergeException.getMessage());
+			return null;
+		}
+	}
+
+	/**
+	 * Execute one IN list statement per key chunk, at most fMultiGetParallelism
+	 * statements at the same time.
+	 *
+	 * @param keyColumn
+	 * 			Key column name
+	 * @param keyChunks
+	 * 			Key chunks
+	 * @return Results of chunks in chunk order, or NULL if any statement failed.
+	 */
+	private List<ResultSet> executeKeyChunks(final String keyColumn, final List<List<Object>> keyChunks) {
+		final ResultSet[] chunkResults = new ResultSet[keyChunks.size()];
+		final AtomicInteger nextChunk = new AtomicInteger();
+		final JdbcDatabaseDeadline selectDeadline = JdbcDatabaseDeadline.current();
+		Runnable chunkWorker = new Runnable() {
+			@Override
+			public void run() {
+				JdbcDatabaseDeadline workerDeadline = JdbcDatabaseDeadline.inherit(selectDeadline);
+				try {
+					for (int chunk = nextChunk.getAndIncrement(); chunk < chunkResults.length; chunk = nextChunk
+							.getAndIncrement()) {
+						chunkResults[chunk] = selectKeyChunk(keyColumn, keyChunks.get(chunk));
+					}
+				} finally {
+					if (workerDeadline != null) {
+						workerDeadline.close();
+					}
+				}
+			}
+		};
+
+		/*
+		 * Workers take chunks one after another, so each worker keeps one
+		 * statement in flight.
+		 */
+		List<Future<?>> workers = new ArrayList<>();
+		for (int worker = 1; worker < Math.min(fMultiGetParallelism, keyChunks.size()); worker++) {
+			workers.add(MULTI_GET_EXECUTOR.submit(chunkWorker));
+		}
+		chunkWorker.run();
+		for (Future<?> worker : workers) {
+			try {
+				worker.get();
+			} catch (InterruptedException interruptedException) {
+				Thread.currentThread().interrupt();
+				LOGGER.severe("Failed to select rows by keys, waiting for statements is interrupted.");
+				return null;
+			} catch (ExecutionException executionException) {
+				LOGGER.severe("Failed to select rows by keys. Details: " + executionException.getCause());
+				return null;
+			}
+		}
+
+		List<ResultSet> results = new ArrayList<>();
+		for (ResultSet chunkResult : chunkResults) {
+			if (chunkResult == null) {
+				LOGGER.severe("Failed to select rows by keys, partial results are dropped.");
+				return null;
+			}
+			results.add(chunkResult);
+		}
+		return results;
+	}
+
+	/**
+	 * Select rows of one key chunk through a separate query object, so chunks can
+	 * be executed in parallel.
+	 *
+	 * @param keyColumn
+	 * 			Key column name
+	 * @param keyChunk
+	 * 			Keys of the chunk
+	 * @return ResultSet SQL execution results
+	 */
+	private ResultSet selectKeyChunk(String keyColumn, List<Object> keyChunk) {
+		return buildKeyChunkSelect(keyColumn, keyChunk).selectColumnsWhereConditions(false);
+	}
+
+	/**
+	 * Build the query object of one key chunk, with the criteria conditions,
+	 * hints and execution settings of this query object.
+	 *
+	 * @param keyColumn
+	 * 			Key column name
+	 * @param keyChunk
+	 * 			Keys of the chunk
+	 * @return Query object selecting rows of the key chunk
+	 */
+	private QueryObjectSelect buildKeyChunkSelect(String keyColumn, List<Object> keyChunk) {
+		List<QueryObjectTableCriteriaCondition> chunkCriteriaConditions = new ArrayList<>(fCriteriaConditions);
+		chunkCriteriaConditions.add(new QueryObjectTableCriteriaCondition(keyColumn, keyChunk,
+				" " + SqlStatementStrings.SQL_TABLE_IN + " ",
+				fCriteriaConditions.isEmpty() ? "" : SqlStatementStrings.SQL_TABLE_AND));
+		QueryObjectSelect chunkSelect = new QueryObjectSelect(fJdbcDbConn, fTables, fColumns, chunkCriteriaConditions);
+		chunkSelect.fKeyChunkSelect = true;
+		chunkSelect.fIndexHints.putAll(fIndexHints);
+		chunkSelect.fOptimizerHints.addAll(fOptimizerHints);
+		chunkSelect.fStraightJoin = fStraightJoin;
+		copyExecutionSettings(chunkSelect);
+		return chunkSelect;
+	}
+
+	/**
+	 * Find a result column by its label or name, table qualifiers and case are
+	 * ignored.
+	 *
+	 * @return Column index starting from 1, or 0 if the column is not found.
+	 */
+	private static int findColumnIndex(ResultSetMetaData metaData, String columnName) throws SQLException {
+		String column = stripTableQualifier(columnName);
+		for (int columnIndex = 1; columnIndex <= metaData.getColumnCount(); columnIndex++) {
+			if (column.equalsIgnoreCase(stripTableQualifier(metaData.getColumnLabel(columnIndex)))
+					|| column.equalsIgnoreCase(stripTableQualifier(metaData.getColumnName(columnIndex)))) {
+				return columnIndex;
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Merge rows of all key chunks into one disconnected ResultSet.
+	 *
+	 * @param metaData
+	 * 			Result column metadata
+	 * @param chunkResults
+	 * 			Results of all chunks
+	 * @param keyColumnIndex
+	 * 			Index of the key column to order rows like keys, 0 to keep
+	 * 			statement order.
+	 * @param keys
+	 * 			Distinct keys in requested order
+	 * @return Merged results
+	 * @throws SQLException
+	 * 			Failed on reading chunk results
+	 */
+	private static ResultSet mergeKeyChunkResults(ResultSetMetaData metaData, List<ResultSet> chunkResults,
+			int keyColumnIndex, List<Object> keys) throws SQLException {
+		int columnAmount = metaData.getColumnCount();
+		List<Object[]> rows = new ArrayList<>();
+		for (ResultSet chunkResult : chunkResults) {
+			chunkResult.beforeFirst();
+			while (chunkResult.next()) {
+				Object[] row = new Object[columnAmount];
+				for (int column = 0; column < columnAmount; column++) {
+					row[column] = chunkResult.getObject(column + 1);
+				}
+				rows.add(row);
+			}
+		}
+		if (keyColumnIndex == 0) {
+			return JdbcDatabaseConnection.buildCachedRowSet(metaData, rows);
+		}
+
+		/*
+		 * Keys are matched by string form, database values are often of another
+		 * type than requested keys, for example Long and Integer.
+		 */
+		Map<String, List<Object[]>> keyRows = new HashMap<>();
+		for (Object[] row : rows) {
+			String key = String.valueOf(row[keyColumnIndex - 1]);
+			List<Object[]> rowsOfKey = keyRows.get(key);
+			if (rowsOfKey == null) {
+				rowsOfKey = new ArrayList<>();
+				keyRows.put(key, rowsOfKey);
+			}
+			rowsOfKey.add(row);
+		}
+		List<Object[]> orderedRows = new ArrayList<>();
+		for (Object key : keys) {
+			List<Object[]> rowsOfKey = keyRows.remove(String.valueOf(key));
+			if (rowsOfKey != null) {
+				orderedRows.addAll(rowsOfKey);
+			}
+		}
+		for (List<Object[]> unmatchedRows : keyRows.values()) {
+			orderedRows.addAll(unmatchedRows);
+		}
+		return JdbcDatabaseConnection.buildCachedRowSet(metaData, orderedRows);
+	}
 }
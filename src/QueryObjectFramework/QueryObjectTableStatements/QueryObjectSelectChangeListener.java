@@ -0,0 +1,17 @@
+package QueryObjectFramework.QueryObjectTableStatements;
+
+import java.sql.ResultSet;
+
+/**
+ * Callback interface for receiving rows changed since the last poll of a
+ * QueryObjectSelectChangePoller.
+ *
+ * Batches of a table are delivered on the polling thread, in watermark order.
+ * A batch is delivered again by the next poll if the listener throws an
+ * exception, so listeners should apply batches idempotently.
+ *
+ * @author Bohui Axelsson
+ */
+public interface QueryObjectSelectChangeListener {
+	public void changesPolled(String tableName, ResultSet changedRows);
+}
@@ -0,0 +1,439 @@
+package QueryObjectFramework.QueryObjectTableStatements;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import org.eclipse.jdt.annotation.NonNull;
+
+import QueryObjectFramework.CommonClasses.SqlStatementStrings;
+import QueryObjectFramework.JdbcDatabaseConnection.JdbcDatabaseConnection;
+
+/**
+ * Change poller class delivers rows changed since the last poll of tables to
+ * listeners, instead of re-reading whole tables.
+ *
+ * Every table is tracked by a watermark column, which grows on every insert or
+ * update of a row, for example an updated_at TIMESTAMP column or an auto
+ * increment id for insert only tables. A poll selects rows after the last
+ * delivered watermark page by page, by keyset instead of OFFSET:
+ *
+ * <example>
+ *  SELECT * FROM Orders WHERE  UpdatedAt>'2020-01-01 10:00:00' OR UpdatedAt='2020-01-01 10:00:00'
+ *  AND OrderID>4711 ORDER BY UpdatedAt ASC,OrderID ASC LIMIT 500;
+ * </example>
+ *
+ * Each page is delivered as one change batch, afterwards the watermark of the
+ * last row is stored in the watermark file, so a restarted poller resumes
+ * after the last delivered batch.
+ *
+ * <example>
+ *  QueryObjectSelectChangePoller poller = new QueryObjectSelectChangePoller(jdbcDbConn,
+ *      Paths.get("/var/lib/service/watermarks.properties"));
+ *  poller.addTable("Orders", new ArrayList<String>(), "UpdatedAt", "OrderID", ordersListener);
+ *  poller.start(1000);
+ * </example>
+ *
+ * NOTE: The key column breaks ties of rows with the same watermark, it is
+ * needed if the watermark column is not unique. Without key column, rows with
+ * the watermark of the last row of a full page are skipped.
+ *
+ * NOTE: Deleted rows are not reported. Rows committed with a watermark below
+ * an already delivered watermark, by transactions running longer than a poll
+ * interval, are missed.
+ *
+ * @author Bohui Axelsson
+ */
+public class QueryObjectSelectChangePoller implements AutoCloseable {
+	private static final Logger LOGGER = Logger.getLogger(QueryObjectSelectChangePoller.class.getName());
+
+	private static final int DEFAULT_BATCH_SIZE = 500;
+	private static final String PART_FILE_SUFFIX = ".part";
+
+	/*
+	 * Watermark file property name suffixes, property names are prefixed by the
+	 * table name.
+	 */
+	private static final String WATERMARK_PROPERTY = ".watermark";
+	private static final String KEY_PROPERTY = ".key";
+	private static final String NUMERIC_PROPERTY = ".numeric";
+
+	private final @NonNull JdbcDatabaseConnection fJdbcDbConn;
+	private final @NonNull Path fWatermarkFile;
+	private final @NonNull Properties fWatermarks = new Properties();
+	private final @NonNull Map<String, PolledTable> fPolledTables = new LinkedHashMap<>();
+	private int fBatchSize = DEFAULT_BATCH_SIZE;
+	private ScheduledExecutorService fPollScheduler = null;
+
+	/**
+	 * Polling state of one table.
+	 */
+	private static class PolledTable {
+		private final @NonNull String fTableName;
+		private final @NonNull List<String> fColumns;
+		private final @NonNull String fWatermarkColumn;
+		private final String fKeyColumn;
+		private final @NonNull QueryObjectSelectChangeListener fListener;
+
+		/*
+		 * Watermark and key value of the last delivered row, NULL before the first
+		 * delivered row.
+		 */
+		private Object fWatermark = null;
+		private Object fKeyValue = null;
+
+		private PolledTable(String tableName, List<String> columns, String watermarkColumn, String keyColumn,
+				QueryObjectSelectChangeListener listener) {
+			fTableName = tableName;
+			fColumns = columns;
+			fWatermarkColumn = watermarkColumn;
+			fKeyColumn = keyColumn;
+			fListener = listener;
+		}
+	}
+
+	/**
+	 * Create a change poller, watermarks stored in the watermark file are
+	 * loaded.
+	 *
+	 * @param jdbcDbConn
+	 * 			JDBC database connection
+	 * @param watermarkFile
+	 * 			File storing the watermarks of all tables of this poller
+	 */
+	public QueryObjectSelectChangePoller(@NonNull JdbcDatabaseConnection jdbcDbConn, @NonNull Path watermarkFile) {
+		fJdbcDbConn = jdbcDbConn;
+		fWatermarkFile = watermarkFile;
+		try (InputStream watermarkInput = Files.newInputStream(watermarkFile)) {
+			fWatermarks.load(watermarkInput);
+		} catch (NoSuchFileException missingException) {
+			LOGGER.info("Watermark file " + watermarkFile + " does not exist, tables are polled from the beginning.");
+		} catch (IOException | IllegalArgumentException loadException) {
+			LOGGER.severe("Failed to load watermarks from " + watermarkFile + ", tables are polled from the beginning. Details: "
+					+ loadException.getMessage());
+		}
+	}
+
+	/**
+	 * Set amount of rows delivered in one change batch.
+	 *
+	 * @param batchSize
+	 * 			Batch size, default is 500.
+	 */
+	public synchronized void setBatchSize(int batchSize) {
+		fBatchSize = Math.max(1, batchSize);
+	}
+
+	/**
+	 * Add a table to poll, polling resumes after the watermark stored for the
+	 * table.
+	 *
+	 * @param tableName
+	 * 			Table name
+	 * @param columns
+	 * 			Selected columns, empty list selects all columns. The watermark
+	 * 			and key columns are added if missing.
+	 * @param watermarkColumn
+	 * 			Column growing on every change of a row
+	 * @param keyColumn
+	 * 			Unique column breaking ties of equal watermarks, for example
+	 * 			the primary key, or NULL if the watermark column is unique.
+	 * @param listener
+	 * 			Listener receiving change batches of the table
+	 * @return True if the table is added.
+	 */
+	public synchronized boolean addTable(@NonNull String tableName, @NonNull List<String> columns,
+			@NonNull String watermarkColumn, String keyColumn, @NonNull QueryObjectSelectChangeListener listener) {
+		if (tableName.trim().isEmpty() || watermarkColumn.trim().isEmpty()) {
+			LOGGER.severe("Failed to add table to change poller, table name or watermark column is missing.");
+			return false;
+		}
+		if (fPolledTables.containsKey(tableName)) {
+			LOGGER.severe("Failed to add table to change poller, table " + tableName + " is already polled.");
+			return false;
+		}
+		List<String> selectedColumns = new ArrayList<>(columns);
+		if (!selectedColumns.isEmpty()) {
+			addMissingColumn(selectedColumns, watermarkColumn);
+			if (keyColumn != null) {
+				addMissingColumn(selectedColumns, keyColumn);
+			}
+		}
+		PolledTable polledTable = new PolledTable(tableName, selectedColumns, watermarkColumn, keyColumn, listener);
+		polledTable.fWatermark = loadWatermark(tableName + WATERMARK_PROPERTY);
+		polledTable.fKeyValue = loadWatermark(tableName + KEY_PROPERTY);
+		fPolledTables.put(tableName, polledTable);
+		return true;
+	}
+
+	private static void addMissingColumn(List<String> columns, String column) {
+		for (String selectedColumn : columns) {
+			if (selectedColumn.trim().equalsIgnoreCase(column.trim())) {
+				return;
+			}
+		}
+		columns.add(column);
+	}
+
+	/**
+	 * Poll all tables every pollIntervalMillis by a background thread, until
+	 * close() is called.
+	 *
+	 * @param pollIntervalMillis
+	 * 			Delay between the end of a poll and the start of the next poll
+	 */
+	public synchronized void start(long pollIntervalMillis) {
+		if (fPollScheduler != null) {
+			LOGGER.warning("Change poller is already started.");
+			return;
+		}
+		fPollScheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "QueryObjectSelectChangePoller-poll");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		fPollScheduler.scheduleWithFixedDelay(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					pollChanges();
+				} catch (RuntimeException pollException) {
+					LOGGER.severe("Failed to poll changes. Details: " + pollException.getMessage());
+				}
+			}
+		}, 0, Math.max(1, pollIntervalMillis), TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Poll all tables once, change batches are delivered until no more changed
+	 * rows are found.
+	 *
+	 * @return Amount of delivered rows, or -1 if polling a table failed. Other
+	 * 			tables are polled anyway.
+	 */
+	public synchronized long pollChanges() {
+		long deliveredRows = 0;
+		boolean failed = false;
+		for (PolledTable polledTable : fPolledTables.values()) {
+			while (true) {
+				int batchRows = pollBatch(polledTable);
+				if (batchRows < 0) {
+					failed = true;
+					break;
+				}
+				deliveredRows += batchRows;
+				if (batchRows < fBatchSize) {
+					break;
+				}
+			}
+		}
+		return failed ? -1 : deliveredRows;
+	}
+
+	/**
+	 * Stop polling, a running poll is completed.
+	 */
+	@Override
+	public void close() {
+		ScheduledExecutorService pollScheduler;
+		synchronized (this) {
+			pollScheduler = fPollScheduler;
+		}
+		if (pollScheduler == null) {
+			return;
+		}
+		pollScheduler.shutdown();
+		try {
+			pollScheduler.awaitTermination(1, TimeUnit.MINUTES);
+		} catch (InterruptedException interruptedException) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Select and deliver the next change batch of a table.
+	 *
+	 * @return Amount of delivered rows, or -1 if selecting or delivering failed.
+	 */
+	private int pollBatch(PolledTable polledTable) {
+		List<String> tables = new ArrayList<>();
+		tables.add(polledTable.fTableName);
+		List<QueryObjectTableOrderBy> orderByLists = new ArrayList<>();
+		orderByLists.add(new QueryObjectTableOrderBy(polledTable.fWatermarkColumn, SqlStatementStrings.SQL_TABLE_ASC));
+		if (polledTable.fKeyColumn != null) {
+			orderByLists.add(new QueryObjectTableOrderBy(polledTable.fKeyColumn, SqlStatementStrings.SQL_TABLE_ASC));
+		}
+
+		/*
+		 * AND binds stronger than OR: watermark > w OR (watermark = w AND key > k)
+		 */
+		List<QueryObjectTableCriteriaCondition> criteriaConditions = new ArrayList<>();
+		if (polledTable.fWatermark != null) {
+			criteriaConditions.add(new QueryObjectTableCriteriaCondition(polledTable.fWatermarkColumn,
+					polledTable.fWatermark, ">", ""));
+			if (polledTable.fKeyColumn != null && polledTable.fKeyValue != null) {
+				criteriaConditions.add(new QueryObjectTableCriteriaCondition(polledTable.fWatermarkColumn,
+						polledTable.fWatermark, "=", SqlStatementStrings.SQL_TABLE_OR));
+				criteriaConditions.add(new QueryObjectTableCriteriaCondition(polledTable.fKeyColumn,
+						polledTable.fKeyValue, ">", SqlStatementStrings.SQL_TABLE_AND));
+			}
+		}
+
+		QueryObjectSelect batchSelect = new QueryObjectSelect(fJdbcDbConn, tables, polledTable.fColumns,
+				criteriaConditions, orderByLists);
+		batchSelect.setRowLimit(fBatchSize);
+		ResultSet changedRows = criteriaConditions.isEmpty() ? batchSelect.selectColumnsOrderByColumns(false)
+				: batchSelect.selectColumnsWhereConditionsOrderByColumns(false);
+		if (changedRows == null) {
+			LOGGER.severe("Failed to poll changes of table " + polledTable.fTableName + ".");
+			return -1;
+		}
+
+		Object watermark;
+		Object keyValue = null;
+		int batchRows;
+		try {
+			if (!changedRows.last()) {
+				return 0;
+			}
+			batchRows = changedRows.getRow();
+			ResultSetMetaData metaData = changedRows.getMetaData();
+			int watermarkIndex = findColumnIndex(metaData, polledTable.fWatermarkColumn);
+			int keyIndex = polledTable.fKeyColumn == null ? -1 : findColumnIndex(metaData, polledTable.fKeyColumn);
+			if (watermarkIndex == 0 || keyIndex == 0) {
+				LOGGER.severe("Failed to poll changes of table " + polledTable.fTableName
+						+ ", watermark or key column is not selected.");
+				return -1;
+			}
+			watermark = toCriteriaValue(changedRows.getObject(watermarkIndex));
+			if (keyIndex > 0) {
+				keyValue = toCriteriaValue(changedRows.getObject(keyIndex));
+			}
+			changedRows.beforeFirst();
+		} catch (SQLException readException) {
+			LOGGER.severe("Failed to read changes of table " + polledTable.fTableName + ". Details: "
+					+ readException.getMessage());
+			return -1;
+		}
+		if (watermark == null) {
+			LOGGER.severe("Failed to poll changes of table " + polledTable.fTableName + ", watermark column "
+					+ polledTable.fWatermarkColumn + " contains NULL.");
+			return -1;
+		}
+
+		try {
+			polledTable.fListener.changesPolled(polledTable.fTableName, changedRows);
+		} catch (RuntimeException listenerException) {
+			LOGGER.severe("Failed to deliver changes of table " + polledTable.fTableName
+					+ ", the batch is delivered again by the next poll. Details: " + listenerException.getMessage());
+			return -1;
+		}
+
+		polledTable.fWatermark = watermark;
+		polledTable.fKeyValue = keyValue;
+		storeWatermark(polledTable.fTableName + WATERMARK_PROPERTY, watermark);
+		storeWatermark(polledTable.fTableName + KEY_PROPERTY, keyValue);
+		storeWatermarkFile();
+		return batchRows;
+	}
+
+	/**
+	 * Find a result column by its label or name, table qualifiers and case are
+	 * ignored.
+	 *
+	 * @return Column index starting from 1, or 0 if the column is not found.
+	 */
+	private static int findColumnIndex(ResultSetMetaData metaData, String column) throws SQLException {
+		String columnName = column.substring(column.lastIndexOf('.') + 1).trim();
+		for (int columnIndex = 1; columnIndex <= metaData.getColumnCount(); columnIndex++) {
+			if (metaData.getColumnLabel(columnIndex).equalsIgnoreCase(columnName)
+					|| metaData.getColumnName(columnIndex).equalsIgnoreCase(columnName)) {
+				return columnIndex;
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Convert a selected watermark or key value into a criteria value, numbers
+	 * stay unquoted and other values are compared as quoted strings.
+	 */
+	private static Object toCriteriaValue(Object value) {
+		if (value == null || value instanceof Number) {
+			return value;
+		}
+		return value.toString();
+	}
+
+	private Object loadWatermark(String propertyName) {
+		String value = fWatermarks.getProperty(propertyName);
+		if (value == null) {
+			return null;
+		}
+		if (Boolean.parseBoolean(fWatermarks.getProperty(propertyName + NUMERIC_PROPERTY))) {
+			try {
+				return new BigDecimal(value);
+			} catch (NumberFormatException numberException) {
+				LOGGER.warning("Ignored invalid numeric watermark " + propertyName + "=" + value);
+				return null;
+			}
+		}
+		return value;
+	}
+
+	private void storeWatermark(String propertyName, Object value) {
+		if (value == null) {
+			fWatermarks.remove(propertyName);
+			fWatermarks.remove(propertyName + NUMERIC_PROPERTY);
+			return;
+		}
+		fWatermarks.setProperty(propertyName, value.toString());
+		fWatermarks.setProperty(propertyName + NUMERIC_PROPERTY, String.valueOf(value instanceof Number));
+	}
+
+	/**
+	 * Write all watermarks into watermark.part, which replaces the watermark
+	 * file, so a crash never leaves a partial watermark file.
+	 */
+	private void storeWatermarkFile() {
+		Path partFile = fWatermarkFile.resolveSibling(fWatermarkFile.getFileName() + PART_FILE_SUFFIX);
+		try {
+			try (OutputStream watermarkOutput = Files.newOutputStream(partFile)) {
+				fWatermarks.store(watermarkOutput, "QueryObjectSelectChangePoller watermarks");
+			}
+			try {
+				Files.move(partFile, fWatermarkFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException atomicMoveException) {
+				Files.move(partFile, fWatermarkFile, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} catch (IOException storeException) {
+			/*
+			 * Polling goes on with the watermarks in memory, a restart delivers the
+			 * batches since the last stored watermarks again.
+			 */
+			LOGGER.severe("Failed to store watermarks into " + fWatermarkFile + ". Details: " + storeException.getMessage());
+		}
+	}
+}
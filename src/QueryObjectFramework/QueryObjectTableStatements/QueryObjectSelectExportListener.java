@@ -0,0 +1,13 @@
+package QueryObjectFramework.QueryObjectTableStatements;
+
+/**
+ * Callback interface for reporting progress of a SELECT result export.
+ *
+ * Progress is reported on the exporting thread after every write to the
+ * file, and once more when the export has completed.
+ *
+ * @author Bohui Axelsson
+ */
+public interface QueryObjectSelectExportListener {
+	public void exportProgress(long exportedRows, long writtenBytes);
+}
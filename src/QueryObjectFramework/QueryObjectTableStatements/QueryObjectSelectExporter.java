@@ -0,0 +1,506 @@
+package QueryObjectFramework.QueryObjectTableStatements;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.logging.Logger;
+
+import org.eclipse.jdt.annotation.NonNull;
+
+import QueryObjectFramework.JdbcDatabaseConnection.JdbcDatabaseConnection;
+import QueryObjectFramework.JdbcDatabaseConnection.JdbcDatabaseCursor;
+
+/**
+ * Exporter class streams rows of a SELECT statement into a file as CSV, TSV or
+ * NDJSON.
+ *
+ * Rows are read from a cursor and encoded as UTF-8 into a reusable direct
+ * ByteBuffer, which is written to a FileChannel whenever it is full, the file
+ * content is not held in memory.
+ *
+ * <example>
+ *  select.setRenderOnly(true);
+ *  select.selectColumnsWhereConditions(false);
+ *  QueryObjectSelectExporter exporter = new QueryObjectSelectExporter(jdbcDbConn, select.getRenderedSql());
+ *  long rows = exporter.exportToFile(Paths.get("/data/orders.ndjson"), QueryObjectTableExportFormat.NDJSON);
+ * </example>
+ *
+ * NOTE: Rows are only streamed from the database server if the cursor streams
+ * them. MYSQL Connector/J loads all rows into memory unless the database URL
+ * has useCursorFetch=true, or the fetch size is set to Integer.MIN_VALUE, see
+ * setFetchSize() and JdbcDatabaseConnection.openCursor().
+ *
+ * NOTE: Rows are written into file.part first, which replaces file once all
+ * rows have been written, so readers never see a partial export.
+ *
+ * NOTE: Exports of one exporter run one after another, they share buffers.
+ *
+ * NOTE: Cursors can not be opened on a JdbcDatabaseShardedConnection, export
+ * rows of a sharded table from each shard connection instead.
+ *
+ * @author Bohui Axelsson
+ */
+public class QueryObjectSelectExporter {
+	private static final Logger LOGGER = Logger.getLogger(QueryObjectSelectExporter.class.getName());
+
+	private static final int DEFAULT_FETCH_SIZE = 1000;
+	private static final int DEFAULT_WRITE_BUFFER_SIZE = 1 << 20;
+	private static final int CHAR_BUFFER_SIZE = 1 << 14;
+	private static final String PART_FILE_SUFFIX = ".part";
+
+	private final @NonNull JdbcDatabaseConnection fJdbcDbConn;
+	private final @NonNull String fSql;
+	private int fFetchSize = DEFAULT_FETCH_SIZE;
+	private int fWriteBufferSize = DEFAULT_WRITE_BUFFER_SIZE;
+	private QueryObjectSelectExportListener fExportListener = null;
+
+	/*
+	 * Buffers reused by all exports, only accessed by exportToFile()
+	 */
+	private final @NonNull CharBuffer fChars = CharBuffer.allocate(CHAR_BUFFER_SIZE);
+	private final @NonNull CharsetEncoder fEncoder = StandardCharsets.UTF_8.newEncoder()
+			.onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+	private ByteBuffer fBytes = null;
+
+	/*
+	 * State of the running export
+	 */
+	private FileChannel fChannel = null;
+	private long fExportedRows = 0;
+	private long fWrittenBytes = 0;
+
+	/**
+	 * Create an exporter.
+	 *
+	 * @param jdbcDbConn
+	 * 			JDBC database connection
+	 * @param sql
+	 * 			SELECT SQL string, for example rendered by a QueryObjectSelect.
+	 */
+	public QueryObjectSelectExporter(@NonNull JdbcDatabaseConnection jdbcDbConn, @NonNull String sql) {
+		fJdbcDbConn = jdbcDbConn;
+		fSql = sql;
+	}
+
+	/**
+	 * Set amount of rows fetched from the database server at once, see
+	 * JdbcDatabaseConnection.openCursor().
+	 *
+	 * TIP: Set Integer.MIN_VALUE to stream rows one by one on MYSQL Connector/J
+	 * without useCursorFetch=true in the database URL.
+	 *
+	 * @param fetchSize
+	 * 			Fetch size, default is 1000.
+	 */
+	public void setFetchSize(int fetchSize) {
+		fFetchSize = fetchSize;
+	}
+
+	/**
+	 * Set size of the direct buffer written to the file at once.
+	 *
+	 * @param writeBufferSize
+	 * 			Buffer size in bytes, default is 1 MB.
+	 */
+	public synchronized void setWriteBufferSize(int writeBufferSize) {
+		fWriteBufferSize = Math.max(CHAR_BUFFER_SIZE, writeBufferSize);
+		fBytes = null;
+	}
+
+	/**
+	 * Set listener receiving export progress, setting null to disable progress
+	 * reports.
+	 *
+	 * @param exportListener
+	 * 			Export progress listener
+	 */
+	public void setExportListener(QueryObjectSelectExportListener exportListener) {
+		fExportListener = exportListener;
+	}
+
+	/**
+	 * Export all rows of the SELECT statement into a file, an existing file is
+	 * replaced.
+	 *
+	 * @param file
+	 * 			Export file
+	 * @param exportFormat
+	 * 			File format
+	 * @return Amount of exported rows, or -1 if the export failed.
+	 */
+	public synchronized long exportToFile(@NonNull Path file, @NonNull QueryObjectTableExportFormat exportFormat) {
+		Path partFile = file.resolveSibling(file.getFileName() + PART_FILE_SUFFIX);
+		JdbcDatabaseCursor cursor = fJdbcDbConn.openCursor(fSql, fFetchSize);
+		if (cursor == null) {
+			LOGGER.severe("Failed to export rows into " + file + ", cursor can not be opened.");
+			return -1;
+		}
+
+		if (fBytes == null) {
+			fBytes = ByteBuffer.allocateDirect(fWriteBufferSize);
+		}
+		fChars.clear();
+		fBytes.clear();
+		fEncoder.reset();
+		fExportedRows = 0;
+		fWrittenBytes = 0;
+		boolean partFileWritten = false;
+		try (JdbcDatabaseCursor rowCursor = cursor;
+				FileChannel channel = FileChannel.open(partFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+						StandardOpenOption.TRUNCATE_EXISTING)) {
+			fChannel = channel;
+			ResultSet results = rowCursor.getResultSet();
+			ResultSetMetaData metaData = results.getMetaData();
+			int columnAmount = metaData.getColumnCount();
+			String[] jsonKeys = new String[columnAmount];
+			boolean[] jsonLiterals = new boolean[columnAmount];
+			boolean[] jsonBooleans = new boolean[columnAmount];
+			for (int column = 0; column < columnAmount; column++) {
+				jsonKeys[column] = buildJsonString(metaData.getColumnLabel(column + 1)) + ":";
+				jsonLiterals[column] = isNumericType(metaData.getColumnType(column + 1));
+				jsonBooleans[column] = isBooleanType(metaData.getColumnType(column + 1));
+			}
+
+			if (exportFormat != QueryObjectTableExportFormat.NDJSON) {
+				writeHeader(exportFormat, metaData);
+			}
+			while (rowCursor.next()) {
+				if (exportFormat == QueryObjectTableExportFormat.NDJSON) {
+					writeJsonRow(results, jsonKeys, jsonLiterals, jsonBooleans);
+				} else {
+					writeSeparatedRow(exportFormat, results, columnAmount);
+				}
+				fExportedRows++;
+			}
+			encodeChars(true);
+			writeBytes();
+			channel.force(false);
+			partFileWritten = true;
+		} catch (SQLException | IOException exportException) {
+			LOGGER.severe("Failed to export rows into " + file + ". Details: " + exportException.getMessage());
+			return -1;
+		} catch (RuntimeException listenerException) {
+			LOGGER.severe("Failed to export rows into " + file + ", export listener failed. Details: "
+					+ listenerException.getMessage());
+			return -1;
+		} finally {
+			fChannel = null;
+			if (!partFileWritten) {
+				deletePartFile(partFile);
+			}
+		}
+
+		try {
+			try {
+				Files.move(partFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException atomicMoveException) {
+				Files.move(partFile, file, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} catch (IOException moveException) {
+			LOGGER.severe("Failed to replace " + file + " by exported rows. Details: " + moveException.getMessage());
+			deletePartFile(partFile);
+			return -1;
+		}
+		LOGGER.info("Exported " + fExportedRows + " rows, " + fWrittenBytes + " bytes into " + file);
+		return fExportedRows;
+	}
+
+	private void deletePartFile(Path partFile) {
+		try {
+			Files.deleteIfExists(partFile);
+		} catch (IOException deleteException) {
+			LOGGER.warning("Failed to delete " + partFile + ". Details: " + deleteException.getMessage());
+		}
+	}
+
+	/**
+	 * Write the header line of CSV and TSV files, containing column labels.
+	 */
+	private void writeHeader(QueryObjectTableExportFormat exportFormat, ResultSetMetaData metaData)
+			throws SQLException, IOException {
+		for (int column = 1; column <= metaData.getColumnCount(); column++) {
+			if (column > 1) {
+				append(exportFormat == QueryObjectTableExportFormat.CSV ? ',' : '\t');
+			}
+			if (exportFormat == QueryObjectTableExportFormat.CSV) {
+				appendCsvValue(metaData.getColumnLabel(column));
+			} else {
+				appendTsvValue(metaData.getColumnLabel(column));
+			}
+		}
+		appendLineEnd(exportFormat);
+	}
+
+	/**
+	 * Write the current row as CSV or TSV line.
+	 */
+	private void writeSeparatedRow(QueryObjectTableExportFormat exportFormat, ResultSet results, int columnAmount)
+			throws SQLException, IOException {
+		for (int column = 1; column <= columnAmount; column++) {
+			String value = results.getString(column);
+			if (exportFormat == QueryObjectTableExportFormat.CSV) {
+				if (column > 1) {
+					append(',');
+				}
+				if (value != null) {
+					appendCsvValue(value);
+				}
+			} else {
+				if (column > 1) {
+					append('\t');
+				}
+				if (value == null) {
+					append("\\N");
+				} else {
+					appendTsvValue(value);
+				}
+			}
+		}
+		appendLineEnd(exportFormat);
+	}
+
+	/**
+	 * Write the current row as JSON object line.
+	 *
+	 * <example>
+	 *  {"OrderID":10248,"CustomerName":"Vins et alcools","Shipped":true,"ShippedDate":null}
+	 * </example>
+	 */
+	private void writeJsonRow(ResultSet results, String[] jsonKeys, boolean[] jsonLiterals, boolean[] jsonBooleans)
+			throws SQLException, IOException {
+		append('{');
+		for (int column = 0; column < jsonKeys.length; column++) {
+			if (column > 0) {
+				append(',');
+			}
+			append(jsonKeys[column]);
+			if (jsonBooleans[column]) {
+				boolean value = results.getBoolean(column + 1);
+				append(results.wasNull() ? "null" : String.valueOf(value));
+				continue;
+			}
+			String value = results.getString(column + 1);
+			if (value == null) {
+				append("null");
+			} else if (jsonLiterals[column] && isJsonNumber(value)) {
+				append(value);
+			} else {
+				appendJsonValue(value);
+			}
+		}
+		append('}');
+		appendLineEnd(QueryObjectTableExportFormat.NDJSON);
+	}
+
+	private void appendLineEnd(QueryObjectTableExportFormat exportFormat) throws IOException {
+		append(exportFormat == QueryObjectTableExportFormat.CSV ? "\r\n" : "\n");
+	}
+
+	/**
+	 * Append a CSV value, quoted if it contains a comma, quote or line break.
+	 */
+	private void appendCsvValue(String value) throws IOException {
+		boolean quoted = false;
+		for (int i = 0; i < value.length() && !quoted; i++) {
+			char valueChar = value.charAt(i);
+			quoted = valueChar == ',' || valueChar == '"' || valueChar == '\r' || valueChar == '\n';
+		}
+		if (!quoted) {
+			append(value);
+			return;
+		}
+		append('"');
+		for (int i = 0; i < value.length(); i++) {
+			char valueChar = value.charAt(i);
+			if (valueChar == '"') {
+				append('"');
+			}
+			append(valueChar);
+		}
+		append('"');
+	}
+
+	/**
+	 * Append a TSV value with tab, line breaks and backslash escaped.
+	 */
+	private void appendTsvValue(String value) throws IOException {
+		for (int i = 0; i < value.length(); i++) {
+			char valueChar = value.charAt(i);
+			switch (valueChar) {
+			case '\t':
+				append("\\t");
+				break;
+			case '\n':
+				append("\\n");
+				break;
+			case '\r':
+				append("\\r");
+				break;
+			case '\\':
+				append("\\\\");
+				break;
+			default:
+				append(valueChar);
+			}
+		}
+	}
+
+	/**
+	 * Append a JSON string.
+	 */
+	private void appendJsonValue(String value) throws IOException {
+		append('"');
+		for (int i = 0; i < value.length(); i++) {
+			char valueChar = value.charAt(i);
+			switch (valueChar) {
+			case '"':
+				append("\\\"");
+				break;
+			case '\\':
+				append("\\\\");
+				break;
+			case '\n':
+				append("\\n");
+				break;
+			case '\r':
+				append("\\r");
+				break;
+			case '\t':
+				append("\\t");
+				break;
+			default:
+				if (valueChar < 0x20) {
+					append(String.format("\\u%04x", (int) valueChar));
+				} else {
+					append(valueChar);
+				}
+			}
+		}
+		append('"');
+	}
+
+	private static String buildJsonString(String value) {
+		StringBuilder jsonString = new StringBuilder("\"");
+		for (int i = 0; i < value.length(); i++) {
+			char valueChar = value.charAt(i);
+			if (valueChar == '"' || valueChar == '\\') {
+				jsonString.append('\\');
+			}
+			if (valueChar < 0x20) {
+				jsonString.append(String.format("\\u%04x", (int) valueChar));
+			} else {
+				jsonString.append(valueChar);
+			}
+		}
+		return jsonString.append('"').toString();
+	}
+
+	private static boolean isNumericType(int sqlType) {
+		switch (sqlType) {
+		case Types.TINYINT:
+		case Types.SMALLINT:
+		case Types.INTEGER:
+		case Types.BIGINT:
+		case Types.DECIMAL:
+		case Types.NUMERIC:
+		case Types.REAL:
+		case Types.FLOAT:
+		case Types.DOUBLE:
+			return true;
+		default:
+			return false;
+		}
+	}
+
+	private static boolean isBooleanType(int sqlType) {
+		return sqlType == Types.BOOLEAN || sqlType == Types.BIT;
+	}
+
+	/**
+	 * Check a numeric column value is a valid JSON number, NaN and Infinity of
+	 * floating point columns are exported as strings.
+	 */
+	private static boolean isJsonNumber(String value) {
+		if (value.isEmpty()) {
+			return false;
+		}
+		char firstChar = value.charAt(0);
+		return (firstChar == '-' || Character.isDigit(firstChar)) && value.indexOf('N') < 0 && value.indexOf('I') < 0;
+	}
+
+	private void append(char valueChar) throws IOException {
+		if (!fChars.hasRemaining()) {
+			encodeChars(false);
+		}
+		fChars.put(valueChar);
+	}
+
+	private void append(String value) throws IOException {
+		int offset = 0;
+		while (offset < value.length()) {
+			if (!fChars.hasRemaining()) {
+				encodeChars(false);
+			}
+			int length = Math.min(fChars.remaining(), value.length() - offset);
+			fChars.put(value, offset, offset + length);
+			offset += length;
+		}
+	}
+
+	/**
+	 * Encode buffered chars into the byte buffer, the byte buffer is written to
+	 * the file whenever it is full.
+	 *
+	 * @param endOfInput
+	 * 			True if no more chars follow.
+	 */
+	private void encodeChars(boolean endOfInput) throws IOException {
+		fChars.flip();
+		while (true) {
+			CoderResult coderResult = fEncoder.encode(fChars, fBytes, endOfInput);
+			if (coderResult.isOverflow()) {
+				writeBytes();
+				continue;
+			}
+			if (endOfInput) {
+				while (fEncoder.flush(fBytes).isOverflow()) {
+					writeBytes();
+				}
+			}
+			break;
+		}
+		/*
+		 * A high surrogate at the end stays in the buffer until its low surrogate
+		 * is appended.
+		 */
+		fChars.compact();
+	}
+
+	/**
+	 * Write the byte buffer to the file and report progress.
+	 */
+	private void writeBytes() throws IOException {
+		fBytes.flip();
+		while (fBytes.hasRemaining()) {
+			fWrittenBytes += fChannel.write(fBytes);
+		}
+		fBytes.clear();
+		if (fExportListener != null) {
+			fExportListener.exportProgress(fExportedRows, fWrittenBytes);
+		}
+	}
+}
@@ -0,0 +1,300 @@
+package QueryObjectFramework.QueryObjectTableStatements;
+
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+import org.eclipse.jdt.annotation.NonNull;
+
+import QueryObjectFramework.JdbcDatabaseConnection.JdbcDatabaseConnection;
+import QueryObjectFramework.JdbcDatabaseConnection.JdbcDatabaseCursor;
+
+/**
+ * Publisher class streams rows of a SELECT statement to Flow subscribers with
+ * backpressure.
+ *
+ * Every subscription opens its own cursor on the first request, and reads rows
+ * from the cursor only as they are requested by request(n). At most prefetch
+ * rows are read ahead of the requested rows, so a slow subscriber holds a
+ * bounded amount of rows in memory. The cursor and its database connection are
+ * released on completion, error and cancel.
+ *
+ * <example>
+ *  select.setRenderOnly(true);
+ *  select.selectColumnsWhereConditions(false);
+ *  QueryObjectSelectPublisher<Customer> publisher = new QueryObjectSelectPublisher<>(
+ *      jdbcDbConn, select.getRenderedSql(), new QueryObjectTableRowMapper<>(Customer.class));
+ *  publisher.subscribe(subscriber);
+ * </example>
+ *
+ * NOTE: Signals of one subscription are delivered one after another on threads
+ * of the executor, JDBC reads block these threads.
+ *
+ * NOTE: Cursors can not be opened on a JdbcDatabaseShardedConnection, publish
+ * rows of a sharded table from each shard connection instead. Subscriptions on
+ * a sharded connection fail with onError().
+ *
+ * @author Bohui Axelsson
+ */
+public class QueryObjectSelectPublisher<T> implements Flow.Publisher<T> {
+	private static final Logger LOGGER = Logger.getLogger(QueryObjectSelectPublisher.class.getName());
+
+	private static final int DEFAULT_PREFETCH = 256;
+
+	/*
+	 * Shared executor for publishers without own executor, threads are created
+	 * on demand because JDBC reads block.
+	 */
+	private static final ExecutorService DEFAULT_EXECUTOR = Executors.newCachedThreadPool(new ThreadFactory() {
+		private final AtomicInteger fThreadNumber = new AtomicInteger();
+
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, "QueryObjectSelectPublisher-" + fThreadNumber.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	});
+
+	private final @NonNull JdbcDatabaseConnection fJdbcDbConn;
+	private final @NonNull String fSql;
+	private final @NonNull QueryObjectTableRowMapper<T> fRowMapper;
+	private final int fPrefetch;
+	private final @NonNull Executor fExecutor;
+
+	/**
+	 * Create a publisher with 256 rows prefetch window and the shared executor.
+	 *
+	 * @param jdbcDbConn
+	 * 			JDBC database connection
+	 * @param sql
+	 * 			SELECT SQL string, for example rendered by a QueryObjectSelect.
+	 * @param rowMapper
+	 * 			Row mapper creating published items
+	 */
+	public QueryObjectSelectPublisher(@NonNull JdbcDatabaseConnection jdbcDbConn, @NonNull String sql,
+			@NonNull QueryObjectTableRowMapper<T> rowMapper) {
+		this(jdbcDbConn, sql, rowMapper, DEFAULT_PREFETCH, DEFAULT_EXECUTOR);
+	}
+
+	/**
+	 * Create a publisher.
+	 *
+	 * @param jdbcDbConn
+	 * 			JDBC database connection
+	 * @param sql
+	 * 			SELECT SQL string, for example rendered by a QueryObjectSelect.
+	 * @param rowMapper
+	 * 			Row mapper creating published items
+	 * @param prefetch
+	 * 			Max amount of rows read ahead of requested rows, also the fetch
+	 * 			size of the cursor.
+	 * @param executor
+	 * 			Executor delivering signals to subscribers
+	 */
+	public QueryObjectSelectPublisher(@NonNull JdbcDatabaseConnection jdbcDbConn, @NonNull String sql,
+			@NonNull QueryObjectTableRowMapper<T> rowMapper, int prefetch, @NonNull Executor executor) {
+		fJdbcDbConn = jdbcDbConn;
+		fSql = sql;
+		fRowMapper = rowMapper;
+		fPrefetch = Math.max(1, prefetch);
+		fExecutor = executor;
+	}
+
+	@Override
+	public void subscribe(Flow.Subscriber<? super T> subscriber) {
+		if (subscriber == null) {
+			throw new NullPointerException("Subscriber is null.");
+		}
+		CursorSubscription subscription = new CursorSubscription(subscriber);
+		subscriber.onSubscribe(subscription);
+	}
+
+	/**
+	 * Subscription reading rows of one cursor. All cursor reads and subscriber
+	 * signals happen in drain(), which never runs concurrently with itself.
+	 */
+	private final class CursorSubscription implements Flow.Subscription, Runnable {
+		private final Flow.Subscriber<? super T> fSubscriber;
+		private final AtomicLong fDemand = new AtomicLong();
+		private final AtomicInteger fWorkInProgress = new AtomicInteger();
+		private volatile boolean fCancelled = false;
+		private volatile Throwable fRequestError = null;
+
+		/*
+		 * Only accessed by drain()
+		 */
+		private final ArrayDeque<T> fPrefetchedRows = new ArrayDeque<>();
+		private JdbcDatabaseCursor fCursor = null;
+		private boolean fExhausted = false;
+		private boolean fTerminated = false;
+
+		private CursorSubscription(Flow.Subscriber<? super T> subscriber) {
+			fSubscriber = subscriber;
+		}
+
+		@Override
+		public void request(long n) {
+			if (n <= 0) {
+				fRequestError = new IllegalArgumentException("Requested amount must be positive, but was " + n + ".");
+			} else {
+				long demand;
+				long newDemand;
+				do {
+					demand = fDemand.get();
+					newDemand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+				} while (!fDemand.compareAndSet(demand, newDemand));
+			}
+			schedule();
+		}
+
+		@Override
+		public void cancel() {
+			fCancelled = true;
+			schedule();
+		}
+
+		private void schedule() {
+			if (fWorkInProgress.getAndIncrement() == 0) {
+				try {
+					fExecutor.execute(this);
+				} catch (RuntimeException rejectedException) {
+					LOGGER.severe("Failed to schedule row publishing. Details: " + rejectedException.getMessage());
+					fCancelled = true;
+					closeCursor();
+				}
+			}
+		}
+
+		@Override
+		public void run() {
+			drain();
+		}
+
+		/**
+		 * Deliver requested rows, prefetch rows ahead of demand and release the
+		 * cursor once the subscription is terminated.
+		 */
+		private void drain() {
+			int missed = 1;
+			do {
+				if (fTerminated) {
+					return;
+				}
+				if (fCancelled) {
+					terminate();
+					return;
+				}
+				if (fRequestError != null) {
+					fail(fRequestError);
+					return;
+				}
+				if (fCursor == null && !openCursor()) {
+					return;
+				}
+
+				long requested = fDemand.get();
+				long emitted = 0;
+				while (emitted < requested && !fCancelled) {
+					T row = fPrefetchedRows.poll();
+					if (row == null) {
+						if (fExhausted || !readRow()) {
+							break;
+						}
+						continue;
+					}
+					fSubscriber.onNext(row);
+					emitted++;
+				}
+				if (emitted > 0 && requested != Long.MAX_VALUE) {
+					fDemand.addAndGet(-emitted);
+				}
+				if (fTerminated) {
+					return;
+				}
+
+				while (!fExhausted && !fCancelled && fPrefetchedRows.size() < fPrefetch && fDemand.get() == 0
+						&& readRow()) {
+					/*
+					 * Read ahead within the prefetch window while nothing is requested.
+					 */
+				}
+				if (fTerminated) {
+					return;
+				}
+				if (fExhausted && fPrefetchedRows.isEmpty() && !fCancelled) {
+					terminate();
+					fSubscriber.onComplete();
+					return;
+				}
+				missed = fWorkInProgress.addAndGet(-missed);
+			} while (missed != 0);
+		}
+
+		/**
+		 * Open the cursor of this subscription.
+		 *
+		 * @return True if the cursor is open.
+		 */
+		private boolean openCursor() {
+			fCursor = fJdbcDbConn.openCursor(fSql, fPrefetch);
+			if (fCursor == null) {
+				fail(new SQLException("Failed to open cursor for sql: " + fSql));
+				return false;
+			}
+			return true;
+		}
+
+		/**
+		 * Read and map one row from the cursor into the prefetch buffer. The cursor is
+		 * released as soon as all rows have been read.
+		 *
+		 * @return True if a row has been read, false if all rows have been read or
+		 *         reading failed.
+		 */
+		private boolean readRow() {
+			try {
+				if (!fCursor.next()) {
+					fExhausted = true;
+					closeCursor();
+					return false;
+				}
+			} catch (SQLException readRowException) {
+				fail(readRowException);
+				return false;
+			}
+			T row = fRowMapper.mapRow(fCursor.getResultSet());
+			if (row == null) {
+				fail(new SQLException("Failed to map row for sql: " + fSql));
+				return false;
+			}
+			fPrefetchedRows.add(row);
+			return true;
+		}
+
+		private void fail(Throwable error) {
+			terminate();
+			fSubscriber.onError(error);
+		}
+
+		private void terminate() {
+			fTerminated = true;
+			fCancelled = true;
+			fPrefetchedRows.clear();
+			closeCursor();
+		}
+
+		private void closeCursor() {
+			if (fCursor != null) {
+				fCursor.close();
+			}
+		}
+	}
+}
@@ -1,12 +1,24 @@
 package QueryObjectFramework.QueryObjectTableStatements;
 
+import java.sql.ResultSet;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
 
 import org.eclipse.jdt.annotation.NonNull;
 
 import QueryObjectFramework.CommonClasses.SqlQueryTypes;
+import QueryObjectFramework.CommonClasses.SqlStatementStrings;
 import QueryObjectFramework.JdbcDatabaseConnection.JdbcDatabaseConnection;
+import QueryObjectFramework.JdbcDatabaseConnection.JdbcDatabaseDeadline;
+import QueryObjectFramework.JdbcDatabaseConnection.JdbcDatabaseSchemaCache;
+import QueryObjectFramework.JdbcDatabaseConnection.JdbcDatabaseShardedConnection;
+import QueryObjectFramework.QueryObjectDBTableStatements.QueryObjectDBTableColumnDataType;
+import QueryObjectFramework.QueryObjectDBTableStatements.QueryObjectDBTableIndexAdvisor;
 
 /**
  * Abstract class for Query Object pattern. Contains basic SQL table
@@ -18,12 +30,38 @@ import QueryObjectFramework.JdbcDatabaseConnection.JdbcDatabaseConnection;
  * @author Bohui Axelsson
  */
 public class QueryObjectTableAbstract {
+	private static final Logger LOGGER = Logger.getLogger(QueryObjectTableAbstract.class.getName());
+
+	/*
+	 * Plain table or column name, names with expressions, aliases or quotes
+	 * are not validated against schema metadata.
+	 */
+	private static final Pattern SQL_PLAIN_NAME = Pattern.compile("[A-Za-z0-9_$]+");
+
 	protected final SqlQueryTypes fQueryObjectType;
 	protected final @NonNull JdbcDatabaseConnection fJdbcDbConn;
 	protected final @NonNull List<String> fTables = new ArrayList<>();
 	protected final @NonNull List<String> fColumns = new ArrayList<>();
 	protected final @NonNull List<QueryObjectTableCriteriaCondition> fCriteriaConditions = new ArrayList<>();
 
+	/*
+	 * True if the statements of this query object can be retried on transient
+	 * errors, SELECT statements are always idempotent.
+	 */
+	private boolean fIdempotent = false;
+
+	/*
+	 * Time budget of each statement execution including retries in
+	 * milliseconds, 0 if only the connection query timeout applies.
+	 */
+	private long fQueryTimeoutMillis = 0;
+
+	/*
+	 * Render only settings, statements are built but not executed.
+	 */
+	private boolean fRenderOnly = false;
+	private String fRenderedSql = null;
+
 	public QueryObjectTableAbstract(SqlQueryTypes queryObjectType, @NonNull JdbcDatabaseConnection jdbcDbConn,
 			@NonNull List<String> tables, @NonNull List<String> columns) {
 		fQueryObjectType = queryObjectType;
@@ -59,4 +97,552 @@ public class QueryObjectTableAbstract {
 		fColumns.clear();
 		fCriteriaConditions.clear();
 	}
+
+	/**
+	 * Mark statements of this query object as idempotent, so they are retried on
+	 * transient errors by the JDBC connection.
+	 *
+	 * <example>
+	 *  UPDATE Customers SET City = 'Hamburg' WHERE CustomerID = 1;
+	 * </example>
+	 *
+	 * NOTE: Only mark statements that have the same effect when executed twice,
+	 * for example UPDATE statements setting constant values. Statements like
+	 * INSERT INTO or UPDATE Stock SET Amount = Amount - 1 are not idempotent.
+	 *
+	 * @param idempotent
+	 * 			True if statements can be retried.
+	 */
+	public void setIdempotent(boolean idempotent) {
+		fIdempotent = idempotent;
+	}
+
+	/**
+	 * Check whether statements of this query object can be retried on transient
+	 * errors.
+	 *
+	 * @return True if statements are idempotent.
+	 */
+	public boolean isIdempotent() {
+		return fIdempotent || fQueryObjectType == SqlQueryTypes.SELECT;
+	}
+
+	/**
+	 * Set query timeout of statements of this query object. The query timeout
+	 * covers all retries of a statement, and is shortened to the remaining time
+	 * of the current JdbcDatabaseDeadline.
+	 *
+	 * <example>
+	 *  select.setQueryTimeoutMillis(250);
+	 *  ResultSet results = select.selectColumnsWhereConditions(false);
+	 * </example>
+	 *
+	 * @param queryTimeoutMillis
+	 * 			Query timeout in milliseconds, 0 to only apply the query timeout
+	 * 			of the JDBC connection.
+	 */
+	public void setQueryTimeoutMillis(long queryTimeoutMillis) {
+		fQueryTimeoutMillis = Math.max(0, queryTimeoutMillis);
+	}
+
+	public long getQueryTimeoutMillis() {
+		return fQueryTimeoutMillis;
+	}
+
+	/**
+	 * Build statements of this query object without executing them, statement
+	 * methods then return NULL and the built SQL string is kept for
+	 * getRenderedSql().
+	 *
+	 * <example>
+	 *  select.setRenderOnly(true);
+	 *  select.selectColumnsWhereConditions(false);
+	 *  String sql = select.getRenderedSql();
+	 * </example>
+	 *
+	 * @param renderOnly
+	 * 			True to build statements without executing them.
+	 */
+	public void setRenderOnly(boolean renderOnly) {
+		fRenderOnly = renderOnly;
+	}
+
+	protected boolean isRenderOnly() {
+		return fRenderOnly;
+	}
+
+	/**
+	 * Get the SQL string of the statement last built by this query object.
+	 *
+	 * @return SQL string, or NULL if no statement has been built.
+	 */
+	public String getRenderedSql() {
+		return fRenderedSql;
+	}
+
+	protected void setRenderedSql(String renderedSql) {
+		fRenderedSql = renderedSql;
+	}
+
+	/**
+	 * Copy execution settings of this query object to a query object executing
+	 * a part of its statement: idempotency, query timeout and render only mode.
+	 *
+	 * @param partQueryObject
+	 * 			Query object executing a part of the statement
+	 */
+	protected void copyExecutionSettings(@NonNull QueryObjectTableAbstract partQueryObject) {
+		partQueryObject.fIdempotent = fIdempotent;
+		partQueryObject.fQueryTimeoutMillis = fQueryTimeoutMillis;
+		partQueryObject.fRenderOnly = fRenderOnly;
+	}
+
+	/**
+	 * Execute SQL statement of this query object through the JDBC connection,
+	 * idempotent statements are retried on transient errors.
+	 *
+	 * @param sql
+	 * 			SQL string
+	 * @return ResultSet SQL execution results
+	 */
+	protected ResultSet executeQueryObject(String sql) {
+		return executeQueryObject(sql, new ArrayList<QueryObjectTableCriteriaCondition>(),
+				new ArrayList<QueryObjectTableColumnAndValue>());
+	}
+
+	/**
+	 * Execute SQL statement of this query object filtered by WHERE criteria
+	 * conditions, see executeQueryObject(String, List, List).
+	 *
+	 * @param sql
+	 * 			SQL string
+	 * @param criteriaConditions
+	 * 			Criteria conditions of the WHERE clause in sql
+	 * @return ResultSet SQL execution results
+	 */
+	protected ResultSet executeQueryObject(String sql,
+			@NonNull List<QueryObjectTableCriteriaCondition> criteriaConditions) {
+		return executeQueryObject(sql, criteriaConditions, new ArrayList<QueryObjectTableColumnAndValue>());
+	}
+
+	/**
+	 * Execute SQL statement of this query object through the JDBC connection,
+	 * idempotent statements are retried on transient errors.
+	 *
+	 * On a sharded JDBC connection, the statement is sent directly to the shard
+	 * owning the shard key value of the first table. The shard key value is taken
+	 * from an '=' criteria condition in WHERE criteria conditions, or from
+	 * inserted column values. Statements without shard key value are sent to all
+	 * shards.
+	 *
+	 * @param sql
+	 * 			SQL string
+	 * @param criteriaConditions
+	 * 			Criteria conditions of the WHERE clause in sql, empty if sql has no
+	 * 			WHERE clause.
+	 * @param columnValues
+	 * 			Inserted column values of sql, empty if sql inserts no values.
+	 * @return ResultSet SQL execution results
+	 */
+	protected ResultSet executeQueryObject(String sql,
+			@NonNull List<QueryObjectTableCriteriaCondition> criteriaConditions,
+			@NonNull List<QueryObjectTableColumnAndValue> columnValues) {
+		fRenderedSql = sql;
+		if (fRenderOnly) {
+			return null;
+		}
+		if (fQueryTimeoutMillis > 0) {
+			JdbcDatabaseDeadline queryDeadline = JdbcDatabaseDeadline.start(fQueryTimeoutMillis);
+			try {
+				return routeQueryObject(sql, criteriaConditions, columnValues);
+			} finally {
+				queryDeadline.close();
+			}
+		}
+		return routeQueryObject(sql, criteriaConditions, columnValues);
+	}
+
+	/**
+	 * Send SQL statement to the JDBC connection, or to the shard owning its shard
+	 * key value on a sharded JDBC connection.
+	 *
+	 * @param sql
+	 * 			SQL string
+	 * @param criteriaConditions
+	 * 			Criteria conditions of the WHERE clause in sql
+	 * @param columnValues
+	 * 			Inserted column values of sql
+	 * @return ResultSet SQL execution results
+	 */
+	private ResultSet routeQueryObject(String sql, @NonNull List<QueryObjectTableCriteriaCondition> criteriaConditions,
+			@NonNull List<QueryObjectTableColumnAndValue> columnValues) {
+		if (fJdbcDbConn instanceof JdbcDatabaseShardedConnection && !fTables.isEmpty()) {
+			JdbcDatabaseShardedConnection shardedConn = (JdbcDatabaseShardedConnection) fJdbcDbConn;
+			String tableName = fTables.get(0).trim();
+			String shardKeyColumn = shardedConn.getShardKeyColumn(tableName);
+			if (shardKeyColumn == null && fQueryObjectType == SqlQueryTypes.SELECT) {
+				return shardedConn.executeReplicatedQueryObject(sql, isIdempotent());
+			}
+			if (shardKeyColumn != null) {
+				Object shardKeyValue = findShardKeyValue(tableName, shardKeyColumn, criteriaConditions, columnValues);
+				if (shardKeyValue != null) {
+					return shardedConn.executeQueryObjectOnShard(shardKeyValue, sql, isIdempotent());
+				}
+			}
+		}
+		return fJdbcDbConn.executeQueryObject(sql, isIdempotent());
+	}
+
+	/**
+	 * Find the single shard key value addressed by a statement.
+	 *
+	 * NOTE: Criteria conditions combined with OR or NOT may address rows on other
+	 * shards, no shard key value is taken from them.
+	 *
+	 * @param tableName
+	 * 			Sharded table name
+	 * @param shardKeyColumn
+	 * 			Shard key column of the table
+	 * @param criteriaConditions
+	 * 			WHERE criteria conditions
+	 * @param columnValues
+	 * 			Inserted column values
+	 * @return Shard key value, or NULL if the statement does not address one
+	 *         shard key value.
+	 */
+	private Object findShardKeyValue(String tableName, String shardKeyColumn,
+			List<QueryObjectTableCriteriaCondition> criteriaConditions,
+			List<QueryObjectTableColumnAndValue> columnValues) {
+		for (QueryObjectTableColumnAndValue columnValue : columnValues) {
+			if (isShardKeyColumn(tableName, shardKeyColumn, columnValue.getUpdateColumnName())) {
+				return columnValue.getUpdateValue();
+			}
+		}
+
+		Object shardKeyValue = null;
+		for (QueryObjectTableCriteriaCondition criteria : criteriaConditions) {
+			String conditionOperator = upperCaseSqlString(criteria.getConditionOperator());
+			if (conditionOperator.equals(SqlStatementStrings.SQL_TABLE_OR)
+					|| conditionOperator.equals(SqlStatementStrings.SQL_TABLE_NOT)) {
+				return null;
+			}
+			if (shardKeyValue == null && upperCaseSqlString(criteria.getOperator()).equals("=")
+					&& !isListCriteriaValue(criteria) && isShardKeyColumn(tableName, shardKeyColumn, criteria.getFiled())) {
+				shardKeyValue = criteria.getValue();
+			}
+		}
+		return shardKeyValue;
+	}
+
+	/**
+	 * Check whether a column reference, with or without table qualifier, is the
+	 * shard key column of a table.
+	 *
+	 * @param tableName
+	 * 			Sharded table name
+	 * @param shardKeyColumn
+	 * 			Shard key column of the table
+	 * @param columnReference
+	 * 			Column name with or without table qualifier
+	 * @return True if columnReference refers to the shard key column.
+	 */
+	private static boolean isShardKeyColumn(String tableName, String shardKeyColumn, String columnReference) {
+		String column = stripTableQualifier(columnReference);
+		if (!column.equalsIgnoreCase(shardKeyColumn)) {
+			return false;
+		}
+		String trimmedColumnReference = columnReference.trim();
+		return trimmedColumnReference.length() == column.length() || trimmedColumnReference
+				.substring(0, trimmedColumnReference.length() - column.length() - 1).equalsIgnoreCase(tableName);
+	}
+
+	/**
+	 * Validate table names, column names and criteria condition fields against the
+	 * schema metadata cache of the JDBC connection, so typos are reported before a
+	 * round trip to the database server.
+	 *
+	 * Qualified column names, for example Customers.CustomerID, are validated
+	 * against the qualifying table, other column names should exist in at least
+	 * one table of the query object. Expressions, aliases and '*' are not
+	 * validated.
+	 *
+	 * NOTE: Validation always passes if no schema metadata cache is set on the JDBC
+	 * connection or schema metadata can not be loaded.
+	 *
+	 * @param columnNames
+	 * 			Column names used by the statement
+	 * @param criteriaConditions
+	 * 			Criteria conditions used by the statement
+	 * @return True if all names exist in schema metadata.
+	 */
+	protected boolean validateSchemaNames(@NonNull List<String> columnNames,
+			@NonNull List<QueryObjectTableCriteriaCondition> criteriaConditions) {
+		JdbcDatabaseSchemaCache schemaCache = fJdbcDbConn.getSchemaCache();
+		if (schemaCache == null || !schemaCache.isLoaded()) {
+			return true;
+		}
+
+		List<String> tableNames = new ArrayList<>();
+		for (String table : fTables) {
+			String tableName = table == null ? "" : table.trim();
+			if (!SQL_PLAIN_NAME.matcher(tableName).matches()) {
+				continue;
+			}
+			if (!schemaCache.containsTable(tableName)) {
+				LOGGER.severe("Failed to validate query object, table " + tableName + " does not exist.");
+				return false;
+			}
+			tableNames.add(tableName);
+		}
+
+		List<String> columnReferences = new ArrayList<>(columnNames);
+		for (QueryObjectTableCriteriaCondition criteria : criteriaConditions) {
+			columnReferences.add(criteria.getFiled());
+		}
+		for (String columnReference : columnReferences) {
+			String column = stripTableQualifier(columnReference);
+			if (!SQL_PLAIN_NAME.matcher(column).matches()) {
+				continue;
+			}
+			String qualifier = columnReference.trim().substring(0, columnReference.trim().length() - column.length());
+			List<String> candidateTables = tableNames;
+			if (!qualifier.isEmpty()) {
+				String qualifyingTable = qualifier.substring(0, qualifier.length() - 1);
+				if (!SQL_PLAIN_NAME.matcher(qualifyingTable).matches()) {
+					continue;
+				}
+				candidateTables = Collections.singletonList(qualifyingTable);
+			}
+			if (candidateTables.isEmpty()) {
+				continue;
+			}
+			boolean columnExists = false;
+			for (String tableName : candidateTables) {
+				if (schemaCache.containsColumn(tableName, column)) {
+					columnExists = true;
+					break;
+				}
+			}
+			if (!columnExists) {
+				LOGGER.severe("Failed to validate query object, column " + columnReference.trim()
+						+ " does not exist in table " + candidateTables + ".");
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Check whether a criteria value should be quoted in SQL string. String values
+	 * are always quoted, numeric values are quoted if the criteria field is a text
+	 * or date column in the schema metadata cache, so the server does not need an
+	 * implicit conversion that prevents index usage.
+	 *
+	 * @param criteria
+	 * 			Criteria condition
+	 * @return True if criteria value should be quoted.
+	 */
+	protected boolean isQuotedCriteriaValue(@NonNull QueryObjectTableCriteriaCondition criteria) {
+		return criteria.isStringCriteriaValue() || isTextOrDateColumnValue(criteria.getFiled(), criteria.getValue());
+	}
+
+	/**
+	 * Check whether a criteria value is rendered as a parenthesized list, either
+	 * a collection of values or a subquery.
+	 *
+	 * @param criteria
+	 * 			Criteria condition
+	 * @return True if criteria value should be built by buildSqlCriteriaValueList().
+	 */
+	protected boolean isListCriteriaValue(@NonNull QueryObjectTableCriteriaCondition criteria) {
+		return criteria.isCollectionCriteriaValue() || criteria.isSubqueryCriteriaValue();
+	}
+
+	/**
+	 * Build SQL value list of a criteria condition with a collection value, for
+	 * IN and NOT IN operators. Values are quoted with the same rules as
+	 * isQuotedCriteriaValue(). A subquery value is built into a subquery in
+	 * parentheses.
+	 *
+	 * <example>
+	 *  (7,9,12)
+	 *  ('Berlin','Oslo')
+	 *  (SELECT CustomerID FROM Orders)
+	 * </example>
+	 *
+	 * @param criteria
+	 * 			Criteria condition with a collection or subquery value
+	 * @return SQL value list string
+	 */
+	protected String buildSqlCriteriaValueList(@NonNull QueryObjectTableCriteriaCondition criteria) {
+		if (criteria.isSubqueryCriteriaValue()) {
+			return "(" + ((QueryObjectSelect) criteria.getValue()).buildSqlSubquery() + ")";
+		}
+		StringBuilder valueList = new StringBuilder("(");
+		for (Object value : (Collection<?>) criteria.getValue()) {
+			if (value instanceof String || isTextOrDateColumnValue(criteria.getFiled(), value)) {
+				valueList.append("'" + value + "',");
+			} else {
+				valueList.append(value + ",");
+			}
+		}
+		valueList.setCharAt(valueList.length() - 1, ')');
+		return valueList.toString();
+	}
+
+	/**
+	 * Check whether an inserting/updating value should be quoted in SQL string,
+	 * with the same rules as isQuotedCriteriaValue().
+	 *
+	 * @param columnAndValue
+	 * 			Inserting/updating column and value
+	 * @return True if value should be quoted.
+	 */
+	protected boolean isQuotedUpdateValue(@NonNull QueryObjectTableColumnAndValue columnAndValue) {
+		return columnAndValue.isStringUpdateValue()
+				|| isTextOrDateColumnValue(columnAndValue.getUpdateColumnName(), columnAndValue.getUpdateValue());
+	}
+
+	/**
+	 * Check whether a numeric value belongs to a text or date column according to
+	 * the schema metadata cache.
+	 *
+	 * @param columnName
+	 * 			Column name with or without table qualifier
+	 * @param value
+	 * 			Column value
+	 * @return True if value is numeric and the column is a text or date column.
+	 */
+	private boolean isTextOrDateColumnValue(String columnName, Object value) {
+		JdbcDatabaseSchemaCache schemaCache = fJdbcDbConn.getSchemaCache();
+		String column = stripTableQualifier(columnName);
+		if (schemaCache == null || !(value instanceof Number) || column.isEmpty() || fTables.isEmpty()) {
+			return false;
+		}
+		String trimmedColumnName = columnName.trim();
+		String tableName = trimmedColumnName.length() > column.length()
+				? trimmedColumnName.substring(0, trimmedColumnName.length() - column.length() - 1)
+				: fTables.get(0).trim();
+		QueryObjectDBTableColumnDataType dataType = new QueryObjectDBTableColumnDataType(
+				schemaCache.getColumnDataType(tableName, column));
+		return dataType.isTextDataType() || dataType.isDateDataType();
+	}
+
+	/**
+	 * Report column sets used by WHERE criteria conditions and ORDER BY columns of
+	 * the first table to the index advisor of the JDBC connection.
+	 *
+	 * Columns compared by '=', IN or IS NULL are equality columns, columns compared
+	 * by <, >, <=, >=, BETWEEN or LIKE 'prefix%' are range columns. Negated
+	 * conditions can not use an index and are ignored. When conditions are combined
+	 * with OR, every column is reported as a single column set.
+	 *
+	 * NOTE: Nothing is recorded if no index advisor is set on the JDBC connection.
+	 *
+	 * @param criteriaConditions
+	 * 			Criteria conditions used by the statement, empty if WHERE is not used.
+	 * @param orderByLists
+	 * 			ORDER BY settings used by the statement, empty if ORDER BY is not used.
+	 */
+	protected void recordIndexAdvisorColumnUsage(@NonNull List<QueryObjectTableCriteriaCondition> criteriaConditions,
+			@NonNull List<QueryObjectTableOrderBy> orderByLists) {
+		QueryObjectDBTableIndexAdvisor indexAdvisor = fJdbcDbConn.getIndexAdvisor();
+		if (indexAdvisor == null || fTables.isEmpty()) {
+			return;
+		}
+
+		List<String> equalityColumns = new ArrayList<>();
+		List<String> rangeColumns = new ArrayList<>();
+		boolean orConditions = false;
+		for (int i = 0; i < criteriaConditions.size(); i++) {
+			QueryObjectTableCriteriaCondition criteria = criteriaConditions.get(i);
+			String conditionOperator = upperCaseSqlString(criteria.getConditionOperator());
+			if (conditionOperator.equals(SqlStatementStrings.SQL_TABLE_OR)) {
+				orConditions = true;
+			}
+			String column = stripTableQualifier(criteria.getFiled());
+			if (column.isEmpty() || conditionOperator.equals(SqlStatementStrings.SQL_TABLE_NOT)) {
+				continue;
+			}
+
+			String operator = upperCaseSqlString(criteria.getOperator());
+			if (operator.isEmpty()) {
+				/*
+				 * "" SalesDate BETWEEN '11/11/2010' AND '12/11/2010', BETWEEN is the condition
+				 * operator of the next criteria.
+				 */
+				if (i + 1 < criteriaConditions.size() && upperCaseSqlString(
+						criteriaConditions.get(i + 1).getConditionOperator()).equals(SqlStatementStrings.SQL_TABLE_BETWEEN)) {
+					rangeColumns.add(column);
+				}
+			} else if (operator.equals("=") || operator.equals("<=>") || operator.equals(SqlStatementStrings.SQL_TABLE_IN)
+					|| operator.equals(SqlStatementStrings.SQL_TABLE_IS_NULL)) {
+				equalityColumns.add(column);
+			} else if (operator.equals("<") || operator.equals(">") || operator.equals("<=") || operator.equals(">=")
+					|| operator.equals(SqlStatementStrings.SQL_TABLE_BETWEEN)) {
+				rangeColumns.add(column);
+			} else if (operator.equals(SqlStatementStrings.SQL_TABLE_LIKE) && criteria.getValue() != null
+					&& !String.valueOf(criteria.getValue()).startsWith("%")) {
+				rangeColumns.add(column);
+			}
+		}
+
+		String tableName = fTables.get(0).trim();
+		if (orConditions) {
+			for (String column : equalityColumns) {
+				indexAdvisor.recordColumnUsage(tableName, Collections.singletonList(column), new ArrayList<String>());
+			}
+			for (String column : rangeColumns) {
+				indexAdvisor.recordColumnUsage(tableName, new ArrayList<String>(), Collections.singletonList(column));
+			}
+			return;
+		}
+
+		/*
+		 * Only the first range column can use an index after the equality columns,
+		 * ORDER BY columns can only use the index if there is no range column.
+		 */
+		List<String> orderedColumns = new ArrayList<>();
+		if (!rangeColumns.isEmpty()) {
+			orderedColumns.add(rangeColumns.get(0));
+		} else {
+			for (QueryObjectTableOrderBy orderBy : orderByLists) {
+				String column = stripTableQualifier(orderBy.getOrderByColumn());
+				if (!column.isEmpty()) {
+					orderedColumns.add(column);
+				}
+			}
+		}
+		indexAdvisor.recordColumnUsage(tableName, equalityColumns, orderedColumns);
+	}
+
+	/**
+	 * Remove table qualifier from a column name.
+	 *
+	 * <example>
+	 *  Customers.CustomerID -> CustomerID
+	 * </example>
+	 *
+	 * @param column
+	 * 			Column name with or without table qualifier
+	 * @return Column name without table qualifier, empty string if column is NULL.
+	 */
+	protected static String stripTableQualifier(String column) {
+		if (column == null) {
+			return "";
+		}
+		String trimmedColumn = column.trim();
+		return trimmedColumn.substring(trimmedColumn.lastIndexOf('.') + 1);
+	}
+
+	/**
+	 * Trim and upper case an SQL keyword string.
+	 *
+	 * @param sqlString
+	 * 			SQL keyword string
+	 * @return Trimmed upper case string, empty string if sqlString is NULL.
+	 */
+	protected static String upperCaseSqlString(String sqlString) {
+		return sqlString == null ? "" : sqlString.trim().toUpperCase(Locale.ROOT);
+	}
 }
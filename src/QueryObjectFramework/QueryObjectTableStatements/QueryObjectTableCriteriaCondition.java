@@ -1,5 +1,6 @@
 package QueryObjectFramework.QueryObjectTableStatements;
 
+import java.util.Collection;
 import java.util.logging.Logger;
 
 /**
@@ -39,6 +40,11 @@ public class QueryObjectTableCriteriaCondition {
 	 *
 	 * Example, "" SalesDate BETWEEN '11/11/2010' AND '12/11/2010'
 	 *
+	 * Example, AND CustomerID IN (7, 9, 12), value is a collection.
+	 *
+	 * Example, AND CustomerID IN (SELECT CustomerID FROM Orders), value is a
+	 * nested SELECT query object.
+	 *
 	 * conditonOperation0 -> ""
 	 * filed0 -> SalesDate
 	 * operator0 -> ""
@@ -83,7 +89,10 @@ public class QueryObjectTableCriteriaCondition {
 	 *            Criteria condition field name, empty string is no field name
 	 *            needed.
 	 * @param value
-	 *            Criteria condition value, empty string is no value needed.
+	 *            Criteria condition value, empty string is no value needed. A
+	 *            collection value is rendered as value list for IN and NOT IN
+	 *            operators, for example " IN ". A nested QueryObjectSelect value
+	 *            is rendered as subquery, see isSubqueryCriteriaValue().
 	 * @param operator
 	 *            Criteria condition operator name, empty string is no operator name
 	 *            needed.
@@ -142,6 +151,14 @@ public class QueryObjectTableCriteriaCondition {
 			LOGGER.config("ConditionOperator is missing, changing ConditionOperator to empty string.");
 			fConditionOperator = "";
 		}
+		if (isCollectionCriteriaValue() && ((Collection<?>) fValue).isEmpty()) {
+			LOGGER.severe("Failed to validate criteria condition, value list of " + fField + " is empty.");
+			return false;
+		}
+		if (isSubqueryCriteriaValue() && ((QueryObjectSelect) fValue).buildSqlSubquery() == null) {
+			LOGGER.severe("Failed to validate criteria condition, subquery of " + fField + " can not be built.");
+			return false;
+		}
 		return true;
 	}
 
@@ -153,4 +170,39 @@ public class QueryObjectTableCriteriaCondition {
 	protected boolean isStringCriteriaValue() {
 		return fValue instanceof String;
 	}
+
+	/**
+	 * Check criteria value is a collection of values.
+	 *
+	 * @return True if criteria value is a value list.
+	 */
+	protected boolean isCollectionCriteriaValue() {
+		return fValue instanceof Collection;
+	}
+
+	/**
+	 * Check criteria value is a nested SELECT query object, rendered as subquery
+	 * in parentheses. Subqueries are used with IN, NOT IN, EXISTS, NOT EXISTS,
+	 * ANY and ALL, so rows are filtered by the database server in one round trip.
+	 *
+	 * <example>
+	 *  "" CustomerID IN (SELECT CustomerID FROM Orders WHERE Amount>100)
+	 *  -> field "CustomerID", operator " IN ", value select
+	 *
+	 *  NOT EXISTS (SELECT OrderID FROM Orders WHERE Orders.CustomerID = Customers.CustomerID)
+	 *  -> conditionOperator "NOT", field "", operator "EXISTS ", value select
+	 *
+	 *  "" Price > ALL (SELECT Price FROM Products WHERE CategoryID=2)
+	 *  -> field "Price", operator " > ALL ", value select
+	 * </example>
+	 *
+	 * TIP: Correlated conditions of the nested select compare with a column of
+	 * the outer query in the operator and an empty value, for example field
+	 * "Orders.CustomerID", operator " = Customers.CustomerID", value "".
+	 *
+	 * @return True if criteria value is a subquery.
+	 */
+	protected boolean isSubqueryCriteriaValue() {
+		return fValue instanceof QueryObjectSelect;
+	}
 }
@@ -0,0 +1,19 @@
+package QueryObjectFramework.QueryObjectTableStatements;
+
+/**
+ * Enum class for file formats that
+ * available in SELECT query Object export.
+ *
+ * - CSV: comma separated values with header line, values quoted as RFC 4180
+ *   if needed, NULL is an empty value.
+ * - TSV: tab separated values with header line, tab, line breaks and
+ *   backslash are escaped with backslash, NULL is \N. Readable by
+ *   LOAD DATA INFILE.
+ * - NDJSON: one JSON object per line, numeric and boolean columns are JSON
+ *   numbers and booleans, other columns are JSON strings.
+ *
+ * @author Bohui Axelsson
+ */
+public enum QueryObjectTableExportFormat {
+	CSV, TSV, NDJSON
+}
@@ -0,0 +1,25 @@
+package QueryObjectFramework.QueryObjectTableStatements;
+
+import QueryObjectFramework.CommonClasses.SqlStatementStrings;
+
+/**
+ * Enum class for MYSQL index hint types that
+ * available in SELECT query Object.
+ *
+ * @author Bohui Axelsson
+ */
+public enum QueryObjectTableIndexHintType {
+	USE_INDEX(SqlStatementStrings.SQL_TABLE_USE_INDEX),
+	FORCE_INDEX(SqlStatementStrings.SQL_TABLE_FORCE_INDEX),
+	IGNORE_INDEX(SqlStatementStrings.SQL_TABLE_IGNORE_INDEX);
+
+	private String fSqlIndexHintType;
+
+	QueryObjectTableIndexHintType(String sqlIndexHintType) {
+		this.fSqlIndexHintType = sqlIndexHintType;
+	}
+
+	protected String sqlIndexHintType() {
+		return fSqlIndexHintType;
+	}
+}
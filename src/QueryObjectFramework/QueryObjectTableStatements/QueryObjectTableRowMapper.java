@@ -0,0 +1,626 @@
+package QueryObjectFramework.QueryObjectTableStatements;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+import org.eclipse.jdt.annotation.NonNull;
+
+/**
+ * Row mapper class maps rows of SELECT results to objects of one class.
+ *
+ * Result columns are bound to the class once per query shape, the list of
+ * result column labels. A binding keeps the column index, a typed column
+ * reader and a MethodHandle of the setter, field or record component for
+ * every mapped column, so rows are mapped without reflection or column name
+ * lookups.
+ *
+ * Columns are bound by name, ignoring case and underscores:
+ * - Plain classes need a no argument constructor, columns are bound to
+ *   setters (setCustomerName) or else to non final fields (customerName or
+ *   fCustomerName).
+ * - Records are created with their canonical constructor, columns are bound
+ *   to record components, components without column are NULL, 0 or false.
+ *
+ * <example>
+ *  private static final QueryObjectTableRowMapper<Customer> CUSTOMER_MAPPER =
+ *      new QueryObjectTableRowMapper<>(Customer.class);
+ *
+ *  ResultSet results = select.selectColumns(false);
+ *  List<Customer> customers = CUSTOMER_MAPPER.mapRows(results);
+ * </example>
+ *
+ * TIP: Keep one row mapper per class, bindings are cached in the row mapper.
+ *
+ * NOTE: Columns without matching setter, field or record component are
+ * ignored.
+ *
+ * @author Bohui Axelsson
+ */
+public class QueryObjectTableRowMapper<T> {
+	private static final Logger LOGGER = Logger.getLogger(QueryObjectTableRowMapper.class.getName());
+
+	/*
+	 * Method handle types used by bindings
+	 */
+	private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+	private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class);
+	private static final MethodType RECORD_CONSTRUCTOR_TYPE = MethodType.methodType(Object.class, Object[].class);
+
+	private final @NonNull Class<T> fType;
+	private final boolean fRecordType;
+
+	/*
+	 * Bindings per query shape, result column labels -> binding
+	 */
+	private final @NonNull Map<String, RowBinding> fBindings = new ConcurrentHashMap<>();
+
+	/*
+	 * Binding of the ResultSet last passed to mapRow()
+	 */
+	private volatile ResultsBinding fLastResultsBinding = null;
+
+	/**
+	 * Typed column readers, selected once per bound column by the target type.
+	 */
+	private enum ColumnReader {
+		STRING {
+			@Override
+			Object read(ResultSet results, int column) throws SQLException {
+				return results.getString(column);
+			}
+		},
+		INT {
+			@Override
+			Object read(ResultSet results, int column) throws SQLException {
+				int value = results.getInt(column);
+				return results.wasNull() ? null : value;
+			}
+		},
+		LONG {
+			@Override
+			Object read(ResultSet results, int column) throws SQLException {
+				long value = results.getLong(column);
+				return results.wasNull() ? null : value;
+			}
+		},
+		SHORT {
+			@Override
+			Object read(ResultSet results, int column) throws SQLException {
+				short value = results.getShort(column);
+				return results.wasNull() ? null : value;
+			}
+		},
+		BYTE {
+			@Override
+			Object read(ResultSet results, int column) throws SQLException {
+				byte value = results.getByte(column);
+				return results.wasNull() ? null : value;
+			}
+		},
+		DOUBLE {
+			@Override
+			Object read(ResultSet results, int column) throws SQLException {
+				double value = results.getDouble(column);
+				return results.wasNull() ? null : value;
+			}
+		},
+		FLOAT {
+			@Override
+			Object read(ResultSet results, int column) throws SQLException {
+				float value = results.getFloat(column);
+				return results.wasNull() ? null : value;
+			}
+		},
+		BOOLEAN {
+			@Override
+			Object read(ResultSet results, int column) throws SQLException {
+				boolean value = results.getBoolean(column);
+				return results.wasNull() ? null : value;
+			}
+		},
+		BIG_DECIMAL {
+			@Override
+			Object read(ResultSet results, int column) throws SQLException {
+				return results.getBigDecimal(column);
+			}
+		},
+		BYTES {
+			@Override
+			Object read(ResultSet results, int column) throws SQLException {
+				return results.getBytes(column);
+			}
+		},
+		SQL_DATE {
+			@Override
+			Object read(ResultSet results, int column) throws SQLException {
+				return results.getDate(column);
+			}
+		},
+		SQL_TIME {
+			@Override
+			Object read(ResultSet results, int column) throws SQLException {
+				return results.getTime(column);
+			}
+		},
+		SQL_TIMESTAMP {
+			@Override
+			Object read(ResultSet results, int column) throws SQLException {
+				return results.getTimestamp(column);
+			}
+		},
+		LOCAL_DATE {
+			@Override
+			Object read(ResultSet results, int column) throws SQLException {
+				java.sql.Date value = results.getDate(column);
+				return value == null ? null : value.toLocalDate();
+			}
+		},
+		LOCAL_TIME {
+			@Override
+			Object read(ResultSet results, int column) throws SQLException {
+				java.sql.Time value = results.getTime(column);
+				return value == null ? null : value.toLocalTime();
+			}
+		},
+		LOCAL_DATE_TIME {
+			@Override
+			Object read(ResultSet results, int column) throws SQLException {
+				java.sql.Timestamp value = results.getTimestamp(column);
+				return value == null ? null : value.toLocalDateTime();
+			}
+		},
+		OBJECT {
+			@Override
+			Object read(ResultSet results, int column) throws SQLException {
+				return results.getObject(column);
+			}
+		};
+
+		abstract Object read(ResultSet results, int column) throws SQLException;
+
+		/**
+		 * Select the column reader producing values of a target type.
+		 *
+		 * @param type
+		 * 			Setter parameter, field or record component type
+		 * @return Column reader
+		 */
+		static ColumnReader forType(Class<?> type) {
+			if (type == String.class) {
+				return STRING;
+			} else if (type == int.class || type == Integer.class) {
+				return INT;
+			} else if (type == long.class || type == Long.class) {
+				return LONG;
+			} else if (type == short.class || type == Short.class) {
+				return SHORT;
+			} else if (type == byte.class || type == Byte.class) {
+				return BYTE;
+			} else if (type == double.class || type == Double.class) {
+				return DOUBLE;
+			} else if (type == float.class || type == Float.class) {
+				return FLOAT;
+			} else if (type == boolean.class || type == Boolean.class) {
+				return BOOLEAN;
+			} else if (type == BigDecimal.class) {
+				return BIG_DECIMAL;
+			} else if (type == byte[].class) {
+				return BYTES;
+			} else if (type == java.sql.Date.class) {
+				return SQL_DATE;
+			} else if (type == java.sql.Time.class) {
+				return SQL_TIME;
+			} else if (type == java.sql.Timestamp.class || type == java.util.Date.class) {
+				return SQL_TIMESTAMP;
+			} else if (type == LocalDate.class) {
+				return LOCAL_DATE;
+			} else if (type == LocalTime.class) {
+				return LOCAL_TIME;
+			} else if (type == LocalDateTime.class) {
+				return LOCAL_DATE_TIME;
+			}
+			return OBJECT;
+		}
+	}
+
+	/**
+	 * Binding of result columns of one query shape to the mapped class.
+	 */
+	private static final class RowBinding {
+		private final MethodHandle fConstructor;
+		private final int[] fColumns;
+		private final ColumnReader[] fReaders;
+
+		/*
+		 * Setters of plain classes, NULL setters are skipped for primitive
+		 * targets.
+		 */
+		private final MethodHandle[] fSetters;
+		private final boolean[] fPrimitiveTargets;
+
+		/*
+		 * Default values of record components, including components without column
+		 */
+		private final Object[] fRecordDefaults;
+		private final int[] fRecordComponents;
+
+		private RowBinding(MethodHandle constructor, int[] columns, ColumnReader[] readers, MethodHandle[] setters,
+				boolean[] primitiveTargets, Object[] recordDefaults, int[] recordComponents) {
+			fConstructor = constructor;
+			fColumns = columns;
+			fReaders = readers;
+			fSetters = setters;
+			fPrimitiveTargets = primitiveTargets;
+			fRecordDefaults = recordDefaults;
+			fRecordComponents = recordComponents;
+		}
+	}
+
+	/**
+	 * ResultSet and its row binding.
+	 */
+	private static final class ResultsBinding {
+		private final ResultSet fResults;
+		private final RowBinding fRowBinding;
+
+		private ResultsBinding(ResultSet results, RowBinding rowBinding) {
+			fResults = results;
+			fRowBinding = rowBinding;
+		}
+	}
+
+	/**
+	 * Create a row mapper for a class or record.
+	 *
+	 * @param type
+	 * 			Mapped class
+	 */
+	public QueryObjectTableRowMapper(@NonNull Class<T> type) {
+		fType = type;
+		fRecordType = isRecordType(type);
+	}
+
+	/**
+	 * Map all remaining rows of SELECT results.
+	 *
+	 * @param results
+	 * 			SELECT results
+	 * @return Mapped objects in row order, or NULL if results can not be read or
+	 *         mapped.
+	 */
+	public List<T> mapRows(ResultSet results) {
+		if (results == null) {
+			LOGGER.severe("Failed to map rows, results are missing.");
+			return null;
+		}
+		List<T> rows = new ArrayList<>();
+		try {
+			RowBinding rowBinding = getRowBinding(results);
+			while (results.next()) {
+				rows.add(mapRow(rowBinding, results));
+			}
+		} catch (SQLException mapRowsException) {
+			LOGGER.severe("Failed to map rows. Details: " + mapRowsException.getMessage());
+			return null;
+		} catch (Exception mapRowsException) {
+			LOGGER.severe("Failed to map rows to " + fType.getName() + ". Details: " + mapRowsException);
+			return null;
+		}
+		return rows;
+	}
+
+	/**
+	 * Map the current row of SELECT results.
+	 *
+	 * NOTE: The binding of the last ResultSet is kept, mapping rows of one
+	 * ResultSet one by one does not look up bindings again.
+	 *
+	 * @param results
+	 * 			SELECT results positioned on a row
+	 * @return Mapped object, or NULL if the row can not be read or mapped.
+	 */
+	public T mapRow(ResultSet results) {
+		try {
+			return mapRow(getRowBinding(results), results);
+		} catch (SQLException mapRowException) {
+			LOGGER.severe("Failed to map row. Details: " + mapRowException.getMessage());
+		} catch (Exception mapRowException) {
+			LOGGER.severe("Failed to map row to " + fType.getName() + ". Details: " + mapRowException);
+		}
+		return null;
+	}
+
+	/**
+	 * Map the current row with a binding.
+	 *
+	 * @param rowBinding
+	 * 			Binding of the results shape
+	 * @param results
+	 * 			SELECT results positioned on a row
+	 * @return Mapped object
+	 * @throws Exception
+	 * 			Failed on reading columns or creating the object
+	 */
+	@SuppressWarnings("unchecked")
+	private T mapRow(RowBinding rowBinding, ResultSet results) throws Exception {
+		int columnAmount = rowBinding.fColumns.length;
+		try {
+			if (rowBinding.fRecordDefaults != null) {
+				Object[] components = rowBinding.fRecordDefaults.clone();
+				for (int i = 0; i < columnAmount; i++) {
+					Object value = rowBinding.fReaders[i].read(results, rowBinding.fColumns[i]);
+					if (value != null) {
+						components[rowBinding.fRecordComponents[i]] = value;
+					}
+				}
+				return (T) (Object) rowBinding.fConstructor.invokeExact(components);
+			}
+
+			Object row = (Object) rowBinding.fConstructor.invokeExact();
+			for (int i = 0; i < columnAmount; i++) {
+				Object value = rowBinding.fReaders[i].read(results, rowBinding.fColumns[i]);
+				if (value == null && rowBinding.fPrimitiveTargets[i]) {
+					continue;
+				}
+				rowBinding.fSetters[i].invokeExact(row, value);
+			}
+			return (T) row;
+		} catch (Exception | Error mapRowException) {
+			throw mapRowException;
+		} catch (Throwable mapRowException) {
+			/*
+			 * MethodHandle.invokeExact() is declared to throw Throwable, only
+			 * Exception and Error subclasses exist in practice.
+			 */
+			throw new ReflectiveOperationException(mapRowException);
+		}
+	}
+
+	/**
+	 * Get the binding of the results shape, binding it on first use.
+	 *
+	 * @param results
+	 * 			SELECT results
+	 * @return Row binding
+	 * @throws SQLException
+	 * 			Failed on reading result metadata
+	 * @throws ReflectiveOperationException
+	 * 			Mapped class can not be bound
+	 */
+	private RowBinding getRowBinding(ResultSet results) throws SQLException, ReflectiveOperationException {
+		ResultsBinding lastResultsBinding = fLastResultsBinding;
+		if (lastResultsBinding != null && lastResultsBinding.fResults == results) {
+			return lastResultsBinding.fRowBinding;
+		}
+
+		ResultSetMetaData metaData = results.getMetaData();
+		StringBuilder shape = new StringBuilder();
+		for (int column = 1; column <= metaData.getColumnCount(); column++) {
+			shape.append(metaData.getColumnLabel(column)).append('\u0000');
+		}
+		RowBinding rowBinding = fBindings.get(shape.toString());
+		if (rowBinding == null) {
+			rowBinding = fRecordType ? bindRecord(metaData) : bindClass(metaData);
+			fBindings.put(shape.toString(), rowBinding);
+		}
+		fLastResultsBinding = new ResultsBinding(results, rowBinding);
+		return rowBinding;
+	}
+
+	/**
+	 * Bind result columns to setters or fields of a plain class.
+	 *
+	 * @param metaData
+	 * 			Result metadata
+	 * @return Row binding
+	 * @throws SQLException
+	 * 			Failed on reading result metadata
+	 * @throws ReflectiveOperationException
+	 * 			No accessible no argument constructor
+	 */
+	private RowBinding bindClass(ResultSetMetaData metaData) throws SQLException, ReflectiveOperationException {
+		MethodHandles.Lookup lookup = MethodHandles.lookup();
+		Constructor<T> constructor = fType.getDeclaredConstructor();
+		constructor.setAccessible(true);
+		MethodHandle constructorHandle = lookup.unreflectConstructor(constructor).asType(CONSTRUCTOR_TYPE);
+
+		Map<String, Method> setters = new HashMap<>();
+		for (Class<?> type = fType; type != null && type != Object.class; type = type.getSuperclass()) {
+			for (Method method : type.getDeclaredMethods()) {
+				if (method.getName().startsWith("set") && method.getParameterCount() == 1
+						&& !Modifier.isStatic(method.getModifiers())) {
+					String propertyName = normalizeName(method.getName().substring(3));
+					if (!setters.containsKey(propertyName)) {
+						setters.put(propertyName, method);
+					}
+				}
+			}
+		}
+		Map<String, Field> fields = new HashMap<>();
+		for (Class<?> type = fType; type != null && type != Object.class; type = type.getSuperclass()) {
+			for (Field field : type.getDeclaredFields()) {
+				int modifiers = field.getModifiers();
+				if (Modifier.isStatic(modifiers) || Modifier.isFinal(modifiers)) {
+					continue;
+				}
+				String fieldName = field.getName();
+				if (fieldName.length() > 1 && fieldName.charAt(0) == 'f' && Character.isUpperCase(fieldName.charAt(1))) {
+					fieldName = fieldName.substring(1);
+				}
+				if (!fields.containsKey(normalizeName(fieldName))) {
+					fields.put(normalizeName(fieldName), field);
+				}
+			}
+		}
+
+		List<Integer> columns = new ArrayList<>();
+		List<ColumnReader> readers = new ArrayList<>();
+		List<MethodHandle> setterHandles = new ArrayList<>();
+		List<Boolean> primitiveTargets = new ArrayList<>();
+		for (int column = 1; column <= metaData.getColumnCount(); column++) {
+			String columnName = normalizeName(metaData.getColumnLabel(column));
+			Class<?> targetType;
+			MethodHandle setterHandle;
+			Method setter = setters.get(columnName);
+			Field field = fields.get(columnName);
+			if (setter != null) {
+				setter.setAccessible(true);
+				targetType = setter.getParameterTypes()[0];
+				setterHandle = lookup.unreflect(setter);
+			} else if (field != null) {
+				field.setAccessible(true);
+				targetType = field.getType();
+				setterHandle = lookup.unreflectSetter(field);
+			} else {
+				LOGGER.fine("Column " + metaData.getColumnLabel(column) + " is not mapped to " + fType.getName());
+				continue;
+			}
+			columns.add(column);
+			readers.add(ColumnReader.forType(targetType));
+			setterHandles.add(setterHandle.asType(SETTER_TYPE));
+			primitiveTargets.add(targetType.isPrimitive());
+		}
+
+		boolean[] primitiveTargetArray = new boolean[primitiveTargets.size()];
+		for (int i = 0; i < primitiveTargetArray.length; i++) {
+			primitiveTargetArray[i] = primitiveTargets.get(i);
+		}
+		return new RowBinding(constructorHandle, toIntArray(columns), readers.toArray(new ColumnReader[0]),
+				setterHandles.toArray(new MethodHandle[0]), primitiveTargetArray, null, null);
+	}
+
+	/**
+	 * Bind result columns to components of a record, records are read through
+	 * reflection so the framework still builds on Java versions without
+	 * records.
+	 *
+	 * @param metaData
+	 * 			Result metadata
+	 * @return Row binding
+	 * @throws SQLException
+	 * 			Failed on reading result metadata
+	 * @throws ReflectiveOperationException
+	 * 			Record components or canonical constructor can not be read
+	 */
+	private RowBinding bindRecord(ResultSetMetaData metaData) throws SQLException, ReflectiveOperationException {
+		Object[] recordComponents = (Object[]) Class.class.getMethod("getRecordComponents").invoke(fType);
+		Class<?>[] componentTypes = new Class<?>[recordComponents.length];
+		Map<String, Integer> componentIndexes = new HashMap<>();
+		for (int i = 0; i < recordComponents.length; i++) {
+			Method getName = recordComponents[i].getClass().getMethod("getName");
+			Method getType = recordComponents[i].getClass().getMethod("getType");
+			componentIndexes.put(normalizeName((String) getName.invoke(recordComponents[i])), i);
+			componentTypes[i] = (Class<?>) getType.invoke(recordComponents[i]);
+		}
+
+		Constructor<T> constructor = fType.getDeclaredConstructor(componentTypes);
+		constructor.setAccessible(true);
+		MethodHandle constructorHandle = MethodHandles.lookup().unreflectConstructor(constructor)
+				.asType(MethodType.methodType(Object.class, componentTypes).generic())
+				.asSpreader(Object[].class, componentTypes.length).asType(RECORD_CONSTRUCTOR_TYPE);
+
+		Object[] recordDefaults = new Object[componentTypes.length];
+		for (int i = 0; i < componentTypes.length; i++) {
+			recordDefaults[i] = defaultValue(componentTypes[i]);
+		}
+
+		List<Integer> columns = new ArrayList<>();
+		List<Integer> components = new ArrayList<>();
+		List<ColumnReader> readers = new ArrayList<>();
+		for (int column = 1; column <= metaData.getColumnCount(); column++) {
+			Integer component = componentIndexes.get(normalizeName(metaData.getColumnLabel(column)));
+			if (component == null) {
+				LOGGER.fine("Column " + metaData.getColumnLabel(column) + " is not mapped to " + fType.getName());
+				continue;
+			}
+			columns.add(column);
+			components.add(component);
+			readers.add(ColumnReader.forType(componentTypes[component]));
+		}
+		return new RowBinding(constructorHandle, toIntArray(columns), readers.toArray(new ColumnReader[0]), null,
+				null, recordDefaults, toIntArray(components));
+	}
+
+	/**
+	 * Check whether a class is a record, through reflection for Java versions
+	 * without records.
+	 *
+	 * @param type
+	 * 			Class
+	 * @return True if type is a record.
+	 */
+	private static boolean isRecordType(Class<?> type) {
+		try {
+			return (Boolean) Class.class.getMethod("isRecord").invoke(type);
+		} catch (ReflectiveOperationException noRecordsException) {
+			return false;
+		}
+	}
+
+	/**
+	 * Get the default value of a record component without column.
+	 *
+	 * @param type
+	 * 			Component type
+	 * @return 0 or false for primitive types, otherwise NULL.
+	 */
+	private static Object defaultValue(Class<?> type) {
+		if (!type.isPrimitive()) {
+			return null;
+		} else if (type == boolean.class) {
+			return false;
+		} else if (type == char.class) {
+			return '\u0000';
+		} else if (type == long.class) {
+			return 0L;
+		} else if (type == double.class) {
+			return 0.0d;
+		} else if (type == float.class) {
+			return 0.0f;
+		} else if (type == short.class) {
+			return (short) 0;
+		} else if (type == byte.class) {
+			return (byte) 0;
+		}
+		return 0;
+	}
+
+	/**
+	 * Normalize a column or property name for matching, lower case without
+	 * underscores.
+	 *
+	 * @param name
+	 * 			Column or property name
+	 * @return Normalized name
+	 */
+	private static String normalizeName(String name) {
+		return name == null ? "" : name.replace("_", "").toLowerCase(Locale.ROOT);
+	}
+
+	private static int[] toIntArray(List<Integer> values) {
+		int[] array = new int[values.size()];
+		for (int i = 0; i < array.length; i++) {
+			array[i] = values.get(i);
+		}
+		return array;
+	}
+}
@@ -103,13 +103,16 @@ public class QueryObjectUpdate extends QueryObjectTableAbstract {
 
 		String sql = fQueryObjectType.sqlQueryType() + " " + fTables.get(0) + " " + SqlStatementStrings.SQL_TABLE_SET
 				+ " " + buildSqlUpdateColumnsVaulesClause() + " " + ";";
-		return fJdbcDbConn.executeQueryObject(sql);
+		return executeQueryObject(sql);
 	}
 
 	/**
 	 * Validate fTables list only contains one table. fUpdateItems is not empty.
+	 * Table, column and criteria names are validated against schema metadata
+	 * cache if it is enabled.
 	 *
-	 * @return True if fTables only contains one table, fUpdateItems is not empty.
+	 * @return True if fTables only contains one table, fUpdateItems is not empty
+	 *         and all names are valid.
 	 */
 	private boolean validatUpdateAllColumnsWithValues() {
 		if (fTables.size() != 1) {
@@ -120,7 +123,12 @@ public class QueryObjectUpdate extends QueryObjectTableAbstract {
 			LOGGER.severe("Failed to update values in table, update columns and values are missing.");
 			return false;
 		}
-		return true;
+
+		List<String> columnNames = new ArrayList<>();
+		for (QueryObjectTableColumnAndValue updateItem : fUpdateItems) {
+			columnNames.add(updateItem.getUpdateColumnName());
+		}
+		return validateSchemaNames(columnNames, fCriteriaConditions);
 	}
 
 	/**
@@ -137,7 +145,7 @@ public class QueryObjectUpdate extends QueryObjectTableAbstract {
 	private String buildSqlUpdateColumnsVaulesClause() {
 		StringBuilder updateColumsAndValues = new StringBuilder();
 		for (QueryObjectTableColumnAndValue updateItem : fUpdateItems) {
-			if (updateItem.isStringUpdateValue()) {
+			if (isQuotedUpdateValue(updateItem)) {
 				updateColumsAndValues.append(updateItem.getUpdateColumnName() + " = " + "'" + updateItem.getUpdateValue() + "'" + ",");
 			} else {
 				updateColumsAndValues.append(updateItem.getUpdateColumnName() + " = " + updateItem.getUpdateValue() + ",");
@@ -167,6 +175,8 @@ public class QueryObjectUpdate extends QueryObjectTableAbstract {
 			return null;
 		}
 
+		recordIndexAdvisorColumnUsage(fCriteriaConditions, new ArrayList<QueryObjectTableOrderBy>());
+
 		String whereClause = buildSqlWhereClause();
 		String sql = null;
 		if (whereClause.equals("")) {
@@ -177,7 +187,7 @@ public class QueryObjectUpdate extends QueryObjectTableAbstract {
 					+ " " + buildSqlUpdateColumnsVaulesClause() + " " + SqlStatementStrings.SQL_TABLE_WHERE + " " +
 					 buildSqlWhereClause() + ";";
 		}
-		return fJdbcDbConn.executeQueryObject(sql);
+		return executeQueryObject(sql, fCriteriaConditions);
 	}
 
 	/**
@@ -209,7 +219,10 @@ public class QueryObjectUpdate extends QueryObjectTableAbstract {
 	private String buildSqlWhereClause() {
 		StringBuilder whereClause = new StringBuilder("");
 		for (QueryObjectTableCriteriaCondition sqlCriteria : fCriteriaConditions) {
-			if (sqlCriteria.isStringCriteriaValue()) {
+			if (isListCriteriaValue(sqlCriteria)) {
+				whereClause.append(sqlCriteria.getConditionOperator() + " " + sqlCriteria.getFiled()
+						+ sqlCriteria.getOperator() + buildSqlCriteriaValueList(sqlCriteria) + " ");
+			} else if (isQuotedCriteriaValue(sqlCriteria)) {
 				whereClause.append(sqlCriteria.getConditionOperator() + " " + sqlCriteria.getFiled()
 						+ sqlCriteria.getOperator() + "'" + sqlCriteria.getValue() + "' ");
 			} else {
@@ -0,0 +1,613 @@
+package QueryObjectFramework.QueryObjectTableStatements;
+
+import java.lang.ref.WeakReference;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import org.eclipse.jdt.annotation.NonNull;
+
+import QueryObjectFramework.JdbcDatabaseConnection.JdbcDatabaseConnection;
+import QueryObjectFramework.JdbcDatabaseConnection.JdbcDatabaseShardedConnection;
+
+/**
+ * Write behind buffer class for UPDATE statements on hot rows.
+ *
+ * Updates are collected per row, addressed by table, key column and key value,
+ * instead of being executed one by one:
+ * - update() sets column values, the last written value of a column wins.
+ * - increment() adds a delta to a numeric column, deltas of a column are summed
+ *   up, or added to a value set before.
+ *
+ * Pending rows are written as one UPDATE statement per row, executed in one
+ * JDBC batch:
+ * - when the amount of pending rows reaches maxPendingRows, by the updating
+ *   thread,
+ * - every flushIntervalMillis, by a background thread,
+ * - on flush(), close() and JVM shutdown.
+ *
+ * <example>
+ *  QueryObjectUpdateWriteBehindBuffer buffer = new QueryObjectUpdateWriteBehindBuffer(jdbcDbConn, 1000, 200);
+ *  buffer.increment("PageCounters", "PageID", 42, "Hits", 1);
+ *  buffer.update("PageCounters", "PageID", 42,
+ *      Arrays.asList(new QueryObjectTableColumnAndValue("LastVisit", "2020-01-01 10:00:00")));
+ *
+ *  // Hundreds of calls above are written as one statement
+ *  UPDATE PageCounters SET Hits = Hits + 317, LastVisit = '2020-01-01 10:00:00' WHERE PageID=42;
+ * </example>
+ *
+ * NOTE: Buffered updates are not visible to reads until they are flushed, and
+ * updates pending at a crash of the JVM are lost. Only buffer updates which
+ * tolerate this, for example counters and status rows.
+ *
+ * NOTE: Rows of a failed batch are put back and merged with newer updates, rows
+ * failing 3 flushes in a row are dropped. Rows with deltas of a batch whose
+ * commit outcome is unknown are dropped, so deltas are never added twice.
+ *
+ * NOTE: Close buffers when they are no longer used, close() writes pending
+ * rows and stops the background flush thread. Buffers are flushed at JVM
+ * shutdown by one shared shutdown hook, which does not keep unused buffers
+ * alive, so updates of a buffer that is garbage collected before being closed
+ * are lost.
+ *
+ * @author Bohui Axelsson
+ */
+public class QueryObjectUpdateWriteBehindBuffer implements AutoCloseable {
+	private static final Logger LOGGER = Logger.getLogger(QueryObjectUpdateWriteBehindBuffer.class.getName());
+
+	private static final int MAX_FLUSH_FAILURES = 3;
+
+	/*
+	 * Buffers not closed yet, flushed by the shared shutdown hook. Buffers are
+	 * weakly referenced, so the hook does not keep them alive.
+	 */
+	private static final Set<QueryObjectUpdateWriteBehindBuffer> OPEN_BUFFERS = Collections
+			.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<QueryObjectUpdateWriteBehindBuffer, Boolean>()));
+
+	/*
+	 * Static, so flush threads do not reference a buffer.
+	 */
+	private static final ThreadFactory FLUSH_THREAD_FACTORY = new ThreadFactory() {
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, "QueryObjectUpdateWriteBehindBuffer-flush");
+			thread.setDaemon(true);
+			return thread;
+		}
+	};
+
+	static {
+		Runtime.getRuntime().addShutdownHook(new Thread(new Runnable() {
+			@Override
+			public void run() {
+				List<QueryObjectUpdateWriteBehindBuffer> openBuffers;
+				synchronized (OPEN_BUFFERS) {
+					openBuffers = new ArrayList<>(OPEN_BUFFERS);
+				}
+				for (QueryObjectUpdateWriteBehindBuffer openBuffer : openBuffers) {
+					try {
+						openBuffer.flush();
+					} catch (RuntimeException flushException) {
+						LOGGER.severe("Failed to flush buffered updates at shutdown. Details: "
+								+ flushException.getMessage());
+					}
+				}
+			}
+		}, "QueryObjectUpdateWriteBehindBuffer-shutdown"));
+	}
+
+	/**
+	 * Background flush of a buffer, references the buffer weakly and stops its
+	 * scheduler once the buffer is garbage collected.
+	 */
+	private static final class BackgroundFlush implements Runnable {
+		private final @NonNull WeakReference<QueryObjectUpdateWriteBehindBuffer> fBuffer;
+		private final @NonNull ScheduledExecutorService fFlushScheduler;
+
+		private BackgroundFlush(@NonNull QueryObjectUpdateWriteBehindBuffer buffer,
+				@NonNull ScheduledExecutorService flushScheduler) {
+			fBuffer = new WeakReference<>(buffer);
+			fFlushScheduler = flushScheduler;
+		}
+
+		@Override
+		public void run() {
+			QueryObjectUpdateWriteBehindBuffer buffer = fBuffer.get();
+			if (buffer == null) {
+				fFlushScheduler.shutdown();
+				return;
+			}
+			try {
+				buffer.flush();
+			} catch (RuntimeException flushException) {
+				LOGGER.severe("Failed to flush buffered updates. Details: " + flushException.getMessage());
+			}
+		}
+	}
+
+	private final @NonNull JdbcDatabaseConnection fJdbcDbConn;
+	private final int fMaxPendingRows;
+
+	/*
+	 * Pending row updates in order of first update, guarded by fPendingLock.
+	 * fFlushLock serializes flushes, so a row is never written by two batches
+	 * at the same time.
+	 */
+	private final @NonNull Object fPendingLock = new Object();
+	private final @NonNull Object fFlushLock = new Object();
+	private @NonNull LinkedHashMap<PendingRowKey, PendingRowUpdate> fPendingRows = new LinkedHashMap<>();
+
+	private final ScheduledExecutorService fFlushScheduler;
+	private volatile boolean fClosed = false;
+
+	/**
+	 * Create a write behind buffer.
+	 *
+	 * @param jdbcDbConn
+	 * 			JDBC database connection
+	 * @param maxPendingRows
+	 * 			Amount of pending rows triggering a flush
+	 * @param flushIntervalMillis
+	 * 			Interval of background flushes in milliseconds, 0 to disable
+	 * 			background flushes.
+	 */
+	public QueryObjectUpdateWriteBehindBuffer(@NonNull JdbcDatabaseConnection jdbcDbConn, int maxPendingRows,
+			long flushIntervalMillis) {
+		fJdbcDbConn = jdbcDbConn;
+		fMaxPendingRows = Math.max(1, maxPendingRows);
+
+		if (flushIntervalMillis > 0) {
+			fFlushScheduler = Executors.newSingleThreadScheduledExecutor(FLUSH_THREAD_FACTORY);
+			fFlushScheduler.scheduleWithFixedDelay(new BackgroundFlush(this, fFlushScheduler), flushIntervalMillis,
+					flushIntervalMillis, TimeUnit.MILLISECONDS);
+		} else {
+			fFlushScheduler = null;
+		}
+		OPEN_BUFFERS.add(this);
+	}
+
+	/**
+	 * Buffer column values of a row, values replace pending values and deltas of
+	 * the same columns.
+	 *
+	 * @param tableName
+	 * 			Table name
+	 * @param keyColumn
+	 * 			Key column addressing the row
+	 * @param keyValue
+	 * 			Key value of the row
+	 * @param updateItems
+	 * 			Updating column and value lists
+	 * @return True if updates are buffered.
+	 */
+	public boolean update(@NonNull String tableName, @NonNull String keyColumn, @NonNull Object keyValue,
+			@NonNull List<QueryObjectTableColumnAndValue> updateItems) {
+		if (!validateBufferedUpdate(tableName, keyColumn)) {
+			return false;
+		}
+		if (updateItems.isEmpty()) {
+			LOGGER.severe("Failed to buffer update, update columns and values are missing.");
+			return false;
+		}
+
+		int pendingRowAmount;
+		synchronized (fPendingLock) {
+			PendingRowUpdate pendingRow = getPendingRow(new PendingRowKey(tableName, keyColumn, keyValue));
+			for (QueryObjectTableColumnAndValue updateItem : updateItems) {
+				pendingRow.setValue(updateItem.getUpdateColumnName(), updateItem.getUpdateValue());
+			}
+			pendingRowAmount = fPendingRows.size();
+		}
+		flushIfFull(pendingRowAmount);
+		return true;
+	}
+
+	/**
+	 * Buffer a delta added to a numeric column of a row.
+	 *
+	 * @param tableName
+	 * 			Table name
+	 * @param keyColumn
+	 * 			Key column addressing the row
+	 * @param keyValue
+	 * 			Key value of the row
+	 * @param column
+	 * 			Numeric column name
+	 * @param delta
+	 * 			Delta added to the column, negative to subtract.
+	 * @return True if the delta is buffered, false if the column has a pending non
+	 *         numeric value.
+	 */
+	public boolean increment(@NonNull String tableName, @NonNull String keyColumn, @NonNull Object keyValue,
+			@NonNull String column, @NonNull Number delta) {
+		if (!validateBufferedUpdate(tableName, keyColumn)) {
+			return false;
+		}
+		if (column.trim().isEmpty()) {
+			LOGGER.severe("Failed to buffer delta, column name is missing.");
+			return false;
+		}
+		if (toDecimal(delta) == null) {
+			LOGGER.severe("Failed to buffer delta, " + delta + " is not a finite number.");
+			return false;
+		}
+
+		int pendingRowAmount;
+		synchronized (fPendingLock) {
+			if (!getPendingRow(new PendingRowKey(tableName, keyColumn, keyValue)).addDelta(column, delta)) {
+				LOGGER.severe("Failed to buffer delta, column " + column + " has a pending non numeric value.");
+				return false;
+			}
+			pendingRowAmount = fPendingRows.size();
+		}
+		flushIfFull(pendingRowAmount);
+		return true;
+	}
+
+	/**
+	 * Get amount of rows with pending updates.
+	 *
+	 * @return Amount of pending rows
+	 */
+	public int getPendingRowAmount() {
+		synchronized (fPendingLock) {
+			return fPendingRows.size();
+		}
+	}
+
+	/**
+	 * Write all pending rows to the database, one batch per database.
+	 *
+	 * @return True if all pending rows have been written.
+	 */
+	public boolean flush() {
+		synchronized (fFlushLock) {
+			LinkedHashMap<PendingRowKey, PendingRowUpdate> flushingRows;
+			synchronized (fPendingLock) {
+				if (fPendingRows.isEmpty()) {
+					return true;
+				}
+				flushingRows = fPendingRows;
+				fPendingRows = new LinkedHashMap<>();
+			}
+
+			/*
+			 * Rows of a sharded table are written to the shard owning their key.
+			 */
+			Map<JdbcDatabaseConnection, List<PendingRowKey>> batchRowKeys = new LinkedHashMap<>();
+			for (PendingRowKey rowKey : flushingRows.keySet()) {
+				JdbcDatabaseConnection targetConn = getTargetConnection(rowKey);
+				List<PendingRowKey> rowKeys = batchRowKeys.get(targetConn);
+				if (rowKeys == null) {
+					rowKeys = new ArrayList<>();
+					batchRowKeys.put(targetConn, rowKeys);
+				}
+				rowKeys.add(rowKey);
+			}
+
+			boolean flushed = true;
+			for (Map.Entry<JdbcDatabaseConnection, List<PendingRowKey>> batch : batchRowKeys.entrySet()) {
+				List<String> sqls = new ArrayList<>();
+				List<PendingRowKey> batchedRowKeys = new ArrayList<>();
+				boolean idempotent = true;
+				for (PendingRowKey rowKey : batch.getValue()) {
+					PendingRowUpdate pendingRow = flushingRows.get(rowKey);
+					String sql = buildSqlUpdateRow(rowKey, pendingRow);
+					if (sql == null) {
+						LOGGER.severe("Failed to build update of " + rowKey + ", buffered updates are dropped.");
+						flushed = false;
+						continue;
+					}
+					sqls.add(sql);
+					batchedRowKeys.add(rowKey);
+					idempotent &= pendingRow.fDeltas.isEmpty();
+				}
+				if (sqls.isEmpty()) {
+					continue;
+				}
+				if (batch.getKey().executeBatchQueryObjects(sqls, idempotent) == null) {
+					requeueFailedRows(batchedRowKeys, flushingRows,
+							JdbcDatabaseConnection.isLastBatchOutcomeUnknown());
+					flushed = false;
+				}
+			}
+			return flushed;
+		}
+	}
+
+	/**
+	 * Stop background flushes and write all pending rows. Updates are not
+	 * buffered after closing.
+	 */
+	@Override
+	public void close() {
+		fClosed = true;
+		if (fFlushScheduler != null) {
+			fFlushScheduler.shutdown();
+		}
+		flush();
+		OPEN_BUFFERS.remove(this);
+	}
+
+	private boolean validateBufferedUpdate(String tableName, String keyColumn) {
+		if (fClosed) {
+			LOGGER.severe("Failed to buffer update, write behind buffer is closed.");
+			return false;
+		}
+		if (tableName.trim().isEmpty() || keyColumn.trim().isEmpty()) {
+			LOGGER.severe("Failed to buffer update, table name or key column is missing.");
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Get pending updates of a row, callers hold fPendingLock.
+	 */
+	private PendingRowUpdate getPendingRow(PendingRowKey rowKey) {
+		PendingRowUpdate pendingRow = fPendingRows.get(rowKey);
+		if (pendingRow == null) {
+			pendingRow = new PendingRowUpdate();
+			fPendingRows.put(rowKey, pendingRow);
+		}
+		return pendingRow;
+	}
+
+	private void flushIfFull(int pendingRowAmount) {
+		if (pendingRowAmount >= fMaxPendingRows) {
+			flush();
+		}
+	}
+
+	/**
+	 * Put rows of a failed batch back, merged under updates buffered meanwhile.
+	 *
+	 * Rows with deltas are dropped if the batch failed after its commit was
+	 * sent, the deltas may have been applied and would be added twice.
+	 *
+	 * @param failedRowKeys
+	 * 			Keys of rows in the failed batch
+	 * @param flushingRows
+	 * 			Pending updates of flushed rows
+	 * @param outcomeUnknown
+	 * 			True if the failed batch may have been committed
+	 */
+	private void requeueFailedRows(List<PendingRowKey> failedRowKeys,
+			Map<PendingRowKey, PendingRowUpdate> flushingRows, boolean outcomeUnknown) {
+		synchronized (fPendingLock) {
+			for (PendingRowKey rowKey : failedRowKeys) {
+				PendingRowUpdate failedRow = flushingRows.get(rowKey);
+				if (outcomeUnknown && !failedRow.fDeltas.isEmpty()) {
+					LOGGER.severe("Failed to flush " + rowKey + ", the commit outcome is unknown and buffered deltas "
+							+ failedRow.fDeltas + " are dropped instead of being added twice.");
+					continue;
+				}
+				failedRow.fFailedFlushes++;
+				if (failedRow.fFailedFlushes >= MAX_FLUSH_FAILURES) {
+					LOGGER.severe("Failed to flush " + rowKey + " " + failedRow.fFailedFlushes
+							+ " times, buffered updates are dropped.");
+					continue;
+				}
+				PendingRowUpdate newerRow = fPendingRows.get(rowKey);
+				if (newerRow != null && !failedRow.mergeNewer(newerRow)) {
+					LOGGER.severe("Failed to merge " + rowKey
+							+ ", newer deltas are added to a non numeric value and dropped.");
+				}
+				fPendingRows.put(rowKey, failedRow);
+			}
+		}
+	}
+
+	/**
+	 * Get the JDBC connection a row is written through. On a sharded connection
+	 * rows addressed by the shard key column are written to the owning shard.
+	 */
+	private JdbcDatabaseConnection getTargetConnection(PendingRowKey rowKey) {
+		if (!(fJdbcDbConn instanceof JdbcDatabaseShardedConnection)) {
+			return fJdbcDbConn;
+		}
+		JdbcDatabaseShardedConnection shardedConn = (JdbcDatabaseShardedConnection) fJdbcDbConn;
+		String shardKeyColumn = shardedConn.getShardKeyColumn(rowKey.fTableName.trim());
+		if (shardKeyColumn == null
+				|| !stripQualifier(shardKeyColumn).equalsIgnoreCase(stripQualifier(rowKey.fKeyColumn))) {
+			return fJdbcDbConn;
+		}
+		JdbcDatabaseConnection shardConn = shardedConn.getShardConnection(rowKey.fKeyValue);
+		return shardConn == null ? fJdbcDbConn : shardConn;
+	}
+
+	private static String stripQualifier(String column) {
+		String strippedColumn = column.trim();
+		return strippedColumn.substring(strippedColumn.lastIndexOf('.') + 1);
+	}
+
+	/**
+	 * Build the UPDATE statement of a pending row through an UPDATE query object,
+	 * so values are quoted and validated like direct updates.
+	 *
+	 * <example>
+	 *  UPDATE table_name SET column1 = value1, column2 = column2 + delta2 WHERE key_column=key_value;
+	 * </example>
+	 *
+	 * @return SQL string, or NULL if the update is not valid.
+	 */
+	private String buildSqlUpdateRow(PendingRowKey rowKey, PendingRowUpdate pendingRow) {
+		List<QueryObjectTableColumnAndValue> updateItems = new ArrayList<>();
+		for (Map.Entry<String, Object> setValue : pendingRow.fSetValues.entrySet()) {
+			updateItems.add(new QueryObjectTableColumnAndValue(setValue.getKey(), setValue.getValue()));
+		}
+		for (Map.Entry<String, Number> delta : pendingRow.fDeltas.entrySet()) {
+			updateItems.add(new QueryObjectTableColumnAndValue(delta.getKey(),
+					new ColumnDelta(delta.getKey(), delta.getValue())));
+		}
+
+		QueryObjectUpdate update = new QueryObjectUpdate(fJdbcDbConn, Arrays.asList(rowKey.fTableName),
+				Arrays.asList(new QueryObjectTableCriteriaCondition(rowKey.fKeyColumn, rowKey.fKeyValue, "=", "")),
+				updateItems);
+		update.setRenderOnly(true);
+		update.updateColumnsWithValuesWhereConditions();
+		return update.getRenderedSql();
+	}
+
+	/**
+	 * Add two numbers, integral numbers as long while they do not overflow,
+	 * other numbers as BigDecimal.
+	 */
+	private static Number addNumbers(Number number0, Number number1) {
+		if (isIntegralNumber(number0) && isIntegralNumber(number1)) {
+			try {
+				return Math.addExact(number0.longValue(), number1.longValue());
+			} catch (ArithmeticException overflowException) {
+				/*
+				 * Fall back to BigDecimal
+				 */
+			}
+		}
+		return toDecimal(number0).add(toDecimal(number1));
+	}
+
+	private static boolean isIntegralNumber(Number number) {
+		return number instanceof Long || number instanceof Integer || number instanceof Short
+				|| number instanceof Byte;
+	}
+
+	/**
+	 * Convert a number into BigDecimal.
+	 *
+	 * @return BigDecimal, or NULL if the number is not finite.
+	 */
+	private static BigDecimal toDecimal(Number number) {
+		if (number instanceof BigDecimal) {
+			return (BigDecimal) number;
+		}
+		if (isIntegralNumber(number)) {
+			return BigDecimal.valueOf(number.longValue());
+		}
+		try {
+			return new BigDecimal(number.toString());
+		} catch (NumberFormatException notFiniteException) {
+			return null;
+		}
+	}
+
+	/**
+	 * Row addressed by table, key column and key value.
+	 */
+	private static final class PendingRowKey {
+		private final @NonNull String fTableName;
+		private final @NonNull String fKeyColumn;
+		private final @NonNull Object fKeyValue;
+
+		private PendingRowKey(String tableName, String keyColumn, Object keyValue) {
+			fTableName = tableName;
+			fKeyColumn = keyColumn;
+			fKeyValue = keyValue;
+		}
+
+		@Override
+		public boolean equals(Object object) {
+			if (!(object instanceof PendingRowKey)) {
+				return false;
+			}
+			PendingRowKey rowKey = (PendingRowKey) object;
+			return fTableName.equals(rowKey.fTableName) && fKeyColumn.equals(rowKey.fKeyColumn)
+					&& fKeyValue.equals(rowKey.fKeyValue);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(fTableName, fKeyColumn, fKeyValue);
+		}
+
+		@Override
+		public String toString() {
+			return "row " + fKeyColumn + "=" + fKeyValue + " of table " + fTableName;
+		}
+	}
+
+	/**
+	 * Coalesced updates of one row. A column has either a set value or a delta.
+	 */
+	private static final class PendingRowUpdate {
+		private final @NonNull LinkedHashMap<String, Object> fSetValues = new LinkedHashMap<>();
+		private final @NonNull LinkedHashMap<String, Number> fDeltas = new LinkedHashMap<>();
+		private int fFailedFlushes = 0;
+
+		private void setValue(String column, Object value) {
+			fDeltas.remove(column);
+			fSetValues.put(column, value);
+		}
+
+		/**
+		 * Add a delta to a column, a pending numeric value of the column is
+		 * increased directly.
+		 *
+		 * @return False if the column has a pending non numeric value.
+		 */
+		private boolean addDelta(String column, Number delta) {
+			if (fSetValues.containsKey(column)) {
+				Object value = fSetValues.get(column);
+				if (!(value instanceof Number) || toDecimal((Number) value) == null) {
+					return false;
+				}
+				fSetValues.put(column, addNumbers((Number) value, delta));
+				return true;
+			}
+			Number pendingDelta = fDeltas.get(column);
+			fDeltas.put(column, pendingDelta == null ? delta : addNumbers(pendingDelta, delta));
+			return true;
+		}
+
+		/**
+		 * Apply updates buffered after this row on top of this row.
+		 *
+		 * @return False if a newer delta could not be applied.
+		 */
+		private boolean mergeNewer(PendingRowUpdate newerRow) {
+			boolean merged = true;
+			for (Map.Entry<String, Object> setValue : newerRow.fSetValues.entrySet()) {
+				setValue(setValue.getKey(), setValue.getValue());
+			}
+			for (Map.Entry<String, Number> delta : newerRow.fDeltas.entrySet()) {
+				merged &= addDelta(delta.getKey(), delta.getValue());
+			}
+			return merged;
+		}
+	}
+
+	/**
+	 * Update value adding a delta to the current column value, rendered without
+	 * quotes.
+	 *
+	 * <example>
+	 *  Hits + 317
+	 * </example>
+	 */
+	private static final class ColumnDelta {
+		private final @NonNull String fColumn;
+		private final @NonNull Number fDelta;
+
+		private ColumnDelta(String column, Number delta) {
+			fColumn = column;
+			fDelta = delta;
+		}
+
+		@Override
+		public String toString() {
+			String delta = fDelta instanceof BigDecimal ? ((BigDecimal) fDelta).toPlainString() : fDelta.toString();
+			return fColumn + " + " + delta;
+		}
+	}
+}